@@ -10,6 +10,7 @@ import com.bytz.modules.cms.payment.domain.model.PaymentTransactionEntity;
 import com.bytz.modules.cms.payment.domain.model.RefundAggregate;
 import com.bytz.modules.cms.payment.domain.model.RefundTransactionEntity;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentPO;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentSettlementDailyPO;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.ReportingPolicy;
@@ -55,6 +56,18 @@ public interface PaymentAssembler {
      */
     List<PaymentTransactionVO> toTransactionVOList(List<PaymentTransactionEntity> transactions);
 
+    /**
+     * PaymentTransactionListVO转换为PaymentTransactionListExcel（导出时逐行转换）
+     */
+    PaymentTransactionListExcel toExcel(PaymentTransactionListVO listVO);
+
+    // ==================== Settlement -> VO ====================
+
+    /**
+     * PaymentSettlementDailyPO转换为PaymentSettlementDailyVO
+     */
+    PaymentSettlementDailyVO toSettlementVO(PaymentSettlementDailyPO settlementPO);
+
     // ==================== Refund -> VO ====================
 
     /**
@@ -0,0 +1,52 @@
+package com.bytz.modules.cms.payment.application.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 回调收件箱指标VO
+ * Callback Intake Metrics Value Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CallbackIntakeMetricsVO {
+
+    /**
+     * 队列深度（待处理+处理中）
+     */
+    private Long queueDepth;
+
+    /**
+     * 队列延迟（毫秒，最早一条待处理回调距今时长）
+     */
+    private Long lagMillis;
+
+    /**
+     * 已接收回调数（本节点启动以来）
+     */
+    private Long acceptedCount;
+
+    /**
+     * 重复回调丢弃数（本节点启动以来）
+     */
+    private Long duplicateCount;
+
+    /**
+     * 处理成功数（本节点启动以来）
+     */
+    private Long processedCount;
+
+    /**
+     * 处理失败重试数（本节点启动以来）
+     */
+    private Long retryCount;
+
+    /**
+     * 最终失败数（本节点启动以来）
+     */
+    private Long failedCount;
+}
@@ -44,4 +44,9 @@ public class ExecutePaymentRO {
      * 过期时间（可选）
      */
     private LocalDateTime expirationTime;
+
+    /**
+     * 客户端请求键（可选），超时重试时携带同一请求键，返回首次请求的结果
+     */
+    private String requestKey;
 }
\ No newline at end of file
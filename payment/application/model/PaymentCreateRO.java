@@ -75,4 +75,9 @@ public class PaymentCreateRO {
      * 业务到期日（可选）
      */
     private LocalDate businessExpireDate;
+
+    /**
+     * 客户端请求键（可选），超时重试时携带同一请求键，返回首次请求的结果
+     */
+    private String requestKey;
 }
\ No newline at end of file
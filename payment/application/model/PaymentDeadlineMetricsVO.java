@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.application.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 支付截止时间调度指标VO
+ * Payment Deadline Metrics Value Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentDeadlineMetricsVO {
+
+    /**
+     * 时间轮中等待到期的支付单数
+     */
+    private Integer pendingCount;
+
+    /**
+     * 本节点最近一次加载的截止时间上界（未在本节点加载时为空）
+     */
+    private LocalDateTime loadedUntil;
+
+    /**
+     * 到期触发数（本节点启动以来）
+     */
+    private Long firedCount;
+
+    /**
+     * 自动关闭数（本节点启动以来）
+     */
+    private Long closedCount;
+
+    /**
+     * 关闭失败数（本节点启动以来，逾期补齐时重试）
+     */
+    private Long failedCount;
+}
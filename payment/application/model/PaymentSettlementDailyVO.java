@@ -0,0 +1,56 @@
+package com.bytz.modules.cms.payment.application.model;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 日结算汇总VO
+ * Payment Settlement Daily Value Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSettlementDailyVO {
+
+    /**
+     * 结算日
+     */
+    private LocalDate settleDate;
+
+    /**
+     * 支付渠道（全日合计时为空）
+     */
+    private PaymentChannel paymentChannel;
+
+    /**
+     * 经销商ID（全日合计时为空）
+     */
+    private String resellerId;
+
+    /**
+     * 支付成功笔数
+     */
+    private Long paymentCount;
+
+    /**
+     * 支付成功金额
+     */
+    private BigDecimal paymentAmount;
+
+    /**
+     * 退款成功笔数
+     */
+    private Long refundCount;
+
+    /**
+     * 退款成功金额
+     */
+    private BigDecimal refundAmount;
+}
@@ -0,0 +1,40 @@
+package com.bytz.modules.cms.payment.application.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 日结算汇总校验结果VO
+ * Payment Settlement Verify Value Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentSettlementVerifyVO {
+
+    /**
+     * 结算日
+     */
+    private LocalDate settleDate;
+
+    /**
+     * 汇总与原始流水是否一致
+     */
+    private Boolean consistent;
+
+    /**
+     * 按原始流水重算的不一致行（渠道+经销商维度）
+     */
+    private List<PaymentSettlementDailyVO> expectedRows;
+
+    /**
+     * 汇总表中对应的不一致行（渠道+经销商维度）
+     */
+    private List<PaymentSettlementDailyVO> actualRows;
+}
@@ -0,0 +1,38 @@
+package com.bytz.modules.cms.payment.application.model;
+
+import com.alibaba.excel.annotation.ExcelProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 渠道对账差异报告行
+ * Reconciliation Diff Excel Row
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationDiffExcel {
+
+    @ExcelProperty("差异类型")
+    private String diffType;
+
+    @ExcelProperty("渠道交易记录ID")
+    private String channelTransactionId;
+
+    @ExcelProperty("渠道金额")
+    private BigDecimal channelAmount;
+
+    @ExcelProperty("本地金额")
+    private BigDecimal localAmount;
+
+    @ExcelProperty("渠道状态")
+    private String channelStatus;
+
+    @ExcelProperty("本地状态")
+    private String localStatus;
+}
@@ -0,0 +1,80 @@
+package com.bytz.modules.cms.payment.application.model;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 渠道对账结果VO
+ * Reconciliation Result Value Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReconciliationResultVO {
+
+    /**
+     * 支付渠道
+     */
+    private PaymentChannel paymentChannel;
+
+    /**
+     * 对账日期
+     */
+    private LocalDate reconcileDate;
+
+    /**
+     * 对账单记录数
+     */
+    private Long statementCount;
+
+    /**
+     * 本地流水数
+     */
+    private Long localCount;
+
+    /**
+     * 一致记录数
+     */
+    private Long matchedCount;
+
+    /**
+     * 本地缺失数
+     */
+    private Long missingLocalCount;
+
+    /**
+     * 渠道缺失数
+     */
+    private Long missingChannelCount;
+
+    /**
+     * 金额不一致数
+     */
+    private Long amountMismatchCount;
+
+    /**
+     * 状态不一致数
+     */
+    private Long statusMismatchCount;
+
+    /**
+     * 差异报告文件路径
+     */
+    private String reportFile;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private Long elapsedMillis;
+
+    /**
+     * 失败原因，对账成功时为空
+     */
+    private String errorMessage;
+}
@@ -0,0 +1,50 @@
+package com.bytz.modules.cms.payment.application.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * 已退款金额一致性校验结果VO
+ * Refund Balance Check Value Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefundBalanceCheckVO {
+
+    /**
+     * 原支付单ID
+     */
+    private String paymentId;
+
+    /**
+     * 计数列与原始退款流水是否一致
+     */
+    private Boolean consistent;
+
+    /**
+     * 支付单记录的已退款金额
+     */
+    private BigDecimal recordedRefundedAmount;
+
+    /**
+     * 按原始退款流水重算的已退款金额
+     */
+    private BigDecimal expectedRefundedAmount;
+
+    /**
+     * 已退款金额不一致的原流水ID
+     */
+    private List<String> inconsistentTransactionIds;
+
+    /**
+     * 是否已修复
+     */
+    private Boolean repaired;
+}
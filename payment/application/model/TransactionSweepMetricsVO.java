@@ -0,0 +1,69 @@
+package com.bytz.modules.cms.payment.application.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 进行中流水巡检指标VO
+ * Processing Transaction Sweep Metrics Value Object
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionSweepMetricsVO {
+
+    /**
+     * 巡检轮次（本节点启动以来）
+     */
+    private Long sweepCount;
+
+    /**
+     * 扫描到的超时进行中流水数（本节点启动以来）
+     */
+    private Long scannedCount;
+
+    /**
+     * 渠道查询次数（本节点启动以来）
+     */
+    private Long queriedCount;
+
+    /**
+     * 按查询结果回写（成功/失败）的流水数（本节点启动以来）
+     */
+    private Long resolvedCount;
+
+    /**
+     * 渠道仍在处理中的流水数（本节点启动以来）
+     */
+    private Long stillProcessingCount;
+
+    /**
+     * 重新派发的退款流水数（本节点启动以来）
+     */
+    private Long redispatchedCount;
+
+    /**
+     * 无法查询而跳过的流水数（渠道不支持查询或缺少渠道交易ID，本节点启动以来）
+     */
+    private Long skippedCount;
+
+    /**
+     * 查询超时数（本节点启动以来）
+     */
+    private Long timeoutCount;
+
+    /**
+     * 查询或回写异常数（本节点启动以来）
+     */
+    private Long errorCount;
+
+    /**
+     * 最近一次巡检完成时间
+     */
+    private LocalDateTime lastSweepTime;
+}
@@ -0,0 +1,374 @@
+package com.bytz.modules.cms.payment.application.service;
+
+import cn.hutool.core.io.FileUtil;
+import com.bytz.modules.cms.payment.application.model.ReconciliationDiffExcel;
+import com.bytz.modules.cms.payment.application.model.ReconciliationResultVO;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.ReconciliationDiffType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.service.ChannelStatementRecord;
+import com.bytz.modules.cms.payment.domain.service.IChannelStatementParser;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionPO;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentTransactionMapper;
+import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import com.bytz.modules.cms.shared.excel.StreamingExcelWriter;
+import com.bytz.modules.cms.shared.sort.CloseableIterator;
+import com.bytz.modules.cms.shared.sort.ExternalMergeSorter;
+import com.bytz.modules.cms.shared.sort.LineCodec;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 渠道对账服务
+ * Channel Reconciliation Service
+ *
+ * <p>将某日渠道对账单与本地支付流水按渠道交易记录ID比对，输出差异报告</p>
+ * <p>流程：
+ * - 排序：对账单流式解析、本地流水流式查询，两侧分别外部归并排序，内存占用与行数无关
+ * - 比对：两个有序流归并连接，逐条分类为一致、本地缺失、渠道缺失、金额不一致、状态不一致
+ * - 报告：差异逐行写入Excel，每个渠道一个文件
+ * </p>
+ * <p>并行：各渠道之间、同一渠道的两侧排序之间并行执行，比对在两侧排序完成后执行</p>
+ * <p>口径：本地已完成流水按完成时间落日（与对账单、日账单一致），处理中流水按创建时间落日；合并支付的多笔流水共用一个渠道交易记录ID，按ID合并金额后与对账单的一行比对，状态须全部一致</p>
+ * <p>渠道侧非成功且本地缺失、本地失败且渠道缺失的记录不视为差异</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChannelReconciliationService {
+
+    private static final int RECONCILE_THREADS = 4;
+
+    /**
+     * 按完成时间落日时，创建时间向前回看的天数（限定create_time索引扫描范围）
+     * 按流水从创建到完成的最长时长取值，覆盖退款等到账周期较长的渠道交易
+     */
+    private static final int CREATE_TIME_LOOKBACK_DAYS = 30;
+    private static final String FIELD_SEPARATOR = "\t";
+    private static final String MIXED_LOCAL_STATUS = "多笔流水状态不一致";
+
+    private static final Comparator<ReconciliationRecord> BY_CHANNEL_TRANSACTION_ID =
+            Comparator.comparing(ReconciliationRecord::getChannelTransactionId);
+
+    private final PaymentTransactionMapper paymentTransactionMapper;
+    private final List<IChannelStatementParser> statementParsers;
+
+    private final Map<PaymentChannel, IChannelStatementParser> parserMap = new EnumMap<>(PaymentChannel.class);
+    private ThreadPoolExecutor executor;
+
+    @PostConstruct
+    public void init() {
+        statementParsers.forEach(parser -> parserMap.put(parser.getSupportedChannel(), parser));
+        AtomicInteger threadIndex = new AtomicInteger();
+        executor = new ThreadPoolExecutor(RECONCILE_THREADS, RECONCILE_THREADS, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "payment-reconcile-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        log.info("渠道对账服务已启动，支持渠道: {}", parserMap.keySet());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * 对账指定日期的各渠道对账单
+     * 单个渠道失败不影响其他渠道，失败原因记录在该渠道结果中
+     *
+     * @param reconcileDate  对账日期
+     * @param statementFiles 各渠道对账单文件
+     * @param reportDir      差异报告输出目录
+     * @return 各渠道对账结果
+     */
+    public List<ReconciliationResultVO> reconcile(LocalDate reconcileDate, Map<PaymentChannel, Path> statementFiles, Path reportDir) {
+        statementFiles.keySet().forEach(channel -> {
+            if (!parserMap.containsKey(channel)) {
+                throw new PaymentException(PaymentErrorCode.CHANNEL_NOT_SUPPORTED,
+                        "支付渠道不支持对账: " + channel.getDescription());
+            }
+        });
+
+        Path workDir;
+        try {
+            Files.createDirectories(reportDir);
+            workDir = Files.createTempDirectory("payment-reconcile-");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            Map<PaymentChannel, CompletableFuture<ReconciliationResultVO>> futures = new EnumMap<>(PaymentChannel.class);
+            statementFiles.forEach((channel, statementFile) -> {
+                CompletableFuture<ExternalMergeSorter<ReconciliationRecord>> statementSorted = CompletableFuture.supplyAsync(
+                        () -> sortStatement(channel, statementFile, workDir), executor);
+                CompletableFuture<ExternalMergeSorter<ReconciliationRecord>> localSorted = CompletableFuture.supplyAsync(
+                        () -> sortLocal(channel, reconcileDate, workDir), executor);
+                long startNanos = System.nanoTime();
+                futures.put(channel, statementSorted
+                        .thenCombineAsync(localSorted, (statement, local) ->
+                                compareAndReport(channel, reconcileDate, statement, local, reportDir), executor)
+                        .handle((result, e) -> {
+                            ReconciliationResultVO vo = result != null ? result : ReconciliationResultVO.builder()
+                                    .paymentChannel(channel)
+                                    .reconcileDate(reconcileDate)
+                                    .errorMessage(e.getCause() != null ? e.getCause().getMessage() : e.getMessage())
+                                    .build();
+                            vo.setElapsedMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+                            if (e != null) {
+                                log.error("渠道对账失败，渠道: {}, 日期: {}", channel, reconcileDate, e);
+                            }
+                            return vo;
+                        }));
+            });
+
+            List<ReconciliationResultVO> results = new ArrayList<>(futures.size());
+            futures.values().forEach(future -> results.add(future.join()));
+            return results;
+        } finally {
+            // 失败渠道未关闭的排序段文件随工作目录一并删除
+            FileUtil.del(workDir.toFile());
+        }
+    }
+
+    private ExternalMergeSorter<ReconciliationRecord> sortStatement(PaymentChannel channel, Path statementFile, Path workDir) {
+        ExternalMergeSorter<ReconciliationRecord> sorter = newSorter(workDir, channel.getCode() + "-statement-");
+        try (CloseableIterator<ChannelStatementRecord> records = parserMap.get(channel).parse(statementFile)) {
+            while (records.hasNext()) {
+                ChannelStatementRecord record = records.next();
+                sorter.add(new ReconciliationRecord(record.getChannelTransactionId(), record.getAmount(), record.getStatus()));
+            }
+        } catch (RuntimeException e) {
+            sorter.close();
+            throw e;
+        }
+        log.debug("对账单排序数据已写入，渠道: {}, 记录数: {}", channel, sorter.getCount());
+        return sorter;
+    }
+
+    private ExternalMergeSorter<ReconciliationRecord> sortLocal(PaymentChannel channel, LocalDate reconcileDate, Path workDir) {
+        ExternalMergeSorter<ReconciliationRecord> sorter = newSorter(workDir, channel.getCode() + "-local-");
+        LocalDateTime startTime = reconcileDate.atStartOfDay();
+        LocalDateTime endTime = reconcileDate.plusDays(1).atStartOfDay();
+        LocalDateTime createdFrom = startTime.minusDays(CREATE_TIME_LOOKBACK_DAYS);
+        try {
+            paymentTransactionMapper.streamReconciliationRecords(channel.getCode(), createdFrom, startTime, endTime, context -> {
+                PaymentTransactionPO po = context.getResultObject();
+                sorter.add(new ReconciliationRecord(po.getChannelTransactionId(), po.getTransactionAmount(), po.getTransactionStatus()));
+            });
+        } catch (RuntimeException e) {
+            sorter.close();
+            throw e;
+        }
+        log.debug("本地流水排序数据已写入，渠道: {}, 记录数: {}", channel, sorter.getCount());
+        return sorter;
+    }
+
+    /**
+     * 归并连接两个有序流并写出差异报告
+     * 本地流按渠道交易记录ID合并后参与比对
+     */
+    private ReconciliationResultVO compareAndReport(PaymentChannel channel, LocalDate reconcileDate,
+                                                    ExternalMergeSorter<ReconciliationRecord> statementSorter,
+                                                    ExternalMergeSorter<ReconciliationRecord> localSorter,
+                                                    Path reportDir) {
+        Path reportFile = reportDir.resolve(reportFileName(channel, reconcileDate));
+        long[] diffCounts = new long[ReconciliationDiffType.values().length];
+        long matched = 0;
+
+        try (ExternalMergeSorter<ReconciliationRecord> statementOwner = statementSorter;
+             ExternalMergeSorter<ReconciliationRecord> localOwner = localSorter;
+             CloseableIterator<ReconciliationRecord> statementIt = statementOwner.sorted();
+             CloseableIterator<ReconciliationRecord> localSorted = localOwner.sorted();
+             OutputStream outputStream = Files.newOutputStream(reportFile);
+             StreamingExcelWriter<ReconciliationDiffExcel> writer = new StreamingExcelWriter<>(
+                     outputStream, channel.getDescription() + "对账差异", ReconciliationDiffExcel.class)) {
+
+            LocalGroupIterator localIt = new LocalGroupIterator(localSorted);
+            ReconciliationRecord statement = nextOrNull(statementIt);
+            ReconciliationRecord local = localIt.next();
+            while (statement != null || local != null) {
+                int cmp = statement == null ? 1
+                        : local == null ? -1
+                        : BY_CHANNEL_TRANSACTION_ID.compare(statement, local);
+                if (cmp < 0) {
+                    if (statement.getStatus() == TransactionStatus.SUCCESS) {
+                        writeDiff(writer, diffCounts, ReconciliationDiffType.MISSING_LOCAL, statement, null);
+                    }
+                    statement = nextOrNull(statementIt);
+                } else if (cmp > 0) {
+                    if (local.getStatus() != TransactionStatus.FAILED) {
+                        writeDiff(writer, diffCounts, ReconciliationDiffType.MISSING_CHANNEL, null, local);
+                    }
+                    local = localIt.next();
+                } else {
+                    boolean amountMatched = statement.getAmount().compareTo(local.getAmount()) == 0;
+                    boolean statusMatched = statement.getStatus() == local.getStatus();
+                    if (!amountMatched) {
+                        writeDiff(writer, diffCounts, ReconciliationDiffType.AMOUNT_MISMATCH, statement, local);
+                    }
+                    if (!statusMatched) {
+                        writeDiff(writer, diffCounts, ReconciliationDiffType.STATUS_MISMATCH, statement, local);
+                    }
+                    if (amountMatched && statusMatched) {
+                        matched++;
+                    }
+                    statement = nextOrNull(statementIt);
+                    local = localIt.next();
+                }
+            }
+            log.info("渠道对账完成，渠道: {}, 日期: {}, 对账单: {}, 本地: {}, 一致: {}, 差异: {}",
+                    channel, reconcileDate, statementOwner.getCount(), localOwner.getCount(), matched, writer.getRowCount());
+
+            return ReconciliationResultVO.builder()
+                    .paymentChannel(channel)
+                    .reconcileDate(reconcileDate)
+                    .statementCount(statementOwner.getCount())
+                    .localCount(localOwner.getCount())
+                    .matchedCount(matched)
+                    .missingLocalCount(diffCounts[ReconciliationDiffType.MISSING_LOCAL.ordinal()])
+                    .missingChannelCount(diffCounts[ReconciliationDiffType.MISSING_CHANNEL.ordinal()])
+                    .amountMismatchCount(diffCounts[ReconciliationDiffType.AMOUNT_MISMATCH.ordinal()])
+                    .statusMismatchCount(diffCounts[ReconciliationDiffType.STATUS_MISMATCH.ordinal()])
+                    .reportFile(reportFile.toString())
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 差异报告文件名
+     *
+     * @param channel       支付渠道
+     * @param reconcileDate 对账日期
+     * @return 报告文件名
+     */
+    public static String reportFileName(PaymentChannel channel, LocalDate reconcileDate) {
+        return String.format("reconciliation-%s-%s.xlsx", channel.getCode(), reconcileDate);
+    }
+
+    private void writeDiff(StreamingExcelWriter<ReconciliationDiffExcel> writer, long[] diffCounts, ReconciliationDiffType diffType,
+                           ReconciliationRecord statement, ReconciliationRecord local) {
+        diffCounts[diffType.ordinal()]++;
+        writer.write(ReconciliationDiffExcel.builder()
+                .diffType(diffType.getDescription())
+                .channelTransactionId(statement != null ? statement.getChannelTransactionId() : local.getChannelTransactionId())
+                .channelAmount(statement != null ? statement.getAmount() : null)
+                .localAmount(local != null ? local.getAmount() : null)
+                .channelStatus(statement != null ? statement.getStatus().getDescription() : null)
+                .localStatus(local == null ? null
+                        : local.getStatus() != null ? local.getStatus().getDescription() : MIXED_LOCAL_STATUS)
+                .build());
+    }
+
+    private static ExternalMergeSorter<ReconciliationRecord> newSorter(Path workDir, String prefix) {
+        return new ExternalMergeSorter<>(BY_CHANNEL_TRANSACTION_ID, ReconciliationRecord.CODEC, workDir, prefix);
+    }
+
+    private static ReconciliationRecord nextOrNull(CloseableIterator<ReconciliationRecord> iterator) {
+        return iterator.hasNext() ? iterator.next() : null;
+    }
+
+    /**
+     * 按渠道交易记录ID合并本地有序流
+     * 合并支付的多笔流水共用一个渠道交易记录ID，对账单只有一行合计：金额求和，状态不一致时合并记录状态为null
+     */
+    private static final class LocalGroupIterator {
+
+        private final CloseableIterator<ReconciliationRecord> iterator;
+        private ReconciliationRecord pending;
+
+        private LocalGroupIterator(CloseableIterator<ReconciliationRecord> iterator) {
+            this.iterator = iterator;
+            this.pending = nextOrNull(iterator);
+        }
+
+        private ReconciliationRecord next() {
+            if (pending == null) {
+                return null;
+            }
+            String channelTransactionId = pending.getChannelTransactionId();
+            BigDecimal amount = pending.getAmount();
+            TransactionStatus status = pending.getStatus();
+            pending = nextOrNull(iterator);
+            while (pending != null && channelTransactionId.equals(pending.getChannelTransactionId())) {
+                amount = amount.add(pending.getAmount());
+                if (status != pending.getStatus()) {
+                    status = null;
+                }
+                pending = nextOrNull(iterator);
+            }
+            return new ReconciliationRecord(channelTransactionId, amount, status);
+        }
+    }
+
+    /**
+     * 对账比对记录：两侧统一为 渠道交易记录ID、金额、状态 三列，落盘时以制表符分隔
+     */
+    private static final class ReconciliationRecord {
+
+        private static final LineCodec<ReconciliationRecord> CODEC = new LineCodec<ReconciliationRecord>() {
+            @Override
+            public String encode(ReconciliationRecord record) {
+                return record.channelTransactionId + FIELD_SEPARATOR + record.amount.toPlainString() + FIELD_SEPARATOR + record.status.name();
+            }
+
+            @Override
+            public ReconciliationRecord decode(String line) {
+                String[] fields = line.split(FIELD_SEPARATOR, -1);
+                return new ReconciliationRecord(fields[0], new BigDecimal(fields[1]), TransactionStatus.valueOf(fields[2]));
+            }
+        };
+
+        private final String channelTransactionId;
+        private final BigDecimal amount;
+        private final TransactionStatus status;
+
+        private ReconciliationRecord(String channelTransactionId, BigDecimal amount, TransactionStatus status) {
+            this.channelTransactionId = channelTransactionId;
+            this.amount = amount;
+            this.status = status;
+        }
+
+        private String getChannelTransactionId() {
+            return channelTransactionId;
+        }
+
+        private BigDecimal getAmount() {
+            return amount;
+        }
+
+        private TransactionStatus getStatus() {
+            return status;
+        }
+    }
+}
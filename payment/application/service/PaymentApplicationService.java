@@ -9,6 +9,9 @@ import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
 import com.bytz.modules.cms.payment.domain.model.PaymentTransactionEntity;
 import com.bytz.modules.cms.payment.domain.model.RefundAggregate;
 import com.bytz.modules.cms.payment.domain.model.RefundTransactionEntity;
+import com.bytz.modules.cms.payment.infrastructure.channel.RefundChannelDispatcher;
+import com.bytz.modules.cms.shared.idempotency.IdempotencyTemplate;
+import com.bytz.modules.cms.shared.lock.AggregateLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -36,6 +39,8 @@ public class PaymentApplicationService {
     private final PaymentAssembler paymentAssembler;
 
     private final RefundDomainService refundDomainService;
+    private final RefundChannelDispatcher refundChannelDispatcher;
+    private final IdempotencyTemplate idempotencyTemplate;
 
 
     /**
@@ -48,14 +53,17 @@ public class PaymentApplicationService {
     public PaymentVO createPayment(PaymentCreateRO ro) {
         log.info("创建支付单，订单号: {}", ro.getOrderId());
 
-        // RO -> Command
-        CreatePaymentCommand command = paymentAssembler.toCreateCommand(ro);
+        // 客户端超时重试时按请求键返回首次结果
+        return idempotencyTemplate.execute("payment.createPayment", ro.getRequestKey(), ro, PaymentVO.class, () -> {
+            // RO -> Command
+            CreatePaymentCommand command = paymentAssembler.toCreateCommand(ro);
 
-        // 调用领域服务
-        PaymentAggregate payment = paymentDomainService.createPayment(command);
+            // 调用领域服务
+            PaymentAggregate payment = paymentDomainService.createPayment(command);
 
-        // Aggregate -> VO
-        return paymentAssembler.toVO(payment);
+            // Aggregate -> VO
+            return paymentAssembler.toVO(payment);
+        });
     }
 
     /**
@@ -87,18 +95,22 @@ public class PaymentApplicationService {
      * @param ro 执行支付请求对象
      * @return 支付流水VO
      */
+    @AggregateLock(keys = "'payment:' + #ro.paymentId")
     @Transactional(rollbackFor = Exception.class)
     public PaymentTransactionVO executePayment(ExecutePaymentRO ro) {
         log.info("执行支付，支付单ID: {}", ro.getPaymentId());
 
-        // RO -> Command
-        CreateTransactionCommand command = paymentAssembler.toCreateTransactionCommand(ro);
+        // 客户端超时重试时按请求键返回首次结果
+        return idempotencyTemplate.execute("payment.executePayment", ro.getRequestKey(), ro, PaymentTransactionVO.class, () -> {
+            // RO -> Command
+            CreateTransactionCommand command = paymentAssembler.toCreateTransactionCommand(ro);
 
-        // 调用领域服务
-        PaymentTransactionEntity transaction = paymentDomainService.executePayment(command);
+            // 调用领域服务
+            PaymentTransactionEntity transaction = paymentDomainService.executePayment(command);
 
-        // Entity -> VO
-        return paymentAssembler.toVO(transaction);
+            // Entity -> VO
+            return paymentAssembler.toVO(transaction);
+        });
     }
 
     /**
@@ -156,10 +168,12 @@ public class PaymentApplicationService {
     /**
      * 执行退款（创建退款流水）
      * 在退款支付单创建后，由渠道调用创建退款流水
+     * 流水以PROCESSING落库，事务提交后异步派发渠道调用，结果通过流水状态查询
      *
      * @param ro 执行退款请求对象
-     * @return 退款流水VO
+     * @return 退款流水VO（PROCESSING）
      */
+    @AggregateLock(keys = "'payment:' + #ro.refundPaymentId")
     @Transactional(rollbackFor = Exception.class)
     public PaymentTransactionVO executeRefund(ExecuteRefundRO ro) {
         log.info("执行退款，退款支付单ID: {}, 原流水ID: {}", ro.getRefundPaymentId(), ro.getOriginalTransactionId());
@@ -177,6 +191,9 @@ public class PaymentApplicationService {
         // 调用领域服务
         RefundTransactionEntity refundTransaction = refundDomainService.executeRefund(command);
 
+        // 事务提交后派发渠道调用，远程调用不占用数据库事务
+        refundChannelDispatcher.dispatchAfterCommit(refundTransaction.getId());
+
         // Entity -> VO
         return paymentAssembler.toRefundTransactionVO(refundTransaction);
     }
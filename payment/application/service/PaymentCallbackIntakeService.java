@@ -0,0 +1,404 @@
+package com.bytz.modules.cms.payment.application.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.AbstractLambdaWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.bytz.modules.cms.payment.application.model.CallbackIntakeMetricsVO;
+import com.bytz.modules.cms.payment.application.model.CompletePaymentRO;
+import com.bytz.modules.cms.payment.domain.enums.CallbackInboxStatus;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentCallbackInboxPO;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentCallbackInboxMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 支付回调收件箱服务
+ * Payment Callback Intake Service
+ *
+ * <p>渠道回调先落入本地收件箱表后立即应答，由工作线程池异步按微批领取；微批只合并领取与完成标记，业务处理仍逐条独立事务</p>
+ * <p>职责：
+ * - 回调接收：按paymentChannel+channelTransactionId唯一索引去重，重复回调直接丢弃；已FAILED的回调被渠道重发时重新入队
+ * - 批次领取：以领取令牌原子认领一批待处理回调，多节点之间互不重复
+ * - 触发：接收回调时唤醒本节点工作线程立即处理；到期重试、领取超时及唤醒遗漏的回调由PaymentCallbackDrainJob按Quartz集群调度排空
+ * - 回调处理：逐条调用PaymentApplicationService.handlePaymentComplete（每条独立事务），失败后指数退避重试
+ * - 结果回写：完成与失败标记均以领取令牌为条件，领取超时后被重新领取的回调不会被原工作线程覆盖
+ * - 指标：队列深度、队列延迟及接收/去重/处理/失败计数
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentCallbackIntakeService {
+
+    /**
+     * 每个微批领取的回调数量
+     */
+    private static final int BATCH_SIZE = 50;
+
+    /**
+     * 工作线程数量
+     */
+    private static final int WORKER_COUNT = 4;
+
+    /**
+     * 最大重试次数，超过后标记为FAILED
+     */
+    private static final int MAX_RETRY = 5;
+
+    /**
+     * 最大退避时间（秒）
+     */
+    private static final long MAX_BACKOFF_SECONDS = 300L;
+
+    /**
+     * 领取超时时间，超时仍处于PROCESSING的回调视为工作线程异常退出，可被重新领取
+     */
+    private static final Duration CLAIM_TIMEOUT = Duration.ofMinutes(5);
+
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final PaymentCallbackInboxMapper inboxMapper;
+    private final PaymentApplicationService paymentApplicationService;
+
+    private final LongAdder acceptedCount = new LongAdder();
+    private final LongAdder duplicateCount = new LongAdder();
+    private final LongAdder processedCount = new LongAdder();
+    private final LongAdder retryCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    /**
+     * 正在执行的排空任务数量，用于限制唤醒任务堆积
+     */
+    private final AtomicInteger activeDrains = new AtomicInteger();
+
+    private ExecutorService workerPool;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(WORKER_COUNT, runnable -> {
+            Thread thread = new Thread(runnable, "payment-callback-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("支付回调工作线程池已启动，线程数: {}", WORKER_COUNT);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (workerPool != null) {
+            workerPool.shutdown();
+            try {
+                if (!workerPool.awaitTermination(30, TimeUnit.SECONDS)) {
+                    workerPool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                workerPool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 接收支付完成回调
+     * 只做落库和去重，不在调用线程中处理业务
+     * 同一回调已因重试耗尽标记为FAILED时，以本次回调内容重置为PENDING重新处理，而不是当作重复丢弃
+     *
+     * @param ro 支付完成回调请求对象
+     * @return true表示新接收或重新入队，false表示重复回调已丢弃
+     */
+    public boolean accept(CompletePaymentRO ro) {
+        PaymentCallbackInboxPO po = PaymentCallbackInboxPO.builder()
+                .paymentChannel(ro.getPaymentChannel())
+                .channelTransactionId(ro.getChannelTransactionId())
+                .success(ro.getSuccess())
+                .channelResponse(ro.getChannelResponse())
+                .channelTransactionNumber(ro.getChannelTransactionNumber())
+                .completedTime(ro.getCompletedTime())
+                .inboxStatus(CallbackInboxStatus.PENDING)
+                .retryCount(0)
+                .build();
+        try {
+            inboxMapper.insert(po);
+        } catch (DuplicateKeyException e) {
+            if (requeueFailed(ro)) {
+                acceptedCount.increment();
+                log.info("已失败的支付回调被重新接收，重新入队，支付渠道: {}, 渠道交易记录ID: {}",
+                        ro.getPaymentChannel(), ro.getChannelTransactionId());
+                wakeUp();
+                return true;
+            }
+            duplicateCount.increment();
+            log.info("重复的支付回调已丢弃，支付渠道: {}, 渠道交易记录ID: {}",
+                    ro.getPaymentChannel(), ro.getChannelTransactionId());
+            return false;
+        }
+        acceptedCount.increment();
+        log.info("支付回调已接收，支付渠道: {}, 渠道交易记录ID: {}",
+                ro.getPaymentChannel(), ro.getChannelTransactionId());
+
+        // 有空闲线程时立即唤醒处理，否则等待下一次排空任务
+        wakeUp();
+        return true;
+    }
+
+    /**
+     * 将同一回调的FAILED记录重置为PENDING，清零重试次数
+     *
+     * @return true表示存在FAILED记录并已重置
+     */
+    private boolean requeueFailed(CompletePaymentRO ro) {
+        LambdaUpdateWrapper<PaymentCallbackInboxPO> requeueWrapper = new LambdaUpdateWrapper<>();
+        requeueWrapper.set(PaymentCallbackInboxPO::getInboxStatus, CallbackInboxStatus.PENDING)
+                .set(PaymentCallbackInboxPO::getSuccess, ro.getSuccess())
+                .set(PaymentCallbackInboxPO::getChannelResponse, ro.getChannelResponse())
+                .set(PaymentCallbackInboxPO::getChannelTransactionNumber, ro.getChannelTransactionNumber())
+                .set(PaymentCallbackInboxPO::getCompletedTime, ro.getCompletedTime())
+                .set(PaymentCallbackInboxPO::getRetryCount, 0)
+                .set(PaymentCallbackInboxPO::getNextRetryTime, null)
+                .set(PaymentCallbackInboxPO::getClaimToken, null)
+                .eq(PaymentCallbackInboxPO::getPaymentChannel, ro.getPaymentChannel())
+                .eq(PaymentCallbackInboxPO::getChannelTransactionId, ro.getChannelTransactionId())
+                .eq(PaymentCallbackInboxPO::getInboxStatus, CallbackInboxStatus.FAILED);
+        return inboxMapper.update(null, requeueWrapper) > 0;
+    }
+
+    /**
+     * 获取收件箱指标
+     *
+     * @return 指标VO
+     */
+    public CallbackIntakeMetricsVO getMetrics() {
+        LambdaQueryWrapper<PaymentCallbackInboxPO> depthWrapper = new LambdaQueryWrapper<>();
+        depthWrapper.in(PaymentCallbackInboxPO::getInboxStatus, CallbackInboxStatus.PENDING, CallbackInboxStatus.PROCESSING);
+        Long queueDepth = inboxMapper.selectCount(depthWrapper);
+
+        LambdaQueryWrapper<PaymentCallbackInboxPO> oldestWrapper = new LambdaQueryWrapper<>();
+        oldestWrapper.select(PaymentCallbackInboxPO::getCreateTime)
+                .in(PaymentCallbackInboxPO::getInboxStatus, CallbackInboxStatus.PENDING, CallbackInboxStatus.PROCESSING)
+                .orderByAsc(PaymentCallbackInboxPO::getCreateTime)
+                .last("limit 1");
+        PaymentCallbackInboxPO oldest = inboxMapper.selectOne(oldestWrapper);
+        long lagMillis = oldest == null || oldest.getCreateTime() == null
+                ? 0L
+                : Math.max(0L, Duration.between(oldest.getCreateTime(), LocalDateTime.now()).toMillis());
+
+        return CallbackIntakeMetricsVO.builder()
+                .queueDepth(queueDepth)
+                .lagMillis(lagMillis)
+                .acceptedCount(acceptedCount.sum())
+                .duplicateCount(duplicateCount.sum())
+                .processedCount(processedCount.sum())
+                .retryCount(retryCount.sum())
+                .failedCount(failedCount.sum())
+                .build();
+    }
+
+    /**
+     * 以全部工作线程并行排空收件箱，直到没有可领取的回调，由PaymentCallbackDrainJob调用
+     *
+     * @return 本次处理的回调数量
+     * @throws InterruptedException 等待排空时被中断
+     */
+    public int drainPending() throws InterruptedException {
+        List<Callable<Integer>> drains = Collections.nCopies(WORKER_COUNT, this::drain);
+        int handled = 0;
+        for (Future<Integer> future : workerPool.invokeAll(drains)) {
+            try {
+                handled += future.get();
+            } catch (ExecutionException e) {
+                log.error("支付回调排空异常", e.getCause());
+            }
+        }
+        return handled;
+    }
+
+    /**
+     * 唤醒一个工作线程立即排空队列
+     */
+    private void wakeUp() {
+        if (workerPool == null || workerPool.isShutdown()) {
+            return;
+        }
+        if (activeDrains.get() < WORKER_COUNT) {
+            workerPool.execute(this::drain);
+        }
+    }
+
+    /**
+     * 排空队列：循环领取并处理微批，直到没有待处理回调
+     * 领取或回写异常时结束本次排空，已领取的回调在领取超时后由下次排空重新领取
+     *
+     * @return 本次领取处理的回调数量
+     */
+    private int drain() {
+        activeDrains.incrementAndGet();
+        int handled = 0;
+        try {
+            List<PaymentCallbackInboxPO> batch = claimBatch();
+            while (!batch.isEmpty()) {
+                processBatch(batch);
+                handled += batch.size();
+                if (workerPool.isShutdown()) {
+                    break;
+                }
+                batch = claimBatch();
+            }
+        } catch (Exception e) {
+            log.error("支付回调工作线程处理异常", e);
+        } finally {
+            activeDrains.decrementAndGet();
+        }
+        return handled;
+    }
+
+    /**
+     * 领取一个微批
+     * 先查询候选ID，再以领取令牌条件更新，最后按令牌取回实际领取到的记录
+     */
+    private List<PaymentCallbackInboxPO> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime claimExpireTime = now.minus(CLAIM_TIMEOUT);
+
+        LambdaQueryWrapper<PaymentCallbackInboxPO> candidateWrapper = new LambdaQueryWrapper<>();
+        candidateWrapper.select(PaymentCallbackInboxPO::getId)
+                .and(claimable(now, claimExpireTime))
+                .orderByAsc(PaymentCallbackInboxPO::getCreateTime)
+                .last("limit " + BATCH_SIZE);
+        List<String> candidateIds = inboxMapper.selectList(candidateWrapper).stream()
+                .map(PaymentCallbackInboxPO::getId)
+                .collect(Collectors.toList());
+        if (candidateIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String claimToken = IdWorker.getIdStr();
+        LambdaUpdateWrapper<PaymentCallbackInboxPO> claimWrapper = new LambdaUpdateWrapper<>();
+        claimWrapper.set(PaymentCallbackInboxPO::getInboxStatus, CallbackInboxStatus.PROCESSING)
+                .set(PaymentCallbackInboxPO::getClaimToken, claimToken)
+                .set(PaymentCallbackInboxPO::getClaimTime, now)
+                .in(PaymentCallbackInboxPO::getId, candidateIds)
+                .and(claimable(now, claimExpireTime));
+        if (inboxMapper.update(null, claimWrapper) == 0) {
+            // 候选记录已被其他线程或节点领取
+            return Collections.emptyList();
+        }
+
+        LambdaQueryWrapper<PaymentCallbackInboxPO> claimedWrapper = new LambdaQueryWrapper<>();
+        claimedWrapper.eq(PaymentCallbackInboxPO::getClaimToken, claimToken)
+                .orderByAsc(PaymentCallbackInboxPO::getCreateTime);
+        return inboxMapper.selectList(claimedWrapper);
+    }
+
+    /**
+     * 可领取条件：已到重试时间的待处理回调，或处理中但领取已超时
+     */
+    private <W extends AbstractLambdaWrapper<PaymentCallbackInboxPO, W>> Consumer<W> claimable(
+            LocalDateTime now, LocalDateTime claimExpireTime) {
+        return w -> w.and(p -> p.eq(PaymentCallbackInboxPO::getInboxStatus, CallbackInboxStatus.PENDING)
+                        .and(r -> r.isNull(PaymentCallbackInboxPO::getNextRetryTime)
+                                .or().le(PaymentCallbackInboxPO::getNextRetryTime, now)))
+                .or(o -> o.eq(PaymentCallbackInboxPO::getInboxStatus, CallbackInboxStatus.PROCESSING)
+                        .lt(PaymentCallbackInboxPO::getClaimTime, claimExpireTime));
+    }
+
+    /**
+     * 处理一个微批
+     * 逐条在各自事务中处理，不合并业务事务；成功的记录在批次结束后以一条UPDATE统一标记为DONE
+     * 标记以领取令牌为条件：处理超过领取超时后已被其他线程重新领取的记录不再由本线程标记，由新的领取方处理（重复处理幂等）
+     */
+    private void processBatch(List<PaymentCallbackInboxPO> batch) {
+        log.debug("处理支付回调微批，数量: {}", batch.size());
+
+        List<String> doneIds = new ArrayList<>();
+        for (PaymentCallbackInboxPO po : batch) {
+            try {
+                paymentApplicationService.handlePaymentComplete(toCompletePaymentRO(po));
+                doneIds.add(po.getId());
+            } catch (Exception e) {
+                markFailure(po, e);
+            }
+        }
+
+        if (!doneIds.isEmpty()) {
+            LambdaUpdateWrapper<PaymentCallbackInboxPO> doneWrapper = new LambdaUpdateWrapper<>();
+            doneWrapper.set(PaymentCallbackInboxPO::getInboxStatus, CallbackInboxStatus.DONE)
+                    .set(PaymentCallbackInboxPO::getProcessedTime, LocalDateTime.now())
+                    .in(PaymentCallbackInboxPO::getId, doneIds)
+                    .eq(PaymentCallbackInboxPO::getClaimToken, batch.get(0).getClaimToken());
+            int updated = inboxMapper.update(null, doneWrapper);
+            processedCount.add(updated);
+            if (updated < doneIds.size()) {
+                log.warn("部分支付回调领取已超时并被重新领取，未标记完成，数量: {}", doneIds.size() - updated);
+            }
+        }
+    }
+
+    /**
+     * 记录处理失败：未超过最大重试次数时指数退避后退回PENDING，否则标记为FAILED
+     * 退避避免回调早于支付单提交到达时，重试次数在毫秒内耗尽
+     * 以领取令牌为条件，领取已超时并被重新领取的记录不回写
+     */
+    private void markFailure(PaymentCallbackInboxPO po, Exception e) {
+        int retried = (po.getRetryCount() == null ? 0 : po.getRetryCount()) + 1;
+        boolean exhausted = retried >= MAX_RETRY;
+        long backoffSeconds = Math.min(1L << Math.min(retried, 20), MAX_BACKOFF_SECONDS);
+
+        LambdaUpdateWrapper<PaymentCallbackInboxPO> failWrapper = new LambdaUpdateWrapper<>();
+        failWrapper.set(PaymentCallbackInboxPO::getInboxStatus,
+                        exhausted ? CallbackInboxStatus.FAILED : CallbackInboxStatus.PENDING)
+                .set(PaymentCallbackInboxPO::getRetryCount, retried)
+                .set(PaymentCallbackInboxPO::getNextRetryTime, LocalDateTime.now().plusSeconds(backoffSeconds))
+                .set(PaymentCallbackInboxPO::getLastError, StrUtil.maxLength(e.getMessage(), MAX_ERROR_LENGTH))
+                .eq(PaymentCallbackInboxPO::getId, po.getId())
+                .eq(PaymentCallbackInboxPO::getClaimToken, po.getClaimToken());
+        if (inboxMapper.update(null, failWrapper) == 0) {
+            log.warn("支付回调领取已超时并被重新领取，忽略本次失败，支付渠道: {}, 渠道交易记录ID: {}, 原因: {}",
+                    po.getPaymentChannel(), po.getChannelTransactionId(), e.getMessage());
+            return;
+        }
+
+        if (exhausted) {
+            failedCount.increment();
+            log.error("支付回调超过最大重试次数，需人工处理，支付渠道: {}, 渠道交易记录ID: {}",
+                    po.getPaymentChannel(), po.getChannelTransactionId(), e);
+        } else {
+            retryCount.increment();
+            log.warn("支付回调处理失败，{}秒后重试，支付渠道: {}, 渠道交易记录ID: {}, 第{}次, 原因: {}",
+                    backoffSeconds, po.getPaymentChannel(), po.getChannelTransactionId(), retried, e.getMessage());
+        }
+    }
+
+    private CompletePaymentRO toCompletePaymentRO(PaymentCallbackInboxPO po) {
+        return CompletePaymentRO.builder()
+                .paymentChannel(po.getPaymentChannel())
+                .channelTransactionId(po.getChannelTransactionId())
+                .success(po.getSuccess())
+                .channelResponse(po.getChannelResponse())
+                .channelTransactionNumber(po.getChannelTransactionNumber())
+                .completedTime(po.getCompletedTime())
+                .build();
+    }
+}
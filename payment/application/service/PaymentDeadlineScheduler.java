@@ -0,0 +1,234 @@
+package com.bytz.modules.cms.payment.application.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.bytz.modules.cms.payment.application.model.PaymentDeadlineMetricsVO;
+import com.bytz.modules.cms.payment.domain.PaymentDomainService;
+import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentPO;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
+import com.bytz.modules.cms.payment.shared.event.PaymentCreatedEvent;
+import com.bytz.modules.cms.shared.timer.HierarchicalTimingWheel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 支付截止时间调度服务
+ * Payment Deadline Scheduler
+ *
+ * <p>支付单到达paymentDeadline仍未完成时自动关闭（CANCELED/TERMINATED），并发布PaymentClosedEvent</p>
+ * <p>职责：
+ * - 时间轮：进程内分层时间轮登记截止时间，每秒推进一次，登记与到期均不扫描全表
+ * - 分片加载：支付表即持久化存储，由PaymentDeadlineLoadJob按Quartz集群调度在单个节点上执行，按索引idx_status_deadline
+ *   只加载上次加载上界之后、{@link #LOAD_HORIZON}窗口以内的一段截止时间，各节点时间轮互不重叠；窗口外的支付单不占内存
+ * - 逾期补齐：截止时间已过{@link #OVERDUE_RELOAD_GRACE}仍未关闭的支付单（持有节点重启、关闭失败）随每次加载重新登记
+ * - 新建登记：支付单创建事件由发件箱投递到单个节点，截止时间落在加载窗口内的直接登记到该节点
+ * - 批量关闭：到期支付单按批调用PaymentDomainService.closeExpiredPayments，整批冲突时逐单重试
+ * </p>
+ * <p>新建登记与分片加载在窗口边界可能登记同一支付单，重复关闭由状态复核与乐观锁排除</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentDeadlineScheduler {
+
+    private static final long TICK_MILLIS = 1_000L;
+    private static final int WHEEL_SIZE = 512;
+    private static final int WHEEL_LEVELS = 3;
+    private static final int LOAD_PAGE_SIZE = 1_000;
+    private static final int CLOSE_BATCH_SIZE = 100;
+
+    /**
+     * 加载窗口：截止时间不晚于当前时间加该时长的支付单进入时间轮，需大于加载任务的触发间隔
+     */
+    private static final Duration LOAD_HORIZON = Duration.ofMinutes(10);
+
+    /**
+     * 逾期补齐宽限：截止时间已过该时长仍可关闭的支付单重新登记
+     */
+    private static final Duration OVERDUE_RELOAD_GRACE = Duration.ofMinutes(1);
+
+    private final PaymentMapper paymentMapper;
+    private final PaymentDomainService paymentDomainService;
+
+    private final LongAdder firedCount = new LongAdder();
+    private final LongAdder closedCount = new LongAdder();
+    private final LongAdder failedCount = new LongAdder();
+
+    private HierarchicalTimingWheel<String> wheel;
+    private ScheduledExecutorService ticker;
+    private ScheduledExecutorService closer;
+
+    /**
+     * 本节点最近一次加载的截止时间上界（毫秒时间戳），未加载时为0
+     */
+    private volatile long loadedUntilMillis;
+
+    @PostConstruct
+    public void start() {
+        wheel = new HierarchicalTimingWheel<>(TICK_MILLIS, WHEEL_SIZE, WHEEL_LEVELS, System.currentTimeMillis());
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-deadline-ticker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        closer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-deadline-closer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(this::tick, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+        log.info("支付截止时间调度已启动，加载窗口: {}分钟", LOAD_HORIZON.toMinutes());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (ticker != null) {
+            ticker.shutdownNow();
+        }
+        if (closer != null) {
+            closer.shutdown();
+            try {
+                if (!closer.awaitTermination(30, TimeUnit.SECONDS)) {
+                    closer.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                closer.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 支付单创建后登记截止时间（截止时间在加载窗口外的由后续加载登记）
+     *
+     * @param event 支付单创建事件
+     */
+    public void onPaymentCreated(PaymentCreatedEvent event) {
+        if (event.getPaymentDeadline() == null || event.getPaymentType() == PaymentType.REFUND) {
+            return;
+        }
+        long deadlineMillis = toMillis(event.getPaymentDeadline());
+        if (deadlineMillis <= System.currentTimeMillis() + LOAD_HORIZON.toMillis()) {
+            wheel.schedule(event.getPaymentId(), deadlineMillis);
+        }
+    }
+
+    /**
+     * 获取调度指标
+     */
+    public PaymentDeadlineMetricsVO getMetrics() {
+        long loadedUntil = loadedUntilMillis;
+        return PaymentDeadlineMetricsVO.builder()
+                .pendingCount(wheel.size())
+                .loadedUntil(loadedUntil == 0L ? null : toLocalDateTime(loadedUntil))
+                .firedCount(firedCount.sum())
+                .closedCount(closedCount.sum())
+                .failedCount(failedCount.sum())
+                .build();
+    }
+
+    private void tick() {
+        try {
+            List<String> due = wheel.advance(System.currentTimeMillis());
+            if (!due.isEmpty()) {
+                firedCount.add(due.size());
+                closer.execute(() -> close(due));
+            }
+        } catch (Exception e) {
+            log.error("支付截止时间推进异常", e);
+        }
+    }
+
+    /**
+     * 加载一段截止时间到本节点时间轮，由PaymentDeadlineLoadJob调用
+     * 按(payment_deadline, id)游标分页加载截止时间在(loadedFrom, 当前时间+加载窗口]内，以及逾期超过宽限仍未关闭的可关闭支付单
+     *
+     * @param loadedFrom 上次加载的截止时间上界，首次加载为null（加载窗口内全部）
+     * @return 本次加载的截止时间上界，作为下次加载的起点
+     */
+    public LocalDateTime load(LocalDateTime loadedFrom) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime upper = now.plus(LOAD_HORIZON);
+        LocalDateTime overdueBefore = now.minus(OVERDUE_RELOAD_GRACE);
+        PaymentPO cursor = null;
+        int loaded = 0;
+        while (true) {
+            List<PaymentPO> page = selectDeadlinePage(loadedFrom, upper, overdueBefore, cursor);
+            for (PaymentPO po : page) {
+                if (wheel.schedule(po.getId(), toMillis(po.getPaymentDeadline()))) {
+                    loaded++;
+                }
+            }
+            if (page.size() < LOAD_PAGE_SIZE) {
+                break;
+            }
+            cursor = page.get(page.size() - 1);
+        }
+        loadedUntilMillis = toMillis(upper);
+        log.info("支付截止时间加载完成，登记数量: {}, 窗口: ({}, {}], 时间轮待到期: {}", loaded, loadedFrom, upper, wheel.size());
+        return upper;
+    }
+
+    private List<PaymentPO> selectDeadlinePage(LocalDateTime loadedFrom, LocalDateTime upper,
+                                               LocalDateTime overdueBefore, PaymentPO cursor) {
+        LambdaQueryWrapper<PaymentPO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(PaymentPO::getId, PaymentPO::getPaymentDeadline)
+                .in(PaymentPO::getPaymentStatus, PaymentStatus.UNPAID, PaymentStatus.PARTIAL_PAID, PaymentStatus.FAILED)
+                .le(PaymentPO::getPaymentDeadline, upper)
+                .and(loadedFrom != null, w -> w.gt(PaymentPO::getPaymentDeadline, loadedFrom)
+                        .or().le(PaymentPO::getPaymentDeadline, overdueBefore))
+                .ne(PaymentPO::getPaymentType, PaymentType.REFUND)
+                .and(cursor != null, w -> w.gt(PaymentPO::getPaymentDeadline, cursor.getPaymentDeadline())
+                        .or(c -> c.eq(PaymentPO::getPaymentDeadline, cursor.getPaymentDeadline())
+                                .gt(PaymentPO::getId, cursor.getId())))
+                .orderByAsc(PaymentPO::getPaymentDeadline)
+                .orderByAsc(PaymentPO::getId)
+                .last("limit " + LOAD_PAGE_SIZE);
+        return paymentMapper.selectList(wrapper);
+    }
+
+    private void close(List<String> paymentIds) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < paymentIds.size(); from += CLOSE_BATCH_SIZE) {
+            List<String> batch = paymentIds.subList(from, Math.min(from + CLOSE_BATCH_SIZE, paymentIds.size()));
+            try {
+                closedCount.add(paymentDomainService.closeExpiredPayments(batch, now).size());
+            } catch (Exception e) {
+                log.warn("批量关闭超时支付单失败，逐单重试，数量: {}, 原因: {}", batch.size(), e.getMessage());
+                batch.forEach(paymentId -> closeOne(paymentId, now));
+            }
+        }
+    }
+
+    private void closeOne(String paymentId, LocalDateTime now) {
+        try {
+            closedCount.add(paymentDomainService.closeExpiredPayments(Collections.singletonList(paymentId), now).size());
+        } catch (Exception e) {
+            failedCount.increment();
+            log.warn("关闭超时支付单失败，逾期补齐时重试，支付单ID: {}, 原因: {}", paymentId, e.getMessage());
+        }
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -1,14 +1,11 @@
 package com.bytz.modules.cms.payment.application.service;
 
-import cn.hutool.core.collection.CollectionUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.bytz.common.constant.CommonConstant;
 import com.bytz.common.system.query.MPJLambdaWrapperEx;
-import com.bytz.common.util.SecurityUtils;
-import com.bytz.modules.cms.order.constant.AdminAuthConstants;
 import com.bytz.modules.cms.order.entity.Order;
 import com.bytz.modules.cms.payment.application.assembler.PaymentAssembler;
 import com.bytz.modules.cms.payment.application.model.PaymentDetailVO;
@@ -24,16 +21,20 @@ import com.bytz.modules.cms.payment.infrastructure.entity.PaymentPO;
 import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
 import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
 import com.bytz.modules.cms.payment.shared.exception.PaymentException;
-import com.bytz.modules.cms.user.constants.CmsSysUserConstants;
-import com.bytz.modules.cms.user.service.ICmsSysUserService;
+import com.bytz.modules.cms.shared.cache.CacheStats;
+import com.bytz.modules.cms.shared.cache.LocalLoadingCache;
+import com.bytz.modules.cms.shared.datascope.SalesDataScopeResolver;
+import com.bytz.modules.cms.shared.pagination.SeekPage;
+import com.bytz.modules.cms.shared.pagination.SeekPageRequest;
+import com.bytz.modules.cms.shared.pagination.SeekPaginator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -42,6 +43,8 @@ import java.util.stream.Collectors;
  *
  * <p>处理所有读操作（CQRS中的Query端）</p>
  * <p>直接使用MyBatis-Plus进行查询，绕过领域层</p>
+ * <p>按ID/支付单号/订单ID的单据查询走本地读穿透缓存，由支付事件精确失效（PaymentQueryCacheListener），TTL兜底其他节点产生的变更</p>
+ * <p>缓存返回的VO为共享实例，调用方不得修改</p>
  */
 @Slf4j
 @Service
@@ -50,7 +53,40 @@ public class PaymentQueryService extends ServiceImpl<PaymentMapper, PaymentPO> {
 
     private final PaymentAssembler paymentAssembler;
     private final IPaymentTransactionRepository transactionRepository;
-    private final ICmsSysUserService sysUserService;
+    private final SalesDataScopeResolver salesDataScopeResolver;
+
+    private static final int CACHE_MAXIMUM_SIZE = 10_000;
+    private static final long CACHE_TTL_MILLIS = 10_000L;
+
+    /**
+     * 支付单缓存：paymentId → PaymentVO
+     */
+    private final LocalLoadingCache<String, PaymentVO> paymentCache =
+            new LocalLoadingCache<>("payment", CACHE_MAXIMUM_SIZE, CACHE_TTL_MILLIS);
+
+    /**
+     * 支付单号索引：code → paymentId（支付单号不可变，按容量淘汰）
+     */
+    private final LocalLoadingCache<String, String> codeIndexCache =
+            new LocalLoadingCache<>("paymentCode", CACHE_MAXIMUM_SIZE, Long.MAX_VALUE / 2);
+
+    /**
+     * 订单支付单缓存：orderId → PaymentVO列表
+     */
+    private final LocalLoadingCache<String, List<PaymentVO>> orderPaymentsCache =
+            new LocalLoadingCache<>("orderPayments", CACHE_MAXIMUM_SIZE, CACHE_TTL_MILLIS);
+
+    /**
+     * 支付单详情缓存：paymentId → PaymentDetailVO
+     */
+    private final LocalLoadingCache<String, PaymentDetailVO> detailCache =
+            new LocalLoadingCache<>("paymentDetail", CACHE_MAXIMUM_SIZE, CACHE_TTL_MILLIS);
+
+    /**
+     * 支付单列表游标分页
+     */
+    private final SeekPaginator<PaymentPO, PaymentListVo> paymentSeekPaginator =
+            new SeekPaginator<>("paymentList", PaymentPO::getCreateTime, PaymentPO::getId, PaymentListVo::getCreateTime, PaymentListVo::getId);
 
     /**
      * 根据ID查询支付单
@@ -61,12 +97,15 @@ public class PaymentQueryService extends ServiceImpl<PaymentMapper, PaymentPO> {
     public PaymentVO getById(String paymentId) {
         log.debug("根据ID查询支付单，paymentId: {}", paymentId);
 
-        PaymentPO po = getBaseMapper().selectById(paymentId);
-        if (po == null) {
+        PaymentVO payment = paymentCache.get(paymentId, id -> {
+            PaymentPO po = getBaseMapper().selectById(id);
+            return po == null ? null : paymentAssembler.toVO(po);
+        });
+        if (payment == null) {
             throw new PaymentException(PaymentErrorCode.PAYMENT_NOT_FOUND);
         }
 
-        return paymentAssembler.toVO(po);
+        return payment;
     }
 
     /**
@@ -78,15 +117,17 @@ public class PaymentQueryService extends ServiceImpl<PaymentMapper, PaymentPO> {
     public PaymentVO getByCode(String code) {
         log.debug("根据支付单号查询支付单，code: {}", code);
 
-        LambdaQueryWrapper<PaymentPO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentPO::getCode, code);
-
-        PaymentPO po = getBaseMapper().selectOne(wrapper);
-        if (po == null) {
+        String paymentId = codeIndexCache.get(code, c -> {
+            LambdaQueryWrapper<PaymentPO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.select(PaymentPO::getId).eq(PaymentPO::getCode, c);
+            PaymentPO po = getBaseMapper().selectOne(wrapper);
+            return po == null ? null : po.getId();
+        });
+        if (paymentId == null) {
             throw new PaymentException(PaymentErrorCode.PAYMENT_NOT_FOUND);
         }
 
-        return paymentAssembler.toVO(po);
+        return getById(paymentId);
     }
 
     /**
@@ -98,14 +139,16 @@ public class PaymentQueryService extends ServiceImpl<PaymentMapper, PaymentPO> {
     public List<PaymentVO> getByOrderId(String orderId) {
         log.debug("根据订单ID查询支付单列表，orderId: {}", orderId);
 
-        LambdaQueryWrapper<PaymentPO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentPO::getOrderId, orderId);
+        return orderPaymentsCache.get(orderId, id -> {
+            LambdaQueryWrapper<PaymentPO> wrapper = new LambdaQueryWrapper<>();
+            wrapper.eq(PaymentPO::getOrderId, id);
 
-        List<PaymentPO> pos = getBaseMapper().selectList(wrapper);
+            List<PaymentPO> pos = getBaseMapper().selectList(wrapper);
 
-        return pos.stream()
-                .map(po -> paymentAssembler.toVO(po))
-                .collect(Collectors.toList());
+            return pos.stream()
+                    .map(po -> paymentAssembler.toVO(po))
+                    .collect(Collectors.toList());
+        });
     }
 
     /**
@@ -165,6 +208,32 @@ public class PaymentQueryService extends ServiceImpl<PaymentMapper, PaymentPO> {
         return listVoPage;
     }
 
+    /**
+     * 游标分页查询支付单列表
+     * 按(create_time, id)定位下一页，翻页深度不影响查询耗时，总条数按需统计并缓存
+     *
+     * @param request      游标分页参数
+     * @param queryWrapper 查询条件
+     * @param isAdmin      是否管理端
+     * @return 游标分页支付单列表
+     */
+    public SeekPage<PaymentListVo> querySeekPaymentPage(SeekPageRequest request, MPJLambdaWrapperEx<PaymentPO> queryWrapper, Boolean isAdmin) {
+        log.debug("游标分页查询支付单列表，request: {}, queryWrapper: {}", request, queryWrapper);
+
+        buildWrapper(queryWrapper);
+        queryWrapper.orderByDesc(PaymentPO::getId);
+
+        buildAdminViewWrapper(queryWrapper, isAdmin);
+
+        SeekPage<PaymentListVo> seekPage = paymentSeekPaginator.query(request, queryWrapper,
+                wrapper -> getBaseMapper().selectJoinCount(wrapper),
+                wrapper -> getBaseMapper().selectJoinList(PaymentListVo.class, wrapper));
+
+        seekPage.getRecords().forEach(this::convertView);
+
+        return seekPage;
+    }
+
 
     private void convertView(PaymentListVo record) {
         // 类型为提货单并且业务id不为空
@@ -187,17 +256,42 @@ public class PaymentQueryService extends ServiceImpl<PaymentMapper, PaymentPO> {
     public PaymentDetailVO queryDetail(String paymentId) {
         log.debug("查询支付单详情，paymentId: {}", paymentId);
 
-        // 获取支付单信息
-        PaymentVO payment = getById(paymentId);
+        return detailCache.get(paymentId, id -> {
+            // 获取支付单信息
+            PaymentVO payment = getById(id);
 
-        // 获取流水记录
-        List<PaymentTransactionVO> transactions = getTransactionsByPaymentId(paymentId);
+            // 获取流水记录
+            List<PaymentTransactionVO> transactions = getTransactionsByPaymentId(id);
 
-        // 组合成详情VO
-        return PaymentDetailVO.builder()
-                .payment(payment)
-                .transactions(transactions)
-                .build();
+            // 组合成详情VO
+            return PaymentDetailVO.builder()
+                    .payment(payment)
+                    .transactions(transactions)
+                    .build();
+        });
+    }
+
+    /**
+     * 失效支付单相关缓存
+     * 由支付事件触发，支付单状态、金额、流水变更时调用
+     *
+     * @param paymentId 支付单ID
+     * @param orderId   订单ID（可为空）
+     */
+    public void evictPaymentCache(String paymentId, String orderId) {
+        paymentCache.invalidate(paymentId);
+        detailCache.invalidate(paymentId);
+        orderPaymentsCache.invalidate(orderId);
+    }
+
+    /**
+     * 获取缓存统计（命中/未命中/加载/淘汰）
+     *
+     * @return 各缓存统计
+     */
+    public List<CacheStats> getCacheStats() {
+        return Arrays.asList(paymentCache.stats(), codeIndexCache.stats(), orderPaymentsCache.stats(), detailCache.stats(),
+                paymentSeekPaginator.countCacheStats());
     }
 
     public List<PaymentListVo> queryPayList(String resellerCompanyId) {
@@ -228,24 +322,6 @@ public class PaymentQueryService extends ServiceImpl<PaymentMapper, PaymentPO> {
     private void buildAdminViewWrapper(MPJLambdaWrapperEx<PaymentPO> queryWrapper, Boolean isAdmin) {
         if (isAdmin)
             // 销售只能看到自己的订单，大区经理只能看到自己区域销售的订单
-            if (!SecurityUtils.hasAuthority(AdminAuthConstants.Order.VIEW_ALL)) {
-                boolean isRegionManager = SecurityUtils.hasRole(CmsSysUserConstants.RoleCode.REGION_SALES_MANAGER);
-                boolean isOrderManager = SecurityUtils.hasRole(CmsSysUserConstants.RoleCode.ORDER_MANAGER);
-                queryWrapper.and(wrapper -> {
-                    wrapper.eq(Order::getSalesId, SecurityUtils.getLoginUser().getId());
-                    if (isRegionManager) {
-                        List<String> salesIds = sysUserService.getSalesIdsByRegionManager(SecurityUtils.getLoginUser().getId());
-                        if (CollectionUtil.isNotEmpty(salesIds)) {
-                            wrapper.or().in(Order::getSalesId, salesIds);
-                        }
-                    }
-                    if (isOrderManager) {
-                        Set<String> salesIds = sysUserService.getSalesIdsByOM(SecurityUtils.getLoginUser().getId());
-                        if (CollectionUtil.isNotEmpty(salesIds)) {
-                            wrapper.or().in(Order::getSalesId, salesIds);
-                        }
-                    }
-                });
-            }
+            salesDataScopeResolver.apply(queryWrapper, Order::getSalesId);
     }
 }
\ No newline at end of file
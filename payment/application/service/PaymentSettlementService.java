@@ -0,0 +1,223 @@
+package com.bytz.modules.cms.payment.application.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.bytz.modules.cms.payment.application.assembler.PaymentAssembler;
+import com.bytz.modules.cms.payment.application.model.PaymentSettlementDailyVO;
+import com.bytz.modules.cms.payment.application.model.PaymentSettlementVerifyVO;
+import com.bytz.modules.cms.payment.domain.enums.PaymentType;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentSettlementAppliedPO;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentSettlementDailyPO;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentSettlementAppliedMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentSettlementDailyMapper;
+import com.bytz.modules.cms.payment.shared.event.PaymentExecutedEvent;
+import com.bytz.modules.cms.shared.mybatis.BatchSqlHelper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 日结算汇总服务
+ * Payment Settlement Service
+ *
+ * <p>增量维护：流水成功后由PaymentExecutedEvent按 结算日+渠道+经销商 累加笔数与金额，日结账单与看板合计直接读取汇总行</p>
+ * <p>去重：以流水ID登记已计入记录，与累加在同一事务内提交，事件重复投递不会重复累加</p>
+ * <p>重建/校验：按原始流水重算任意一天，校验只比对不修改，重建在同一事务内删除并重写当日汇总与登记记录</p>
+ * <p>口径：成功流水按完成时间落日，与日结账单一致；退款流水单独计入退款笔数与金额</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentSettlementService {
+
+    private final PaymentSettlementDailyMapper settlementDailyMapper;
+    private final PaymentSettlementAppliedMapper settlementAppliedMapper;
+    private final PaymentAssembler paymentAssembler;
+
+    /**
+     * 按支付已执行事件累加日结算汇总
+     * 仅累加成功流水，同一流水只累加一次
+     *
+     * @param event 支付已执行事件
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void applyExecutedEvent(PaymentExecutedEvent event) {
+        if (event.getTransactionStatus() != TransactionStatus.SUCCESS || event.getTransactionId() == null) {
+            return;
+        }
+        if (event.getExecutedTime() == null) {
+            log.warn("成功流水缺少完成时间，跳过日结算累加，流水ID: {}", event.getTransactionId());
+            return;
+        }
+
+        LocalDate settleDate = event.getExecutedTime().toLocalDate();
+        if (settlementAppliedMapper.insertIgnore(event.getTransactionId(), settleDate) == 0) {
+            log.debug("流水已计入日结算汇总，跳过，流水ID: {}", event.getTransactionId());
+            return;
+        }
+
+        boolean refund = event.getPaymentType() == PaymentType.REFUND;
+        BigDecimal amount = Optional.ofNullable(event.getTransactionAmount()).orElse(BigDecimal.ZERO);
+        PaymentSettlementDailyPO delta = PaymentSettlementDailyPO.builder()
+                .id(IdWorker.getIdStr())
+                .settleDate(settleDate)
+                .paymentChannel(event.getPaymentChannel())
+                .resellerId(StringUtils.defaultString(event.getResellerId()))
+                .paymentCount(refund ? 0L : 1L)
+                .paymentAmount(refund ? BigDecimal.ZERO : amount)
+                .refundCount(refund ? 1L : 0L)
+                .refundAmount(refund ? amount : BigDecimal.ZERO)
+                .build();
+        settlementDailyMapper.accumulate(delta);
+    }
+
+    /**
+     * 查询某日汇总（渠道+经销商维度）
+     *
+     * @param settleDate 结算日
+     * @return 汇总行列表
+     */
+    public List<PaymentSettlementDailyVO> queryDaily(LocalDate settleDate) {
+        return selectDaily(settleDate).stream()
+                .map(paymentAssembler::toSettlementVO)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * 查询某日合计
+     *
+     * @param settleDate 结算日
+     * @return 全日合计（渠道与经销商为空）
+     */
+    public PaymentSettlementDailyVO queryDailyTotal(LocalDate settleDate) {
+        PaymentSettlementDailyVO total = PaymentSettlementDailyVO.builder()
+                .settleDate(settleDate)
+                .paymentCount(0L)
+                .paymentAmount(BigDecimal.ZERO)
+                .refundCount(0L)
+                .refundAmount(BigDecimal.ZERO)
+                .build();
+        for (PaymentSettlementDailyPO row : selectDaily(settleDate)) {
+            total.setPaymentCount(total.getPaymentCount() + row.getPaymentCount());
+            total.setPaymentAmount(total.getPaymentAmount().add(row.getPaymentAmount()));
+            total.setRefundCount(total.getRefundCount() + row.getRefundCount());
+            total.setRefundAmount(total.getRefundAmount().add(row.getRefundAmount()));
+        }
+        return total;
+    }
+
+    /**
+     * 校验某日汇总与原始流水是否一致（只比对不修改）
+     *
+     * @param settleDate 结算日
+     * @return 校验结果
+     */
+    public PaymentSettlementVerifyVO verify(LocalDate settleDate) {
+        Map<String, PaymentSettlementDailyPO> expected = indexByKey(selectFromTransactions(settleDate));
+        Map<String, PaymentSettlementDailyPO> actual = indexByKey(selectDaily(settleDate));
+
+        Set<String> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        List<PaymentSettlementDailyVO> expectedRows = new ArrayList<>();
+        List<PaymentSettlementDailyVO> actualRows = new ArrayList<>();
+        for (String key : keys) {
+            PaymentSettlementDailyPO expectedRow = expected.get(key);
+            PaymentSettlementDailyPO actualRow = actual.get(key);
+            if (!sameTotals(expectedRow, actualRow)) {
+                Optional.ofNullable(expectedRow).map(paymentAssembler::toSettlementVO).ifPresent(expectedRows::add);
+                Optional.ofNullable(actualRow).map(paymentAssembler::toSettlementVO).ifPresent(actualRows::add);
+            }
+        }
+
+        boolean consistent = expectedRows.isEmpty() && actualRows.isEmpty();
+        if (!consistent) {
+            log.warn("日结算汇总与原始流水不一致，结算日: {}, 不一致维度数: {}", settleDate, Math.max(expectedRows.size(), actualRows.size()));
+        }
+        return PaymentSettlementVerifyVO.builder()
+                .settleDate(settleDate)
+                .consistent(consistent)
+                .expectedRows(expectedRows)
+                .actualRows(actualRows)
+                .build();
+    }
+
+    /**
+     * 按原始流水重建某日汇总
+     * 删除当日汇总与登记记录后按原始流水重写；删除持有的索引间隙锁会阻塞同日的增量累加直至重建提交，
+     * 之后到达的重复事件因登记记录已存在而被跳过
+     *
+     * @param settleDate 结算日
+     * @return 重建后的汇总行
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<PaymentSettlementDailyVO> rebuild(LocalDate settleDate) {
+        settlementDailyMapper.delete(new LambdaQueryWrapper<PaymentSettlementDailyPO>()
+                .eq(PaymentSettlementDailyPO::getSettleDate, settleDate));
+        settlementAppliedMapper.delete(new LambdaQueryWrapper<PaymentSettlementAppliedPO>()
+                .eq(PaymentSettlementAppliedPO::getSettleDate, settleDate));
+
+        List<PaymentSettlementDailyPO> rows = selectFromTransactions(settleDate);
+        BatchSqlHelper.insertBatch(PaymentSettlementDailyMapper.class, rows);
+        int applied = settlementAppliedMapper.insertFromTransactions(settleDate,
+                settleDate.atTime(LocalTime.MIN), settleDate.atTime(LocalTime.MAX));
+
+        log.info("日结算汇总重建完成，结算日: {}, 汇总行数: {}, 计入流水数: {}", settleDate, rows.size(), applied);
+        return rows.stream()
+                .map(paymentAssembler::toSettlementVO)
+                .collect(Collectors.toList());
+    }
+
+    private List<PaymentSettlementDailyPO> selectDaily(LocalDate settleDate) {
+        return settlementDailyMapper.selectList(new LambdaQueryWrapper<PaymentSettlementDailyPO>()
+                .eq(PaymentSettlementDailyPO::getSettleDate, settleDate));
+    }
+
+    private List<PaymentSettlementDailyPO> selectFromTransactions(LocalDate settleDate) {
+        LocalDateTime startTime = settleDate.atTime(LocalTime.MIN);
+        LocalDateTime endTime = settleDate.atTime(LocalTime.MAX);
+        List<PaymentSettlementDailyPO> rows = settlementDailyMapper.selectFromTransactions(startTime, endTime);
+        rows.forEach(row -> row.setSettleDate(settleDate));
+        return rows;
+    }
+
+    private static Map<String, PaymentSettlementDailyPO> indexByKey(List<PaymentSettlementDailyPO> rows) {
+        return rows.stream().collect(Collectors.toMap(
+                row -> row.getPaymentChannel() + "|" + StringUtils.defaultString(row.getResellerId()),
+                Function.identity(), (a, b) -> a, LinkedHashMap::new));
+    }
+
+    private static boolean sameTotals(PaymentSettlementDailyPO expected, PaymentSettlementDailyPO actual) {
+        if (expected == null || actual == null) {
+            // 一侧缺失时，另一侧全为0视为一致
+            PaymentSettlementDailyPO present = expected != null ? expected : actual;
+            return present == null || isZero(present);
+        }
+        return expected.getPaymentCount().equals(actual.getPaymentCount())
+                && expected.getPaymentAmount().compareTo(actual.getPaymentAmount()) == 0
+                && expected.getRefundCount().equals(actual.getRefundCount())
+                && expected.getRefundAmount().compareTo(actual.getRefundAmount()) == 0;
+    }
+
+    private static boolean isZero(PaymentSettlementDailyPO row) {
+        return row.getPaymentCount() == 0L && row.getRefundCount() == 0L
+                && row.getPaymentAmount().signum() == 0 && row.getRefundAmount().signum() == 0;
+    }
+}
@@ -1,6 +1,5 @@
 package com.bytz.modules.cms.payment.application.service;
 
-import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.date.LocalDateTimeUtil;
 import cn.hutool.core.io.FileUtil;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -9,9 +8,10 @@ import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.bytz.common.constant.BooleanConstant;
 import com.bytz.common.exception.BytzBootException;
 import com.bytz.common.system.query.MPJLambdaWrapperEx;
-import com.bytz.modules.cms.common.util.ExcelUtil;
 import com.bytz.modules.cms.order.constant.BillConstants;
 import com.bytz.modules.cms.order.entity.Order;
+import com.bytz.modules.cms.payment.application.assembler.PaymentAssembler;
+import com.bytz.modules.cms.payment.application.model.PaymentSettlementDailyVO;
 import com.bytz.modules.cms.payment.application.model.PaymentTransactionListExcel;
 import com.bytz.modules.cms.payment.application.model.PaymentTransactionListVO;
 import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
@@ -19,6 +19,11 @@ import com.bytz.modules.cms.payment.infrastructure.entity.PaymentPO;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionPO;
 import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentTransactionMapper;
 import com.bytz.modules.cms.reseller.entity.Reseller;
+import com.bytz.modules.cms.shared.datascope.SalesDataScopeResolver;
+import com.bytz.modules.cms.shared.excel.StreamingExcelWriter;
+import com.bytz.modules.cms.shared.pagination.SeekPage;
+import com.bytz.modules.cms.shared.pagination.SeekPageRequest;
+import com.bytz.modules.cms.shared.pagination.SeekPaginator;
 import com.bytz.modules.system.message.MsgSendService;
 import com.bytz.modules.system.message.build.BuildMessageContext;
 import com.bytz.modules.system.message.build.MessageBuild;
@@ -36,11 +41,12 @@ import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.Arrays;
-import java.util.List;
 
 /**
  * 支付流水查询服务
  * Payment Transaction Query Service
+ *
+ * <p>管理端列表与导出按登录人的销售数据范围过滤（SalesDataScopeResolver）</p>
  */
 
 @Slf4j
@@ -54,6 +60,19 @@ public class PaymentTransactionQueryService extends ServiceImpl<PaymentTransacti
     private MsgSendService msgSendService;
     @Autowired
     private BuildMessageContext buildMessageContext;
+    @Autowired
+    private PaymentAssembler paymentAssembler;
+    @Autowired
+    private PaymentSettlementService paymentSettlementService;
+    @Autowired
+    private SalesDataScopeResolver salesDataScopeResolver;
+
+    /**
+     * 支付流水列表游标分页
+     */
+    private final SeekPaginator<PaymentTransactionPO, PaymentTransactionListVO> transactionSeekPaginator =
+            new SeekPaginator<>("paymentTransactionList", PaymentTransactionPO::getCreateTime, PaymentTransactionPO::getId,
+                    PaymentTransactionListVO::getCreateTime, PaymentTransactionListVO::getId);
 
     /**
      * 分页查询支付流水列表
@@ -69,10 +88,34 @@ public class PaymentTransactionQueryService extends ServiceImpl<PaymentTransacti
             queryWrapper.in(PaymentTransactionPO::getTransactionStatus, Arrays.asList(turnoverStatus.split(",")));
         }
         buildWrapper(queryWrapper);
+        salesDataScopeResolver.apply(queryWrapper, Order::getSalesId);
 
         return this.baseMapper.selectJoinPage(page, PaymentTransactionListVO.class, queryWrapper);
     }
 
+    /**
+     * 游标分页查询支付流水列表
+     * 按(create_time, id)定位下一页，翻页深度不影响查询耗时，总条数按需统计并缓存
+     *
+     * @param request        游标分页参数
+     * @param queryWrapper   查询条件
+     * @param turnoverStatus 流水状态（逗号分隔）
+     * @return 游标分页支付流水列表
+     */
+    public SeekPage<PaymentTransactionListVO> querySeekTransactionPage(SeekPageRequest request, MPJLambdaWrapperEx<PaymentTransactionPO> queryWrapper, String turnoverStatus) {
+        log.debug("游标分页查询支付流水列表，request: {}, queryWrapper: {}", request, queryWrapper);
+
+        if (StringUtils.isNotBlank(turnoverStatus)) {
+            queryWrapper.in(PaymentTransactionPO::getTransactionStatus, Arrays.asList(turnoverStatus.split(",")));
+        }
+        buildWrapper(queryWrapper);
+        salesDataScopeResolver.apply(queryWrapper, Order::getSalesId);
+
+        return transactionSeekPaginator.query(request, queryWrapper,
+                wrapper -> this.baseMapper.selectJoinCount(wrapper),
+                wrapper -> this.baseMapper.selectJoinList(PaymentTransactionListVO.class, wrapper));
+    }
+
     /**
      * 构建查询条件
      *
@@ -134,22 +177,31 @@ public class PaymentTransactionQueryService extends ServiceImpl<PaymentTransacti
         LocalDateTime startTime = date.toLocalDate().atTime(LocalTime.MIN);
         LocalDateTime endTime = date.toLocalDate().atTime(LocalTime.MAX);
 
-        List<PaymentTransactionListVO> transactionListVoS = baseMapper.selectJoinList(PaymentTransactionListVO.class, queryWrapper
+        queryWrapper
                 .eq(PaymentTransactionPO::getTransactionStatus, TransactionStatus.SUCCESS)
-                .between(PaymentTransactionPO::getCompletedTime, startTime, endTime));
+                .between(PaymentTransactionPO::getCompletedTime, startTime, endTime);
 
-        log.debug("查询日结账单，date: {}, transactionListVoS: {}", date, transactionListVoS);
-        //转换成excel
-        List<PaymentTransactionListExcel> listExcels = BeanUtil.copyToList(transactionListVoS, PaymentTransactionListExcel.class);
         String strDate = LocalDateTimeUtil.format(date, "yyyy年MM月dd日");
         SmsFileModel smsFileModel = messageBuild.buildFile(String.format(BillConstants.Email.ATTACH_NAME, strDate));
         try {
-            ExcelUtil.exportToOutputStream(BillConstants.Email.ATTACH_SHEET_NAME, PaymentTransactionListExcel.class, listExcels, FileUtil.getOutputStream(smsFileModel.getFile()));
+            //流式写入附件文件
+            try (StreamingExcelWriter<PaymentTransactionListExcel> writer = new StreamingExcelWriter<>(
+                    FileUtil.getOutputStream(smsFileModel.getFile()), BillConstants.Email.ATTACH_SHEET_NAME, PaymentTransactionListExcel.class)) {
+                streamExcelRows(queryWrapper, writer);
+                log.debug("生成日结账单，date: {}, 行数: {}", date, writer.getRowCount());
+            }
+
+            //当日合计直接读取日结算汇总
+            PaymentSettlementDailyVO dailyTotal = paymentSettlementService.queryDailyTotal(date.toLocalDate());
 
             MsgContext msgContext = buildMessageContext.build();
             msgSendService.sendWithoutTry(msgContext, MsgTemplateCode.OtherNode.SEND_BILL_NODE, map -> {
                 map.put("billDate", strDate);
                 map.put("date", date);
+                map.put("paymentCount", dailyTotal.getPaymentCount());
+                map.put("paymentAmount", dailyTotal.getPaymentAmount());
+                map.put("refundCount", dailyTotal.getRefundCount());
+                map.put("refundAmount", dailyTotal.getRefundAmount());
             }, smsFileModel);
         } catch (Exception e) {
             log.error("发送邮件失败", e);
@@ -170,15 +222,26 @@ public class PaymentTransactionQueryService extends ServiceImpl<PaymentTransacti
             lambdaWrapperEx.in(PaymentTransactionPO::getId, Arrays.asList(StringUtils.split(ids, ",")));
         }
         buildWrapper(lambdaWrapperEx);
-        List<PaymentTransactionListVO> transactionListVoS = baseMapper.selectJoinList(PaymentTransactionListVO.class, lambdaWrapperEx);
+        salesDataScopeResolver.apply(lambdaWrapperEx, Order::getSalesId);
         String format = LocalDateTimeUtil.format(LocalDateTime.now(), "yyyy年MM月dd日");
-        List<PaymentTransactionListExcel> listExcels = BeanUtil.copyToList(transactionListVoS, PaymentTransactionListExcel.class);
-
-        ExcelUtil.export(
-                String.format(BillConstants.Email.ATTACH_NAME, format),
-                PaymentTransactionListExcel.class,
-                response,
-                listExcels
-        );
+
+        try (StreamingExcelWriter<PaymentTransactionListExcel> writer = StreamingExcelWriter.forResponse(
+                response, String.format(BillConstants.Email.ATTACH_NAME, format), PaymentTransactionListExcel.class)) {
+            streamExcelRows(lambdaWrapperEx, writer);
+            log.debug("导出账单，行数: {}", writer.getRowCount());
+        }
+    }
+
+    /**
+     * 流式查询支付流水并逐行写入Excel
+     * 查询结果逐行转换后写入，分块刷出，内存占用与行数无关
+     *
+     * @param queryWrapper 已构建的查询条件
+     * @param writer       Excel写出器
+     */
+    private void streamExcelRows(MPJLambdaWrapperEx<PaymentTransactionPO> queryWrapper, StreamingExcelWriter<PaymentTransactionListExcel> writer) {
+        // 流式查询不会自动追加主表逻辑删除条件
+        queryWrapper.eq(PaymentTransactionPO::getDelFlag, BooleanConstant.INT_FALSE);
+        this.baseMapper.streamJoinList(queryWrapper, context -> writer.write(paymentAssembler.toExcel(context.getResultObject())));
     }
 }
@@ -0,0 +1,307 @@
+package com.bytz.modules.cms.payment.application.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.bytz.modules.cms.payment.application.model.CompletePaymentRO;
+import com.bytz.modules.cms.payment.application.model.RefundCallbackRO;
+import com.bytz.modules.cms.payment.application.model.TransactionSweepMetricsVO;
+import com.bytz.modules.cms.payment.domain.enums.ChannelQueryStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.domain.service.ChannelQueryRequest;
+import com.bytz.modules.cms.payment.domain.service.ChannelQueryResponse;
+import com.bytz.modules.cms.payment.domain.service.IPaymentChannelQueryService;
+import com.bytz.modules.cms.payment.domain.service.PaymentChannelQueryServiceRegistry;
+import com.bytz.modules.cms.payment.domain.service.PaymentChannelRefundServiceRegistry;
+import com.bytz.modules.cms.payment.infrastructure.channel.RefundChannelDispatcher;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionPO;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentTransactionMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 进行中流水巡检服务
+ * Processing Transaction Sweeper
+ *
+ * <p>渠道回调丢失时，支付/退款流水会一直停留在PROCESSING（支付单PAYING），支付单因此无法关闭</p>
+ * <p>职责：
+ * - 扫描：按索引idx_status_create_time(transaction_status, create_time)分批扫描已过期（expirationTime）或超过阈值的PROCESSING流水
+ * - 查询：通过IPaymentChannelQueryService查询渠道状态，同一渠道交易只查一次，批内并行且并发数受限
+ * - 回写：支付结果落入回调收件箱（PaymentCallbackIntakeService），退款结果走handleRefundCallback，与渠道回调同一路径
+ * - 补派发：尚未取得渠道交易ID的退款流水（派发丢失），渠道支持幂等重试时重新派发
+ * </p>
+ * <p>由ProcessingTransactionSweepJob按Quartz集群调度触发，同一时刻只有一个节点巡检；回写路径均幂等，人工补偿与定时巡检重叠也不影响结果</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProcessingTransactionSweeper {
+
+    private static final int BATCH_SIZE = 200;
+    private static final int MAX_SCAN_PER_SWEEP = 5_000;
+    private static final int QUERY_CONCURRENCY = 8;
+    private static final Duration QUERY_BATCH_TIMEOUT = Duration.ofSeconds(60);
+
+    /**
+     * 最小流水年龄，避免与刚创建的流水（派发/回调途中）竞争
+     */
+    private static final Duration MIN_AGE = Duration.ofMinutes(2);
+
+    /**
+     * 未设置过期时间的流水，超过该时长视为超时
+     */
+    private static final Duration STALE_THRESHOLD = Duration.ofMinutes(30);
+
+    private static final String NOT_FOUND_MESSAGE = "渠道不存在该交易，巡检判定失败";
+
+    private final PaymentTransactionMapper transactionMapper;
+    private final PaymentChannelQueryServiceRegistry channelQueryServiceRegistry;
+    private final PaymentChannelRefundServiceRegistry channelRefundServiceRegistry;
+    private final PaymentCallbackIntakeService callbackIntakeService;
+    private final PaymentApplicationService paymentApplicationService;
+    private final RefundChannelDispatcher refundChannelDispatcher;
+
+    private final LongAdder sweepCount = new LongAdder();
+    private final LongAdder scannedCount = new LongAdder();
+    private final LongAdder queriedCount = new LongAdder();
+    private final LongAdder resolvedCount = new LongAdder();
+    private final LongAdder stillProcessingCount = new LongAdder();
+    private final LongAdder redispatchedCount = new LongAdder();
+    private final LongAdder skippedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+
+    /**
+     * 同一时刻只允许一轮巡检
+     */
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private volatile LocalDateTime lastSweepTime;
+
+    private ThreadPoolExecutor queryPool;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        queryPool = new ThreadPoolExecutor(QUERY_CONCURRENCY, QUERY_CONCURRENCY, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(BATCH_SIZE),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-sweep-query-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (queryPool != null) {
+            queryPool.shutdownNow();
+        }
+    }
+
+    /**
+     * 获取巡检指标
+     */
+    public TransactionSweepMetricsVO getMetrics() {
+        return TransactionSweepMetricsVO.builder()
+                .sweepCount(sweepCount.sum())
+                .scannedCount(scannedCount.sum())
+                .queriedCount(queriedCount.sum())
+                .resolvedCount(resolvedCount.sum())
+                .stillProcessingCount(stillProcessingCount.sum())
+                .redispatchedCount(redispatchedCount.sum())
+                .skippedCount(skippedCount.sum())
+                .timeoutCount(timeoutCount.sum())
+                .errorCount(errorCount.sum())
+                .lastSweepTime(lastSweepTime)
+                .build();
+    }
+
+    /**
+     * 执行一轮巡检，由定时任务触发，也可用于运维补偿或离线联调
+     * 按(create_time, id)游标分批扫描，单轮最多扫描MAX_SCAN_PER_SWEEP条；本节点已有巡检在执行时直接返回
+     *
+     * @return 本轮扫描的流水数
+     * @throws InterruptedException 等待渠道查询时被中断
+     */
+    public int sweep() throws InterruptedException {
+        if (!sweeping.compareAndSet(false, true)) {
+            log.info("进行中流水巡检执行中，跳过本次触发");
+            return 0;
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            PaymentTransactionPO cursor = null;
+            int scanned = 0;
+            while (scanned < MAX_SCAN_PER_SWEEP) {
+                List<PaymentTransactionPO> batch = selectStuck(now, cursor);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                scanned += batch.size();
+                scannedCount.add(batch.size());
+                processBatch(batch);
+                if (batch.size() < BATCH_SIZE) {
+                    break;
+                }
+                cursor = batch.get(batch.size() - 1);
+            }
+            sweepCount.increment();
+            lastSweepTime = LocalDateTime.now();
+            return scanned;
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+    /**
+     * 超时条件：已过过期时间，或创建超过阈值；均需超过最小年龄
+     * create_time范围条件走idx_status_create_time
+     */
+    private List<PaymentTransactionPO> selectStuck(LocalDateTime now, PaymentTransactionPO cursor) {
+        LocalDateTime staleTime = now.minus(STALE_THRESHOLD);
+        LambdaQueryWrapper<PaymentTransactionPO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.select(PaymentTransactionPO::getId, PaymentTransactionPO::getCode, PaymentTransactionPO::getPaymentId,
+                        PaymentTransactionPO::getPaymentChannel, PaymentTransactionPO::getChannelTransactionId,
+                        PaymentTransactionPO::getTransactionType, PaymentTransactionPO::getTransactionAmount,
+                        PaymentTransactionPO::getExpirationTime, PaymentTransactionPO::getCreateTime)
+                .eq(PaymentTransactionPO::getTransactionStatus, TransactionStatus.PROCESSING)
+                .le(PaymentTransactionPO::getCreateTime, now.minus(MIN_AGE))
+                .and(w -> w.lt(PaymentTransactionPO::getExpirationTime, now)
+                        .or().le(PaymentTransactionPO::getCreateTime, staleTime))
+                .and(cursor != null, w -> w.gt(PaymentTransactionPO::getCreateTime, cursor.getCreateTime())
+                        .or(c -> c.eq(PaymentTransactionPO::getCreateTime, cursor.getCreateTime())
+                                .gt(PaymentTransactionPO::getId, cursor.getId())))
+                .orderByAsc(PaymentTransactionPO::getCreateTime)
+                .orderByAsc(PaymentTransactionPO::getId)
+                .last("limit " + BATCH_SIZE);
+        return transactionMapper.selectList(wrapper);
+    }
+
+    private void processBatch(List<PaymentTransactionPO> batch) throws InterruptedException {
+        // 同一渠道交易（合并支付时对应多条流水）只查询一次
+        Map<String, PaymentTransactionPO> queryTargets = new LinkedHashMap<>();
+        for (PaymentTransactionPO po : batch) {
+            if (po.getChannelTransactionId() == null) {
+                handleMissingChannelTransaction(po);
+                continue;
+            }
+            if (!channelQueryServiceRegistry.isQuerySupported(po.getPaymentChannel())) {
+                skippedCount.increment();
+                continue;
+            }
+            queryTargets.putIfAbsent(po.getPaymentChannel() + ":" + po.getTransactionType() + ":" + po.getChannelTransactionId(), po);
+        }
+        if (queryTargets.isEmpty()) {
+            return;
+        }
+
+        List<PaymentTransactionPO> targets = new ArrayList<>(queryTargets.values());
+        List<Callable<ChannelQueryResponse>> tasks = new ArrayList<>(targets.size());
+        for (PaymentTransactionPO po : targets) {
+            tasks.add(() -> query(po));
+        }
+        // 并发数受查询线程池限制，超时未完成的查询被取消
+        List<Future<ChannelQueryResponse>> futures = queryPool.invokeAll(tasks,
+                QUERY_BATCH_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+
+        for (int i = 0; i < targets.size(); i++) {
+            PaymentTransactionPO po = targets.get(i);
+            Future<ChannelQueryResponse> future = futures.get(i);
+            if (future.isCancelled()) {
+                timeoutCount.increment();
+                log.warn("渠道查询超时，流水ID: {}, 渠道交易记录ID: {}", po.getId(), po.getChannelTransactionId());
+                continue;
+            }
+            try {
+                apply(po, future.get());
+            } catch (ExecutionException e) {
+                errorCount.increment();
+                log.warn("渠道查询失败，流水ID: {}, 原因: {}", po.getId(), e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+            } catch (Exception e) {
+                errorCount.increment();
+                log.error("巡检回写失败，流水ID: {}", po.getId(), e);
+            }
+        }
+    }
+
+    private ChannelQueryResponse query(PaymentTransactionPO po) {
+        queriedCount.increment();
+        IPaymentChannelQueryService queryService = channelQueryServiceRegistry.getQueryService(po.getPaymentChannel())
+                .orElseThrow(() -> new IllegalStateException("渠道不支持交易查询: " + po.getPaymentChannel()));
+        return queryService.queryTransaction(ChannelQueryRequest.builder()
+                .paymentChannel(po.getPaymentChannel())
+                .transactionType(po.getTransactionType())
+                .channelTransactionId(po.getChannelTransactionId())
+                .transactionCode(po.getCode())
+                .transactionAmount(po.getTransactionAmount())
+                .build());
+    }
+
+    /**
+     * 按查询结果回写：成功/失败走回调路径，渠道不存在的超时流水按失败处理，仍在处理中的保持不变
+     */
+    private void apply(PaymentTransactionPO po, ChannelQueryResponse response) {
+        if (response == null || response.getStatus() == null || response.getStatus() == ChannelQueryStatus.PROCESSING) {
+            stillProcessingCount.increment();
+            return;
+        }
+        boolean success = response.getStatus() == ChannelQueryStatus.SUCCESS;
+        String errorMessage = response.getStatus() == ChannelQueryStatus.NOT_FOUND ? NOT_FOUND_MESSAGE : response.getErrorMessage();
+
+        if (po.getTransactionType() == TransactionType.REFUND) {
+            paymentApplicationService.handleRefundCallback(RefundCallbackRO.builder()
+                    .paymentChannel(po.getPaymentChannel())
+                    .channelTransactionId(po.getChannelTransactionId())
+                    .channelTransactionNumber(response.getChannelTransactionNumber())
+                    .success(success)
+                    .completedTime(response.getCompletedTime())
+                    .errorCode(response.getErrorCode())
+                    .errorMessage(errorMessage)
+                    .build());
+        } else {
+            callbackIntakeService.accept(CompletePaymentRO.builder()
+                    .paymentChannel(po.getPaymentChannel())
+                    .channelTransactionId(po.getChannelTransactionId())
+                    .channelTransactionNumber(response.getChannelTransactionNumber())
+                    .success(success)
+                    .channelResponse(success ? null : errorMessage)
+                    .completedTime(response.getCompletedTime())
+                    .build());
+        }
+        resolvedCount.increment();
+        log.info("巡检按渠道查询结果回写，流水ID: {}, 渠道交易记录ID: {}, 结果: {}",
+                po.getId(), po.getChannelTransactionId(), response.getStatus());
+    }
+
+    /**
+     * 缺少渠道交易ID的流水无法查询：退款流水（派发丢失或派发未确认）在渠道支持幂等重试时重新派发，其余跳过
+     */
+    private void handleMissingChannelTransaction(PaymentTransactionPO po) {
+        PaymentChannel channel = po.getPaymentChannel();
+        boolean redispatchable = po.getTransactionType() == TransactionType.REFUND
+                && channelRefundServiceRegistry.isRefundSupported(channel)
+                && channelRefundServiceRegistry.getRefundService(channel).supportsIdempotentRetry()
+                && refundChannelDispatcher.getState(po.getId())
+                .map(state -> state == RefundChannelDispatcher.DispatchState.UNRESOLVED)
+                .orElse(true);
+        if (!redispatchable) {
+            skippedCount.increment();
+            return;
+        }
+        refundChannelDispatcher.dispatchAfterCommit(po.getId());
+        redispatchedCount.increment();
+        log.info("退款流水缺少渠道交易ID，重新派发，流水ID: {}", po.getId());
+    }
+}
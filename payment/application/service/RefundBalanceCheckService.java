@@ -0,0 +1,153 @@
+package com.bytz.modules.cms.payment.application.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.bytz.modules.cms.payment.application.model.RefundBalanceCheckVO;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentPO;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionPO;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentTransactionMapper;
+import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * 已退款金额一致性校验服务
+ * Refund Balance Check Service
+ *
+ * <p>支付单与支付流水上的refunded_amount由执行退款时原子预占、退款失败时释放，本服务按成功及处理中的原始退款流水重算并比对</p>
+ * <p>校验只比对不修改；修复将计数列直接改写为重算值</p>
+ * <p>计数列上线时需对存在退款的历史支付单执行一次{@link #repairAll()}</p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefundBalanceCheckService {
+
+    private static final int REPAIR_BATCH_SIZE = 200;
+
+    private final PaymentMapper paymentMapper;
+    private final PaymentTransactionMapper transactionMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 校验支付单已退款金额
+     *
+     * @param paymentId 原支付单ID
+     * @return 校验结果
+     */
+    public RefundBalanceCheckVO check(String paymentId) {
+        return doCheck(paymentId, false);
+    }
+
+    /**
+     * 校验并修复支付单已退款金额
+     *
+     * @param paymentId 原支付单ID
+     * @return 校验结果（不一致时已修复）
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public RefundBalanceCheckVO repair(String paymentId) {
+        return doCheck(paymentId, true);
+    }
+
+    /**
+     * 校验并修复所有存在退款的支付单
+     * 按ID顺序分批扫描，每个支付单独立事务修复
+     *
+     * @return 修复的支付单数量
+     */
+    public int repairAll() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int repaired = 0;
+        String lastId = null;
+        while (true) {
+            List<PaymentPO> batch = paymentMapper.selectList(new LambdaQueryWrapper<PaymentPO>()
+                    .select(PaymentPO::getId)
+                    .eq(PaymentPO::getHasRefund, true)
+                    .gt(lastId != null, PaymentPO::getId, lastId)
+                    .orderByAsc(PaymentPO::getId)
+                    .last("limit " + REPAIR_BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (PaymentPO po : batch) {
+                RefundBalanceCheckVO result = transactionTemplate.execute(status -> doCheck(po.getId(), true));
+                if (result != null && Boolean.TRUE.equals(result.getRepaired())) {
+                    repaired++;
+                }
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        log.info("已退款金额批量修复完成，修复支付单数: {}", repaired);
+        return repaired;
+    }
+
+    private RefundBalanceCheckVO doCheck(String paymentId, boolean repair) {
+        PaymentPO payment = paymentMapper.selectById(paymentId);
+        if (payment == null) {
+            throw new PaymentException(PaymentErrorCode.ORIGINAL_PAYMENT_NOT_FOUND, "原支付单不存在");
+        }
+
+        Map<String, BigDecimal> expectedByTransaction = transactionMapper.sumRefundedByOriginalPayment(paymentId).stream()
+                .collect(Collectors.toMap(PaymentTransactionPO::getOriginalTransactionId, PaymentTransactionPO::getRefundedAmount));
+        BigDecimal expected = expectedByTransaction.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal recorded = orZero(payment.getRefundedAmount());
+
+        List<PaymentTransactionPO> transactions = transactionMapper.selectList(new LambdaQueryWrapper<PaymentTransactionPO>()
+                .select(PaymentTransactionPO::getId, PaymentTransactionPO::getRefundedAmount)
+                .eq(PaymentTransactionPO::getPaymentId, paymentId)
+                .eq(PaymentTransactionPO::getTransactionType, TransactionType.PAYMENT));
+        List<String> inconsistentTransactionIds = new ArrayList<>();
+        for (PaymentTransactionPO transaction : transactions) {
+            BigDecimal transactionExpected = expectedByTransaction.getOrDefault(transaction.getId(), BigDecimal.ZERO);
+            if (orZero(transaction.getRefundedAmount()).compareTo(transactionExpected) != 0) {
+                inconsistentTransactionIds.add(transaction.getId());
+            }
+        }
+
+        boolean consistent = recorded.compareTo(expected) == 0 && inconsistentTransactionIds.isEmpty();
+        boolean repaired = false;
+        if (!consistent) {
+            log.warn("已退款金额不一致，支付单ID: {}, 记录值: {}, 重算值: {}, 不一致流水: {}",
+                    paymentId, recorded, expected, inconsistentTransactionIds);
+            if (repair) {
+                paymentMapper.update(null, new LambdaUpdateWrapper<PaymentPO>()
+                        .set(PaymentPO::getRefundedAmount, expected)
+                        .eq(PaymentPO::getId, paymentId));
+                for (String transactionId : inconsistentTransactionIds) {
+                    transactionMapper.update(null, new LambdaUpdateWrapper<PaymentTransactionPO>()
+                            .set(PaymentTransactionPO::getRefundedAmount, expectedByTransaction.getOrDefault(transactionId, BigDecimal.ZERO))
+                            .eq(PaymentTransactionPO::getId, transactionId));
+                }
+                repaired = true;
+            }
+        }
+
+        return RefundBalanceCheckVO.builder()
+                .paymentId(paymentId)
+                .consistent(consistent)
+                .recordedRefundedAmount(recorded)
+                .expectedRefundedAmount(expected)
+                .inconsistentTransactionIds(inconsistentTransactionIds)
+                .repaired(repaired)
+                .build();
+    }
+
+    private static BigDecimal orZero(BigDecimal value) {
+        return Optional.ofNullable(value).orElse(BigDecimal.ZERO);
+    }
+}
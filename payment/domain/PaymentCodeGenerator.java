@@ -1,6 +1,7 @@
 package com.bytz.modules.cms.payment.domain;
 
-import com.bytz.modules.cms.shared.util.BusinessCodeGenerator;
+import com.bytz.modules.cms.shared.codegen.CodeGenerator;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 /**
@@ -8,15 +9,18 @@ import org.springframework.stereotype.Service;
  * 负责生成唯一的支付单号
  */
 @Service
+@RequiredArgsConstructor
 public class PaymentCodeGenerator {
 
+    private final CodeGenerator codeGenerator;
+
     /**
      * 生成唯一的支付单号
      *
      * @return 唯一的支付单号
      */
     public String generatePaymentCode() {
-        return BusinessCodeGenerator.generateCode("PAY");
+        return codeGenerator.nextCode("PAY");
     }
 
     /**
@@ -25,6 +29,6 @@ public class PaymentCodeGenerator {
      * @return 唯一的支付流水号
      */
     public String generateTransactionCode() {
-        return BusinessCodeGenerator.generateCode("TXN");
+        return codeGenerator.nextCode("TXN");
     }
 }
\ No newline at end of file
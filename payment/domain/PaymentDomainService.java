@@ -11,6 +11,7 @@ import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
 import com.bytz.modules.cms.payment.domain.service.ChannelRefundRequest;
 import com.bytz.modules.cms.payment.domain.service.ChannelRefundResponse;
 import com.bytz.modules.cms.payment.domain.service.IPaymentChannelRefundService;
+import com.bytz.modules.cms.payment.domain.service.IPaymentEventPublisher;
 import com.bytz.modules.cms.payment.domain.service.PaymentChannelRefundServiceRegistry;
 import com.bytz.modules.cms.payment.shared.event.PaymentClosedEvent;
 import com.bytz.modules.cms.payment.shared.event.PaymentCompletedEvent;
@@ -20,7 +21,6 @@ import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
 import com.bytz.modules.cms.payment.shared.exception.PaymentException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -28,7 +28,12 @@ import javax.validation.Valid;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 支付领域服务
@@ -37,7 +42,7 @@ import java.util.List;
  * <p>职责：
  *   - 创建支付单（含正向支付和退款支付单）
  *   - 验证支付请求
- *   - 执行支付（创建流水并下发渠道）
+ *   - 执行支付（创建流水并下发渠道，支持一次结算多个支付单）
  *   - 处理支付完成回调
  *   - 关闭支付单
  *   - 创建退款支付单并调用渠道执行退款
@@ -52,8 +57,13 @@ import java.util.List;
 @RequiredArgsConstructor
 public class PaymentDomainService {
 
+    /**
+     * 超过支付截止时间自动关闭的原因
+     */
+    public static final String EXPIRED_CLOSE_REASON = "超过支付截止时间，系统自动关闭";
+
     private final IPaymentRepository paymentRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final IPaymentEventPublisher paymentEventPublisher;
     private final PaymentCodeGenerator paymentCodeGenerator;
     private final PaymentChannelRefundServiceRegistry channelRefundServiceRegistry;
 
@@ -127,6 +137,10 @@ public class PaymentDomainService {
 
         log.info("支付流水创建成功，流水号: {}", transaction.getCode());
 
+        // 同步完成的流水（授信、临时授信、钱包等）不会再有回调，在此发布支付已执行事件
+        if (!transaction.isProcessing()) {
+            publishPaymentExecutedEvent(payment, transaction);
+        }
         // 支付单完成直接抛出事件
         if (payment.getPaymentStatus() == PaymentStatus.PAID){
             publishPaymentCompletedEvent(payment);
@@ -134,6 +148,71 @@ public class PaymentDomainService {
         return transaction;
     }
 
+    /**
+     * 批量执行支付（一次结算多个支付单）
+     * 一次查询加载全部支付单，逐单通过聚合根创建流水，任一支付单校验不通过时整批失败；
+     * 支付单批量更新并逐行校验乐观锁，流水批量新增，同步完成流水的已执行事件与完成事件整批写入发件箱
+     *
+     * @param commands 创建流水命令列表（每个支付单一条）
+     * @return 创建的支付流水，与命令顺序一致
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<PaymentTransactionEntity> executePayments(@Valid List<CreateTransactionCommand> commands) {
+        if (commands.isEmpty()) {
+            return new ArrayList<>();
+        }
+        log.info("批量执行支付，支付单数量: {}", commands.size());
+
+        List<String> paymentIds = commands.stream()
+                .map(CreateTransactionCommand::getPaymentId)
+                .collect(Collectors.toList());
+        if (new HashSet<>(paymentIds).size() != paymentIds.size()) {
+            throw new PaymentException(PaymentErrorCode.DUPLICATE_TRANSACTION, "同一支付单在一次支付中重复出现");
+        }
+
+        Map<String, PaymentAggregate> paymentMap = paymentRepository.findByIds(paymentIds, false).stream()
+                .collect(Collectors.toMap(PaymentAggregate::getId, Function.identity()));
+        List<String> missingIds = paymentIds.stream()
+                .filter(id -> !paymentMap.containsKey(id))
+                .collect(Collectors.toList());
+        if (!missingIds.isEmpty()) {
+            throw new PaymentException(PaymentErrorCode.PAYMENT_NOT_FOUND, "支付单不存在: " + missingIds);
+        }
+
+        // 先全部通过聚合根创建流水（包含验证逻辑和状态更新），全部通过后再持久化
+        List<PaymentAggregate> payments = new ArrayList<>(commands.size());
+        List<PaymentTransactionEntity> transactions = new ArrayList<>(commands.size());
+        for (CreateTransactionCommand command : commands) {
+            PaymentAggregate payment = paymentMap.get(command.getPaymentId());
+            PaymentTransactionEntity transaction = payment.createTransaction(command);
+            transaction.setCode(paymentCodeGenerator.generateTransactionCode());
+            payments.add(payment);
+            transactions.add(transaction);
+        }
+
+        paymentRepository.updateAll(payments);
+
+        // 同步完成的流水不会再有回调，在此发布支付已执行事件
+        Map<String, PaymentExecutedEvent> executedEvents = new LinkedHashMap<>();
+        for (int i = 0; i < payments.size(); i++) {
+            PaymentTransactionEntity transaction = transactions.get(i);
+            if (!transaction.isProcessing()) {
+                executedEvents.put(payments.get(i).getId(), buildPaymentExecutedEvent(payments.get(i), transaction));
+            }
+        }
+        paymentEventPublisher.publishAll(executedEvents);
+
+        // 支付单完成直接抛出事件
+        Map<String, PaymentCompletedEvent> completedEvents = new LinkedHashMap<>();
+        payments.stream()
+                .filter(payment -> payment.getPaymentStatus() == PaymentStatus.PAID)
+                .forEach(payment -> completedEvents.put(payment.getId(), buildPaymentCompletedEvent(payment)));
+        paymentEventPublisher.publishAll(completedEvents);
+
+        log.info("批量执行支付完成，支付单数量: {}, 完成数量: {}", payments.size(), completedEvents.size());
+        return transactions;
+    }
+
     /**
      * 处理支付完成回调（对应功能点T06/T07）
      * 用例来源：UC-PM-006 支付完成确认, UC-PM-007 支付状态更新
@@ -148,11 +227,17 @@ public class PaymentDomainService {
         log.info("处理支付完成回调，支付渠道: {}, 渠道交易记录ID: {}, 是否成功: {}", 
                 command.getPaymentChannel(), command.getChannelTransactionId(), command.getSuccess());
 
-        // 根据paymentChannel+channelTransactionId查找所有相关的支付单（加载流水）
-        List<PaymentAggregate> payments = paymentRepository.findByChannelAndTransactionId(
-                command.getPaymentChannel(), command.getChannelTransactionId(), true);
+        // 根据paymentChannel+channelTransactionId查找持有该进行中流水的支付单（一次联表查询）
+        List<PaymentAggregate> payments = paymentRepository.findProcessingByChannelAndTransactionId(
+                command.getPaymentChannel(), command.getChannelTransactionId());
         
         if (payments.isEmpty()) {
+            // 流水均已完成说明是重复投递的回调，幂等忽略
+            if (paymentRepository.existsByChannelAndTransactionId(command.getPaymentChannel(), command.getChannelTransactionId())) {
+                log.info("渠道交易无进行中流水，视为重复回调忽略，支付渠道: {}, 渠道交易记录ID: {}",
+                        command.getPaymentChannel(), command.getChannelTransactionId());
+                return new ArrayList<>();
+            }
             throw new PaymentException(PaymentErrorCode.TRANSACTION_NOT_FOUND,
                     String.format("未找到支付渠道[%s]和交易记录ID[%s]对应的支付单", 
                             command.getPaymentChannel(), command.getChannelTransactionId()));
@@ -216,6 +301,43 @@ public class PaymentDomainService {
         return payment;
     }
 
+    /**
+     * 批量关闭已过支付截止时间的支付单
+     * 逐单复核：仅关闭正向、已过截止时间且当前可关闭的支付单，其余忽略（已支付、划转中或截止时间已变更）
+     * 整批一次批量更新，任一支付单乐观锁冲突时整批回滚，由调用方逐单重试
+     *
+     * @param paymentIds 支付单ID列表
+     * @param now        判定时间
+     * @return 已关闭的支付单
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public List<PaymentAggregate> closeExpiredPayments(List<String> paymentIds, LocalDateTime now) {
+        ClosePaymentCommand command = ClosePaymentCommand.builder()
+                .closeReason(EXPIRED_CLOSE_REASON)
+                .build();
+
+        List<PaymentAggregate> closed = new ArrayList<>();
+        for (PaymentAggregate payment : paymentRepository.findByIds(paymentIds, false)) {
+            if (payment.getPaymentType() == PaymentType.REFUND
+                    || payment.getPaymentDeadline() == null
+                    || payment.getPaymentDeadline().isAfter(now)
+                    || !payment.validateClose()) {
+                continue;
+            }
+            payment.close(command);
+            closed.add(payment);
+        }
+        if (closed.isEmpty()) {
+            return closed;
+        }
+
+        paymentRepository.updateAll(closed);
+        closed.forEach(payment -> publishPaymentClosedEvent(payment, EXPIRED_CLOSE_REASON));
+
+        log.info("批量关闭超时支付单，候选数量: {}, 关闭数量: {}", paymentIds.size(), closed.size());
+        return closed;
+    }
+
 
     // ==================== 事件发布方法 ====================
 
@@ -228,14 +350,21 @@ public class PaymentDomainService {
                 .paymentAmount(payment.getPaymentAmount())
                 .paymentType(payment.getPaymentType())
                 .createTime(payment.getCreateTime())
+                .paymentDeadline(payment.getPaymentDeadline())
                 .build();
 
-        eventPublisher.publishEvent(event);
+        paymentEventPublisher.publish(event.getPaymentId(), event);
         log.debug("已发布支付单创建事件，支付单号: {}", payment.getCode());
     }
 
     private void publishPaymentExecutedEvent(PaymentAggregate payment,PaymentTransactionEntity transaction) {
-        PaymentExecutedEvent event = PaymentExecutedEvent.builder()
+        PaymentExecutedEvent event = buildPaymentExecutedEvent(payment, transaction);
+        paymentEventPublisher.publish(event.getPaymentId(), event);
+        log.debug("已发布支付已执行事件，支付单ID: {}", payment.getId());
+    }
+
+    private PaymentExecutedEvent buildPaymentExecutedEvent(PaymentAggregate payment, PaymentTransactionEntity transaction) {
+        return PaymentExecutedEvent.builder()
                 .paymentId(payment.getId())
                 .orderId(payment.getOrderId())
                 .resellerId(payment.getResellerId())
@@ -251,13 +380,16 @@ public class PaymentDomainService {
                 .channelTransactionNumber(transaction.getChannelTransactionNumber())
                 .executedTime(transaction.getCompletedTime())
                 .build();
-
-        eventPublisher.publishEvent(event);
-        log.debug("已发布支付已执行事件，支付单ID: {}", payment.getId());
     }
 
     private void publishPaymentCompletedEvent(PaymentAggregate payment) {
-        PaymentCompletedEvent event = PaymentCompletedEvent.builder()
+        PaymentCompletedEvent event = buildPaymentCompletedEvent(payment);
+        paymentEventPublisher.publish(event.getPaymentId(), event);
+        log.debug("已发布支付单完全完成事件，支付单ID: {}, 支付单号: {}", payment.getId(), payment.getCode());
+    }
+
+    private PaymentCompletedEvent buildPaymentCompletedEvent(PaymentAggregate payment) {
+        return PaymentCompletedEvent.builder()
                 .paymentId(payment.getId())
                 .paymentCode(payment.getCode())
                 .orderId(payment.getOrderId())
@@ -268,9 +400,6 @@ public class PaymentDomainService {
                 .relatedBusinessId(payment.getRelatedBusinessId())
                 .completedTime(LocalDateTime.now())
                 .build();
-
-        eventPublisher.publishEvent(event);
-        log.debug("已发布支付单完全完成事件，支付单ID: {}, 支付单号: {}", payment.getId(), payment.getCode());
     }
 
     private void publishPaymentClosedEvent(PaymentAggregate payment, String closeReason) {
@@ -285,7 +414,7 @@ public class PaymentDomainService {
                 .closeTime(LocalDateTime.now())
                 .build();
 
-        eventPublisher.publishEvent(event);
+        paymentEventPublisher.publish(event.getPaymentId(), event);
         log.debug("已发布支付单关闭事件，支付单ID: {}", payment.getId());
     }
 }
\ No newline at end of file
@@ -10,11 +10,12 @@ import com.bytz.modules.cms.payment.domain.model.PaymentTransactionEntity;
 import com.bytz.modules.cms.payment.domain.model.RefundAggregate;
 import com.bytz.modules.cms.payment.domain.model.RefundTransactionEntity;
 import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
+import com.bytz.modules.cms.payment.domain.repository.IPaymentTransactionRepository;
 import com.bytz.modules.cms.payment.domain.repository.IRefundRepository;
 import com.bytz.modules.cms.payment.domain.repository.IRefundTransactionRepository;
 import com.bytz.modules.cms.payment.domain.service.ChannelRefundRequest;
 import com.bytz.modules.cms.payment.domain.service.ChannelRefundResponse;
-import com.bytz.modules.cms.payment.domain.service.IPaymentChannelRefundService;
+import com.bytz.modules.cms.payment.domain.service.IPaymentEventPublisher;
 import com.bytz.modules.cms.payment.domain.service.PaymentChannelRefundServiceRegistry;
 import com.bytz.modules.cms.payment.shared.event.PaymentClosedEvent;
 import com.bytz.modules.cms.payment.shared.event.PaymentCompletedEvent;
@@ -24,13 +25,11 @@ import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
 import com.bytz.modules.cms.payment.shared.exception.PaymentException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.validation.Valid;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -57,9 +56,10 @@ public class RefundDomainService {
 
     private final IRefundRepository refundRepository;
     private final IPaymentRepository paymentRepository;
-    private final ApplicationEventPublisher eventPublisher;
+    private final IPaymentEventPublisher paymentEventPublisher;
     private final PaymentCodeGenerator paymentCodeGenerator;
     private final IRefundTransactionRepository refundTransactionRepository;
+    private final IPaymentTransactionRepository paymentTransactionRepository;
     private final PaymentChannelRefundServiceRegistry channelRefundServiceRegistry;
 
     /**
@@ -86,8 +86,8 @@ public class RefundDomainService {
 
         // ========== 6项前置验证 ==========
 
-        // 1. 验证原支付单存在并加载流水
-        PaymentAggregate originalPayment = paymentRepository.findById(command.getOriginalPaymentId(), true)
+        // 1. 验证原支付单存在（可退款余额由计数列维护，无需加载流水）
+        PaymentAggregate originalPayment = paymentRepository.findById(command.getOriginalPaymentId())
                 .orElseThrow(() -> new PaymentException(PaymentErrorCode.ORIGINAL_PAYMENT_NOT_FOUND,
                         "原支付单不存在"));
 
@@ -122,8 +122,12 @@ public class RefundDomainService {
      * 用例来源：UC-PM-009 退款处理
      * 在退款支付单创建后，由渠道调用创建退款流水
      *
+     * <p>本方法只落库PROCESSING状态的退款流水，不调用渠道；调用方需在事务提交后通过
+     * RefundChannelDispatcher派发渠道调用，渠道结果由{@link #applyChannelResponse}在独立短事务中记录</p>
+     * <p>退款金额在同一事务内以条件UPDATE预占到原支付单及原流水的已退款金额，并发的多笔退款不会超退；退款失败时释放预占</p>
+     *
      * @param command 执行退款命令
-     * @return 创建的退款流水
+     * @return 创建的退款流水（PROCESSING）
      */
     @Transactional(rollbackFor = Exception.class)
     public RefundTransactionEntity executeRefund(@Valid ExecuteRefundCommand command) {
@@ -150,47 +154,38 @@ public class RefundDomainService {
         if (originalPaymentId == null || originalPaymentId.isEmpty()) {
             throw new PaymentException(PaymentErrorCode.INVALID_PAYMENT_STATE, "退款支付单未关联原支付单");
         }
-        PaymentAggregate originalPayment = paymentRepository.findById(originalPaymentId, true)
-                .orElseThrow(() -> new PaymentException(PaymentErrorCode.ORIGINAL_PAYMENT_NOT_FOUND, "原支付单不存在"));
+        if (!paymentRepository.findById(originalPaymentId).isPresent()) {
+            throw new PaymentException(PaymentErrorCode.ORIGINAL_PAYMENT_NOT_FOUND, "原支付单不存在");
+        }
 
-        PaymentTransactionEntity originalTransaction = originalPayment.findTransactionById(command.getOriginalTransactionId());
+        // 原支付流水单行读取，已退款金额由计数列维护
+        PaymentTransactionEntity originalTransaction = paymentTransactionRepository.findById(command.getOriginalTransactionId())
+                .filter(transaction -> originalPaymentId.equals(transaction.getPaymentId()))
+                .orElseThrow(() -> new PaymentException(PaymentErrorCode.TRANSACTION_NOT_FOUND, "原支付流水不存在"));
 
-        validateOriginalTransaction(originalTransaction, refundRepository.findByOriginalPaymentId(originalPaymentId, true), command.getRefundAmount());
+        validateOriginalTransaction(originalTransaction, command.getRefundAmount());
+
+        // 提前校验渠道支持退款，避免落库后派发时才失败
+        if (!channelRefundServiceRegistry.isRefundSupported(originalTransaction.getPaymentChannel())) {
+            throw new PaymentException(PaymentErrorCode.CHANNEL_NOT_SUPPORTED,
+                    String.format("支付渠道 %s 不支持退款操作", originalTransaction.getPaymentChannel().getDescription()));
+        }
+        // 渠道熔断中直接拒绝，不再落库排队
+        if (!channelRefundServiceRegistry.isAvailable(originalTransaction.getPaymentChannel())) {
+            throw new PaymentException(PaymentErrorCode.CHANNEL_UNAVAILABLE,
+                    String.format("支付渠道 %s 暂不可用，请稍后重试", originalTransaction.getPaymentChannel().getDescription()));
+        }
 
         PaymentChannel refundChannel = command.getPaymentChannel() != null ?
                 command.getPaymentChannel() : originalTransaction.getPaymentChannel();
 
-        // 构建渠道退款请求
-        ChannelRefundRequest channelRequest = ChannelRefundRequest.builder()
-                .refundPaymentId(refundPayment.getId())
-                .refundPaymentCode(refundPayment.getCode())
-                .originalPaymentId(originalPaymentId)
-                .originalTransactionId(command.getOriginalTransactionId())
-                .originalChannelTransactionId(originalTransaction.getChannelTransactionId())
-                .resellerId(originalPayment.getResellerId())
-                .orderId(originalPayment.getOrderId())
-                .refundAmount(command.getRefundAmount())
-                .paymentChannel(refundChannel)
-                .refundReason(refundPayment.getReason())
-                .relatedBusinessId(refundPayment.getRelatedBusinessId())
-                .relatedBusinessType(refundPayment.getRelatedBusinessType())
-                .build();
-
-        // 获取渠道退款服务并执行退款
-        IPaymentChannelRefundService channelRefundService = channelRefundServiceRegistry.getRefundService(originalTransaction.getPaymentChannel());
-        ChannelRefundResponse channelResponse = channelRefundService.executeRefund(channelRequest);
-
-
+        // 先以PROCESSING状态落库，渠道调用在事务提交后异步派发
         CreateRefundTransactionCommand createTransactionCommand = CreateRefundTransactionCommand.builder()
                 .refundAmount(command.getRefundAmount())
                 .paymentChannel(refundChannel)
-                .transactionStatus(channelResponse.getStatus())
-                .errorMessage(channelResponse.getErrorMessage())
-                .channelTransactionId(channelResponse.getChannelTransactionId())
-                .channelTransactionNumber(channelResponse.getChannelTransactionNumber())
+                .transactionStatus(TransactionStatus.PROCESSING)
                 .originalTransactionId(originalTransaction.getId())
                 .expirationTime(command.getExpirationTime())
-                .completedTime(channelResponse.getCompletedTime())
                 .businessRemark(command.getBusinessRemark())
                 .build();
 
@@ -200,10 +195,100 @@ public class RefundDomainService {
         // 持久化
         refundRepository.update(refundPayment);
 
-        log.info("退款流水创建成功，流水号: {}", refundTransaction.getCode());
+        // 预占原支付单及原流水的可退款余额，余额不足时整个事务回滚
+        paymentRepository.reserveRefundedAmount(originalPaymentId, originalTransaction.getId(), command.getRefundAmount());
+
+        log.info("退款流水创建成功，待派发渠道，流水号: {}", refundTransaction.getCode());
         return refundTransaction;
     }
 
+    /**
+     * 构建渠道退款请求（派发线程调用，只读）
+     * 流水已不是PROCESSING或已取得渠道交易ID时返回空，表示无需（再）调用渠道
+     *
+     * @param refundTransactionId 退款流水ID
+     * @return 渠道退款请求
+     */
+    public Optional<ChannelRefundRequest> buildChannelRefundRequest(String refundTransactionId) {
+        RefundTransactionEntity refundTransaction = refundTransactionRepository.findById(refundTransactionId)
+                .orElseThrow(() -> new PaymentException(PaymentErrorCode.TRANSACTION_NOT_FOUND, "退款流水不存在"));
+        if (refundTransaction.getTransactionStatus() != TransactionStatus.PROCESSING
+                || refundTransaction.getChannelTransactionId() != null) {
+            return Optional.empty();
+        }
+
+        RefundAggregate refundPayment = refundRepository.findById(refundTransaction.getPaymentId(), false)
+                .orElseThrow(() -> new PaymentException(PaymentErrorCode.PAYMENT_NOT_FOUND, "退款支付单不存在"));
+        PaymentAggregate originalPayment = paymentRepository.findById(refundPayment.getOriginalPaymentId())
+                .orElseThrow(() -> new PaymentException(PaymentErrorCode.ORIGINAL_PAYMENT_NOT_FOUND, "原支付单不存在"));
+        PaymentTransactionEntity originalTransaction = paymentTransactionRepository.findById(refundTransaction.getOriginalTransactionId())
+                .orElseThrow(() -> new PaymentException(PaymentErrorCode.TRANSACTION_NOT_FOUND, "原支付流水不存在"));
+
+        return Optional.of(ChannelRefundRequest.builder()
+                .refundPaymentId(refundPayment.getId())
+                .refundPaymentCode(refundPayment.getCode())
+                .refundTransactionId(refundTransaction.getId())
+                .refundTransactionCode(refundTransaction.getCode())
+                .originalPaymentId(originalPayment.getId())
+                .originalTransactionId(originalTransaction.getId())
+                .originalChannelTransactionId(originalTransaction.getChannelTransactionId())
+                .originalPaymentChannel(originalTransaction.getPaymentChannel())
+                .resellerId(originalPayment.getResellerId())
+                .orderId(originalPayment.getOrderId())
+                .refundAmount(refundTransaction.getTransactionAmount())
+                .paymentChannel(refundTransaction.getPaymentChannel())
+                .refundReason(refundPayment.getReason())
+                .relatedBusinessId(refundPayment.getRelatedBusinessId())
+                .relatedBusinessType(refundPayment.getRelatedBusinessType())
+                .build());
+    }
+
+    /**
+     * 记录渠道退款结果（派发线程调用，独立短事务）
+     * - SUCCESS：流水成功（已退款金额已在执行退款时预占），发布执行/完成事件
+     * - FAILED：流水失败，释放已退款金额预占，发布执行事件
+     * - PROCESSING：记录渠道交易ID，等待回调
+     * 流水已不是PROCESSING时忽略（回调先到或重复记录）
+     *
+     * @param refundTransactionId 退款流水ID
+     * @param response            渠道退款响应
+     * @return 更新后的退款流水
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public RefundTransactionEntity applyChannelResponse(String refundTransactionId, ChannelRefundResponse response) {
+        RefundTransactionEntity pending = refundTransactionRepository.findById(refundTransactionId)
+                .orElseThrow(() -> new PaymentException(PaymentErrorCode.TRANSACTION_NOT_FOUND, "退款流水不存在"));
+        if (pending.getTransactionStatus() != TransactionStatus.PROCESSING) {
+            log.info("退款流水已是最终状态，忽略渠道结果，流水ID: {}, 状态: {}", refundTransactionId, pending.getTransactionStatus());
+            return pending;
+        }
+
+        RefundAggregate refund = refundRepository.findById(pending.getPaymentId())
+                .orElseThrow(() -> new PaymentException(PaymentErrorCode.PAYMENT_NOT_FOUND, "退款单不存在"));
+
+        RefundTransactionEntity transaction = refund.acceptChannelResponse(refundTransactionId, response);
+        if (transaction == null) {
+            return pending;
+        }
+
+        refundRepository.update(refund);
+
+        if (transaction.getTransactionStatus() == TransactionStatus.SUCCESS) {
+            publishPaymentExecutedEvent(refund, transaction);
+            if (refund.getPaymentStatus() == PaymentStatus.PAID) {
+                publishPaymentCompletedEvent(refund);
+            }
+        } else if (transaction.getTransactionStatus() == TransactionStatus.FAILED) {
+            // 释放原支付单及原流水的已退款金额预占（与退款单更新同一事务）
+            paymentRepository.releaseRefundedAmount(refund.getOriginalPaymentId(),
+                    transaction.getOriginalTransactionId(), transaction.getTransactionAmount());
+            publishPaymentExecutedEvent(refund, transaction);
+        }
+
+        log.info("渠道退款结果已记录，流水号: {}, 状态: {}", transaction.getCode(), transaction.getTransactionStatus());
+        return transaction;
+    }
+
 
     // 新增私有方法：从创建流水命令开始处理退款流水的创建（不负责持久化）
     private RefundTransactionEntity executeRefundInternal(RefundAggregate refundPayment, CreateRefundTransactionCommand createTransactionCommand) {
@@ -260,6 +345,9 @@ public class RefundDomainService {
 
         // 聚合根统一处理回调业务逻辑
         RefundTransactionEntity transaction = refund.handleCallback(completeCommand);
+        if (transaction == null) {
+            return refundTransaction;
+        }
 
         // 保存更新
         refundRepository.update(refund);
@@ -267,14 +355,17 @@ public class RefundDomainService {
 
         if (Boolean.TRUE.equals(command.getSuccess())) {
             // 只要成功，就发布执行事件（包含transaction details）
-            publishPaymentExecutedEvent(refund, refundTransaction);
+            publishPaymentExecutedEvent(refund, transaction);
             // 退款成功
             if (refund.getPaymentStatus() == PaymentStatus.PAID) {
                 publishPaymentCompletedEvent(refund);
             }
         } else {
+            // 释放原支付单及原流水的已退款金额预占（与退款单更新同一事务，乐观锁冲突时一并回滚）
+            paymentRepository.releaseRefundedAmount(refund.getOriginalPaymentId(),
+                    transaction.getOriginalTransactionId(), transaction.getTransactionAmount());
             // 退款失败，发布执行事件（包含transaction details，status=FAILED区分失败）
-            publishPaymentExecutedEvent(refund, refundTransaction);
+            publishPaymentExecutedEvent(refund, transaction);
         }
 
         log.info("退款回调处理完成，退款单号: {}", refund.getCode());
@@ -294,8 +385,8 @@ public class RefundDomainService {
     public RefundAggregate closeRefund(@Valid CloseRefundCommand command) {
         log.info("关闭退款单，退款单ID: {}, 关闭原因: {}", command.getRefundPaymentId(), command.getCloseReason());
 
-        // 加载退款单及原支付单信息（需要恢复原支付单的hasRefund标记）
-        RefundAggregate refund = refundRepository.findById(command.getRefundPaymentId())
+        // 加载退款单及原支付单信息（需要恢复原支付单的hasRefund标记），关闭只依赖退款单状态，无需加载流水
+        RefundAggregate refund = refundRepository.findById(command.getRefundPaymentId(), false)
                 .orElseThrow(() -> new PaymentException(PaymentErrorCode.PAYMENT_NOT_FOUND,
                         "退款单不存在"));
 
@@ -365,7 +456,7 @@ public class RefundDomainService {
         }
 
         // 7. 验证退款金额不超过可退款余额
-        BigDecimal refundableAmount = calculateRefundableAmount(originalPayment, existingRefunds);
+        BigDecimal refundableAmount = originalPayment.getRefundableAmount();
         if (command.getRefundAmount().compareTo(refundableAmount) > 0) {
             throw new PaymentException(PaymentErrorCode.AMOUNT_EXCEED_LIMIT,
                     String.format("退款金额 %s 超过可退款余额 %s",
@@ -373,35 +464,23 @@ public class RefundDomainService {
         }
     }
 
+    /**
+     * 查询支付单可退款余额（单行读取）
+     * 可退款余额 = 已支付金额 - 累计已退款金额
+     */
     public BigDecimal calculateCanRefund(String paymentId) {
-        PaymentAggregate paymentAggregate = paymentRepository.findById(paymentId, true)
+        PaymentAggregate paymentAggregate = paymentRepository.findById(paymentId)
                 .orElseThrow(() -> new PaymentException(PaymentErrorCode.ORIGINAL_PAYMENT_NOT_FOUND,
                         "原支付单不存在"));
-        List<RefundAggregate> existingRefunds = refundRepository.findByOriginalPaymentId(paymentId, true);
-        return calculateRefundableAmount(paymentAggregate, existingRefunds);
-    }
-
-    /**
-     * 计算可退款余额
-     * 可退款余额 = 已支付金额 - 已退款金额
-     */
-    private BigDecimal calculateRefundableAmount(PaymentAggregate originalPayment, List<RefundAggregate> existingRefunds) {
-
-        BigDecimal refundedAmount = BigDecimal.ZERO;
-        for (RefundAggregate refund : existingRefunds) {
-            refundedAmount = refundedAmount.add(refund.getPaidAmount());
-        }
-
-        return originalPayment.getPaidAmount().subtract(refundedAmount)
-                .setScale(2, RoundingMode.HALF_UP);
+        return paymentAggregate.getRefundableAmount();
     }
 
     /**
      * 验证原支付流水
      * 退款必须基于特定的原支付流水，且该流水必须是成功状态
      */
-    public void validateOriginalTransaction(PaymentTransactionEntity originalTransaction, List<RefundAggregate> existRefunds, BigDecimal amount) {
-        BigDecimal exist = calculateTransactionCanRefund(originalTransaction, existRefunds);
+    public void validateOriginalTransaction(PaymentTransactionEntity originalTransaction, BigDecimal amount) {
+        BigDecimal exist = calculateTransactionCanRefund(originalTransaction);
 
         // 验证退款金额不超过原流水金额
         if (amount.compareTo(exist) > 0) {
@@ -413,15 +492,10 @@ public class RefundDomainService {
 
     /**
      * 计算原支付流水可退款金额
+     * 可退款金额 = 交易金额 - 累计已退款金额
      */
-    public BigDecimal calculateTransactionCanRefund(PaymentTransactionEntity originalTransaction, List<RefundAggregate> existRefunds) {
-        List<RefundTransactionEntity> existTransactions = existRefunds.stream().flatMap(aggregate -> aggregate.findTransactionsByOriginalId(originalTransaction.getId()).stream())
-                .collect(Collectors.toList());
-        BigDecimal all = existTransactions.stream()
-                .filter(transaction -> transaction.getTransactionStatus() == TransactionStatus.SUCCESS)
-                .map(entity -> entity.getTransactionAmount())
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-        return originalTransaction.getTransactionAmount().subtract(all);
+    public BigDecimal calculateTransactionCanRefund(PaymentTransactionEntity originalTransaction) {
+        return originalTransaction.getRefundableAmount();
     }
 
     // ==================== 事件发布方法（复用Payment事件）====================
@@ -433,6 +507,7 @@ public class RefundDomainService {
     private void publishPaymentCreatedEvent(RefundAggregate refund) {
         PaymentCreatedEvent event = PaymentCreatedEvent.builder()
                 .paymentId(refund.getId())
+                .originalPaymentId(refund.getOriginalPaymentId())
                 .paymentCode(refund.getCode())
                 .orderId(refund.getOrderId())
                 .resellerId(refund.getResellerId())
@@ -440,7 +515,7 @@ public class RefundDomainService {
                 .paymentType(refund.getPaymentType()) // PaymentType.REFUND
                 .createTime(refund.getCreateTime())
                 .build();
-        eventPublisher.publishEvent(event);
+        paymentEventPublisher.publish(event.getPaymentId(), event);
         log.debug("发布支付单创建事件（退款）: {}", event);
     }
 
@@ -451,6 +526,7 @@ public class RefundDomainService {
     private void publishPaymentCompletedEvent(RefundAggregate refund) {
         PaymentCompletedEvent event = PaymentCompletedEvent.builder()
                 .paymentId(refund.getId())
+                .originalPaymentId(refund.getOriginalPaymentId())
                 .paymentCode(refund.getCode())
                 .orderId(refund.getOrderId())
                 .resellerId(refund.getResellerId())
@@ -459,7 +535,7 @@ public class RefundDomainService {
                 .paymentType(refund.getPaymentType()) // PaymentType.REFUND
                 .completedTime(LocalDateTime.now())
                 .build();
-        eventPublisher.publishEvent(event);
+        paymentEventPublisher.publish(event.getPaymentId(), event);
         log.debug("发布支付单完成事件（退款）: {}", event);
     }
 
@@ -470,6 +546,7 @@ public class RefundDomainService {
     private void publishPaymentExecutedEvent(RefundAggregate refund, RefundTransactionEntity transaction) {
         PaymentExecutedEvent event = PaymentExecutedEvent.builder()
                 .paymentId(refund.getId())
+                .originalPaymentId(refund.getOriginalPaymentId())
                 .orderId(refund.getOrderId())
                 .resellerId(refund.getResellerId())
                 .paymentType(refund.getPaymentType()) // PaymentType.REFUND
@@ -484,7 +561,7 @@ public class RefundDomainService {
                 .channelTransactionNumber(transaction.getChannelTransactionNumber())
                 .executedTime(transaction.getCompletedTime())
                 .build();
-        eventPublisher.publishEvent(event);
+        paymentEventPublisher.publish(event.getPaymentId(), event);
         log.debug("发布支付执行事件（退款流水）: {}", event);
     }
 
@@ -494,6 +571,7 @@ public class RefundDomainService {
     private void publishPaymentClosedEvent(RefundAggregate refund) {
         PaymentClosedEvent event = PaymentClosedEvent.builder()
                 .paymentId(refund.getId())
+                .originalPaymentId(refund.getOriginalPaymentId())
                 .paymentCode(refund.getCode())
                 .orderId(refund.getOrderId())
                 .resellerId(refund.getResellerId())
@@ -503,7 +581,7 @@ public class RefundDomainService {
                 .closeReason(refund.getReason())
                 .closeTime(LocalDateTime.now())
                 .build();
-        eventPublisher.publishEvent(event);
+        paymentEventPublisher.publish(event.getPaymentId(), event);
         log.debug("发布支付单关闭事件（退款）: {}", event);
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+import com.baomidou.mybatisplus.annotation.EnumValue;
+
+/**
+ * 回调收件箱状态枚举
+ * Callback Inbox Status Enumeration
+ *
+ * <p>标识渠道回调在本地队列中的处理进度。</p>
+ * <p>状态转换：PENDING → PROCESSING → DONE/FAILED，处理失败未超过重试次数时回到PENDING</p>
+ */
+public enum CallbackInboxStatus {
+
+    /**
+     * 待处理 - 回调已落库，等待工作线程领取
+     */
+    PENDING("PENDING", "待处理"),
+
+    /**
+     * 处理中 - 已被工作线程领取
+     */
+    PROCESSING("PROCESSING", "处理中"),
+
+    /**
+     * 已完成 - 回调已成功应用到支付单
+     */
+    DONE("DONE", "已完成"),
+
+    /**
+     * 失败 - 超过最大重试次数，需人工介入
+     */
+    FAILED("FAILED", "失败");
+
+    @EnumValue
+    private final String code;
+    private final String description;
+
+    CallbackInboxStatus(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,46 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+/**
+ * 渠道交易查询状态枚举
+ * Channel Query Status Enumeration
+ *
+ * <p>渠道状态查询返回的交易状态，用于补偿丢失的渠道回调</p>
+ */
+public enum ChannelQueryStatus {
+
+    /**
+     * 成功 - 渠道侧交易已成功
+     */
+    SUCCESS("SUCCESS", "成功"),
+
+    /**
+     * 失败 - 渠道侧交易已失败或已关闭
+     */
+    FAILED("FAILED", "失败"),
+
+    /**
+     * 处理中 - 渠道侧交易尚未完成
+     */
+    PROCESSING("PROCESSING", "处理中"),
+
+    /**
+     * 不存在 - 渠道侧没有该交易记录
+     */
+    NOT_FOUND("NOT_FOUND", "不存在");
+
+    private final String code;
+    private final String description;
+
+    ChannelQueryStatus(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
@@ -0,0 +1,50 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+import com.baomidou.mybatisplus.annotation.EnumValue;
+
+/**
+ * 发件箱事件状态枚举
+ * Outbox Event Status Enumeration
+ *
+ * <p>标识支付领域事件在发件箱中的投递进度。</p>
+ * <p>状态转换：PENDING → PROCESSING → DONE/FAILED，投递失败未超过重试次数时回到PENDING</p>
+ */
+public enum OutboxEventStatus {
+
+    /**
+     * 待投递 - 事件已随业务事务落库
+     */
+    PENDING("PENDING", "待投递"),
+
+    /**
+     * 投递中 - 已被投递线程领取
+     */
+    PROCESSING("PROCESSING", "投递中"),
+
+    /**
+     * 已投递 - 所有监听器处理成功
+     */
+    DONE("DONE", "已投递"),
+
+    /**
+     * 失败 - 超过最大重试次数，需人工介入
+     */
+    FAILED("FAILED", "失败");
+
+    @EnumValue
+    private final String code;
+    private final String description;
+
+    OutboxEventStatus(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
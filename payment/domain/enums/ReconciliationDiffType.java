@@ -0,0 +1,46 @@
+package com.bytz.modules.cms.payment.domain.enums;
+
+/**
+ * 对账差异类型枚举
+ * Reconciliation Diff Type Enumeration
+ *
+ * <p>渠道对账单与本地支付流水按渠道交易记录ID比对后的差异分类</p>
+ */
+public enum ReconciliationDiffType {
+
+    /**
+     * 本地缺失 - 渠道对账单有成功交易，本地无对应流水
+     */
+    MISSING_LOCAL("MISSING_LOCAL", "本地缺失"),
+
+    /**
+     * 渠道缺失 - 本地流水成功或处理中，渠道对账单无对应交易
+     */
+    MISSING_CHANNEL("MISSING_CHANNEL", "渠道缺失"),
+
+    /**
+     * 金额不一致
+     */
+    AMOUNT_MISMATCH("AMOUNT_MISMATCH", "金额不一致"),
+
+    /**
+     * 状态不一致
+     */
+    STATUS_MISMATCH("STATUS_MISMATCH", "状态不一致");
+
+    private final String code;
+    private final String description;
+
+    ReconciliationDiffType(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
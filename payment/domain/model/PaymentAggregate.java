@@ -89,6 +89,11 @@ public class PaymentAggregate {
      */
     private Boolean hasRefund;
 
+    /**
+     * 累计已退款金额（成功及处理中退款流水合计，由执行退款时原子预占、退款失败时释放）
+     */
+    private BigDecimal refundedAmount;
+
     // ==================== 类型和状态 ====================
 
     /**
@@ -411,6 +416,17 @@ public class PaymentAggregate {
         return this.paymentAmount.subtract(this.paidAmount).setScale(2, RoundingMode.HALF_UP);
     }
 
+    /**
+     * 计算可退款余额（保留2位小数）
+     * 可退款余额 = 已支付金额 - 累计已退款金额
+     *
+     * @return 可退款余额
+     */
+    public BigDecimal getRefundableAmount() {
+        BigDecimal refunded = this.refundedAmount != null ? this.refundedAmount : BigDecimal.ZERO;
+        return this.paidAmount.subtract(refunded).setScale(2, RoundingMode.HALF_UP);
+    }
+
     /**
      * 判断是否允许支付
      * 业务规则：只有UNPAID或PARTIAL_PAID或FAILED状态才允许支付
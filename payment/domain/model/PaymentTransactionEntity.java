@@ -71,6 +71,11 @@ public class PaymentTransactionEntity {
      */
     private BigDecimal transactionAmount;
 
+    /**
+     * 累计已退款金额（以本流水为原流水的成功及处理中退款合计，由执行退款时原子预占、退款失败时释放）
+     */
+    private BigDecimal refundedAmount;
+
     // ==================== 渠道信息 ====================
 
     /**
@@ -302,6 +307,17 @@ public class PaymentTransactionEntity {
         return isSuccess() && isPaymentTransaction();
     }
 
+    /**
+     * 计算本流水可退款金额
+     * 可退款金额 = 交易金额 - 累计已退款金额
+     *
+     * @return 可退款金额
+     */
+    public BigDecimal getRefundableAmount() {
+        BigDecimal refunded = this.refundedAmount != null ? this.refundedAmount : BigDecimal.ZERO;
+        return this.transactionAmount.subtract(refunded);
+    }
+
     // ==================== 辅助方法（查询方法，不涉及状态变更）====================
 
     /**
@@ -8,6 +8,7 @@ import com.bytz.modules.cms.payment.domain.enums.PaymentStatus;
 import com.bytz.modules.cms.payment.domain.enums.PaymentType;
 import com.bytz.modules.cms.payment.domain.enums.RelatedBusinessType;
 import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.service.ChannelRefundResponse;
 import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
 import com.bytz.modules.cms.payment.shared.exception.PaymentException;
 import lombok.AllArgsConstructor;
@@ -387,6 +388,50 @@ public class RefundAggregate {
         if (transaction.getTransactionStatus() != TransactionStatus.PROCESSING) {
             return null;
         }
+        if (Boolean.TRUE.equals(command.getSuccess())) {
+            transaction.success(command.getCompletedTime(), command.getChannelTransactionNumber());
+        } else {
+            transaction.fail(command.getCompletedTime(), command.getChannelResponse(), command.getChannelTransactionNumber());
+        }
+        updateByTransaction(transaction);
+
+        return transaction;
+    }
+
+    /**
+     * 接收渠道退款调用结果
+     * 退款流水先以PROCESSING落库，渠道调用返回后由此方法更新：
+     * - SUCCESS/FAILED：同步完成，流水进入最终状态
+     * - PROCESSING：渠道已受理，记录渠道交易ID，等待回调
+     * 流水不存在或已不是PROCESSING时返回null（幂等）
+     *
+     * @param transactionId 退款流水ID
+     * @param response      渠道退款响应
+     * @return 更新后的退款流水
+     */
+    public RefundTransactionEntity acceptChannelResponse(String transactionId, ChannelRefundResponse response) {
+        RefundTransactionEntity transaction = getProcessingTransactions().stream()
+                .filter(tx -> transactionId.equals(tx.getId()))
+                .findFirst()
+                .orElse(null);
+        if (transaction == null || transaction.getTransactionStatus() != TransactionStatus.PROCESSING) {
+            return null;
+        }
+
+        if (transaction.getChannelTransactionId() == null) {
+            transaction.setChannelTransactionId(response.getChannelTransactionId());
+        }
+        if (response.getStatus() == TransactionStatus.SUCCESS) {
+            transaction.success(response.getCompletedTime(), response.getChannelTransactionNumber());
+        } else if (response.getStatus() == TransactionStatus.PROCESSING) {
+            if (response.getChannelTransactionNumber() != null) {
+                transaction.setChannelTransactionNumber(response.getChannelTransactionNumber());
+            }
+        } else {
+            transaction.fail(response.getCompletedTime(),
+                    String.format("错误码: %s, 错误信息: %s", response.getErrorCode(), response.getErrorMessage()),
+                    response.getChannelTransactionNumber());
+        }
         updateByTransaction(transaction);
 
         return transaction;
@@ -198,7 +198,7 @@ public class RefundTransactionEntity {
      */
     public static RefundTransactionEntity create(CreateRefundTransactionCommand command) {
         // 验证参数
-        if (StringUtils.isNotBlank(command.getRefundPaymentId())) {
+        if (StringUtils.isBlank(command.getRefundPaymentId())) {
             throw new PaymentException(
                     PaymentErrorCode.INVALID_PARAMETER,
                     "退款单ID不能为空");
@@ -4,6 +4,7 @@ import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
 import com.bytz.modules.cms.payment.domain.model.PaymentAggregate;
 import com.bytz.modules.cms.payment.domain.model.PaymentTransactionEntity;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -126,6 +127,16 @@ public interface IPaymentRepository {
      * @return true如果存在进行中的流水，否则false
      */
     boolean existsProcessingTransaction(String paymentId);
+
+    /**
+     * 检查渠道交易是否存在流水（不限状态）
+     * 用于区分重复投递的回调与未知交易的回调
+     *
+     * @param paymentChannel 支付渠道
+     * @param channelTransactionId 渠道交易记录ID
+     * @return true如果存在流水，否则false
+     */
+    boolean existsByChannelAndTransactionId(PaymentChannel paymentChannel, String channelTransactionId);
     
     /**
      * 根据支付单ID和渠道交易记录ID查询流水
@@ -170,4 +181,37 @@ public interface IPaymentRepository {
             PaymentChannel paymentChannel, 
             String channelTransactionId, 
             boolean loadTransactions);
+    
+    /**
+     * 根据渠道和交易记录ID查找持有进行中流水的支付单
+     * 回调专用：一次联表查询取回支付单及其进行中流水，不加载已完成流水
+     *
+     * @param paymentChannel 支付渠道
+     * @param channelTransactionId 渠道交易记录ID
+     * @return 支付单聚合根列表（仅processingTransaction已加载）
+     */
+    List<PaymentAggregate> findProcessingByChannelAndTransactionId(
+            PaymentChannel paymentChannel, 
+            String channelTransactionId);
+
+    /**
+     * 预占已退款金额（原支付单及原支付流水）
+     * 执行退款创建退款流水时在同一事务内调用，条件UPDATE原子累加，不依赖乐观锁版本
+     * 累加后超过已支付金额或流水金额时抛出AMOUNT_EXCEED_LIMIT
+     *
+     * @param paymentId 原支付单ID
+     * @param originalTransactionId 原支付流水ID
+     * @param amount 退款金额
+     */
+    void reserveRefundedAmount(String paymentId, String originalTransactionId, BigDecimal amount);
+
+    /**
+     * 释放已退款金额预占（原支付单及原支付流水）
+     * 退款流水失败时在同一事务内调用，单条UPDATE原子扣减
+     *
+     * @param paymentId 原支付单ID
+     * @param originalTransactionId 原支付流水ID
+     * @param amount 退款金额
+     */
+    void releaseRefundedAmount(String paymentId, String originalTransactionId, BigDecimal amount);
 }
\ No newline at end of file
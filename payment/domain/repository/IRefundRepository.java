@@ -76,6 +76,17 @@ public interface IRefundRepository {
      */
     List<RefundAggregate> findByOriginalPaymentId(String originalPaymentId, boolean loadTransactions);
 
+    /**
+     * 根据原支付单ID查找退款单
+     * 所有退款单的流水通过一次批量查询加载
+     *
+     * @param originalPaymentId 原支付单ID
+     * @param loadTransactions  是否加载退款流水
+     * @param processingOnly    是否只加载进行中流水（为true时已完成流水列表为空，不可用于依赖历史流水的计算）
+     * @return 退款单聚合根列表
+     */
+    List<RefundAggregate> findByOriginalPaymentId(String originalPaymentId, boolean loadTransactions, boolean processingOnly);
+
     /**
      * 更新退款单
      * 
@@ -0,0 +1,91 @@
+package com.bytz.modules.cms.payment.domain.service;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.shared.resilience.CircuitBreaker;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 渠道健康状态
+ * Channel Health
+ *
+ * <p>渠道调用防护（并发隔离、超时、熔断）的实时状态与计数，计数为本节点启动以来的累计值</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelHealth {
+
+    /**
+     * 支付渠道
+     */
+    private PaymentChannel paymentChannel;
+
+    /**
+     * 熔断状态
+     */
+    private CircuitBreaker.State circuitState;
+
+    /**
+     * 当前是否可用（未熔断）
+     */
+    private Boolean available;
+
+    /**
+     * 窗口内失败率（百分比）
+     */
+    private Integer failureRate;
+
+    /**
+     * 最大并发调用数
+     */
+    private Integer maxConcurrentCalls;
+
+    /**
+     * 当前并发调用数
+     */
+    private Integer activeCalls;
+
+    /**
+     * 调用次数
+     */
+    private Long callCount;
+
+    /**
+     * 调用异常次数（含超时）
+     */
+    private Long errorCount;
+
+    /**
+     * 调用超时次数
+     */
+    private Long timeoutCount;
+
+    /**
+     * 熔断或并发已满被拒绝次数
+     */
+    private Long rejectedCount;
+
+    /**
+     * 熔断打开次数
+     */
+    private Long circuitOpenedCount;
+
+    /**
+     * 平均延迟（毫秒）
+     */
+    private Long meanMillis;
+
+    /**
+     * P50延迟（毫秒，分桶上界）
+     */
+    private Long p50Millis;
+
+    /**
+     * P99延迟（毫秒，分桶上界，-1表示超过最大分桶）
+     */
+    private Long p99Millis;
+}
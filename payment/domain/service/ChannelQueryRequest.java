@@ -0,0 +1,48 @@
+package com.bytz.modules.cms.payment.domain.service;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 渠道交易查询请求
+ * Channel Query Request
+ *
+ * <p>向支付渠道查询交易状态的参数</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelQueryRequest {
+
+    /**
+     * 支付渠道
+     */
+    private PaymentChannel paymentChannel;
+
+    /**
+     * 交易类型（支付/退款）
+     */
+    private TransactionType transactionType;
+
+    /**
+     * 渠道交易记录ID
+     */
+    private String channelTransactionId;
+
+    /**
+     * 流水号（商户侧单号）
+     */
+    private String transactionCode;
+
+    /**
+     * 交易金额
+     */
+    private BigDecimal transactionAmount;
+}
@@ -0,0 +1,88 @@
+package com.bytz.modules.cms.payment.domain.service;
+
+import com.bytz.modules.cms.payment.domain.enums.ChannelQueryStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 渠道交易查询响应
+ * Channel Query Response
+ *
+ * <p>支付渠道交易状态查询的结果</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelQueryResponse {
+
+    /**
+     * 交易状态
+     */
+    private ChannelQueryStatus status;
+
+    /**
+     * 渠道流水号（成功时有值）
+     */
+    private String channelTransactionNumber;
+
+    /**
+     * 完成时间
+     */
+    private LocalDateTime completedTime;
+
+    /**
+     * 错误码（失败时有值）
+     */
+    private String errorCode;
+
+    /**
+     * 错误信息（失败时有值）
+     */
+    private String errorMessage;
+
+    /**
+     * 创建成功响应
+     */
+    public static ChannelQueryResponse success(String channelTransactionNumber, LocalDateTime completedTime) {
+        return ChannelQueryResponse.builder()
+                .status(ChannelQueryStatus.SUCCESS)
+                .channelTransactionNumber(channelTransactionNumber)
+                .completedTime(completedTime != null ? completedTime : LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * 创建失败响应
+     */
+    public static ChannelQueryResponse failed(String errorCode, String errorMessage) {
+        return ChannelQueryResponse.builder()
+                .status(ChannelQueryStatus.FAILED)
+                .errorCode(errorCode)
+                .errorMessage(errorMessage)
+                .completedTime(LocalDateTime.now())
+                .build();
+    }
+
+    /**
+     * 创建处理中响应
+     */
+    public static ChannelQueryResponse processing() {
+        return ChannelQueryResponse.builder()
+                .status(ChannelQueryStatus.PROCESSING)
+                .build();
+    }
+
+    /**
+     * 创建不存在响应
+     */
+    public static ChannelQueryResponse notFound() {
+        return ChannelQueryResponse.builder()
+                .status(ChannelQueryStatus.NOT_FOUND)
+                .build();
+    }
+}
@@ -30,6 +30,17 @@ public class ChannelRefundRequest {
      * 退款支付单号
      */
     private String refundPaymentCode;
+
+    /**
+     * 退款流水ID
+     */
+    private String refundTransactionId;
+
+    /**
+     * 退款流水号
+     * 渠道侧幂等键（商户退款单号），同一流水重试时保持不变
+     */
+    private String refundTransactionCode;
     
     /**
      * 原支付单ID
@@ -46,6 +57,12 @@ public class ChannelRefundRequest {
      * 用于在渠道侧定位原支付交易
      */
     private String originalChannelTransactionId;
+
+    /**
+     * 原支付流水的支付渠道
+     * 用于选择渠道退款服务
+     */
+    private PaymentChannel originalPaymentChannel;
     
     /**
      * 经销商ID
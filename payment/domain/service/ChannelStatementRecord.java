@@ -0,0 +1,37 @@
+package com.bytz.modules.cms.payment.domain.service;
+
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * 渠道对账单记录
+ * Channel Statement Record
+ *
+ * <p>渠道对账单中的一笔交易（支付或退款），由各渠道的对账单解析器转换为统一格式</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChannelStatementRecord {
+
+    /**
+     * 渠道交易记录ID，对应本地流水的channelTransactionId
+     */
+    private String channelTransactionId;
+
+    /**
+     * 交易金额
+     */
+    private BigDecimal amount;
+
+    /**
+     * 交易状态
+     */
+    private TransactionStatus status;
+}
@@ -0,0 +1,179 @@
+package com.bytz.modules.cms.payment.domain.service;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import com.bytz.modules.cms.shared.metrics.LatencyHistogram;
+import com.bytz.modules.cms.shared.resilience.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 渠道退款调用防护
+ * Guarded Channel Refund Service
+ *
+ * <p>包装单个渠道的退款服务，每个渠道独立：
+ * - 并发隔离：信号量限制同时调用数，已满时立即拒绝，慢渠道不会占满调用方线程
+ * - 超时：调用超过时限时由看门狗中断调用线程，并抛出CHANNEL_TIMEOUT
+ * - 熔断：连续失败率过高时打开，打开期间立即拒绝
+ * - 延迟直方图：记录每次完成调用的耗时
+ * </p>
+ * <p>拒绝抛出CHANNEL_UNAVAILABLE，此时渠道未被调用，调用方重试是安全的；渠道返回FAILED属于业务失败，不计入熔断</p>
+ */
+@Slf4j
+final class GuardedChannelRefundService implements IPaymentChannelRefundService {
+
+    private final IPaymentChannelRefundService delegate;
+    private final ScheduledExecutorService watchdog;
+    private final long timeoutMillis;
+    private final int maxConcurrentCalls;
+    private final Semaphore bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final LongAdder rejectedCount = new LongAdder();
+
+    GuardedChannelRefundService(IPaymentChannelRefundService delegate, ScheduledExecutorService watchdog,
+                                Duration timeout, int maxConcurrentCalls, CircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.watchdog = watchdog;
+        this.timeoutMillis = timeout.toMillis();
+        this.maxConcurrentCalls = maxConcurrentCalls;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public PaymentChannel getSupportedChannel() {
+        return delegate.getSupportedChannel();
+    }
+
+    @Override
+    public boolean supportsIdempotentRetry() {
+        return delegate.supportsIdempotentRetry();
+    }
+
+    @Override
+    public ChannelRefundResponse executeRefund(ChannelRefundRequest request) {
+        if (!circuitBreaker.tryAcquirePermission()) {
+            rejectedCount.increment();
+            throw unavailable("熔断中");
+        }
+        if (!bulkhead.tryAcquire()) {
+            circuitBreaker.releasePermission();
+            rejectedCount.increment();
+            throw unavailable("并发调用已满");
+        }
+        try {
+            return callWithTimeout(request);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * 当前是否可用（未熔断），并发已满只是暂时繁忙，不视为不可用
+     */
+    boolean isAvailable() {
+        return circuitBreaker.isCallPermitted();
+    }
+
+    ChannelHealth getHealth() {
+        return ChannelHealth.builder()
+                .paymentChannel(getSupportedChannel())
+                .circuitState(circuitBreaker.getState())
+                .available(isAvailable())
+                .failureRate(circuitBreaker.getFailureRate())
+                .maxConcurrentCalls(maxConcurrentCalls)
+                .activeCalls(maxConcurrentCalls - bulkhead.availablePermits())
+                .callCount(latency.getCount())
+                .errorCount(errorCount.sum())
+                .timeoutCount(timeoutCount.sum())
+                .rejectedCount(rejectedCount.sum())
+                .circuitOpenedCount(circuitBreaker.getOpenedCount())
+                .meanMillis(latency.getMeanMillis())
+                .p50Millis(latency.getPercentileMillis(50))
+                .p99Millis(latency.getPercentileMillis(99))
+                .build();
+    }
+
+    /**
+     * 在当前线程调用渠道，超时由看门狗中断
+     * 中断与完成通过同一把锁串行化，保证中断标记不会遗留给调用线程的下一个任务
+     * 超时后才返回的响应仍是渠道的真实结果，照常返回，只计入超时与熔断失败
+     */
+    private ChannelRefundResponse callWithTimeout(ChannelRefundRequest request) {
+        Thread caller = Thread.currentThread();
+        CallState state = new CallState();
+        ScheduledFuture<?> timer = watchdog.schedule(() -> {
+            synchronized (state) {
+                if (!state.finished) {
+                    state.timedOut = true;
+                    caller.interrupt();
+                }
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+
+        long startNanos = System.nanoTime();
+        ChannelRefundResponse response = null;
+        RuntimeException error = null;
+        try {
+            response = delegate.executeRefund(request);
+        } catch (RuntimeException e) {
+            error = e;
+        } finally {
+            synchronized (state) {
+                state.finished = true;
+            }
+            timer.cancel(false);
+            // 清除超时中断标记
+            Thread.interrupted();
+            latency.record(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+        }
+
+        if (state.timedOut) {
+            timeoutCount.increment();
+        }
+        if (error != null || state.timedOut) {
+            errorCount.increment();
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+
+        if (response != null) {
+            return response;
+        }
+        if (state.timedOut) {
+            throw new PaymentException(PaymentErrorCode.CHANNEL_TIMEOUT,
+                    String.format("支付渠道 %s 退款调用超时", getSupportedChannel().getDescription()));
+        }
+        if (error != null) {
+            throw error;
+        }
+        return null;
+    }
+
+    private PaymentException unavailable(String reason) {
+        log.debug("支付渠道 {} 退款调用被拒绝: {}", getSupportedChannel(), reason);
+        return new PaymentException(PaymentErrorCode.CHANNEL_UNAVAILABLE,
+                String.format("支付渠道 %s 暂不可用（%s）", getSupportedChannel().getDescription(), reason));
+    }
+
+    /**
+     * 单次调用状态
+     */
+    private static final class CallState {
+
+        private boolean finished;
+        private boolean timedOut;
+    }
+}
@@ -0,0 +1,31 @@
+package com.bytz.modules.cms.payment.domain.service;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.shared.sort.CloseableIterator;
+
+import java.nio.file.Path;
+
+/**
+ * 渠道对账单解析器接口
+ * Channel Statement Parser Interface
+ *
+ * <p>各渠道对账单格式不同，由实现类逐行解析为 {@link ChannelStatementRecord}</p>
+ * <p>解析须为流式，不得将整个文件读入内存；格式错误的行直接抛出异常，避免误报为本地缺失</p>
+ */
+public interface IChannelStatementParser {
+
+    /**
+     * 获取支持的支付渠道类型
+     *
+     * @return 支付渠道类型
+     */
+    PaymentChannel getSupportedChannel();
+
+    /**
+     * 流式解析对账单
+     *
+     * @param statementFile 对账单文件
+     * @return 对账单记录迭代器，使用方负责关闭
+     */
+    CloseableIterator<ChannelStatementRecord> parse(Path statementFile);
+}
@@ -0,0 +1,29 @@
+package com.bytz.modules.cms.payment.domain.service;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+
+/**
+ * 支付渠道交易查询服务接口
+ * Payment Channel Query Service Interface
+ *
+ * <p>定义各支付渠道查询交易状态的统一接口，与 {@link IPaymentChannelRefundService} 并列</p>
+ * <p>用于回调丢失时主动查询渠道结果，查询结果按正常回调路径处理</p>
+ * <p>实现须为只读查询，不得改变渠道侧交易状态</p>
+ */
+public interface IPaymentChannelQueryService {
+
+    /**
+     * 获取支持的支付渠道类型
+     *
+     * @return 支付渠道类型
+     */
+    PaymentChannel getSupportedChannel();
+
+    /**
+     * 查询交易状态（支付与退款）
+     *
+     * @param request 查询请求
+     * @return 查询响应
+     */
+    ChannelQueryResponse queryTransaction(ChannelQueryRequest request);
+}
@@ -34,4 +34,15 @@ public interface IPaymentChannelRefundService {
      * @return 退款响应
      */
     ChannelRefundResponse executeRefund(ChannelRefundRequest request);
+
+    /**
+     * 是否支持超时/异常后重试
+     * 只有按退款流水号（{@link ChannelRefundRequest#getRefundTransactionCode()}）幂等的渠道才能重试，
+     * 否则调用超时后渠道侧可能已执行，重试会重复退款，此时流水保持PROCESSING等待回调或状态查询
+     *
+     * @return true-可安全重试
+     */
+    default boolean supportsIdempotentRetry() {
+        return false;
+    }
 }
@@ -0,0 +1,28 @@
+package com.bytz.modules.cms.payment.domain.service;
+
+import java.util.Map;
+
+/**
+ * 支付领域事件发布接口
+ * Payment Domain Event Publisher Interface
+ *
+ * <p>领域服务通过该接口发布支付事件，事件与支付单数据在同一事务内落库（事务性发件箱），提交后异步投递</p>
+ * <p>同一支付单的事件按发布顺序投递，至少投递一次，监听方需保证幂等</p>
+ */
+public interface IPaymentEventPublisher {
+
+    /**
+     * 发布支付领域事件
+     *
+     * @param paymentId 支付单ID（同一支付单的事件保证顺序）
+     * @param event     事件对象
+     */
+    void publish(String paymentId, Object event);
+
+    /**
+     * 批量发布支付领域事件，整批一次写入
+     *
+     * @param eventsByPaymentId 支付单ID → 事件（每个支付单一个事件，按迭代顺序写入）
+     */
+    void publishAll(Map<String, ?> eventsByPaymentId);
+}
@@ -0,0 +1,63 @@
+package com.bytz.modules.cms.payment.domain.service;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 支付渠道交易查询服务注册表
+ * Payment Channel Query Service Registry
+ *
+ * <p>管理各支付渠道的交易查询服务实现</p>
+ * <p>Spring容器启动时自动注册所有实现了 {@link IPaymentChannelQueryService} 接口的服务</p>
+ * <p>查询服务是可选的，没有任何实现时注册表为空，不影响启动</p>
+ */
+@Slf4j
+@Component
+public class PaymentChannelQueryServiceRegistry {
+
+    private final ObjectProvider<IPaymentChannelQueryService> queryServices;
+    private final Map<PaymentChannel, IPaymentChannelQueryService> serviceMap = new HashMap<>();
+
+    public PaymentChannelQueryServiceRegistry(ObjectProvider<IPaymentChannelQueryService> queryServices) {
+        this.queryServices = queryServices;
+    }
+
+    @PostConstruct
+    public void init() {
+        queryServices.orderedStream().forEach(service -> {
+            PaymentChannel channel = service.getSupportedChannel();
+            if (serviceMap.containsKey(channel)) {
+                log.warn("支付渠道 {} 的交易查询服务已存在，将被覆盖", channel);
+            }
+            serviceMap.put(channel, service);
+            log.info("注册支付渠道交易查询服务: {} -> {}", channel, service.getClass().getSimpleName());
+        });
+    }
+
+    /**
+     * 获取指定渠道的交易查询服务
+     *
+     * @param channel 支付渠道
+     * @return 交易查询服务，渠道不支持查询时为空
+     */
+    public Optional<IPaymentChannelQueryService> getQueryService(PaymentChannel channel) {
+        return Optional.ofNullable(serviceMap.get(channel));
+    }
+
+    /**
+     * 检查渠道是否支持交易查询
+     *
+     * @param channel 支付渠道
+     * @return true-支持，false-不支持
+     */
+    public boolean isQuerySupported(PaymentChannel channel) {
+        return serviceMap.containsKey(channel);
+    }
+}
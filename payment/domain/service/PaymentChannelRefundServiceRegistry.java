@@ -3,13 +3,20 @@ package com.bytz.modules.cms.payment.domain.service;
 import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
 import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
 import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import com.bytz.modules.cms.shared.resilience.CircuitBreaker;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
-import java.util.HashMap;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 /**
  * 支付渠道退款服务注册表
@@ -17,13 +24,26 @@ import java.util.Map;
  * 
  * <p>管理各支付渠道的退款服务实现</p>
  * <p>Spring容器启动时自动注册所有实现了 {@link IPaymentChannelRefundService} 接口的服务</p>
+ * <p>每个渠道的服务包装为独立的调用防护（并发隔离、超时、熔断、延迟直方图），一个渠道变慢或故障不影响其他渠道</p>
  */
 @Slf4j
 @Component
 public class PaymentChannelRefundServiceRegistry {
+
+    /**
+     * 单渠道最大并发调用数，小于退款派发线程数，保证慢渠道占不满派发线程
+     */
+    private static final int MAX_CONCURRENT_CALLS = 4;
+    private static final Duration CALL_TIMEOUT = Duration.ofSeconds(15);
+    private static final int CIRCUIT_WINDOW_SIZE = 20;
+    private static final int CIRCUIT_MINIMUM_CALLS = 10;
+    private static final int CIRCUIT_FAILURE_RATE_THRESHOLD = 50;
+    private static final Duration CIRCUIT_OPEN_DURATION = Duration.ofSeconds(30);
     
     private final List<IPaymentChannelRefundService> refundServices;
-    private final Map<PaymentChannel, IPaymentChannelRefundService> serviceMap = new HashMap<>();
+    private final Map<PaymentChannel, GuardedChannelRefundService> serviceMap = new EnumMap<>(PaymentChannel.class);
+
+    private ScheduledExecutorService timeoutWatchdog;
     
     public PaymentChannelRefundServiceRegistry(List<IPaymentChannelRefundService> refundServices) {
         this.refundServices = refundServices;
@@ -31,18 +51,33 @@ public class PaymentChannelRefundServiceRegistry {
     
     @PostConstruct
     public void init() {
+        timeoutWatchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refund-channel-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
         for (IPaymentChannelRefundService service : refundServices) {
             PaymentChannel channel = service.getSupportedChannel();
             if (serviceMap.containsKey(channel)) {
                 log.warn("支付渠道 {} 的退款服务已存在，将被覆盖", channel);
             }
-            serviceMap.put(channel, service);
+            CircuitBreaker circuitBreaker = new CircuitBreaker(CIRCUIT_WINDOW_SIZE, CIRCUIT_MINIMUM_CALLS,
+                    CIRCUIT_FAILURE_RATE_THRESHOLD, CIRCUIT_OPEN_DURATION.toMillis());
+            serviceMap.put(channel, new GuardedChannelRefundService(service, timeoutWatchdog, CALL_TIMEOUT,
+                    MAX_CONCURRENT_CALLS, circuitBreaker));
             log.info("注册支付渠道退款服务: {} -> {}", channel, service.getClass().getSimpleName());
         }
     }
+
+    @PreDestroy
+    public void stop() {
+        if (timeoutWatchdog != null) {
+            timeoutWatchdog.shutdownNow();
+        }
+    }
     
     /**
-     * 获取指定渠道的退款服务
+     * 获取指定渠道的退款服务（已包装调用防护）
      * 
      * @param channel 支付渠道
      * @return 退款服务
@@ -66,4 +101,34 @@ public class PaymentChannelRefundServiceRegistry {
     public boolean isRefundSupported(PaymentChannel channel) {
         return serviceMap.containsKey(channel);
     }
+
+    /**
+     * 检查渠道当前是否可用（未熔断）
+     *
+     * @param channel 支付渠道
+     * @return true-可用，false-不可用或不支持退款
+     */
+    public boolean isAvailable(PaymentChannel channel) {
+        GuardedChannelRefundService service = serviceMap.get(channel);
+        return service != null && service.isAvailable();
+    }
+
+    /**
+     * 获取指定渠道的健康状态
+     *
+     * @param channel 支付渠道
+     * @return 健康状态，渠道不支持退款时为空
+     */
+    public Optional<ChannelHealth> getHealth(PaymentChannel channel) {
+        return Optional.ofNullable(serviceMap.get(channel)).map(GuardedChannelRefundService::getHealth);
+    }
+
+    /**
+     * 获取全部渠道的健康状态
+     */
+    public List<ChannelHealth> getAllHealth() {
+        List<ChannelHealth> healths = new ArrayList<>(serviceMap.size());
+        serviceMap.values().forEach(service -> healths.add(service.getHealth()));
+        return healths;
+    }
 }
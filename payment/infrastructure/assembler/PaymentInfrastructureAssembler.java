@@ -33,6 +33,7 @@ public interface PaymentInfrastructureAssembler {
      */
     @Mapping(target = "paymentAmount", source = "paymentAmount", qualifiedByName = "toBigDecimalOrZero")
     @Mapping(target = "paidAmount", source = "paidAmount", qualifiedByName = "toBigDecimalOrZero")
+    @Mapping(target = "refundedAmount", source = "refundedAmount", qualifiedByName = "toBigDecimalOrZero")
     @Mapping(target = "currency", source = "currency", defaultValue = "CNY")
     @Mapping(target = "processingTransaction", ignore = true)
     @Mapping(target = "completedTransactions", ignore = true)
@@ -89,6 +90,7 @@ public interface PaymentInfrastructureAssembler {
      * PO -> 流水实体
      */
     @Mapping(target = "transactionAmount", source = "transactionAmount", qualifiedByName = "toBigDecimalOrZero")
+    @Mapping(target = "refundedAmount", source = "refundedAmount", qualifiedByName = "toBigDecimalOrZero")
     PaymentTransactionEntity poToTransaction(PaymentTransactionPO po);
     
     /**
@@ -0,0 +1,130 @@
+package com.bytz.modules.cms.payment.infrastructure.channel;
+
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.service.ChannelStatementRecord;
+import com.bytz.modules.cms.payment.domain.service.IChannelStatementParser;
+import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import com.bytz.modules.cms.shared.sort.CloseableIterator;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+
+/**
+ * 分隔符对账单解析器
+ * Delimited Channel Statement Parser
+ *
+ * <p>解析首行为表头、逗号分隔的对账单：渠道交易记录ID,金额,状态（SUCCESS/FAILED/PROCESSING）</p>
+ * <p>列位置不同的渠道覆盖 {@link #parseLine(String[], long)}；空行跳过，格式错误的行抛出异常并指明行号</p>
+ */
+public abstract class DelimitedChannelStatementParser implements IChannelStatementParser {
+
+    private static final String DELIMITER = ",";
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    @Override
+    public CloseableIterator<ChannelStatementRecord> parse(Path statementFile) {
+        try {
+            BufferedReader reader = new BufferedReader(Files.newBufferedReader(statementFile, StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+            return new LineIterator(reader);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 解析一行数据
+     *
+     * @param columns    按分隔符拆分后的列
+     * @param lineNumber 行号（从1开始，含表头）
+     * @return 对账单记录
+     */
+    protected ChannelStatementRecord parseLine(String[] columns, long lineNumber) {
+        if (columns.length < 3) {
+            throw invalidLine(lineNumber, "列数不足");
+        }
+        String channelTransactionId = columns[0].trim();
+        if (StringUtils.isEmpty(channelTransactionId) || StringUtils.containsWhitespace(channelTransactionId)) {
+            throw invalidLine(lineNumber, "渠道交易记录ID无效");
+        }
+        try {
+            return ChannelStatementRecord.builder()
+                    .channelTransactionId(channelTransactionId)
+                    .amount(new BigDecimal(columns[1].trim()))
+                    .status(TransactionStatus.valueOf(columns[2].trim().toUpperCase()))
+                    .build();
+        } catch (IllegalArgumentException e) {
+            throw invalidLine(lineNumber, e.getMessage());
+        }
+    }
+
+    protected PaymentException invalidLine(long lineNumber, String reason) {
+        return new PaymentException(PaymentErrorCode.INVALID_CHANNEL_TRANSACTION,
+                String.format("%s对账单第%d行格式错误：%s", getSupportedChannel().getDescription(), lineNumber, reason));
+    }
+
+    /**
+     * 逐行读取迭代器，预读下一条非空记录
+     */
+    private final class LineIterator implements CloseableIterator<ChannelStatementRecord> {
+
+        private final BufferedReader reader;
+        private long lineNumber;
+        private ChannelStatementRecord next;
+
+        private LineIterator(BufferedReader reader) throws IOException {
+            this.reader = reader;
+            // 跳过表头
+            if (reader.readLine() != null) {
+                lineNumber++;
+            }
+            this.next = readNext();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public ChannelStatementRecord next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            ChannelStatementRecord current = next;
+            try {
+                next = readNext();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return current;
+        }
+
+        @Override
+        public void close() {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+                // 只读句柄关闭失败无需处理
+            }
+        }
+
+        private ChannelStatementRecord readNext() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (StringUtils.isNotBlank(line)) {
+                    return parseLine(line.split(DELIMITER, -1), lineNumber);
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -52,4 +52,12 @@ public class OnlinePaymentChannelRefundService implements IPaymentChannelRefundS
             return ChannelRefundResponse.failed("ONLINE_REFUND_ERROR", e.getMessage());
         }
     }
+
+    /**
+     * 线上渠道以退款流水号作为商户退款单号，渠道侧按单号去重，可安全重试
+     */
+    @Override
+    public boolean supportsIdempotentRetry() {
+        return true;
+    }
 }
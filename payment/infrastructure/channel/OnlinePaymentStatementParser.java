@@ -0,0 +1,17 @@
+package com.bytz.modules.cms.payment.infrastructure.channel;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import org.springframework.stereotype.Component;
+
+/**
+ * 线上支付对账单解析器
+ * Online Payment Statement Parser
+ */
+@Component
+public class OnlinePaymentStatementParser extends DelimitedChannelStatementParser {
+
+    @Override
+    public PaymentChannel getSupportedChannel() {
+        return PaymentChannel.ONLINE_PAYMENT;
+    }
+}
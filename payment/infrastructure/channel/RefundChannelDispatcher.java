@@ -0,0 +1,327 @@
+package com.bytz.modules.cms.payment.infrastructure.channel;
+
+import cn.hutool.core.util.StrUtil;
+import com.bytz.modules.cms.payment.domain.RefundDomainService;
+import com.bytz.modules.cms.payment.domain.enums.TransactionStatus;
+import com.bytz.modules.cms.payment.domain.service.ChannelRefundRequest;
+import com.bytz.modules.cms.payment.domain.service.ChannelRefundResponse;
+import com.bytz.modules.cms.payment.domain.service.IPaymentChannelRefundService;
+import com.bytz.modules.cms.payment.domain.service.PaymentChannelRefundServiceRegistry;
+import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 退款渠道派发器
+ * Refund Channel Dispatcher
+ *
+ * <p>职责：
+ * - 事务外调用：RefundDomainService.executeRefund只落库PROCESSING流水，本派发器在事务提交后调用渠道，远程调用期间不持有行锁
+ * - 有界并发：派发线程池使用有界队列，队列满时拒绝并按退避重新派发（此时渠道尚未被调用，重试安全）
+ * - 渠道防护：并发隔离、超时与熔断由PaymentChannelRefundServiceRegistry按渠道提供，防护拒绝时渠道未被调用，按退避重新派发
+ * - 重试：渠道异常/超时仅在渠道声明幂等（supportsIdempotentRetry）时按同一退款流水号重试；结果记录失败时只重试记录，不重复调用渠道
+ * - 结果记录：渠道响应通过RefundDomainService.applyChannelResponse在独立短事务中落库
+ * </p>
+ * <p>重试耗尽或超时不可重试的流水保持PROCESSING，由渠道回调或状态查询补偿；进程重启丢失的派发同样由状态查询补偿</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RefundChannelDispatcher {
+
+    private static final int DISPATCH_THREADS = 8;
+    private static final int DISPATCH_QUEUE_CAPACITY = 256;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long MAX_BACKOFF_SECONDS = 60L;
+    private static final int MAX_UNRESOLVED_RECORDS = 1_000;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /**
+     * 派发状态
+     */
+    public enum DispatchState {
+        /**
+         * 排队中
+         */
+        QUEUED,
+        /**
+         * 调用渠道或记录结果中
+         */
+        CALLING,
+        /**
+         * 等待重试
+         */
+        RETRY_WAIT,
+        /**
+         * 未能确认结果，等待回调或状态查询
+         */
+        UNRESOLVED
+    }
+
+    private final RefundDomainService refundDomainService;
+    private final PaymentChannelRefundServiceRegistry channelRefundServiceRegistry;
+
+    private final Map<String, DispatchJob> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, String> unresolved = Collections.synchronizedMap(
+            new LinkedHashMap<String, String>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_UNRESOLVED_RECORDS;
+                }
+            });
+
+    private final AtomicLong dispatchedCount = new AtomicLong();
+    private final AtomicLong channelSuccessCount = new AtomicLong();
+    private final AtomicLong channelProcessingCount = new AtomicLong();
+    private final AtomicLong channelFailedCount = new AtomicLong();
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong recordErrorCount = new AtomicLong();
+
+    private ThreadPoolExecutor dispatchPool;
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        dispatchPool = new ThreadPoolExecutor(DISPATCH_THREADS, DISPATCH_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(DISPATCH_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "refund-dispatch-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "refund-dispatch-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("退款渠道派发器已启动，派发线程数: {}", DISPATCH_THREADS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (dispatchPool != null) {
+            dispatchPool.shutdown();
+            try {
+                if (!dispatchPool.awaitTermination(30, TimeUnit.SECONDS)) {
+                    dispatchPool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                dispatchPool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 派发退款流水的渠道调用
+     * 存在事务时在提交后派发（回滚则不派发），否则立即派发；同一流水派发中时忽略
+     *
+     * @param refundTransactionId 退款流水ID
+     */
+    public void dispatchAfterCommit(String refundTransactionId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(refundTransactionId);
+                }
+            });
+        } else {
+            dispatch(refundTransactionId);
+        }
+    }
+
+    /**
+     * 查询退款流水的派发状态
+     *
+     * @param refundTransactionId 退款流水ID
+     * @return 派发状态，已完成派发或未派发时为空
+     */
+    public Optional<DispatchState> getState(String refundTransactionId) {
+        DispatchJob job = inFlight.get(refundTransactionId);
+        if (job != null) {
+            return Optional.of(job.state);
+        }
+        return unresolved.containsKey(refundTransactionId) ? Optional.of(DispatchState.UNRESOLVED) : Optional.empty();
+    }
+
+    /**
+     * 获取派发统计
+     */
+    public RefundDispatchStats getStats() {
+        List<String> unresolvedIds;
+        synchronized (unresolved) {
+            unresolvedIds = new ArrayList<>(unresolved.keySet());
+        }
+        return new RefundDispatchStats(dispatchedCount.get(), channelSuccessCount.get(), channelProcessingCount.get(),
+                channelFailedCount.get(), retryCount.get(), timeoutCount.get(), rejectedCount.get(),
+                recordErrorCount.get(), inFlight.size(), dispatchPool.getQueue().size(), dispatchPool.getActiveCount(),
+                unresolvedIds);
+    }
+
+    private void dispatch(String refundTransactionId) {
+        DispatchJob job = new DispatchJob(refundTransactionId);
+        if (inFlight.putIfAbsent(refundTransactionId, job) != null) {
+            log.debug("退款流水派发中，忽略重复派发，流水ID: {}", refundTransactionId);
+            return;
+        }
+        unresolved.remove(refundTransactionId);
+        dispatchedCount.incrementAndGet();
+        submit(job);
+    }
+
+    private void submit(DispatchJob job) {
+        job.state = DispatchState.QUEUED;
+        try {
+            dispatchPool.execute(() -> attempt(job));
+        } catch (RejectedExecutionException e) {
+            // 渠道尚未被调用，重新派发总是安全的；入队被拒同样计入尝试次数，退避递增且最终转为未确认
+            rejectedCount.incrementAndGet();
+            job.attempts++;
+            retryOrGiveUp(job, "派发队列已满", true);
+        }
+    }
+
+    /**
+     * 单次派发：构建请求 → 经渠道防护调用渠道 → 短事务记录结果
+     */
+    private void attempt(DispatchJob job) {
+        job.state = DispatchState.CALLING;
+        job.attempts++;
+
+        if (job.response == null) {
+            ChannelRefundRequest request;
+            IPaymentChannelRefundService refundService;
+            try {
+                Optional<ChannelRefundRequest> prepared = refundDomainService.buildChannelRefundRequest(job.refundTransactionId);
+                if (!prepared.isPresent()) {
+                    log.info("退款流水已处理，无需调用渠道，流水ID: {}", job.refundTransactionId);
+                    finish(job);
+                    return;
+                }
+                request = prepared.get();
+                refundService = channelRefundServiceRegistry.getRefundService(request.getOriginalPaymentChannel());
+            } catch (Exception e) {
+                // 读取阶段失败，渠道尚未被调用
+                retryOrGiveUp(job, e.getMessage(), true);
+                return;
+            }
+
+            ChannelRefundResponse response;
+            try {
+                response = refundService.executeRefund(request);
+            } catch (PaymentException e) {
+                if (PaymentErrorCode.CHANNEL_UNAVAILABLE.getCode().equals(e.getErrorCode())) {
+                    // 熔断或并发已满，渠道尚未被调用
+                    rejectedCount.incrementAndGet();
+                    retryOrGiveUp(job, e.getMessage(), true);
+                    return;
+                }
+                if (PaymentErrorCode.CHANNEL_TIMEOUT.getCode().equals(e.getErrorCode())) {
+                    timeoutCount.incrementAndGet();
+                }
+                retryOrGiveUp(job, e.getMessage(), refundService.supportsIdempotentRetry());
+                return;
+            } catch (Exception e) {
+                retryOrGiveUp(job, e.getMessage(), refundService.supportsIdempotentRetry());
+                return;
+            }
+            if (response == null || response.getStatus() == null) {
+                retryOrGiveUp(job, "渠道响应缺少状态", refundService.supportsIdempotentRetry());
+                return;
+            }
+            job.response = response;
+            countResponse(response);
+        }
+
+        try {
+            refundDomainService.applyChannelResponse(job.refundTransactionId, job.response);
+            finish(job);
+        } catch (Exception e) {
+            // 渠道已执行，只重试结果记录
+            recordErrorCount.incrementAndGet();
+            retryOrGiveUp(job, "记录渠道结果失败: " + e.getMessage(), true);
+        }
+    }
+
+    private void countResponse(ChannelRefundResponse response) {
+        if (response.getStatus() == TransactionStatus.SUCCESS) {
+            channelSuccessCount.incrementAndGet();
+        } else if (response.getStatus() == TransactionStatus.PROCESSING) {
+            channelProcessingCount.incrementAndGet();
+        } else {
+            channelFailedCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * 指数退避后重新派发；不可重试或超过最大次数时标记为未确认
+     */
+    private void retryOrGiveUp(DispatchJob job, String error, boolean retryable) {
+        job.lastError = StrUtil.maxLength(error, MAX_ERROR_LENGTH);
+        if (!retryable || job.attempts >= MAX_ATTEMPTS || scheduler.isShutdown()) {
+            giveUp(job);
+            return;
+        }
+        long backoffSeconds = Math.min(1L << Math.min(job.attempts, 20), MAX_BACKOFF_SECONDS);
+        job.state = DispatchState.RETRY_WAIT;
+        retryCount.incrementAndGet();
+        log.warn("退款渠道派发失败，{}秒后重试，流水ID: {}, 第{}次, 原因: {}",
+                backoffSeconds, job.refundTransactionId, job.attempts, job.lastError);
+        try {
+            scheduler.schedule(() -> submit(job), backoffSeconds, TimeUnit.SECONDS);
+        } catch (RejectedExecutionException e) {
+            giveUp(job);
+        }
+    }
+
+    private void giveUp(DispatchJob job) {
+        job.state = DispatchState.UNRESOLVED;
+        inFlight.remove(job.refundTransactionId);
+        unresolved.put(job.refundTransactionId, job.lastError == null ? "" : job.lastError);
+        log.error("退款渠道派发未能确认结果，流水保持PROCESSING等待回调或状态查询，流水ID: {}, 尝试次数: {}, 原因: {}",
+                job.refundTransactionId, job.attempts, job.lastError);
+    }
+
+    private void finish(DispatchJob job) {
+        inFlight.remove(job.refundTransactionId);
+    }
+
+    /**
+     * 派发任务（同一时刻只在一个线程中执行）
+     */
+    private static final class DispatchJob {
+
+        private final String refundTransactionId;
+        private volatile DispatchState state = DispatchState.QUEUED;
+        private volatile int attempts;
+        private volatile String lastError;
+
+        /**
+         * 已取得的渠道响应，记录失败重试时不再调用渠道
+         */
+        private volatile ChannelRefundResponse response;
+
+        private DispatchJob(String refundTransactionId) {
+            this.refundTransactionId = refundTransactionId;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.bytz.modules.cms.payment.infrastructure.channel;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 退款渠道派发统计
+ * Refund Dispatch Statistics
+ */
+@Data
+@AllArgsConstructor
+public class RefundDispatchStats {
+
+    /**
+     * 派发次数（进入派发队列的退款流水数）
+     */
+    private long dispatchedCount;
+
+    /**
+     * 渠道同步成功次数
+     */
+    private long channelSuccessCount;
+
+    /**
+     * 渠道受理（异步，等待回调）次数
+     */
+    private long channelProcessingCount;
+
+    /**
+     * 渠道返回失败次数
+     */
+    private long channelFailedCount;
+
+    /**
+     * 重试次数
+     */
+    private long retryCount;
+
+    /**
+     * 渠道调用超时次数
+     */
+    private long timeoutCount;
+
+    /**
+     * 派发队列已满或渠道防护（熔断、并发已满）拒绝次数
+     */
+    private long rejectedCount;
+
+    /**
+     * 记录渠道结果失败次数
+     */
+    private long recordErrorCount;
+
+    /**
+     * 当前派发中的流水数（排队、调用中、等待重试）
+     */
+    private int inFlightCount;
+
+    /**
+     * 派发队列长度
+     */
+    private int queueSize;
+
+    /**
+     * 正在执行的派发线程数
+     */
+    private int activeCount;
+
+    /**
+     * 未能确认结果的退款流水ID（最近的记录，需等待回调或状态查询处理）
+     */
+    private List<String> unresolvedTransactionIds;
+}
@@ -0,0 +1,108 @@
+package com.bytz.modules.cms.payment.infrastructure.channel;
+
+import com.bytz.modules.cms.payment.domain.enums.ChannelQueryStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.service.ChannelQueryRequest;
+import com.bytz.modules.cms.payment.domain.service.ChannelQueryResponse;
+import com.bytz.modules.cms.payment.domain.service.IPaymentChannelQueryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 线上支付渠道模拟查询服务
+ * Simulated Online Payment Channel Query Service
+ *
+ * <p>离线联调与测试使用，不访问真实渠道；仅在配置 cms.payment.channel-simulator.enabled=true 时注册</p>
+ * <p>可按渠道交易记录ID预设查询结果，未预设的交易返回默认状态；可设置模拟延迟以验证超时与并发限制</p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "cms.payment.channel-simulator", name = "enabled", havingValue = "true")
+public class SimulatedPaymentChannelQueryService implements IPaymentChannelQueryService {
+
+    private final Map<String, ChannelQueryResponse> scriptedResponses = new ConcurrentHashMap<>();
+    private final AtomicLong queryCount = new AtomicLong();
+
+    private volatile ChannelQueryStatus defaultStatus = ChannelQueryStatus.SUCCESS;
+    private volatile long latencyMillis;
+
+    @Override
+    public PaymentChannel getSupportedChannel() {
+        return PaymentChannel.ONLINE_PAYMENT;
+    }
+
+    @Override
+    public ChannelQueryResponse queryTransaction(ChannelQueryRequest request) {
+        queryCount.incrementAndGet();
+        if (latencyMillis > 0) {
+            try {
+                Thread.sleep(latencyMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("模拟渠道查询被中断", e);
+            }
+        }
+
+        ChannelQueryResponse scripted = scriptedResponses.get(request.getChannelTransactionId());
+        if (scripted != null) {
+            log.info("模拟渠道查询，渠道交易记录ID: {}, 预设结果: {}", request.getChannelTransactionId(), scripted.getStatus());
+            return scripted;
+        }
+
+        log.info("模拟渠道查询，渠道交易记录ID: {}, 默认结果: {}", request.getChannelTransactionId(), defaultStatus);
+        switch (defaultStatus) {
+            case SUCCESS:
+                return ChannelQueryResponse.success("SIM" + request.getChannelTransactionId(), null);
+            case FAILED:
+                return ChannelQueryResponse.failed("SIMULATED_FAILURE", "模拟渠道交易失败");
+            case NOT_FOUND:
+                return ChannelQueryResponse.notFound();
+            default:
+                return ChannelQueryResponse.processing();
+        }
+    }
+
+    /**
+     * 预设指定交易的查询结果
+     *
+     * @param channelTransactionId 渠道交易记录ID
+     * @param response             查询结果
+     */
+    public void script(String channelTransactionId, ChannelQueryResponse response) {
+        scriptedResponses.put(channelTransactionId, response);
+    }
+
+    /**
+     * 清除全部预设结果
+     */
+    public void reset() {
+        scriptedResponses.clear();
+        queryCount.set(0);
+    }
+
+    /**
+     * 设置未预设交易的默认查询状态
+     */
+    public void setDefaultStatus(ChannelQueryStatus defaultStatus) {
+        this.defaultStatus = defaultStatus;
+    }
+
+    /**
+     * 设置模拟查询延迟（毫秒）
+     */
+    public void setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+    }
+
+    /**
+     * 获取累计查询次数
+     */
+    public long getQueryCount() {
+        return queryCount.get();
+    }
+}
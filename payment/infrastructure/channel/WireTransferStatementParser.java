@@ -0,0 +1,17 @@
+package com.bytz.modules.cms.payment.infrastructure.channel;
+
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import org.springframework.stereotype.Component;
+
+/**
+ * 电汇对账单解析器
+ * Wire Transfer Statement Parser
+ */
+@Component
+public class WireTransferStatementParser extends DelimitedChannelStatementParser {
+
+    @Override
+    public PaymentChannel getSupportedChannel() {
+        return PaymentChannel.WIRE_TRANSFER;
+    }
+}
@@ -0,0 +1,123 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import com.bytz.modules.cms.payment.domain.enums.CallbackInboxStatus;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 支付回调收件箱持久化实体
+ * Payment Callback Inbox Persistence Object
+ *
+ * <p>对应数据库表 cms_payment_callback_inbox</p>
+ * <p>唯一索引 uk_channel_transaction(payment_channel, channel_transaction_id)，用于回调去重</p>
+ * <p>索引 idx_status_create_time(inbox_status, create_time)，用于工作线程领取</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_payment_callback_inbox")
+public class PaymentCallbackInboxPO {
+
+    /**
+     * 主键ID，使用雪花算法生成
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private String id;
+
+    /**
+     * 支付渠道（不可修改）
+     */
+    @TableField(value = "payment_channel", updateStrategy = FieldStrategy.NEVER)
+    private PaymentChannel paymentChannel;
+
+    /**
+     * 渠道交易记录ID（不可修改）
+     */
+    @TableField(value = "channel_transaction_id", updateStrategy = FieldStrategy.NEVER)
+    private String channelTransactionId;
+
+    /**
+     * 是否成功（不可修改）
+     */
+    @TableField(value = "success", updateStrategy = FieldStrategy.NEVER)
+    private Boolean success;
+
+    /**
+     * 渠道响应信息（不可修改）
+     */
+    @TableField(value = "channel_response", updateStrategy = FieldStrategy.NEVER)
+    private String channelResponse;
+
+    /**
+     * 渠道交易号（不可修改）
+     */
+    @TableField(value = "channel_transaction_number", updateStrategy = FieldStrategy.NEVER)
+    private String channelTransactionNumber;
+
+    /**
+     * 渠道完成时间（不可修改）
+     */
+    @TableField(value = "completed_time", updateStrategy = FieldStrategy.NEVER)
+    private LocalDateTime completedTime;
+
+    /**
+     * 收件箱状态
+     */
+    @TableField("inbox_status")
+    private CallbackInboxStatus inboxStatus;
+
+    /**
+     * 领取令牌（工作线程领取批次时写入）
+     */
+    @TableField("claim_token")
+    private String claimToken;
+
+    /**
+     * 领取时间（用于回收处理超时的记录）
+     */
+    @TableField("claim_time")
+    private LocalDateTime claimTime;
+
+    /**
+     * 已重试次数
+     */
+    @TableField("retry_count")
+    private Integer retryCount;
+
+    /**
+     * 下次重试时间
+     */
+    @TableField("next_retry_time")
+    private LocalDateTime nextRetryTime;
+
+    /**
+     * 最近一次处理失败原因
+     */
+    @TableField("last_error")
+    private String lastError;
+
+    /**
+     * 处理完成时间
+     */
+    @TableField("processed_time")
+    private LocalDateTime processedTime;
+
+    /**
+     * 创建时间（回调接收时间）
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(value = "update_time", fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,104 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import com.bytz.modules.cms.payment.domain.enums.OutboxEventStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 支付事件发件箱持久化实体
+ * Payment Event Outbox Persistence Object
+ *
+ * <p>对应数据库表 cms_payment_event_outbox</p>
+ * <p>索引 idx_status_create_time(outbox_status, create_time)，用于投递线程领取</p>
+ * <p>索引 idx_payment_id(payment_id, outbox_status)，用于保证同一支付单的投递顺序</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_payment_event_outbox")
+public class PaymentEventOutboxPO {
+
+    /**
+     * 主键ID，使用雪花算法生成（同一节点内单调递增，作为同一支付单事件的顺序号）
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private String id;
+
+    /**
+     * 支付单ID（不可修改）
+     */
+    @TableField(value = "payment_id", updateStrategy = FieldStrategy.NEVER)
+    private String paymentId;
+
+    /**
+     * 事件类型（事件类全限定名，不可修改）
+     */
+    @TableField(value = "event_type", updateStrategy = FieldStrategy.NEVER)
+    private String eventType;
+
+    /**
+     * 事件内容（JSON，不可修改）
+     */
+    @TableField(value = "payload", updateStrategy = FieldStrategy.NEVER)
+    private String payload;
+
+    /**
+     * 投递状态
+     */
+    @TableField("outbox_status")
+    private OutboxEventStatus outboxStatus;
+
+    /**
+     * 领取令牌
+     */
+    @TableField("claim_token")
+    private String claimToken;
+
+    /**
+     * 领取时间（用于回收投递超时的记录）
+     */
+    @TableField("claim_time")
+    private LocalDateTime claimTime;
+
+    /**
+     * 已重试次数
+     */
+    @TableField("retry_count")
+    private Integer retryCount;
+
+    /**
+     * 下次重试时间
+     */
+    @TableField("next_retry_time")
+    private LocalDateTime nextRetryTime;
+
+    /**
+     * 最近一次投递失败原因
+     */
+    @TableField("last_error")
+    private String lastError;
+
+    /**
+     * 投递完成时间
+     */
+    @TableField("dispatched_time")
+    private LocalDateTime dispatchedTime;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(value = "update_time", fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
@@ -18,6 +18,8 @@ import java.time.LocalDateTime;
  * Payment Persistence Object
  *
  * <p>对应数据库表 cms_payment</p>
+ * <p>索引 idx_create_time_id(create_time, id)，用于列表游标分页</p>
+ * <p>索引 idx_status_deadline(payment_status, payment_deadline)，用于按时间窗加载待关闭的支付截止时间</p>
  * <p>注意：这是数据库实体，仅用于数据持久化，不包含业务逻辑</p>
  */
 @Data
@@ -75,6 +77,12 @@ public class PaymentPO {
     @TableField("has_refund")
     private Boolean hasRefund;
 
+    /**
+     * 累计已退款金额（成功及处理中退款流水合计，默认0；只通过条件原子更新，聚合根整体更新时不写入）
+     */
+    @TableField(value = "refunded_amount", updateStrategy = FieldStrategy.NEVER)
+    private BigDecimal refundedAmount;
+
     /**
      * 支付类型
      */
@@ -0,0 +1,22 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * 支付单+进行中流水联表查询结果
+ * Payment With Processing Transaction Join Row
+ *
+ * <p>用于回调定位：cms_payment联表cms_payment_transaction一次查询同时取回支付单和其进行中流水</p>
+ */
+@Data
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class PaymentProcessingRowDTO extends PaymentPO {
+
+    /**
+     * 进行中流水
+     */
+    private PaymentTransactionPO processingTransaction;
+}
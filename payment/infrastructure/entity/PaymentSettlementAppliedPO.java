@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 结算已计入流水持久化实体
+ * Payment Settlement Applied Persistence Object
+ *
+ * <p>对应数据库表 cms_payment_settlement_applied</p>
+ * <p>主键为流水ID，记录已累加进日结算汇总的流水，事件重复投递时据此去重</p>
+ * <p>索引 idx_settle_date(settle_date)，用于按日重建</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_payment_settlement_applied")
+public class PaymentSettlementAppliedPO {
+
+    /**
+     * 流水ID
+     */
+    @TableId(value = "transaction_id", type = IdType.INPUT)
+    private String transactionId;
+
+    /**
+     * 结算日
+     */
+    @TableField("settle_date")
+    private LocalDate settleDate;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
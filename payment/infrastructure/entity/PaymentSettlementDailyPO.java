@@ -0,0 +1,88 @@
+package com.bytz.modules.cms.payment.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 日结算汇总持久化实体
+ * Payment Settlement Daily Persistence Object
+ *
+ * <p>对应数据库表 cms_payment_settlement_daily</p>
+ * <p>按 结算日（流水完成日）+ 支付渠道 + 经销商 汇总成功流水的笔数与金额，支付与退款分列</p>
+ * <p>唯一索引 uk_date_channel_reseller(settle_date, payment_channel, reseller_id)，增量累加依赖该索引</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_payment_settlement_daily")
+public class PaymentSettlementDailyPO {
+
+    /**
+     * 主键ID，使用雪花算法生成
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private String id;
+
+    /**
+     * 结算日（不可修改）
+     */
+    @TableField(value = "settle_date", updateStrategy = FieldStrategy.NEVER)
+    private LocalDate settleDate;
+
+    /**
+     * 支付渠道（不可修改）
+     */
+    @TableField(value = "payment_channel", updateStrategy = FieldStrategy.NEVER)
+    private PaymentChannel paymentChannel;
+
+    /**
+     * 经销商ID（不可修改，无经销商时为空字符串）
+     */
+    @TableField(value = "reseller_id", updateStrategy = FieldStrategy.NEVER)
+    private String resellerId;
+
+    /**
+     * 支付成功笔数
+     */
+    @TableField("payment_count")
+    private Long paymentCount;
+
+    /**
+     * 支付成功金额
+     */
+    @TableField("payment_amount")
+    private BigDecimal paymentAmount;
+
+    /**
+     * 退款成功笔数
+     */
+    @TableField("refund_count")
+    private Long refundCount;
+
+    /**
+     * 退款成功金额
+     */
+    @TableField("refund_amount")
+    private BigDecimal refundAmount;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(value = "update_time", fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
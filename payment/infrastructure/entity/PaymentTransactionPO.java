@@ -17,6 +17,9 @@ import java.time.LocalDateTime;
  * Payment Transaction Persistence Object
  * 
  * <p>对应数据库表 cms_payment_transaction</p>
+ * <p>索引 idx_channel_transaction(payment_channel, channel_transaction_id, transaction_status)，用于回调定位进行中流水</p>
+ * <p>索引 idx_create_time_id(create_time, id)，用于列表游标分页</p>
+ * <p>索引 idx_status_create_time(transaction_status, create_time)，用于巡检超时的进行中流水</p>
  * <p>注意：这是数据库实体，仅用于数据持久化，不包含业务逻辑</p>
  */
 @Data
@@ -55,6 +58,12 @@ public class PaymentTransactionPO {
      */
     @TableField(value = "transaction_amount", updateStrategy = FieldStrategy.NEVER)
     private BigDecimal transactionAmount;
+
+    /**
+     * 累计已退款金额（以本流水为原流水的成功及处理中退款流水合计，默认0；只通过条件原子更新，流水整体更新时不写入）
+     */
+    @TableField(value = "refunded_amount", updateStrategy = FieldStrategy.NEVER)
+    private BigDecimal refundedAmount;
     
     /**
      * 支付渠道（不可修改）
@@ -0,0 +1,85 @@
+package com.bytz.modules.cms.payment.infrastructure.event;
+
+import com.bytz.modules.cms.payment.domain.enums.OutboxEventStatus;
+import com.bytz.modules.cms.payment.domain.service.IPaymentEventPublisher;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEventOutboxPO;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentEventOutboxMapper;
+import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import com.bytz.modules.cms.shared.mybatis.BatchSqlHelper;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 发件箱支付事件发布实现
+ * Outbox Payment Event Publisher
+ *
+ * <p>将事件序列化后写入cms_payment_event_outbox，加入调用方的业务事务，随业务数据一起提交或回滚</p>
+ * <p>事务提交后唤醒投递线程，未唤醒时由投递线程轮询兜底</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxPaymentEventPublisher implements IPaymentEventPublisher {
+
+    private final PaymentEventOutboxMapper outboxMapper;
+    private final ObjectMapper objectMapper;
+    private final PaymentOutboxDispatcher outboxDispatcher;
+
+    @Override
+    public void publish(String paymentId, Object event) {
+        outboxMapper.insert(toOutboxPO(paymentId, event));
+        log.debug("支付事件已写入发件箱，支付单ID: {}, 事件类型: {}", paymentId, event.getClass().getSimpleName());
+        wakeUpAfterCommit();
+    }
+
+    @Override
+    public void publishAll(Map<String, ?> eventsByPaymentId) {
+        if (eventsByPaymentId.isEmpty()) {
+            return;
+        }
+        List<PaymentEventOutboxPO> pos = new ArrayList<>(eventsByPaymentId.size());
+        eventsByPaymentId.forEach((paymentId, event) -> pos.add(toOutboxPO(paymentId, event)));
+        BatchSqlHelper.insertBatch(PaymentEventOutboxMapper.class, pos);
+        log.debug("支付事件已批量写入发件箱，数量: {}", pos.size());
+        wakeUpAfterCommit();
+    }
+
+    private PaymentEventOutboxPO toOutboxPO(String paymentId, Object event) {
+        String payload;
+        try {
+            payload = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new PaymentException(PaymentErrorCode.SYSTEM_ERROR, "支付事件序列化失败: " + e.getMessage());
+        }
+        return PaymentEventOutboxPO.builder()
+                .paymentId(paymentId)
+                .eventType(event.getClass().getName())
+                .payload(payload)
+                .outboxStatus(OutboxEventStatus.PENDING)
+                .retryCount(0)
+                .build();
+    }
+
+    private void wakeUpAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    outboxDispatcher.wakeUp();
+                }
+            });
+        } else {
+            outboxDispatcher.wakeUp();
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.bytz.modules.cms.payment.infrastructure.event;
+
+import cn.hutool.core.util.StrUtil;
+import com.baomidou.mybatisplus.core.conditions.AbstractLambdaWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.bytz.modules.cms.payment.domain.enums.OutboxEventStatus;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEventOutboxPO;
+import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentEventOutboxMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * 支付事件发件箱投递器
+ * Payment Outbox Dispatcher
+ *
+ * <p>职责：
+ * - 批量领取：按创建顺序领取待投递事件，存在投递中或等待重试事件的支付单整体跳过，保证同一支付单按顺序投递
+ * - 分组投递：同一批次按支付单分组，组间并行、组内串行；每个事件在独立事务中回放给ApplicationEventPublisher监听器
+ * - 至少一次：投递失败按指数退避重试，超过最大次数标记为FAILED
+ * - 背压：投递线程池使用有界队列，队列满时由领取线程自行投递，领取速度随之下降
+ * - 触发：业务事务提交后唤醒本节点立即投递；到期重试、领取超时及唤醒遗漏的事件由PaymentOutboxDispatchJob按Quartz集群调度投递
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentOutboxDispatcher {
+
+    private static final String EVENT_PACKAGE = "com.bytz.modules.cms.payment.shared.event.";
+
+    private static final int BATCH_SIZE = 200;
+    private static final int DELIVERY_THREADS = 4;
+    private static final int DELIVERY_QUEUE_CAPACITY = 64;
+    private static final int MAX_RETRY = 10;
+    private static final long MAX_BACKOFF_SECONDS = 300L;
+    private static final Duration CLAIM_TIMEOUT = Duration.ofMinutes(5);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    /**
+     * 存在投递中（未超时）或等待重试事件的支付单，这些支付单的后续事件暂不领取
+     */
+    private static final String BLOCKED_PAYMENT_CONDITION = "(outbox_status = 'PROCESSING' and claim_time >= date_sub(now(), interval "
+            + CLAIM_TIMEOUT.getSeconds() + " second))"
+            + " or (outbox_status = 'PENDING' and next_retry_time > now())";
+    private static final String BLOCKED_PAYMENT_SQL = "select payment_id from cms_payment_event_outbox where "
+            + BLOCKED_PAYMENT_CONDITION;
+
+    /**
+     * 领取UPDATE中使用的阻塞支付单子查询
+     * MySQL不允许UPDATE的子查询直接引用目标表，包一层派生表（DISTINCT避免派生表被合并）使其先物化
+     */
+    private static final String BLOCKED_PAYMENT_FOR_UPDATE_SQL = "select payment_id from (select distinct payment_id"
+            + " from cms_payment_event_outbox where " + BLOCKED_PAYMENT_CONDITION + ") blocked";
+
+    private final PaymentEventOutboxMapper outboxMapper;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final ObjectMapper objectMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private ExecutorService wakeUpExecutor;
+    private ThreadPoolExecutor deliveryPool;
+    private TransactionTemplate deliveryTransaction;
+
+    @PostConstruct
+    public void start() {
+        deliveryTransaction = new TransactionTemplate(transactionManager);
+        deliveryTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        AtomicInteger threadIndex = new AtomicInteger();
+        deliveryPool = new ThreadPoolExecutor(DELIVERY_THREADS, DELIVERY_THREADS, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(DELIVERY_QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-outbox-delivery-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        wakeUpExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "payment-outbox-dispatcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("支付事件发件箱投递器已启动，投递线程数: {}", DELIVERY_THREADS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (wakeUpExecutor != null) {
+            wakeUpExecutor.shutdown();
+        }
+        if (deliveryPool != null) {
+            deliveryPool.shutdown();
+            try {
+                if (!deliveryPool.awaitTermination(30, TimeUnit.SECONDS)) {
+                    deliveryPool.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                deliveryPool.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * 唤醒领取线程立即投递（业务事务提交后调用）
+     * 多次唤醒合并为一次
+     */
+    public void wakeUp() {
+        if (wakeUpExecutor == null || wakeUpExecutor.isShutdown()) {
+            return;
+        }
+        if (wakeUpPending.compareAndSet(false, true)) {
+            wakeUpExecutor.execute(() -> {
+                wakeUpPending.set(false);
+                dispatch();
+            });
+        }
+    }
+
+    /**
+     * 循环领取并投递，直到没有可投递事件
+     * 由唤醒及PaymentOutboxDispatchJob调用；领取以条件UPDATE认领，并发调用互不重复
+     * 领取或投递异常时结束本轮，已领取未投递的事件在领取超时后重新领取
+     */
+    public void dispatch() {
+        try {
+            List<PaymentEventOutboxPO> batch = claimBatch();
+            while (!batch.isEmpty()) {
+                deliverBatch(batch);
+                if (wakeUpExecutor.isShutdown()) {
+                    return;
+                }
+                batch = claimBatch();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("支付事件发件箱投递异常", e);
+        }
+    }
+
+    private List<PaymentEventOutboxPO> claimBatch() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime claimExpireTime = now.minus(CLAIM_TIMEOUT);
+
+        LambdaQueryWrapper<PaymentEventOutboxPO> candidateWrapper = new LambdaQueryWrapper<>();
+        candidateWrapper.select(PaymentEventOutboxPO::getId)
+                .and(claimable(now, claimExpireTime))
+                .notInSql(PaymentEventOutboxPO::getPaymentId, BLOCKED_PAYMENT_SQL)
+                .orderByAsc(PaymentEventOutboxPO::getCreateTime)
+                .orderByAsc(PaymentEventOutboxPO::getId)
+                .last("limit " + BATCH_SIZE);
+        List<String> candidateIds = outboxMapper.selectList(candidateWrapper).stream()
+                .map(PaymentEventOutboxPO::getId)
+                .collect(Collectors.toList());
+        if (candidateIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String claimToken = IdWorker.getIdStr();
+        LambdaUpdateWrapper<PaymentEventOutboxPO> claimWrapper = new LambdaUpdateWrapper<>();
+        claimWrapper.set(PaymentEventOutboxPO::getOutboxStatus, OutboxEventStatus.PROCESSING)
+                .set(PaymentEventOutboxPO::getClaimToken, claimToken)
+                .set(PaymentEventOutboxPO::getClaimTime, now)
+                .in(PaymentEventOutboxPO::getId, candidateIds)
+                .and(claimable(now, claimExpireTime))
+                // 候选查询之后其他节点可能已领取同一支付单的较早事件，领取时再次排除，保证同一支付单事件不并发投递
+                .notInSql(PaymentEventOutboxPO::getPaymentId, BLOCKED_PAYMENT_FOR_UPDATE_SQL);
+        if (outboxMapper.update(null, claimWrapper) == 0) {
+            return Collections.emptyList();
+        }
+
+        LambdaQueryWrapper<PaymentEventOutboxPO> claimedWrapper = new LambdaQueryWrapper<>();
+        claimedWrapper.eq(PaymentEventOutboxPO::getClaimToken, claimToken)
+                .orderByAsc(PaymentEventOutboxPO::getCreateTime)
+                .orderByAsc(PaymentEventOutboxPO::getId);
+        return outboxMapper.selectList(claimedWrapper);
+    }
+
+    /**
+     * 可领取条件：已到重试时间的待投递事件，或投递超时的事件
+     */
+    private <W extends AbstractLambdaWrapper<PaymentEventOutboxPO, W>> Consumer<W> claimable(
+            LocalDateTime now, LocalDateTime claimExpireTime) {
+        return w -> w.and(p -> p.eq(PaymentEventOutboxPO::getOutboxStatus, OutboxEventStatus.PENDING)
+                        .and(r -> r.isNull(PaymentEventOutboxPO::getNextRetryTime)
+                                .or().le(PaymentEventOutboxPO::getNextRetryTime, now)))
+                .or(o -> o.eq(PaymentEventOutboxPO::getOutboxStatus, OutboxEventStatus.PROCESSING)
+                        .lt(PaymentEventOutboxPO::getClaimTime, claimExpireTime));
+    }
+
+    /**
+     * 按支付单分组投递，等待本批次全部完成后再领取下一批
+     */
+    private void deliverBatch(List<PaymentEventOutboxPO> batch) throws InterruptedException {
+        Map<String, List<PaymentEventOutboxPO>> groups = batch.stream()
+                .collect(Collectors.groupingBy(PaymentEventOutboxPO::getPaymentId, LinkedHashMap::new, Collectors.toList()));
+        log.debug("投递支付事件批次，事件数: {}, 支付单数: {}", batch.size(), groups.size());
+
+        CountDownLatch latch = new CountDownLatch(groups.size());
+        for (List<PaymentEventOutboxPO> group : groups.values()) {
+            // 队列满时CallerRunsPolicy在领取线程中执行，形成背压
+            deliveryPool.execute(() -> {
+                try {
+                    deliverInOrder(group);
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        latch.await();
+    }
+
+    /**
+     * 组内按顺序投递，任一事件失败后其余事件退回待投递，保证顺序
+     */
+    private void deliverInOrder(List<PaymentEventOutboxPO> group) {
+        List<String> doneIds = new ArrayList<>();
+        for (int i = 0; i < group.size(); i++) {
+            PaymentEventOutboxPO po = group.get(i);
+            try {
+                deliver(po);
+                doneIds.add(po.getId());
+            } catch (Exception e) {
+                markFailure(po, e);
+                release(group.subList(i + 1, group.size()));
+                break;
+            }
+        }
+        if (!doneIds.isEmpty()) {
+            LambdaUpdateWrapper<PaymentEventOutboxPO> doneWrapper = new LambdaUpdateWrapper<>();
+            doneWrapper.set(PaymentEventOutboxPO::getOutboxStatus, OutboxEventStatus.DONE)
+                    .set(PaymentEventOutboxPO::getDispatchedTime, LocalDateTime.now())
+                    .in(PaymentEventOutboxPO::getId, doneIds);
+            outboxMapper.update(null, doneWrapper);
+        }
+    }
+
+    private void deliver(PaymentEventOutboxPO po) throws Exception {
+        if (!po.getEventType().startsWith(EVENT_PACKAGE)) {
+            throw new IllegalStateException("不支持的事件类型: " + po.getEventType());
+        }
+        Object event = objectMapper.readValue(po.getPayload(), Class.forName(po.getEventType()));
+        deliveryTransaction.executeWithoutResult(status -> applicationEventPublisher.publishEvent(event));
+    }
+
+    private void release(List<PaymentEventOutboxPO> remaining) {
+        if (remaining.isEmpty()) {
+            return;
+        }
+        LambdaUpdateWrapper<PaymentEventOutboxPO> releaseWrapper = new LambdaUpdateWrapper<>();
+        releaseWrapper.set(PaymentEventOutboxPO::getOutboxStatus, OutboxEventStatus.PENDING)
+                .set(PaymentEventOutboxPO::getClaimToken, null)
+                .in(PaymentEventOutboxPO::getId, remaining.stream().map(PaymentEventOutboxPO::getId).collect(Collectors.toList()));
+        outboxMapper.update(null, releaseWrapper);
+    }
+
+    /**
+     * 记录投递失败：指数退避后重试，超过最大次数标记为FAILED（后续事件不再被阻塞）
+     */
+    private void markFailure(PaymentEventOutboxPO po, Exception e) {
+        int retried = (po.getRetryCount() == null ? 0 : po.getRetryCount()) + 1;
+        boolean exhausted = retried >= MAX_RETRY;
+        long backoffSeconds = Math.min(1L << Math.min(retried, 20), MAX_BACKOFF_SECONDS);
+
+        LambdaUpdateWrapper<PaymentEventOutboxPO> failWrapper = new LambdaUpdateWrapper<>();
+        failWrapper.set(PaymentEventOutboxPO::getOutboxStatus, exhausted ? OutboxEventStatus.FAILED : OutboxEventStatus.PENDING)
+                .set(PaymentEventOutboxPO::getRetryCount, retried)
+                .set(PaymentEventOutboxPO::getNextRetryTime, LocalDateTime.now().plusSeconds(backoffSeconds))
+                .set(PaymentEventOutboxPO::getLastError, StrUtil.maxLength(e.getMessage(), MAX_ERROR_LENGTH))
+                .eq(PaymentEventOutboxPO::getId, po.getId());
+        outboxMapper.update(null, failWrapper);
+
+        if (exhausted) {
+            log.error("支付事件超过最大重试次数，需人工处理，支付单ID: {}, 事件ID: {}, 事件类型: {}",
+                    po.getPaymentId(), po.getId(), po.getEventType(), e);
+        } else {
+            log.warn("支付事件投递失败，{}秒后重试，支付单ID: {}, 事件ID: {}, 第{}次, 原因: {}",
+                    backoffSeconds, po.getPaymentId(), po.getId(), retried, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentEventOutboxPO;
+import com.github.yulichang.base.MPJBaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 支付事件发件箱Mapper接口
+ * Payment Event Outbox Mapper Interface
+ *
+ * <p>继承MyBatis-Plus的BaseMapper，提供基本的CRUD操作</p>
+ */
+@Mapper
+public interface PaymentEventOutboxMapper extends MPJBaseMapper<PaymentEventOutboxPO> {
+}
@@ -3,6 +3,10 @@ package com.bytz.modules.cms.payment.infrastructure.mapper;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentPO;
 import com.github.yulichang.base.MPJBaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.math.BigDecimal;
 
 /**
  * 支付单Mapper接口
@@ -12,4 +16,26 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface PaymentMapper extends MPJBaseMapper<PaymentPO> {
+
+    /**
+     * 条件预占已退款金额：预占后不超过已支付金额时一条语句完成累加
+     *
+     * @param id     原支付单ID
+     * @param amount 退款金额（> 0）
+     * @return 1-预占成功，0-支付单不存在或可退款余额不足
+     */
+    @Update("UPDATE cms_payment SET refunded_amount = refunded_amount + #{amount} "
+            + "WHERE id = #{id} AND del_flag = 0 AND refunded_amount + #{amount} <= paid_amount")
+    int reserveRefundedAmount(@Param("id") String id, @Param("amount") BigDecimal amount);
+
+    /**
+     * 释放已退款金额预占（退款失败时调用）
+     *
+     * @param id     原支付单ID
+     * @param amount 退款金额（> 0）
+     * @return 1-释放成功，0-支付单不存在或已退款金额不足
+     */
+    @Update("UPDATE cms_payment SET refunded_amount = refunded_amount - #{amount} "
+            + "WHERE id = #{id} AND del_flag = 0 AND refunded_amount >= #{amount}")
+    int releaseRefundedAmount(@Param("id") String id, @Param("amount") BigDecimal amount);
 }
\ No newline at end of file
@@ -0,0 +1,48 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentSettlementAppliedPO;
+import com.github.yulichang.base.MPJBaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 结算已计入流水Mapper接口
+ * Payment Settlement Applied Mapper Interface
+ *
+ * <p>继承MyBatis-Plus的BaseMapper，提供基本的CRUD操作</p>
+ */
+@Mapper
+public interface PaymentSettlementAppliedMapper extends MPJBaseMapper<PaymentSettlementAppliedPO> {
+
+    /**
+     * 登记已计入的流水，已登记时忽略
+     * 使用INSERT IGNORE而非捕获唯一键异常，避免异常将投递事务标记为仅回滚
+     *
+     * @param transactionId 流水ID
+     * @param settleDate    结算日
+     * @return 1-首次登记，0-已登记过
+     */
+    @Insert("INSERT IGNORE INTO cms_payment_settlement_applied (transaction_id, settle_date, create_time) "
+            + "VALUES (#{transactionId}, #{settleDate}, NOW())")
+    int insertIgnore(@Param("transactionId") String transactionId, @Param("settleDate") LocalDate settleDate);
+
+    /**
+     * 按原始流水重新登记某日已计入的流水（重建时使用）
+     *
+     * @param settleDate 结算日
+     * @param startTime  当日开始时间
+     * @param endTime    当日结束时间
+     * @return 登记条数
+     */
+    @Insert("INSERT IGNORE INTO cms_payment_settlement_applied (transaction_id, settle_date, create_time) "
+            + "SELECT t.id, #{settleDate}, NOW() FROM cms_payment_transaction t "
+            + "WHERE t.del_flag = 0 AND t.transaction_status = 'SUCCESS' "
+            + "AND t.completed_time BETWEEN #{startTime} AND #{endTime}")
+    int insertFromTransactions(@Param("settleDate") LocalDate settleDate,
+                               @Param("startTime") LocalDateTime startTime,
+                               @Param("endTime") LocalDateTime endTime);
+}
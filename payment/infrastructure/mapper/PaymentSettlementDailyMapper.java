@@ -0,0 +1,60 @@
+package com.bytz.modules.cms.payment.infrastructure.mapper;
+
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentSettlementDailyPO;
+import com.github.yulichang.base.MPJBaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 日结算汇总Mapper接口
+ * Payment Settlement Daily Mapper Interface
+ *
+ * <p>继承MyBatis-Plus的BaseMapper，提供基本的CRUD操作</p>
+ */
+@Mapper
+public interface PaymentSettlementDailyMapper extends MPJBaseMapper<PaymentSettlementDailyPO> {
+
+    /**
+     * 累加汇总行，不存在时新增
+     * 依赖唯一索引uk_date_channel_reseller，单条语句完成，并发累加不丢失
+     *
+     * @param delta 增量（id需预先生成）
+     * @return 影响行数
+     */
+    @Insert("INSERT INTO cms_payment_settlement_daily "
+            + "(id, settle_date, payment_channel, reseller_id, payment_count, payment_amount, refund_count, refund_amount, create_time, update_time) "
+            + "VALUES (#{delta.id}, #{delta.settleDate}, #{delta.paymentChannel}, #{delta.resellerId}, "
+            + "#{delta.paymentCount}, #{delta.paymentAmount}, #{delta.refundCount}, #{delta.refundAmount}, NOW(), NOW()) "
+            + "ON DUPLICATE KEY UPDATE payment_count = payment_count + VALUES(payment_count), "
+            + "payment_amount = payment_amount + VALUES(payment_amount), "
+            + "refund_count = refund_count + VALUES(refund_count), "
+            + "refund_amount = refund_amount + VALUES(refund_amount), "
+            + "update_time = NOW()")
+    int accumulate(@Param("delta") PaymentSettlementDailyPO delta);
+
+    /**
+     * 按原始流水统计某日汇总（重建与校验使用）
+     * 口径与日结账单一致：成功流水，按完成时间落日，退款流水按流水类型区分
+     *
+     * @param startTime 当日开始时间
+     * @param endTime   当日结束时间
+     * @return 汇总行（不含id与结算日）
+     */
+    @Select("SELECT t.payment_channel AS paymentChannel, IFNULL(p.reseller_id, '') AS resellerId, "
+            + "SUM(CASE WHEN t.transaction_type = 'REFUND' THEN 0 ELSE 1 END) AS paymentCount, "
+            + "SUM(CASE WHEN t.transaction_type = 'REFUND' THEN 0 ELSE t.transaction_amount END) AS paymentAmount, "
+            + "SUM(CASE WHEN t.transaction_type = 'REFUND' THEN 1 ELSE 0 END) AS refundCount, "
+            + "SUM(CASE WHEN t.transaction_type = 'REFUND' THEN t.transaction_amount ELSE 0 END) AS refundAmount "
+            + "FROM cms_payment_transaction t "
+            + "LEFT JOIN cms_payment p ON p.id = t.payment_id AND p.del_flag = 0 "
+            + "WHERE t.del_flag = 0 AND t.transaction_status = 'SUCCESS' "
+            + "AND t.completed_time BETWEEN #{startTime} AND #{endTime} "
+            + "GROUP BY t.payment_channel, IFNULL(p.reseller_id, '')")
+    List<PaymentSettlementDailyPO> selectFromTransactions(@Param("startTime") LocalDateTime startTime,
+                                                          @Param("endTime") LocalDateTime endTime);
+}
@@ -1,8 +1,22 @@
 package com.bytz.modules.cms.payment.infrastructure.mapper;
 
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.bytz.common.system.query.MPJLambdaWrapperEx;
+import com.bytz.modules.cms.payment.application.model.PaymentTransactionListVO;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionPO;
 import com.github.yulichang.base.MPJBaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 支付流水Mapper接口
@@ -12,4 +26,84 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface PaymentTransactionMapper extends MPJBaseMapper<PaymentTransactionPO> {
+
+    /**
+     * 条件预占原流水已退款金额：预占后不超过流水金额时一条语句完成累加
+     *
+     * @param id        原支付流水ID
+     * @param paymentId 原支付单ID
+     * @param amount    退款金额（> 0）
+     * @return 1-预占成功，0-流水不存在或可退款金额不足
+     */
+    @Update("UPDATE cms_payment_transaction SET refunded_amount = refunded_amount + #{amount} "
+            + "WHERE id = #{id} AND payment_id = #{paymentId} AND del_flag = 0 "
+            + "AND refunded_amount + #{amount} <= transaction_amount")
+    int reserveRefundedAmount(@Param("id") String id, @Param("paymentId") String paymentId, @Param("amount") BigDecimal amount);
+
+    /**
+     * 释放原流水已退款金额预占（退款失败时调用）
+     *
+     * @param id        原支付流水ID
+     * @param paymentId 原支付单ID
+     * @param amount    退款金额（> 0）
+     * @return 1-释放成功，0-流水不存在或已退款金额不足
+     */
+    @Update("UPDATE cms_payment_transaction SET refunded_amount = refunded_amount - #{amount} "
+            + "WHERE id = #{id} AND payment_id = #{paymentId} AND del_flag = 0 AND refunded_amount >= #{amount}")
+    int releaseRefundedAmount(@Param("id") String id, @Param("paymentId") String paymentId, @Param("amount") BigDecimal amount);
+
+    /**
+     * 流式查询支付流水列表（关联查询）
+     * 使用只进结果集逐行回调，结果不在内存中整体驻留，用于大批量导出
+     * 注意：不会自动追加主表逻辑删除条件，调用方需在查询条件中指定
+     *
+     * @param wrapper 关联查询条件
+     * @param handler 逐行处理器
+     */
+    @Select("SELECT ${ew.sqlSelect} FROM cms_payment_transaction ${ew.alias} ${ew.from} ${ew.customSqlSegment}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(PaymentTransactionListVO.class)
+    void streamJoinList(@Param(Constants.WRAPPER) MPJLambdaWrapperEx<PaymentTransactionPO> wrapper,
+                        ResultHandler<PaymentTransactionListVO> handler);
+
+    /**
+     * 流式查询渠道某时间段内的对账流水（对账使用）：已有渠道交易记录ID，且在时间段内完成，或在时间段内创建仍处理中
+     * 已完成流水按完成时间落日；处理中流水没有完成时间，按创建时间落日，与渠道侧成功记录比对出状态不一致
+     * create_time只作为idx_create_time_id的范围下界，限定扫描行数，下界须覆盖流水从创建到完成的最长时长
+     * 只取对账所需列，结果不排序，由调用方外部排序
+     *
+     * @param channel     支付渠道编码
+     * @param createdFrom 创建时间下界（含，索引范围）
+     * @param startTime   时间段开始（含）
+     * @param endTime     时间段结束（不含）
+     * @param handler     逐行处理器
+     */
+    @Select("SELECT t.channel_transaction_id AS channelTransactionId, t.transaction_amount AS transactionAmount, "
+            + "t.transaction_status AS transactionStatus FROM cms_payment_transaction t "
+            + "WHERE t.create_time >= #{createdFrom} AND t.create_time < #{endTime} "
+            + "AND ((t.completed_time >= #{startTime} AND t.completed_time < #{endTime}) "
+            + "OR (t.transaction_status = 'PROCESSING' AND t.create_time >= #{startTime})) AND t.del_flag = 0 "
+            + "AND t.payment_channel = #{channel} AND t.channel_transaction_id IS NOT NULL")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(PaymentTransactionPO.class)
+    void streamReconciliationRecords(@Param("channel") String channel,
+                                     @Param("createdFrom") LocalDateTime createdFrom,
+                                     @Param("startTime") LocalDateTime startTime,
+                                     @Param("endTime") LocalDateTime endTime,
+                                     ResultHandler<PaymentTransactionPO> handler);
+
+    /**
+     * 按原始退款流水统计原支付单下各原流水的已退款金额（一致性校验使用）
+     * 处理中的退款流水已预占金额，与成功退款一并计入
+     *
+     * @param paymentId 原支付单ID
+     * @return 原流水ID（originalTransactionId）及已退款金额（refundedAmount）
+     */
+    @Select("SELECT t.original_transaction_id AS originalTransactionId, SUM(t.transaction_amount) AS refundedAmount "
+            + "FROM cms_payment_transaction t "
+            + "INNER JOIN cms_payment p ON p.id = t.payment_id AND p.del_flag = 0 "
+            + "WHERE p.original_payment_id = #{paymentId} AND t.del_flag = 0 "
+            + "AND t.transaction_type = 'REFUND' AND t.transaction_status IN ('PROCESSING', 'SUCCESS') "
+            + "GROUP BY t.original_transaction_id")
+    List<PaymentTransactionPO> sumRefundedByOriginalPayment(@Param("paymentId") String paymentId);
 }
\ No newline at end of file
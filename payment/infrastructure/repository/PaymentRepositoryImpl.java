@@ -8,14 +8,20 @@ import com.bytz.modules.cms.payment.domain.model.PaymentTransactionEntity;
 import com.bytz.modules.cms.payment.domain.repository.IPaymentRepository;
 import com.bytz.modules.cms.payment.infrastructure.assembler.PaymentInfrastructureAssembler;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentPO;
+import com.bytz.modules.cms.payment.infrastructure.entity.PaymentProcessingRowDTO;
 import com.bytz.modules.cms.payment.infrastructure.entity.PaymentTransactionPO;
 import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentMapper;
 import com.bytz.modules.cms.payment.infrastructure.mapper.PaymentTransactionMapper;
+import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import com.bytz.modules.cms.shared.mybatis.BatchSqlHelper;
+import com.github.yulichang.wrapper.MPJLambdaWrapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -116,11 +122,25 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
     public List<PaymentAggregate> saveAll(List<PaymentAggregate> payments) {
         log.debug("批量保存支付单聚合根（新增），数量: {}", payments.size());
 
-        List<PaymentAggregate> result = new ArrayList<>();
-        for (PaymentAggregate payment : payments) {
-            result.add(save(payment));
+        if (payments.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 转换为PO并批量新增
+        List<PaymentPO> pos = payments.stream()
+                .map(paymentInfrastructureAssembler::aggregateToPO)
+                .collect(Collectors.toList());
+        BatchSqlHelper.insertBatch(PaymentMapper.class, pos);
+
+        // 同步持久化后的数据回聚合根
+        for (int i = 0; i < payments.size(); i++) {
+            paymentInfrastructureAssembler.updateAggregateFromPO(payments.get(i), pos.get(i));
         }
-        return result;
+
+        // 批量保存进行中流水
+        saveProcessingTransactions(payments);
+
+        return new ArrayList<>(payments);
     }
 
     @Override
@@ -128,11 +148,67 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
     public List<PaymentAggregate> updateAll(List<PaymentAggregate> payments) {
         log.debug("批量更新支付单聚合根，数量: {}", payments.size());
 
-        List<PaymentAggregate> result = new ArrayList<>();
+        if (payments.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 转换为PO并批量更新
+        List<PaymentPO> pos = payments.stream()
+                .map(paymentInfrastructureAssembler::aggregateToPO)
+                .collect(Collectors.toList());
+        int[] updateCounts = BatchSqlHelper.updateBatchById(PaymentMapper.class, pos);
+
+        // 逐行校验乐观锁，未命中说明支付单已被并发修改，整批回滚
+        for (int i = 0; i < payments.size(); i++) {
+            if (!BatchSqlHelper.isUpdated(updateCounts[i])) {
+                log.warn("批量更新支付单乐观锁冲突，支付单号: {}", payments.get(i).getCode());
+                throw new PaymentException(PaymentErrorCode.CONCURRENT_MODIFICATION,
+                        "支付单已被并发修改，支付单号: " + payments.get(i).getCode());
+            }
+            paymentInfrastructureAssembler.updateAggregateFromPO(payments.get(i), pos.get(i));
+        }
+
+        // 批量保存进行中流水（新增或更新）
+        saveProcessingTransactions(payments);
+
+        return new ArrayList<>(payments);
+    }
+
+    /**
+     * 批量保存进行中流水（新增或更新）
+     * 新增与更新分别合并为一个批次提交
+     */
+    private void saveProcessingTransactions(List<PaymentAggregate> payments) {
+        List<PaymentAggregate> owners = new ArrayList<>();
+        List<PaymentTransactionPO> transactionPOs = new ArrayList<>();
+        List<PaymentTransactionPO> insertPOs = new ArrayList<>();
+        List<PaymentTransactionPO> updatePOs = new ArrayList<>();
+
         for (PaymentAggregate payment : payments) {
-            result.add(update(payment));
+            PaymentTransactionEntity processingTransaction = payment.getProcessingTransaction();
+            if (processingTransaction == null) {
+                continue;
+            }
+            PaymentTransactionPO transactionPO = paymentInfrastructureAssembler.transactionToPO(processingTransaction);
+            if (processingTransaction.getId() == null) {
+                transactionPO.setPaymentId(payment.getId());
+                insertPOs.add(transactionPO);
+            } else {
+                updatePOs.add(transactionPO);
+            }
+            owners.add(payment);
+            transactionPOs.add(transactionPO);
+        }
+
+        BatchSqlHelper.insertBatch(PaymentTransactionMapper.class, insertPOs);
+        BatchSqlHelper.updateBatchById(PaymentTransactionMapper.class, updatePOs);
+
+        for (int i = 0; i < owners.size(); i++) {
+            PaymentAggregate payment = owners.get(i);
+            paymentInfrastructureAssembler.updateTransactionFromPO(payment.getProcessingTransaction(), transactionPOs.get(i));
+            // 将进行中流水移动到已完成列表
+            payment.completeProcessingTransaction();
         }
-        return result;
     }
 
     @Override
@@ -306,6 +382,17 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
         return transactionMapper.selectCount(wrapper) > 0;
     }
 
+    @Override
+    public boolean existsByChannelAndTransactionId(PaymentChannel paymentChannel, String channelTransactionId) {
+        log.debug("检查渠道交易是否存在流水，paymentChannel: {}, channelTransactionId: {}", paymentChannel, channelTransactionId);
+
+        LambdaQueryWrapper<PaymentTransactionPO> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(PaymentTransactionPO::getPaymentChannel, paymentChannel)
+                .eq(PaymentTransactionPO::getChannelTransactionId, channelTransactionId);
+
+        return transactionMapper.selectCount(wrapper) > 0;
+    }
+
     @Override
     public Optional<PaymentTransactionEntity> findTransactionByChannelId(String paymentId, String channelTransactionId) {
         log.debug("根据渠道交易ID查找流水，paymentId: {}, channelTransactionId: {}", paymentId, channelTransactionId);
@@ -334,6 +421,32 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
         return paymentInfrastructureAssembler.posToTransactions(pos);
     }
 
+    @Override
+    public void reserveRefundedAmount(String paymentId, String originalTransactionId, BigDecimal amount) {
+        log.debug("预占已退款金额，paymentId: {}, originalTransactionId: {}, amount: {}", paymentId, originalTransactionId, amount);
+
+        if (paymentMapper.reserveRefundedAmount(paymentId, amount) == 0) {
+            throw new PaymentException(PaymentErrorCode.AMOUNT_EXCEED_LIMIT,
+                    String.format("退款金额 %s 超过原支付单可退款余额", amount));
+        }
+        if (transactionMapper.reserveRefundedAmount(originalTransactionId, paymentId, amount) == 0) {
+            throw new PaymentException(PaymentErrorCode.AMOUNT_EXCEED_LIMIT,
+                    String.format("退款金额 %s 超过原支付流水可退款金额", amount));
+        }
+    }
+
+    @Override
+    public void releaseRefundedAmount(String paymentId, String originalTransactionId, BigDecimal amount) {
+        log.debug("释放已退款金额预占，paymentId: {}, originalTransactionId: {}, amount: {}", paymentId, originalTransactionId, amount);
+
+        if (paymentMapper.releaseRefundedAmount(paymentId, amount) == 0) {
+            log.warn("原支付单已退款金额不足以释放，需执行已退款金额校验，paymentId: {}, amount: {}", paymentId, amount);
+        }
+        if (transactionMapper.releaseRefundedAmount(originalTransactionId, paymentId, amount) == 0) {
+            log.warn("原支付流水已退款金额不足以释放，需执行已退款金额校验，originalTransactionId: {}, amount: {}", originalTransactionId, amount);
+        }
+    }
+
     @Override
     public List<PaymentAggregate> findByChannelTransactionId(String channelTransactionId, boolean loadTransactions) {
         log.debug("根据渠道交易记录ID查询支付单，channelTransactionId: {}, loadTransactions: {}",
@@ -385,4 +498,31 @@ public class PaymentRepositoryImpl implements IPaymentRepository {
         // 查询支付单
         return findByIds(paymentIds, loadTransactions);
     }
+
+    @Override
+    public List<PaymentAggregate> findProcessingByChannelAndTransactionId(
+            PaymentChannel paymentChannel,
+            String channelTransactionId) {
+        log.debug("根据渠道和交易记录ID查询持有进行中流水的支付单，paymentChannel: {}, channelTransactionId: {}",
+                paymentChannel, channelTransactionId);
+
+        // 走cms_payment_transaction的(payment_channel, channel_transaction_id, transaction_status)索引，一次往返取回同一渠道交易下的全部支付单及其进行中流水
+        MPJLambdaWrapper<PaymentPO> wrapper = new MPJLambdaWrapper<PaymentPO>()
+                .selectAll(PaymentPO.class)
+                .selectAssociation(PaymentTransactionPO.class, PaymentProcessingRowDTO::getProcessingTransaction)
+                .innerJoin(PaymentTransactionPO.class, PaymentTransactionPO::getPaymentId, PaymentPO::getId)
+                .eq(PaymentTransactionPO::getPaymentChannel, paymentChannel)
+                .eq(PaymentTransactionPO::getChannelTransactionId, channelTransactionId)
+                .eq(PaymentTransactionPO::getTransactionStatus, TransactionStatus.PROCESSING);
+        List<PaymentProcessingRowDTO> rows = paymentMapper.selectJoinList(PaymentProcessingRowDTO.class, wrapper);
+
+        List<PaymentAggregate> aggregates = new ArrayList<>(rows.size());
+        for (PaymentProcessingRowDTO row : rows) {
+            PaymentAggregate aggregate = paymentInfrastructureAssembler.poToAggregate(row);
+            aggregate.setProcessingTransaction(paymentInfrastructureAssembler.poToTransaction(row.getProcessingTransaction()));
+            aggregate.setCompletedTransactions(new ArrayList<>());
+            aggregates.add(aggregate);
+        }
+        return aggregates;
+    }
 }
\ No newline at end of file
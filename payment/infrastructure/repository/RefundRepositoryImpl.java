@@ -19,6 +19,8 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -83,7 +85,7 @@ public class RefundRepositoryImpl implements IRefundRepository {
 
         // 加载退款流水
         if (loadTransactions) {
-            loadTransactions(aggregate);
+            loadTransactionsForAggregates(Collections.singletonList(aggregate), false);
         }
 
         return Optional.of(aggregate);
@@ -109,7 +111,7 @@ public class RefundRepositoryImpl implements IRefundRepository {
 
         RefundAggregate aggregate = assembler.toRefundAggregate(po);
         if (loadTransactions) {
-            loadTransactions(aggregate);
+            loadTransactionsForAggregates(Collections.singletonList(aggregate), false);
         }
 
         return Optional.of(aggregate);
@@ -122,7 +124,13 @@ public class RefundRepositoryImpl implements IRefundRepository {
 
     @Override
     public List<RefundAggregate> findByOriginalPaymentId(String originalPaymentId, boolean loadTransactions) {
-        log.debug("Finding refund by original payment id: {}, loadTransactions: {}", originalPaymentId, loadTransactions);
+        return findByOriginalPaymentId(originalPaymentId, loadTransactions, false);
+    }
+
+    @Override
+    public List<RefundAggregate> findByOriginalPaymentId(String originalPaymentId, boolean loadTransactions, boolean processingOnly) {
+        log.debug("Finding refund by original payment id: {}, loadTransactions: {}, processingOnly: {}",
+                originalPaymentId, loadTransactions, processingOnly);
 
         LambdaQueryWrapper<PaymentPO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(PaymentPO::getOriginalPaymentId, originalPaymentId)
@@ -130,13 +138,16 @@ public class RefundRepositoryImpl implements IRefundRepository {
 
         List<PaymentPO> poList = paymentMapper.selectList(wrapper);
 
-        return poList.stream().map(po -> {
-            RefundAggregate aggregate = assembler.toRefundAggregate(po);
-            if (loadTransactions) {
-                loadTransactions(aggregate);
-            }
-            return aggregate;
-        }).collect(Collectors.toList());
+        List<RefundAggregate> aggregates = poList.stream()
+                .map(assembler::toRefundAggregate)
+                .collect(Collectors.toList());
+
+        // 批量加载流水（避免N+1查询）
+        if (loadTransactions && !aggregates.isEmpty()) {
+            loadTransactionsForAggregates(aggregates, processingOnly);
+        }
+
+        return aggregates;
     }
 
     @Override
@@ -149,6 +160,8 @@ public class RefundRepositoryImpl implements IRefundRepository {
         // 更新到数据库
         paymentMapper.updateById(po);
 
+        // 保存进行中流水（新增或更新），与PaymentRepositoryImpl.update一致
+        saveProcessingTransaction(aggregate);
         return aggregate;
     }
 
@@ -173,20 +186,43 @@ public class RefundRepositoryImpl implements IRefundRepository {
     }
 
     /**
-     * 加载退款流水（进行中和已完成）
+     * 为多个退款单批量加载流水
+     * 一次IN查询取回全部流水，内存中按退款单ID和状态分组
+     *
+     * @param aggregates     退款单聚合根列表
+     * @param processingOnly 是否只加载进行中流水
      */
-    private void loadTransactions(RefundAggregate aggregate) {
+    private void loadTransactionsForAggregates(List<RefundAggregate> aggregates, boolean processingOnly) {
+        List<String> refundIds = aggregates.stream()
+                .map(RefundAggregate::getId)
+                .collect(Collectors.toList());
+
+        // 批量查询所有流水
         LambdaQueryWrapper<PaymentTransactionPO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.eq(PaymentTransactionPO::getPaymentId, aggregate.getId())
+        wrapper.in(PaymentTransactionPO::getPaymentId, refundIds)
+                .eq(processingOnly, PaymentTransactionPO::getTransactionStatus, TransactionStatus.PROCESSING)
                 .orderByDesc(PaymentTransactionPO::getCreateTime);
-
         List<PaymentTransactionPO> transactionPOs = transactionMapper.selectList(wrapper);
-        List<RefundTransactionEntity> refunds = assembler.posToRefundTransactions(transactionPOs);
 
-        Map<Boolean, List<RefundTransactionEntity>> collect = refunds.stream().collect(Collectors.partitioningBy(trans -> trans.getTransactionStatus() == TransactionStatus.PROCESSING));
+        // 按退款单ID和状态分组
+        Map<String, List<RefundTransactionEntity>> processingMap = new HashMap<>();
+        Map<String, List<RefundTransactionEntity>> completedMap = new HashMap<>();
 
-        aggregate.setProcessingTransactions(collect.getOrDefault(true, new ArrayList<>()));
-        aggregate.setCompletedTransactions(collect.getOrDefault(false, new ArrayList<>()));
+        for (RefundTransactionEntity transaction : assembler.posToRefundTransactions(transactionPOs)) {
+            String refundId = transaction.getPaymentId();
+            if (TransactionStatus.PROCESSING == transaction.getTransactionStatus()) {
+                processingMap.computeIfAbsent(refundId, k -> new ArrayList<>()).add(transaction);
+            } else {
+                // SUCCESS 或 FAILED
+                completedMap.computeIfAbsent(refundId, k -> new ArrayList<>()).add(transaction);
+            }
+        }
+
+        // 设置流水到聚合根
+        for (RefundAggregate aggregate : aggregates) {
+            aggregate.setProcessingTransactions(processingMap.getOrDefault(aggregate.getId(), new ArrayList<>()));
+            aggregate.setCompletedTransactions(completedMap.getOrDefault(aggregate.getId(), new ArrayList<>()));
+        }
     }
 
     /**
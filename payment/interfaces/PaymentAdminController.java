@@ -0,0 +1,135 @@
+package com.bytz.modules.cms.payment.interfaces;
+
+import com.bytz.modules.cms.payment.application.model.ReconciliationResultVO;
+import com.bytz.modules.cms.payment.application.service.ChannelReconciliationService;
+import com.bytz.modules.cms.payment.domain.enums.PaymentChannel;
+import com.bytz.modules.cms.payment.domain.service.ChannelHealth;
+import com.bytz.modules.cms.payment.domain.service.PaymentChannelRefundServiceRegistry;
+import com.bytz.modules.cms.payment.infrastructure.channel.RefundChannelDispatcher;
+import com.bytz.modules.cms.payment.infrastructure.channel.RefundDispatchStats;
+import com.bytz.modules.cms.payment.shared.exception.PaymentErrorCode;
+import com.bytz.modules.cms.payment.shared.exception.PaymentException;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 支付运维控制器
+ * Payment Admin Controller
+ *
+ * <p>提供渠道对账及支付后台任务运行状态等运维接口</p>
+ */
+@Api(tags = "支付运维管理")
+@Slf4j
+@RestController
+@RequestMapping("/payment/admin")
+@RequiredArgsConstructor
+@Validated
+public class PaymentAdminController {
+
+    /**
+     * 对账差异报告目录
+     */
+    private static final Path RECONCILE_REPORT_DIR = Paths.get(System.getProperty("java.io.tmpdir"), "payment-reconcile-report");
+
+    private final ChannelReconciliationService channelReconciliationService;
+    private final RefundChannelDispatcher refundChannelDispatcher;
+    private final PaymentChannelRefundServiceRegistry paymentChannelRefundServiceRegistry;
+
+    // ==================== 渠道对账 ====================
+
+    /**
+     * 上传渠道对账单并对账
+     */
+    @ApiOperation("渠道对账")
+    @PostMapping("/reconciliation/{channel}")
+    public ReconciliationResultVO reconcile(@PathVariable PaymentChannel channel,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate reconcileDate,
+                                            @RequestParam("file") MultipartFile file) throws IOException {
+        Path statementFile = Files.createTempFile("payment-statement-" + channel.getCode() + "-", ".tmp");
+        try {
+            file.transferTo(statementFile.toFile());
+            return channelReconciliationService.reconcile(reconcileDate,
+                    Collections.singletonMap(channel, statementFile), RECONCILE_REPORT_DIR).get(0);
+        } finally {
+            Files.deleteIfExists(statementFile);
+        }
+    }
+
+    /**
+     * 下载对账差异报告
+     */
+    @ApiOperation("下载对账差异报告")
+    @GetMapping("/reconciliation/{channel}/report")
+    public void downloadReconcileReport(@PathVariable PaymentChannel channel,
+                                        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate reconcileDate,
+                                        HttpServletResponse response) throws IOException {
+        String fileName = ChannelReconciliationService.reportFileName(channel, reconcileDate);
+        Path reportFile = RECONCILE_REPORT_DIR.resolve(fileName);
+        if (!Files.exists(reportFile)) {
+            throw new PaymentException(PaymentErrorCode.VALIDATION_FAILED, "对账差异报告不存在，请先执行对账");
+        }
+        response.setContentType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+        response.setHeader("Content-Disposition", "attachment;filename=" + fileName);
+        Files.copy(reportFile, response.getOutputStream());
+    }
+
+    // ==================== 退款派发 ====================
+
+    /**
+     * 获取退款渠道派发统计
+     */
+    @ApiOperation("退款派发统计")
+    @GetMapping("/refund-dispatch/stats")
+    public RefundDispatchStats getRefundDispatchStats() {
+        return refundChannelDispatcher.getStats();
+    }
+
+    /**
+     * 查询退款流水的派发状态
+     *
+     * <p>已完成派发或未派发的流水返回空</p>
+     */
+    @ApiOperation("退款流水派发状态")
+    @GetMapping("/refund-dispatch/{refundTransactionId}/state")
+    public RefundChannelDispatcher.DispatchState getRefundDispatchState(@PathVariable String refundTransactionId) {
+        Optional<RefundChannelDispatcher.DispatchState> state = refundChannelDispatcher.getState(refundTransactionId);
+        return state.orElse(null);
+    }
+
+    // ==================== 渠道健康 ====================
+
+    /**
+     * 获取全部退款渠道的熔断与舱壁健康状态
+     */
+    @ApiOperation("退款渠道健康状态")
+    @GetMapping("/channels/health")
+    public List<ChannelHealth> getChannelHealth() {
+        return paymentChannelRefundServiceRegistry.getAllHealth();
+    }
+
+    /**
+     * 获取指定退款渠道的健康状态
+     */
+    @ApiOperation("指定退款渠道健康状态")
+    @GetMapping("/channels/{channel}/health")
+    public ChannelHealth getChannelHealth(@PathVariable PaymentChannel channel) {
+        return paymentChannelRefundServiceRegistry.getHealth(channel)
+                .orElseThrow(() -> new PaymentException(PaymentErrorCode.VALIDATION_FAILED, "渠道不支持退款: " + channel.getCode()));
+    }
+}
@@ -0,0 +1,45 @@
+package com.bytz.modules.cms.payment.job;
+
+import com.bytz.modules.cms.payment.application.service.PaymentCallbackIntakeService;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 支付回调收件箱排空定时任务
+ * 用于处理到期重试、领取超时以及接收时未能立即唤醒处理的支付回调
+ * 建议每5秒执行一次；Quartz集群模式下同一时刻只有一个节点执行，新接收的回调仍由接收节点立即处理
+ */
+@Component
+@Slf4j
+@DisallowConcurrentExecution
+public class PaymentCallbackDrainJob implements Job {
+
+    @Autowired
+    private PaymentCallbackIntakeService paymentCallbackIntakeService;
+
+    /**
+     * 执行定时任务的入口方法
+     * @param context Quartz JobExecutionContext
+     * @throws JobExecutionException 任务执行异常
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        try {
+            int handled = paymentCallbackIntakeService.drainPending();
+            if (handled > 0) {
+                log.info("支付回调收件箱排空任务执行完成，处理数量: {}", handled);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobExecutionException("支付回调收件箱排空任务被中断", e);
+        } catch (Exception e) {
+            log.error("支付回调收件箱排空任务执行失败", e);
+            throw new JobExecutionException("支付回调收件箱排空任务执行失败", e);
+        }
+    }
+}
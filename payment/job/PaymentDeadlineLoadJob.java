@@ -0,0 +1,55 @@
+package com.bytz.modules.cms.payment.job;
+
+import com.bytz.modules.cms.payment.application.service.PaymentDeadlineScheduler;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobDataMap;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.quartz.PersistJobDataAfterExecution;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+/**
+ * 支付截止时间加载定时任务
+ * 用于把即将到期的支付单截止时间分片加载到执行节点的时间轮，到期后自动关闭
+ * 建议每分钟执行一次；Quartz集群模式下同一时刻只有一个节点执行，加载上界保存在任务数据中，各次加载的截止时间段互不重叠
+ * 执行节点重启后其时间轮中未到期的支付单由逾期补齐重新加载，最多延迟一个宽限期加一个触发间隔关闭
+ */
+@Component
+@Slf4j
+@DisallowConcurrentExecution
+@PersistJobDataAfterExecution
+public class PaymentDeadlineLoadJob implements Job {
+
+    /**
+     * 任务数据：上次加载的截止时间上界
+     */
+    public static final String DATA_LOADED_UNTIL = "loadedUntil";
+
+    @Autowired
+    private PaymentDeadlineScheduler paymentDeadlineScheduler;
+
+    /**
+     * 执行定时任务的入口方法
+     * @param context Quartz JobExecutionContext
+     * @throws JobExecutionException 任务执行异常
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        log.info("开始执行支付截止时间加载任务");
+        try {
+            JobDataMap jobDataMap = context.getJobDetail().getJobDataMap();
+            String loadedUntil = jobDataMap.getString(DATA_LOADED_UNTIL);
+            LocalDateTime upper = paymentDeadlineScheduler.load(loadedUntil == null ? null : LocalDateTime.parse(loadedUntil));
+            jobDataMap.put(DATA_LOADED_UNTIL, upper.toString());
+            log.info("支付截止时间加载任务执行完成，加载上界: {}", upper);
+        } catch (Exception e) {
+            log.error("支付截止时间加载任务执行失败", e);
+            throw new JobExecutionException("支付截止时间加载任务执行失败", e);
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.bytz.modules.cms.payment.job;
+
+import com.bytz.modules.cms.payment.infrastructure.event.PaymentOutboxDispatcher;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 支付事件发件箱投递定时任务
+ * 用于投递到期重试、领取超时以及提交后未能立即唤醒投递的支付事件
+ * 建议每5秒执行一次；Quartz集群模式下同一时刻只有一个节点执行，新写入的事件仍由提交节点立即投递
+ */
+@Component
+@Slf4j
+@DisallowConcurrentExecution
+public class PaymentOutboxDispatchJob implements Job {
+
+    @Autowired
+    private PaymentOutboxDispatcher paymentOutboxDispatcher;
+
+    /**
+     * 执行定时任务的入口方法
+     * @param context Quartz JobExecutionContext
+     * @throws JobExecutionException 任务执行异常
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        try {
+            paymentOutboxDispatcher.dispatch();
+        } catch (Exception e) {
+            log.error("支付事件发件箱投递任务执行失败", e);
+            throw new JobExecutionException("支付事件发件箱投递任务执行失败", e);
+        }
+    }
+}
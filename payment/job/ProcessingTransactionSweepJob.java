@@ -0,0 +1,44 @@
+package com.bytz.modules.cms.payment.job;
+
+import com.bytz.modules.cms.payment.application.service.ProcessingTransactionSweeper;
+import lombok.extern.slf4j.Slf4j;
+import org.quartz.DisallowConcurrentExecution;
+import org.quartz.Job;
+import org.quartz.JobExecutionContext;
+import org.quartz.JobExecutionException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * 进行中流水巡检定时任务
+ * 用于定期查询渠道状态，补偿回调丢失而停留在PROCESSING的支付/退款流水
+ * 建议每分钟执行一次；Quartz集群模式下同一时刻只有一个节点执行
+ */
+@Component
+@Slf4j
+@DisallowConcurrentExecution
+public class ProcessingTransactionSweepJob implements Job {
+
+    @Autowired
+    private ProcessingTransactionSweeper processingTransactionSweeper;
+
+    /**
+     * 执行定时任务的入口方法
+     * @param context Quartz JobExecutionContext
+     * @throws JobExecutionException 任务执行异常
+     */
+    @Override
+    public void execute(JobExecutionContext context) throws JobExecutionException {
+        log.info("开始执行进行中流水巡检任务");
+        try {
+            int scanned = processingTransactionSweeper.sweep();
+            log.info("进行中流水巡检任务执行完成，扫描数: {}", scanned);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobExecutionException("进行中流水巡检任务被中断", e);
+        } catch (Exception e) {
+            log.error("进行中流水巡检任务执行失败", e);
+            throw new JobExecutionException("进行中流水巡检任务执行失败", e);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.bytz.modules.cms.payment.shared;
+
+import com.bytz.modules.cms.payment.application.service.PaymentDeadlineScheduler;
+import com.bytz.modules.cms.payment.shared.event.PaymentCreatedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 支付截止时间监听器
+ * 支付单创建事件由发件箱在业务事务提交后投递，截止时间登记到接收节点的时间轮；窗口外的截止时间由PaymentDeadlineLoadJob分片加载
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentDeadlineListener {
+
+    private final PaymentDeadlineScheduler paymentDeadlineScheduler;
+
+    @EventListener
+    public void onPaymentCreated(PaymentCreatedEvent event) {
+        log.debug("登记支付截止时间，支付单ID: {}, 截止时间: {}", event.getPaymentId(), event.getPaymentDeadline());
+        paymentDeadlineScheduler.onPaymentCreated(event);
+    }
+}
@@ -0,0 +1,59 @@
+package com.bytz.modules.cms.payment.shared;
+
+import com.bytz.modules.cms.payment.application.service.PaymentQueryService;
+import com.bytz.modules.cms.payment.shared.event.PaymentClosedEvent;
+import com.bytz.modules.cms.payment.shared.event.PaymentCompletedEvent;
+import com.bytz.modules.cms.payment.shared.event.PaymentCreatedEvent;
+import com.bytz.modules.cms.payment.shared.event.PaymentExecutedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 支付查询缓存失效监听器
+ * 支付事件由发件箱在业务事务提交后投递，收到事件即失效对应支付单及订单的查询缓存
+ * 退款单事件同时失效原支付单：创建/关闭退款会切换原支付单的退款标记，退款成功会累加原支付单的已退款金额
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentQueryCacheListener {
+
+    private final PaymentQueryService paymentQueryService;
+
+    @EventListener
+    public void onPaymentCreated(PaymentCreatedEvent event) {
+        evict(event.getPaymentId(), event.getOrderId());
+        evictOriginal(event.getOriginalPaymentId(), event.getOrderId());
+    }
+
+    @EventListener
+    public void onPaymentExecuted(PaymentExecutedEvent event) {
+        evict(event.getPaymentId(), event.getOrderId());
+        evictOriginal(event.getOriginalPaymentId(), event.getOrderId());
+    }
+
+    @EventListener
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        evict(event.getPaymentId(), event.getOrderId());
+        evictOriginal(event.getOriginalPaymentId(), event.getOrderId());
+    }
+
+    @EventListener
+    public void onPaymentClosed(PaymentClosedEvent event) {
+        evict(event.getPaymentId(), event.getOrderId());
+        evictOriginal(event.getOriginalPaymentId(), event.getOrderId());
+    }
+
+    private void evict(String paymentId, String orderId) {
+        log.debug("失效支付查询缓存，支付单ID: {}, 订单ID: {}", paymentId, orderId);
+        paymentQueryService.evictPaymentCache(paymentId, orderId);
+    }
+
+    private void evictOriginal(String originalPaymentId, String orderId) {
+        if (originalPaymentId != null) {
+            evict(originalPaymentId, orderId);
+        }
+    }
+}
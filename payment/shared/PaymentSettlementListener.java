@@ -0,0 +1,26 @@
+package com.bytz.modules.cms.payment.shared;
+
+import com.bytz.modules.cms.payment.application.service.PaymentSettlementService;
+import com.bytz.modules.cms.payment.shared.event.PaymentExecutedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * 日结算汇总监听器
+ * 支付已执行事件由发件箱在业务事务提交后投递，成功流水累加进日结算汇总；累加失败时随投递事务回滚并由发件箱重试
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentSettlementListener {
+
+    private final PaymentSettlementService settlementService;
+
+    @EventListener
+    public void onPaymentExecuted(PaymentExecutedEvent event) {
+        log.debug("累加日结算汇总，支付单ID: {}, 流水ID: {}", event.getPaymentId(), event.getTransactionId());
+        settlementService.applyExecutedEvent(event);
+    }
+}
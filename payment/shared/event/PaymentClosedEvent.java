@@ -28,6 +28,11 @@ public class PaymentClosedEvent {
      */
     private String paymentId;
 
+    /**
+     * 原支付单ID（仅退款单事件填写，退款会改变原支付单的退款标记与已退款金额）
+     */
+    private String originalPaymentId;
+
 
     /**
      * 支付单编码
@@ -27,6 +27,11 @@ public class PaymentCreatedEvent {
      */
     private String paymentId;
     
+    /**
+     * 原支付单ID（仅退款单事件填写，退款会改变原支付单的退款标记与已退款金额）
+     */
+    private String originalPaymentId;
+    
     /**
      * 支付单号
      */
@@ -56,4 +61,9 @@ public class PaymentCreatedEvent {
      * 创建时间
      */
     private LocalDateTime createTime;
+
+    /**
+     * 支付截止时间（为空表示不限期）
+     */
+    private LocalDateTime paymentDeadline;
 }
\ No newline at end of file
@@ -16,7 +16,7 @@ import java.time.LocalDateTime;
  * 支付已执行事件（对应功能点T08）
  * Payment Executed Event
  *
- * <p>触发时机：支付回调处理完成并更新支付单状态后</p>
+ * <p>触发时机：支付回调处理完成并更新支付单状态后；同步完成的流水（授信、临时授信、钱包等）在执行支付时触发</p>
  * <p>用例来源：UC-PM-008</p>
  */
 @Data
@@ -30,6 +30,11 @@ public class PaymentExecutedEvent {
      */
     private String paymentId;
 
+    /**
+     * 原支付单ID（仅退款单事件填写，退款会改变原支付单的退款标记与已退款金额）
+     */
+    private String originalPaymentId;
+
 
     /**
      * 支付单编码
@@ -47,6 +47,12 @@ public enum PaymentErrorCode {
     
     CHANNEL_NOT_SUPPORTED("PM050", "支付渠道不支持该操作"),
     CHANNEL_REFUND_FAILED("PM051", "渠道退款失败"),
+    CHANNEL_UNAVAILABLE("PM052", "支付渠道暂不可用"),
+    CHANNEL_TIMEOUT("PM053", "支付渠道调用超时"),
+    
+    // ==================== 并发相关错误 ====================
+    
+    CONCURRENT_MODIFICATION("PM060", "数据已被其他操作修改，请重试"),
     
     // ==================== 系统错误 ====================
     
@@ -93,6 +93,13 @@ public class CreditWalletListVo {
     @ApiModelProperty(value = "币种")
     private String currency;
 
+    /**
+     * 额度分片数，大于0时额度为各子额度之和
+     */
+    @MPJFieldMapping(entityClass = CreditWalletPO.class)
+    @ApiModelProperty(value = "额度分片数")
+    private Integer shardCount;
+
     /**
      * 创建时间
      */
@@ -31,4 +31,8 @@ public class PayCreditRO extends BasePaymentItemRo {
     @NotBlank(message = "经销商ID不能为空",groups = AdminGroup.class)
     private String resellerId;
 
+    /**
+     * 客户端请求键（可选），超时重试时携带同一请求键，返回首次请求的结果
+     */
+    private String requestKey;
 }
\ No newline at end of file
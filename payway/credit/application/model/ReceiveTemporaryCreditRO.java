@@ -57,4 +57,9 @@ public class ReceiveTemporaryCreditRO {
      * 备注
      */
     private String remark;
+
+    /**
+     * 客户端请求键（可选），超时重试时携带同一请求键，返回首次请求的结果
+     */
+    private String requestKey;
 }
@@ -23,6 +23,8 @@ import com.bytz.modules.cms.payway.credit.domain.repository.ITemporaryCreditRepo
 import com.bytz.modules.cms.payway.credit.shared.event.*;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletErrorCode;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletException;
+import com.bytz.modules.cms.shared.idempotency.IdempotencyTemplate;
+import com.bytz.modules.cms.shared.lock.AggregateLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -60,6 +62,7 @@ public class CreditApplicationService {
     private final ApplicationEventPublisher eventPublisher;
     private final PaymentDomainService paymentDomainService;
     private final IPaymentRepository paymentRepository;
+    private final IdempotencyTemplate idempotencyTemplate;
 
     /**
      * 创建信用钱包
@@ -94,12 +97,19 @@ public class CreditApplicationService {
 
     /**
      * 信用支付
+     * 只按支付单加锁：额度占用是条件UPDATE，同一钱包的支付在分片模式下可并行扣减不同分片
      *
      * @param ro 信用支付请求对象
      * @return 账单VO
      */
+    @AggregateLock(keys = "'payment:' + #ro.paymentId")
     @Transactional(rollbackFor = Exception.class)
     public CreditBillVO creditPay(PayCreditRO ro) {
+        // 客户端超时重试时按请求键返回首次结果
+        return idempotencyTemplate.execute("credit.creditPay", ro.getRequestKey(), ro, CreditBillVO.class, () -> doCreditPay(ro));
+    }
+
+    private CreditBillVO doCreditPay(PayCreditRO ro) {
         log.info("Processing credit payment for wallet: {}, reseller: {}", ro.getWalletId(), ro.getResellerId());
 
         // 查询钱包
@@ -112,10 +122,6 @@ public class CreditApplicationService {
             throw new CreditWalletException(CreditWalletErrorCode.WALLET_NOT_FOUND);
         }
 
-        if (!wallet.canPay(ro.getAmount())) {
-            throw new CreditWalletException(CreditWalletErrorCode.INSUFFICIENT_LIMIT);
-        }
-
         // 校验信用钱包是否支持该支付
         PaymentAggregate paymentAggregate = paymentRepository.findById(ro.getPaymentId()).orElseThrow(() -> new PaymentException(PaymentErrorCode.PAYMENT_NOT_FOUND));
         if (!wallet.isSupportPayment(paymentAggregate.getPaymentType())) {
@@ -128,11 +134,16 @@ public class CreditApplicationService {
                 .paymentId(ro.getPaymentId())
                 .build();
 
+        // 原子占用额度，并发支付由数据库按行判定，聚合根按更新后的行刷新
+        if (!creditWalletRepository.consumeLimit(wallet, ro.getAmount())) {
+            throw new CreditWalletException(CreditWalletErrorCode.INSUFFICIENT_LIMIT);
+        }
+
         // 调用聚合根方法
         CreditBillEntity bill = wallet.creditPay(command);
 
-        // 持久化
-        creditWalletRepository.update(wallet);
+        // 持久化账单与日志
+        creditWalletRepository.saveBillsAndLogs(wallet);
 
         // 查询支付单，验证并构建支付明细
         createPayTransactionAndCallBackTrue(bill);
@@ -156,7 +167,20 @@ public class CreditApplicationService {
 
     private void createPayTransactionAndCallBackTrue(CreditBillEntity bill) {
 
-        PaymentTransactionEntity paymentTransactionEntity = paymentDomainService.executePayment(CreateTransactionCommand.builder()
+        PaymentTransactionEntity paymentTransactionEntity = paymentDomainService.executePayment(toPayTransactionCommand(bill));
+    }
+
+    /**
+     * 批量账单一次结算全部支付单
+     */
+    private void createPayTransactionsAndCallBackTrue(List<CreditBillEntity> bills) {
+        paymentDomainService.executePayments(bills.stream()
+                .map(this::toPayTransactionCommand)
+                .collect(Collectors.toList()));
+    }
+
+    private CreateTransactionCommand toPayTransactionCommand(CreditBillEntity bill) {
+        return CreateTransactionCommand.builder()
                 .paymentId(bill.getPaymentId())
                 .paymentChannel(PaymentChannel.CREDIT_ACCOUNT)
                 .transactionAmount(bill.getAmount())
@@ -165,15 +189,17 @@ public class CreditApplicationService {
                 .transactionType(TransactionType.PAYMENT)
                 .completedTime(LocalDateTime.now())
                 .transactionStatus(TransactionStatus.SUCCESS)
-                .build());
+                .build();
     }
 
     /**
      * 批量信用支付
+     * 只按支付单加锁，额度由条件UPDATE原子占用
      *
      * @param ro 批量信用支付请求对象
      * @return 账单VO列表
      */
+    @AggregateLock(keys = "#ro.payments.!['payment:' + paymentId]")
     @Transactional(rollbackFor = Exception.class)
     public List<CreditBillVO> batchCreditPay(BatchPayCreditRO ro) {
         log.info("Processing batch credit payment for wallet: {}, reseller: {}", ro.getWalletId(), ro.getResellerId());
@@ -192,10 +218,6 @@ public class CreditApplicationService {
                 .map(BasePaymentItemRo::getAmount)
                 .reduce(BigDecimal.ZERO, BigDecimal::add);
 
-        if (!wallet.canPay(totalAmount)) {
-            throw new CreditWalletException(CreditWalletErrorCode.INSUFFICIENT_LIMIT);
-        }
-
         // 校验信用钱包是否支持该支付
         List<String> paymentIds = ro.getPayments().stream().map(BasePaymentItemRo::getPaymentId).collect(Collectors.toList());
         List<PaymentAggregate> paymentAggregateList = paymentRepository.findByIds(paymentIds);
@@ -213,16 +235,19 @@ public class CreditApplicationService {
                 .payments(collect)
                 .build();
 
-        // 校验信用钱包能不能用于信用支付
+        // 按总金额一次原子占用额度
+        if (!creditWalletRepository.consumeLimit(wallet, totalAmount)) {
+            throw new CreditWalletException(CreditWalletErrorCode.INSUFFICIENT_LIMIT);
+        }
 
         // 调用聚合根方法
         List<CreditBillEntity> bills = wallet.batchCreditPay(command);
 
-        // 持久化
-        creditWalletRepository.update(wallet);
+        // 持久化账单与日志
+        creditWalletRepository.saveBillsAndLogs(wallet);
 
         // 验证并构建支付明细
-        bills.forEach(this::createPayTransactionAndCallBackTrue);
+        createPayTransactionsAndCallBackTrue(bills);
 
         // Entity -> VO
         return creditAssembler.toBillVOList(bills);
@@ -236,6 +261,11 @@ public class CreditApplicationService {
      */
     @Transactional(rollbackFor = Exception.class)
     public TemporaryCreditVO receiveTemporaryCredit(ReceiveTemporaryCreditRO ro) {
+        // 客户端超时重试时按请求键返回首次结果
+        return idempotencyTemplate.execute("credit.receiveTemporaryCredit", ro.getRequestKey(), ro, TemporaryCreditVO.class, () -> doReceiveTemporaryCredit(ro));
+    }
+
+    private TemporaryCreditVO doReceiveTemporaryCredit(ReceiveTemporaryCreditRO ro) {
         log.info("Receiving temporary credit for reseller: {}", ro.getResellerId());
 
         // RO -> Command
@@ -341,7 +371,7 @@ public class CreditApplicationService {
         temporaryCreditRepository.update(temporaryCredit);
 
         // 验证并构建支付明细
-        bills.forEach(this::createPayTransactionAndCallBackTrue);
+        createPayTransactionsAndCallBackTrue(bills);
         // Entity -> VO
         return creditAssembler.toBillVOList(bills);
     }
@@ -375,8 +405,10 @@ public class CreditApplicationService {
         // 调用聚合根方法
         wallet.freeze(command);
 
-        // 持久化
-        creditWalletRepository.update(wallet);
+        // 持久化（条件UPDATE只写冻结标记，不与并发的额度占用/返还冲突），已冻结时不重复记录
+        if (!creditWalletRepository.freeze(wallet)) {
+            return;
+        }
 
         // 发布钱包冻结事件（使用本地 operatorId）
         eventPublisher.publishEvent(WalletFrozenEvent.builder()
@@ -555,6 +587,19 @@ public class CreditApplicationService {
                 .build());
     }
 
+    /**
+     * 调整额度分片数（大客户高频信用支付时拆分子额度）
+     *
+     * @param walletId   钱包ID
+     * @param shardCount 分片数，0-不分片
+     */
+    @AggregateLock(keys = "'creditWallet:' + #walletId")
+    @Transactional(rollbackFor = Exception.class)
+    public void configureLimitShards(String walletId, int shardCount) {
+        log.info("Configuring limit shards for wallet: {}, shardCount: {}", walletId, shardCount);
+        creditWalletDomainService.configureLimitShards(walletId, shardCount);
+    }
+
     /**
      * 更新账期天数
      *
@@ -11,6 +11,9 @@ import com.bytz.modules.cms.payway.credit.application.model.CreditBillListVO;
 import com.bytz.modules.cms.payway.credit.domain.enums.RepaymentStatus;
 import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditBillPO;
 import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditBillMapper;
+import com.bytz.modules.cms.shared.pagination.SeekPage;
+import com.bytz.modules.cms.shared.pagination.SeekPageRequest;
+import com.bytz.modules.cms.shared.pagination.SeekPaginator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -38,6 +41,13 @@ public class CreditBillQueryService extends ServiceImpl<CreditBillMapper, Credit
 
     private final CreditAssembler creditAssembler;
 
+    /**
+     * 信用账单列表游标分页
+     */
+    private final SeekPaginator<CreditBillPO, CreditBillListVO> billSeekPaginator =
+            new SeekPaginator<>("creditBillList", CreditBillPO::getCreateTime, CreditBillPO::getId,
+                    CreditBillListVO::getCreateTime, CreditBillListVO::getId);
+
     /**
      * 根据钱包ID分页查询交易记录
      *
@@ -47,11 +57,7 @@ public class CreditBillQueryService extends ServiceImpl<CreditBillMapper, Credit
      */
     public IPage<CreditBillListVO> queryTransactionPage(Page<CreditBillPO> page, MPJLambdaWrapperEx<CreditBillPO> queryWrapper) {
 
-        queryWrapper
-                .selectAll(CreditBillPO.class)
-                .selectAs(PaymentPO::getCode, CreditBillListVO::getPaymentCode)
-                .leftJoin(PaymentPO.class, left -> left.eq(PaymentPO::getId, CreditBillPO::getPaymentId).eq(PaymentPO::getDelFlag, BooleanConstant.INT_FALSE))
-                .orderByDesc(CreditBillPO::getCreateTime);
+        buildWrapper(queryWrapper);
 
         IPage<CreditBillListVO> voiPage = baseMapper.selectJoinPage(page, CreditBillListVO.class, queryWrapper);
 
@@ -61,6 +67,37 @@ public class CreditBillQueryService extends ServiceImpl<CreditBillMapper, Credit
         return voiPage;
     }
 
+    /**
+     * 游标分页查询交易记录
+     * 按(create_time, id)定位下一页，翻页深度不影响查询耗时，总条数按需统计并缓存
+     *
+     * @param request      游标分页参数
+     * @param queryWrapper 查询条件
+     * @return 游标分页交易记录
+     */
+    public SeekPage<CreditBillListVO> querySeekTransactionPage(SeekPageRequest request, MPJLambdaWrapperEx<CreditBillPO> queryWrapper) {
+
+        buildWrapper(queryWrapper);
+        queryWrapper.orderByDesc(CreditBillPO::getId);
+
+        SeekPage<CreditBillListVO> seekPage = billSeekPaginator.query(request, queryWrapper,
+                wrapper -> baseMapper.selectJoinCount(wrapper),
+                wrapper -> baseMapper.selectJoinList(CreditBillListVO.class, wrapper));
+
+        seekPage.getRecords().forEach(vo -> {
+            vo.setCanCreateRepayment(StringUtils.isBlank(vo.getRepaymentPaymentId()));
+        });
+        return seekPage;
+    }
+
+    private void buildWrapper(MPJLambdaWrapperEx<CreditBillPO> queryWrapper) {
+        queryWrapper
+                .selectAll(CreditBillPO.class)
+                .selectAs(PaymentPO::getCode, CreditBillListVO::getPaymentCode)
+                .leftJoin(PaymentPO.class, left -> left.eq(PaymentPO::getId, CreditBillPO::getPaymentId).eq(PaymentPO::getDelFlag, BooleanConstant.INT_FALSE))
+                .orderByDesc(CreditBillPO::getCreateTime);
+    }
+
     public BigDecimal debt(String WalletId) {
 
         BigDecimal decimal = this.lambdaQuery()
@@ -12,7 +12,9 @@ import com.bytz.modules.cms.payway.credit.application.model.CreditWalletVO;
 import com.bytz.modules.cms.payway.credit.domain.model.CreditWalletAggregate;
 import com.bytz.modules.cms.payway.credit.domain.repository.ICreditWalletRepository;
 import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditWalletPO;
+import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditWalletShardPO;
 import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditWalletMapper;
+import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditWalletShardMapper;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletErrorCode;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletException;
 import com.bytz.modules.cms.payway.model.PayWayCanUseContext;
@@ -22,6 +24,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 /**
  * 信用钱包查询服务
  * Credit Wallet Query Service
@@ -42,11 +49,14 @@ public class CreditWalletQueryService extends ServiceImpl<CreditWalletMapper, Cr
 
     private final ICreditWalletRepository creditWalletRepository;
     private final CreditAssembler creditAssembler;
+    private final CreditWalletShardMapper creditWalletShardMapper;
 
     public CreditWalletQueryService(ICreditWalletRepository creditWalletRepository,
-                                    CreditAssembler creditAssembler) {
+                                    CreditAssembler creditAssembler,
+                                    CreditWalletShardMapper creditWalletShardMapper) {
         this.creditWalletRepository = creditWalletRepository;
         this.creditAssembler = creditAssembler;
+        this.creditWalletShardMapper = creditWalletShardMapper;
     }
 
     /**
@@ -104,6 +114,23 @@ public class CreditWalletQueryService extends ServiceImpl<CreditWalletMapper, Cr
 
         IPage<CreditWalletListVo> poPage = baseMapper.selectJoinPage(page, CreditWalletListVo.class, wrapperEx);
 
+        // 分片钱包主记录上的额度只是快照，按子额度汇总覆盖
+        List<String> shardedIds = poPage.getRecords().stream()
+                .filter(vo -> vo.getShardCount() != null && vo.getShardCount() > 0)
+                .map(CreditWalletListVo::getId)
+                .collect(Collectors.toList());
+        if (!shardedIds.isEmpty()) {
+            Map<String, CreditWalletShardPO> totals = creditWalletShardMapper.sumByWalletIds(shardedIds).stream()
+                    .collect(Collectors.toMap(CreditWalletShardPO::getWalletId, Function.identity()));
+            poPage.getRecords().forEach(vo -> {
+                CreditWalletShardPO total = totals.get(vo.getId());
+                if (total != null) {
+                    vo.setUsedLimit(total.getUsedLimit());
+                    vo.setAvailableLimit(total.getAvailableLimit());
+                }
+            });
+        }
+
         return poPage;
     }
 
@@ -2,6 +2,7 @@ package com.bytz.modules.cms.payway.credit.domain;
 
 import com.bytz.modules.cms.payway.credit.domain.command.CompleteRepaymentCommand;
 import com.bytz.modules.cms.payway.credit.domain.command.CreateCreditWalletCommand;
+import com.bytz.modules.cms.payway.credit.domain.enums.RepaymentStatus;
 import com.bytz.modules.cms.payway.credit.domain.model.CreditWalletAggregate;
 import com.bytz.modules.cms.payway.credit.domain.repository.ICreditWalletRepository;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletErrorCode;
@@ -97,8 +98,10 @@ public class CreditWalletDomainService {
      * 
      * 业务逻辑：
      * 1. 根据账单ID查询关联的信用钱包聚合根
-     * 2. 调用聚合根的还款完成方法，更新内部状态
-     * 3. 持久化更新后的聚合根状态
+     * 2. 以条件UPDATE原子返还账单金额的额度
+     * 3. 调用聚合根的还款完成方法，更新内部状态
+     * 4. 持久化账单状态与管理日志（钱包主记录已由返还语句更新）
+     * 支付完成事件经发件箱至少投递一次：账单已是REPAID时视为重复通知，直接返回
      */
     @Transactional(rollbackFor = Exception.class)
     public void completeRepayment(CompleteRepaymentCommand command) {
@@ -115,17 +118,49 @@ public class CreditWalletDomainService {
         log.debug("[信用钱包领域服务] 查询到信用钱包聚合根 - 钱包ID: {}, 账单ID: {}", 
                 creditWalletAggregate.getId(), command.getBillId());
 
-        // 2. 调用聚合根的还款完成方法，更新内部状态
+        boolean alreadyRepaid = creditWalletAggregate.getUnpaidBills().stream()
+                .anyMatch(bill -> command.getBillId().equals(bill.getId())
+                        && RepaymentStatus.REPAID == bill.getRepaymentStatus());
+        if (alreadyRepaid) {
+            log.info("[信用钱包领域服务] 账单已还款，忽略重复的还款完成通知 - 账单ID: {}", command.getBillId());
+            return;
+        }
+
+        // 2. 原子返还额度，聚合根按更新后的行刷新
+        BigDecimal repaymentAmount = creditWalletAggregate.getRepaymentAmount(command.getBillId());
+        creditWalletRepository.releaseLimit(creditWalletAggregate, repaymentAmount);
+
+        // 3. 调用聚合根的还款完成方法，更新内部状态
         log.debug("[信用钱包领域服务] 调用聚合根完成还款 - 钱包ID: {}, 账单ID: {}", 
                 creditWalletAggregate.getId(), command.getBillId());
         creditWalletAggregate.completeRepayment(command);
         log.debug("[信用钱包领域服务] 聚合根还款完成 - 钱包ID: {}, 账单ID: {}", 
                 creditWalletAggregate.getId(), command.getBillId());
 
-        // 3. 持久化更新后的聚合根状态
+        // 4. 持久化账单状态与管理日志
         log.debug("[信用钱包领域服务] 持久化更新后的信用钱包状态 - 钱包ID: {}, 账单ID: {}", 
                 creditWalletAggregate.getId(), command.getBillId());
-        creditWalletRepository.update(creditWalletAggregate);
+        creditWalletRepository.saveBillsAndLogs(creditWalletAggregate);
         log.info("[信用钱包领域服务] 信用还款完成处理成功 - 账单ID: {}", command.getBillId());
     }
+
+    /**
+     * 调整信用钱包额度分片数
+     * 大客户高频支付时拆分为多个子额度并发扣减，0表示合并回钱包主记录；额度总和与可用判定不变
+     *
+     * @param walletId   钱包ID
+     * @param shardCount 分片数，0-不分片，最大{@value #MAX_LIMIT_SHARDS}
+     */
+    @Transactional(rollbackFor = Exception.class)
+    public void configureLimitShards(String walletId, int shardCount) {
+        if (shardCount < 0 || shardCount > MAX_LIMIT_SHARDS) {
+            throw new CreditWalletException(CreditWalletErrorCode.WALLET_ERROR_CODE,
+                    "额度分片数必须在0到" + MAX_LIMIT_SHARDS + "之间，当前值：" + shardCount);
+        }
+        CreditWalletAggregate wallet = creditWalletRepository.findById(walletId, false)
+                .orElseThrow(() -> new CreditWalletException(CreditWalletErrorCode.WALLET_NOT_FOUND));
+
+        log.info("[信用钱包领域服务] 调整额度分片 - 钱包ID: {}, 分片数: {} -> {}", walletId, wallet.getShardCount(), shardCount);
+        creditWalletRepository.configureShards(wallet, shardCount);
+    }
 }
\ No newline at end of file
@@ -1,8 +1,10 @@
 package com.bytz.modules.cms.payway.credit.domain;
 
 import com.bytz.modules.cms.payway.credit.domain.command.FreezeWalletCommand;
-import com.bytz.modules.cms.payway.credit.domain.entity.CreditBillEntity;
+import com.bytz.modules.cms.payway.credit.domain.entity.ManagerLog;
 import com.bytz.modules.cms.payway.credit.domain.model.CreditWalletAggregate;
+import com.bytz.modules.cms.payway.credit.domain.model.OverdueFreezeStats;
+import com.bytz.modules.cms.payway.credit.domain.model.OverdueWalletSummary;
 import com.bytz.modules.cms.payway.credit.domain.repository.ICreditWalletRepository;
 import com.bytz.modules.cms.payway.credit.shared.event.WalletFrozenEvent;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletErrorCode;
@@ -11,20 +13,29 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 风控领域服务
  * Risk Control Domain Service
- * 
+ *
  * <p>负责逾期检测和自动冻结处理。</p>
  * <p>用例来源：UC-CW-030, UC-CW-031</p>
  * <p>需求来源：T20, T21</p>
@@ -33,159 +44,216 @@ import java.util.stream.Collectors;
  *   - 自动冻结有逾期账单的钱包
  *   - 触发逾期通知
  * </p>
+ * <p>逾期检测由一次按钱包聚合的查询完成；冻结在有界线程池上并行执行，每个钱包独立事务，单个钱包失败不影响其他钱包</p>
+ * <p>检测基于账单到期分桶索引：定时检测只处理上次检查后有账单新到期的钱包，处理成功后标记为已检查，失败的钱包下次重试</p>
+ * <p>对账模式从账单表重建分桶索引，并对全部逾期钱包重新检测</p>
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class RiskControlDomainService {
-    
-    private final ICreditWalletRepository creditWalletRepository;
-    private final ApplicationEventPublisher eventPublisher;
+
+    private static final int FREEZE_THREADS = 4;
 
     /**
-     * 逾期信息DTO
+     * 执行统计中最多记录的失败钱包ID数
      */
-    public static class OverdueInfo {
-        private final String walletId;
-        private final String resellerId;
-        private final List<CreditBillEntity> overdueBills;
-        private final BigDecimal totalOverdueAmount;
-        
-        public OverdueInfo(String walletId, String resellerId, List<CreditBillEntity> overdueBills) {
-            this.walletId = walletId;
-            this.resellerId = resellerId;
-            this.overdueBills = overdueBills;
-            this.totalOverdueAmount = overdueBills.stream()
-                    .map(CreditBillEntity::getAmount)
-                    .reduce(BigDecimal.ZERO, BigDecimal::add);
-        }
-        
-        public String getWalletId() {
-            return walletId;
-        }
-        
-        public String getResellerId() {
-            return resellerId;
-        }
-        
-        public List<CreditBillEntity> getOverdueBills() {
-            return overdueBills;
-        }
-        
-        public BigDecimal getTotalOverdueAmount() {
-            return totalOverdueAmount;
+    private static final int MAX_RECORDED_FAILURES = 100;
+
+    private static final String AUTO_FREEZE_OPERATOR = "SYSTEM";
+    private static final String AUTO_FREEZE_REASON = "系统自动冻结：检测到逾期账单";
+
+    private final ICreditWalletRepository creditWalletRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate freezeTransaction;
+    private ThreadPoolExecutor freezeExecutor;
+    private volatile OverdueFreezeStats lastFreezeStats;
+
+    @PostConstruct
+    public void init() {
+        freezeTransaction = new TransactionTemplate(transactionManager);
+        freezeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        AtomicInteger threadIndex = new AtomicInteger();
+        freezeExecutor = new ThreadPoolExecutor(FREEZE_THREADS, FREEZE_THREADS, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "credit-overdue-freeze-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        freezeExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (freezeExecutor != null) {
+            freezeExecutor.shutdownNow();
         }
     }
-    
+
     /**
      * 检测逾期账单
      * 用例来源：UC-CW-030
      * 需求来源：T20
-     * 
-     * @return 逾期信息列表
+     *
+     * <p>由仓储一次聚合查询按钱包汇总，不加载账单明细，也不逐个加载钱包</p>
+     * <p>只返回上次检查后有账单新到期的钱包，汇总包含该钱包的全部逾期账单</p>
+     *
+     * @return 钱包逾期汇总列表
      */
-    public List<OverdueInfo> detectOverdueBills() {
-        // TODO: Implement detectOverdueBills orchestration logic
-        // Requirements:
-        // - 直接通过仓储查询逾期账单（UNPAID或REPAYING状态，dueDate < currentDate）
-        // - 按钱包ID分组，统计逾期金额
-        
+    public List<OverdueWalletSummary> detectOverdueBills() {
         log.info("Detecting overdue bills");
-        
-        LocalDate currentDate = LocalDate.now();
-        List<CreditBillEntity> overdueBills = creditWalletRepository.findOverdueBills(currentDate);
-        
-        // 按钱包ID分组
-        Map<String, List<CreditBillEntity>> billsByWallet = overdueBills.stream()
-                .collect(Collectors.groupingBy(CreditBillEntity::getCreditWalletId));
-        
-        List<OverdueInfo> overdueInfos = billsByWallet.entrySet().stream()
-                .map(entry -> {
-                    String walletId = entry.getKey();
-                    List<CreditBillEntity> bills = entry.getValue();
-                    // 获取resellerId（从钱包获取）
-                    String resellerId = creditWalletRepository.findById(walletId, false)
-                            .map(CreditWalletAggregate::getResellerId)
-                            .orElse(null);
-                    return new OverdueInfo(walletId, resellerId, bills);
-                })
-                .collect(Collectors.toList());
-        
-        log.info("Detected {} wallets with overdue bills", overdueInfos.size());
-        return overdueInfos;
+
+        List<OverdueWalletSummary> overdueWallets = creditWalletRepository.findNewlyOverdueWalletSummaries(LocalDate.now());
+
+        log.info("Detected {} wallets with newly overdue bills", overdueWallets.size());
+        return overdueWallets;
     }
-    
+
+    /**
+     * 对账模式：重建账单到期分桶索引后检测并冻结全部逾期钱包
+     * 用于分桶索引首次上线、数据修复或怀疑索引与账单表不一致时
+     *
+     * @return 本次执行统计
+     */
+    public OverdueFreezeStats reconcileOverdueWallets() {
+        Integer rebuilt = freezeTransaction.execute(status -> creditWalletRepository.rebuildBillDueBuckets());
+        log.info("Bill due buckets rebuilt: {}", rebuilt);
+
+        List<OverdueWalletSummary> overdueWallets = creditWalletRepository.findOverdueWalletSummaries(LocalDate.now());
+        log.info("Detected {} wallets with overdue bills", overdueWallets.size());
+        return autoFreezeOverdueWallets(overdueWallets);
+    }
+
     /**
      * 自动冻结逾期钱包
      * 用例来源：UC-CW-031
      * 需求来源：T21
-     * 
-     * @param overdueInfos 逾期信息列表
+     *
+     * <p>检测时已冻结的钱包跳过；其余钱包并行冻结，每个钱包在独立事务中重新加载后冻结并发布WalletFrozenEvent</p>
+     * <p>冻结或跳过的钱包在同一事务中把已到期账单标记为已检查</p>
+     *
+     * @param overdueWallets 钱包逾期汇总列表
+     * @return 本次执行统计
      */
-    @Transactional(rollbackFor = Exception.class)
-    public void autoFreezeOverdueWallets(List<OverdueInfo> overdueInfos) {
-        // TODO: Implement autoFreezeOverdueWallets orchestration logic
-        // Requirements:
-        // - 对有逾期账单的钱包调用freeze方法
-        // - 记录冻结日志（含逾期账单详情）
-        // - 发布WalletFrozenEvent
-        // - 触发逾期通知
-        
-        log.info("Auto-freezing {} overdue wallets", overdueInfos.size());
-        
-        for (OverdueInfo overdueInfo : overdueInfos) {
-            try {
-                CreditWalletAggregate wallet = creditWalletRepository.findById(overdueInfo.getWalletId(), false)
-                        .orElseThrow(() -> new CreditWalletException(CreditWalletErrorCode.WALLET_NOT_FOUND));
-                
-                // 已经冻结的钱包跳过
-                if (Boolean.TRUE.equals(wallet.getFrozen())) {
-                    log.debug("Wallet already frozen: {}", overdueInfo.getWalletId());
-                    continue;
-                }
-                
-                // 冻结钱包
-                List<String> overdueBillCodes = overdueInfo.getOverdueBills().stream()
-                        .map(CreditBillEntity::getCode)
-                        .collect(Collectors.toList());
-                
-                FreezeWalletCommand command = FreezeWalletCommand.builder()
-                        .operator("SYSTEM")
-                        .reason("系统自动冻结：检测到逾期账单")
-                        .build();
-                
-                wallet.freeze(command);
-                
-                // 补充afterState中的逾期信息
-                if (!wallet.getNewManagerLogs().isEmpty()) {
-                    com.bytz.modules.cms.payway.credit.domain.entity.ManagerLog latestLog = 
-                            wallet.getNewManagerLogs().get(wallet.getNewManagerLogs().size() - 1);
-                    Map<String, Object> afterState = latestLog.getAfterState();
-                    if (afterState == null) {
-                        afterState = new HashMap<>();
-                        latestLog.setAfterState(afterState);
-                    }
-                    afterState.put("overdueBills", overdueBillCodes);
-                    afterState.put("overdueAmount", overdueInfo.getTotalOverdueAmount());
+    public OverdueFreezeStats autoFreezeOverdueWallets(List<OverdueWalletSummary> overdueWallets) {
+        log.info("Auto-freezing {} overdue wallets", overdueWallets.size());
+
+        LocalDateTime startTime = LocalDateTime.now();
+        long startNanos = System.nanoTime();
+        AtomicInteger frozenCount = new AtomicInteger();
+        AtomicInteger skippedCount = new AtomicInteger();
+        AtomicInteger failedCount = new AtomicInteger();
+        ConcurrentLinkedQueue<String> failedWalletIds = new ConcurrentLinkedQueue<>();
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (OverdueWalletSummary overdue : overdueWallets) {
+            futures.add(CompletableFuture
+                    .runAsync(() -> {
+                        if (freezeWallet(overdue)) {
+                            frozenCount.incrementAndGet();
+                        } else {
+                            skippedCount.incrementAndGet();
+                        }
+                    }, freezeExecutor)
+                    .exceptionally(e -> {
+                        log.error("Failed to auto-freeze wallet: {}", overdue.getWalletId(), e);
+                        if (failedCount.incrementAndGet() <= MAX_RECORDED_FAILURES) {
+                            failedWalletIds.add(overdue.getWalletId());
+                        }
+                        return null;
+                    }));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        OverdueFreezeStats stats = OverdueFreezeStats.builder()
+                .startTime(startTime)
+                .durationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos))
+                .overdueWalletCount(overdueWallets.size())
+                .frozenCount(frozenCount.get())
+                .skippedCount(skippedCount.get())
+                .failedCount(failedCount.get())
+                .failedWalletIds(new ArrayList<>(failedWalletIds))
+                .build();
+        lastFreezeStats = stats;
+
+        log.info("Auto-freeze overdue wallets completed, frozen: {}, skipped: {}, failed: {}, cost: {}ms",
+                stats.getFrozenCount(), stats.getSkippedCount(), stats.getFailedCount(), stats.getDurationMillis());
+        return stats;
+    }
+
+    /**
+     * 获取最近一次自动冻结的执行统计
+     *
+     * @return 执行统计，尚未执行时为null
+     */
+    public OverdueFreezeStats getLastFreezeStats() {
+        return lastFreezeStats;
+    }
+
+    /**
+     * 在独立事务中冻结单个逾期钱包，并标记其已到期账单为已检查
+     * 冻结以条件UPDATE只写冻结标记，不依赖版本号，额度占用/返还频繁的钱包也不会因乐观锁冲突而漏冻；失败时事务整体回滚（含已检查标记），下次检测重试
+     *
+     * @return true-本次冻结，false-钱包已冻结而跳过
+     */
+    private boolean freezeWallet(OverdueWalletSummary overdue) {
+        Boolean frozen = freezeTransaction.execute(status -> {
+            if (overdue.isFrozen()) {
+                creditWalletRepository.markOverdueChecked(overdue.getWalletId(), overdue.getCheckDate());
+                return false;
+            }
+
+            CreditWalletAggregate wallet = creditWalletRepository.findById(overdue.getWalletId(), false)
+                    .orElseThrow(() -> new CreditWalletException(CreditWalletErrorCode.WALLET_NOT_FOUND));
+
+            // 检测后被人工冻结的钱包跳过
+            if (Boolean.TRUE.equals(wallet.getFrozen())) {
+                log.debug("Wallet already frozen: {}", overdue.getWalletId());
+                creditWalletRepository.markOverdueChecked(overdue.getWalletId(), overdue.getCheckDate());
+                return false;
+            }
+
+            wallet.freeze(FreezeWalletCommand.builder()
+                    .operator(AUTO_FREEZE_OPERATOR)
+                    .reason(AUTO_FREEZE_REASON)
+                    .build());
+
+            // 补充afterState中的逾期信息
+            if (!wallet.getNewManagerLogs().isEmpty()) {
+                ManagerLog latestLog = wallet.getNewManagerLogs().get(wallet.getNewManagerLogs().size() - 1);
+                Map<String, Object> afterState = latestLog.getAfterState();
+                if (afterState == null) {
+                    afterState = new HashMap<>();
+                    latestLog.setAfterState(afterState);
                 }
-                
-                creditWalletRepository.update(wallet);
-
-                // 发布WalletFrozenEvent
-                eventPublisher.publishEvent(WalletFrozenEvent.builder()
-                        .walletId(wallet.getId())
-                        .resellerId(wallet.getResellerId())
-                        .frozenAt(LocalDateTime.now())
-                        .reason("系统自动冻结：检测到逾期账单")
-                        .operator("SYSTEM")
-                        .build());
-
-                log.info("Wallet auto-frozen due to overdue: {}", overdueInfo.getWalletId());
-            } catch (Exception e) {
-                log.error("Failed to auto-freeze wallet: {}", overdueInfo.getWalletId(), e);
+                afterState.put("overdueBills", overdue.getOverdueBillCodes());
+                afterState.put("overdueBillCount", overdue.getOverdueBillCount());
+                afterState.put("overdueAmount", overdue.getTotalOverdueAmount());
             }
+
+            // 加载后被并发冻结的钱包跳过，不重复写日志与事件
+            if (!creditWalletRepository.freeze(wallet)) {
+                creditWalletRepository.markOverdueChecked(overdue.getWalletId(), overdue.getCheckDate());
+                return false;
+            }
+            creditWalletRepository.markOverdueChecked(overdue.getWalletId(), overdue.getCheckDate());
+
+            eventPublisher.publishEvent(WalletFrozenEvent.builder()
+                    .walletId(wallet.getId())
+                    .resellerId(wallet.getResellerId())
+                    .frozenAt(LocalDateTime.now())
+                    .reason(AUTO_FREEZE_REASON)
+                    .operator(AUTO_FREEZE_OPERATOR)
+                    .overdueTransactionCodes(overdue.getOverdueBillCodes())
+                    .build());
+            return true;
+        });
+        if (Boolean.TRUE.equals(frozen)) {
+            log.info("Wallet auto-frozen due to overdue: {}", overdue.getWalletId());
+            return true;
         }
-        
-        log.info("Auto-freeze overdue wallets completed");
+        return false;
     }
 }
\ No newline at end of file
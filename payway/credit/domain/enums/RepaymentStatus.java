@@ -2,8 +2,6 @@ package com.bytz.modules.cms.payway.credit.domain.enums;
 
 import com.baomidou.mybatisplus.annotation.EnumValue;
 
-import java.util.EnumSet;
-
 /**
  * 还款状态枚举
  * Repayment Status Enumeration
@@ -49,6 +47,4 @@ public enum RepaymentStatus {
     public String getDescription() {
         return description;
     }
-
-    public static EnumSet<RepaymentStatus> needUpdate= EnumSet.of(REPAYING, REPAID);
 }
\ No newline at end of file
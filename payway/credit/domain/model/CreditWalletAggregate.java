@@ -9,7 +9,7 @@ import com.bytz.modules.cms.payway.credit.domain.enums.RepaymentStatus;
 import com.bytz.modules.cms.payway.credit.domain.enums.TransactionType;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletErrorCode;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletException;
-import com.bytz.modules.cms.shared.util.BusinessCodeGenerator;
+import com.bytz.modules.cms.shared.codegen.BusinessCodes;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -76,6 +76,12 @@ public class CreditWalletAggregate {
      */
     private BigDecimal usedLimit;
 
+    /**
+     * 额度分片数，0或空-不分片；大于0时额度拆分到多个子额度分别扣减，
+     * totalLimit/usedLimit/availableLimit为各分片之和
+     */
+    private Integer shardCount;
+
     // ==================== 账期字段 ====================
 
     /**
@@ -172,33 +178,36 @@ public class CreditWalletAggregate {
     @Builder.Default
     private List<ManagerLog> newManagerLogs = new ArrayList<>();
 
+    /**
+     * 本次操作状态变化的已有账单（发起还款、完成还款），仓储只更新这些账单
+     */
+    @Builder.Default
+    private List<CreditBillEntity> changedBills = new ArrayList<>();
+
     // ==================== 行为方法 ====================
 
     /**
-     * 信用支付，创建账单并占用额度
+     * 信用支付，创建账单
      * 用例来源：UC-CW-010
      * 需求来源：T12, T14, T15
      *
+     * <p>额度由仓储ICreditWalletRepository.consumeLimit以条件UPDATE原子占用并刷新到聚合根，此处不再修改额度</p>
+     *
      * @param command 信用支付命令
      * @return 创建的账单实体
      */
     public CreditBillEntity creditPay(CreditPayCommand command) {
         // Requirements:
-        // - 验证可用额度充足
-        // - usedLimit += 支付金额
-        // - availableLimit = totalLimit - usedLimit
+        // - 验证可用额度充足（consumeLimit条件：available_limit >= 支付金额）
+        // - usedLimit += 支付金额，availableLimit = totalLimit - usedLimit（consumeLimit完成）
         // - 生成CREDIT_PAY类型账单
 
-        // 更新额度
-        this.usedLimit = this.usedLimit.add(command.getAmount());
-        this.availableLimit = this.totalLimit.subtract(this.usedLimit);
-
-        // 验证金额计算结果的合法性
+        // 验证刷新后额度的合法性
         validateAmountInvariants();
 
         // 创建账单（delFlag由框架自动填充）
         CreditBillEntity bill = CreditBillEntity.builder()
-                .code(BusinessCodeGenerator.generateBillCode("CB"))
+                .code(BusinessCodes.next("CB"))
                 .creditWalletId(this.id)
                 .transactionType(TransactionType.CREDIT_PAY)
                 .amount(command.getAmount())
@@ -249,18 +258,30 @@ public class CreditWalletAggregate {
      * 用例来源：UC-CW-012
      * 需求来源：T16
      *
+     * <p>额度由仓储按总金额一次consumeLimit占用并刷新到聚合根（批后额度）；每笔账单的额度变更日志记录逐笔累加后的额度，
+     * 从批前额度开始，最后一笔与批后额度一致</p>
+     *
      * @param command 批量信用支付命令
      * @return 创建的账单实体列表
      */
     public List<CreditBillEntity> batchCreditPay(BatchCreditPayCommand command) {
         // Requirements:
         // - 批量支付是原子操作，全部成功或全部失败
-        // - 验证总金额不超过可用额度
+        // - 验证总金额不超过可用额度（按总金额一次consumeLimit完成）
 
+        BigDecimal totalAmount = command.getPayments().stream()
+                .map(CreditPayCommand::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal usedLimitBefore = this.usedLimit.subtract(totalAmount);
+        BigDecimal availableLimitBefore = this.availableLimit.add(totalAmount);
 
         List<CreditBillEntity> bills = new ArrayList<>();
-
+        BigDecimal runningAmount = BigDecimal.ZERO;
         for (CreditPayCommand item : command.getPayments()) {
+            // 逐笔推进额度，使本笔日志记录本笔之后的额度
+            runningAmount = runningAmount.add(item.getAmount());
+            this.usedLimit = usedLimitBefore.add(runningAmount);
+            this.availableLimit = availableLimitBefore.subtract(runningAmount);
 
             CreditBillEntity bill = creditPay(item);
             bills.add(bill);
@@ -286,6 +307,22 @@ public class CreditWalletAggregate {
         }
 
         bill.initiateRepayment(command.getRepaymentPaymentId());
+        markBillChanged(bill);
+    }
+
+    /**
+     * 获取待完成还款账单的返还金额
+     *
+     * @param billId 账单ID
+     * @return 返还额度（账单金额）
+     * @throws CreditWalletException 账单不存在或不处于可完成还款状态时抛出
+     */
+    public BigDecimal getRepaymentAmount(String billId) {
+        CreditBillEntity bill = findUnPaidBillById(billId);
+        if (!bill.canCompleteRepayment()) {
+            throw new CreditWalletException(CreditWalletErrorCode.REPAYMENT_AMOUNT_INVALID);
+        }
+        return bill.getAmount();
     }
 
     /**
@@ -293,27 +330,25 @@ public class CreditWalletAggregate {
      * 用例来源：UC-CW-021
      * 需求来源：T18-2
      *
+     * <p>额度由仓储ICreditWalletRepository.releaseLimit以条件UPDATE原子返还并刷新到聚合根，此处不再修改额度</p>
+     *
      * @param command 完成还款命令
      */
     public void completeRepayment(CompleteRepaymentCommand command) {
         // Requirements:
-        // - 返还额度：usedLimit -= 账单金额，availableLimit += 账单金额
+        // - 返还额度：usedLimit -= 账单金额，availableLimit += 账单金额（releaseLimit完成）
         // - 生成LIMIT_CHANGE类型日志
         CreditBillEntity bill = findUnPaidBillById(command.getBillId());
         if (!bill.canCompleteRepayment()) {
             throw new CreditWalletException(CreditWalletErrorCode.REPAYMENT_AMOUNT_INVALID);
         }
 
-        // 返还额度
-        BigDecimal repaymentAmount = bill.getAmount();
-        this.usedLimit = this.usedLimit.subtract(repaymentAmount);
-        this.availableLimit = this.totalLimit.subtract(this.usedLimit);
-
-        // 验证金额计算结果的合法性
+        // 验证刷新后额度的合法性
         validateAmountInvariants();
 
         // 完成还款
         bill.completeRepayment(command.getRepaymentTime());
+        markBillChanged(bill);
 
         // 生成额度变更日志
         ManagerLog managerLog = generateManagerLog(command, ManageChangeType.LIMIT_CHANGE, "还款完成", null, null);
@@ -321,6 +356,12 @@ public class CreditWalletAggregate {
         this.newManagerLogs.add(managerLog);
     }
 
+    private void markBillChanged(CreditBillEntity bill) {
+        if (this.changedBills.stream().noneMatch(changed -> changed == bill)) {
+            this.changedBills.add(bill);
+        }
+    }
+
     private CreditBillEntity findUnPaidBillById(String billId) {
         Optional<CreditBillEntity> first = this.unpaidBills.stream().filter(bill -> bill.getId().equals(billId)).findFirst();
         CreditBillEntity bill = first.orElseThrow(() -> new CreditWalletException(CreditWalletErrorCode.TRANSACTION_NOT_FOUND));
@@ -473,6 +514,7 @@ public class CreditWalletAggregate {
     /**
      * 判断是否可以进行信用支付
      * 业务规则：钱包启用、未冻结、额度充足
+     * 与consumeLimit的更新条件一致；支付以consumeLimit的结果为准，此方法仅用于展示等预判
      *
      * @param amount 支付金额
      * @return true if can pay
@@ -485,6 +527,15 @@ public class CreditWalletAggregate {
                 && this.availableLimit.compareTo(amount) >= 0;
     }
 
+    /**
+     * 是否启用额度分片
+     *
+     * @return true-额度拆分到多个子额度
+     */
+    public boolean isLimitSharded() {
+        return this.shardCount != null && this.shardCount > 0;
+    }
+
     /**
      * 验证金额计算的领域不变量
      * 确保所有金额字段的值在合理范围内，防止计算错误导致数据异常
@@ -526,6 +577,7 @@ public class CreditWalletAggregate {
     public void clearTempCollections() {
         this.newBills = new ArrayList<>();
         this.newManagerLogs = new ArrayList<>();
+        this.changedBills = new ArrayList<>();
     }
 
     /**
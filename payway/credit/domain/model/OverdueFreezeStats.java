@@ -0,0 +1,55 @@
+package com.bytz.modules.cms.payway.credit.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 逾期自动冻结执行统计
+ * Overdue Auto-Freeze Run Statistics
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueFreezeStats {
+
+    /**
+     * 开始时间
+     */
+    private LocalDateTime startTime;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private long durationMillis;
+
+    /**
+     * 逾期钱包数
+     */
+    private int overdueWalletCount;
+
+    /**
+     * 本次冻结的钱包数
+     */
+    private int frozenCount;
+
+    /**
+     * 已冻结而跳过的钱包数
+     */
+    private int skippedCount;
+
+    /**
+     * 冻结失败的钱包数
+     */
+    private int failedCount;
+
+    /**
+     * 冻结失败的钱包ID（最多记录前若干个）
+     */
+    private List<String> failedWalletIds;
+}
@@ -0,0 +1,64 @@
+package com.bytz.modules.cms.payway.credit.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 钱包逾期汇总
+ * Overdue Wallet Summary
+ *
+ * <p>逾期检测的结果，每个有逾期账单的钱包一条，由仓储一次聚合查询得到</p>
+ * <p>overdueBillCodes按到期日排序，账单过多时只包含前面一部分，完整数量见overdueBillCount</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueWalletSummary {
+
+    /**
+     * 信用钱包ID
+     */
+    private String walletId;
+
+    /**
+     * 经销商ID
+     */
+    private String resellerId;
+
+    /**
+     * 检测时钱包是否已冻结
+     */
+    private boolean frozen;
+
+    /**
+     * 逾期账单编号
+     */
+    private List<String> overdueBillCodes;
+
+    /**
+     * 逾期账单数
+     */
+    private int overdueBillCount;
+
+    /**
+     * 逾期总金额
+     */
+    private BigDecimal totalOverdueAmount;
+
+    /**
+     * 最早到期日
+     */
+    private LocalDate earliestDueDate;
+
+    /**
+     * 检测日期（到期日早于该日期的账单计为逾期）
+     */
+    private LocalDate checkDate;
+}
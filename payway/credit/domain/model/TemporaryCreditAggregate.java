@@ -10,7 +10,7 @@ import com.bytz.modules.cms.payway.credit.domain.enums.TemporaryCreditStatus;
 import com.bytz.modules.cms.payway.credit.domain.enums.TransactionType;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletErrorCode;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletException;
-import com.bytz.modules.cms.shared.util.BusinessCodeGenerator;
+import com.bytz.modules.cms.shared.codegen.BusinessCodes;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -180,6 +180,12 @@ public class TemporaryCreditAggregate {
     @Builder.Default
     private List<CreditBillEntity> newBills = new ArrayList<>();
 
+    /**
+     * 本次操作状态变化的已有账单（发起还款、完成还款），仓储只更新这些账单
+     */
+    @Builder.Default
+    private List<CreditBillEntity> changedBills = new ArrayList<>();
+
     // ==================== 行为方法 ====================
 
     /**
@@ -202,7 +208,7 @@ public class TemporaryCreditAggregate {
 
         // 创建账单（delFlag由框架自动填充）
         CreditBillEntity bill = CreditBillEntity.builder()
-                .code(BusinessCodeGenerator.generateBillCode("TC"))
+                .code(BusinessCodes.next("TC"))
                 .creditWalletId(this.creditWalletId)
                 .transactionType(TransactionType.TEMPORARY_CREDIT_PAY)
                 .temporaryCreditId(this.id)
@@ -279,6 +285,7 @@ public class TemporaryCreditAggregate {
         }
 
         bill.initiateRepayment(command.getRepaymentPaymentId());
+        markBillChanged(bill);
     }
 
     /**
@@ -308,6 +315,13 @@ public class TemporaryCreditAggregate {
 
         // 完成还款
         bill.completeRepayment(command.getRepaymentTime());
+        markBillChanged(bill);
+    }
+
+    private void markBillChanged(CreditBillEntity bill) {
+        if (this.changedBills.stream().noneMatch(changed -> changed == bill)) {
+            this.changedBills.add(bill);
+        }
     }
 
     private CreditBillEntity findUnPaidBillById(String billId) {
@@ -434,5 +448,6 @@ public class TemporaryCreditAggregate {
      */
     public void clearTempCollections() {
         this.newBills = new ArrayList<>();
+        this.changedBills = new ArrayList<>();
     }
 }
\ No newline at end of file
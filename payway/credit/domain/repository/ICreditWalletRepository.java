@@ -2,7 +2,9 @@ package com.bytz.modules.cms.payway.credit.domain.repository;
 
 import com.bytz.modules.cms.payway.credit.domain.entity.CreditBillEntity;
 import com.bytz.modules.cms.payway.credit.domain.model.CreditWalletAggregate;
+import com.bytz.modules.cms.payway.credit.domain.model.OverdueWalletSummary;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
@@ -29,8 +31,54 @@ public interface ICreditWalletRepository {
      * 事务边界：钱包主记录 + newBills + newManagerLogs + unpaidBills中已还款账单
      *
      * @param aggregate 信用钱包聚合根
+     * @throws com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletException 钱包已被并发修改（乐观锁未命中）时抛出
      */
     void update(CreditWalletAggregate aggregate);
+
+    /**
+     * 冻结钱包：以条件UPDATE只写冻结标记（不依赖版本号，不与并发的额度占用/返还冲突），成功后持久化newManagerLogs
+     *
+     * @param aggregate 已执行freeze的信用钱包聚合根
+     * @return true-冻结成功，false-钱包已被冻结（不写日志）
+     */
+    boolean freeze(CreditWalletAggregate aggregate);
+
+    /**
+     * 只持久化newBills、newManagerLogs和已还款账单状态，不写钱包主记录。
+     * 额度已通过consumeLimit/releaseLimit原子变更时使用，避免整行回写覆盖并发占用
+     *
+     * @param aggregate 信用钱包聚合根
+     */
+    void saveBillsAndLogs(CreditWalletAggregate aggregate);
+
+    /**
+     * 原子占用额度：以条件UPDATE扣减可用额度，成功后按数据库最新行刷新聚合根的额度与版本。
+     * 并发支付由数据库按行串行判定，不在@Version上失败重试；分片模式下扣减单个子额度，子额度不足时再平衡，
+     * 聚合根额度按加载时的额度加本次占用金额推进，不重新汇总分片
+     *
+     * @param aggregate 信用钱包聚合根
+     * @param amount    占用金额
+     * @return true-占用成功，false-钱包停用、冻结或可用额度不足
+     */
+    boolean consumeLimit(CreditWalletAggregate aggregate, BigDecimal amount);
+
+    /**
+     * 原子返还额度（还款完成），成功后按数据库最新行刷新聚合根的额度与版本；分片模式下按本次返还金额推进聚合根额度
+     *
+     * @param aggregate 信用钱包聚合根
+     * @param amount    返还金额
+     * @throws com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletException 已用额度不足以返还时抛出
+     */
+    void releaseLimit(CreditWalletAggregate aggregate, BigDecimal amount);
+
+    /**
+     * 调整额度分片数：按当前已用额度重建子额度（0表示合并回钱包主记录），完成后刷新聚合根。
+     * 事务边界：钱包主记录 + 全部子额度
+     *
+     * @param aggregate  信用钱包聚合根
+     * @param shardCount 分片数，0-不分片
+     */
+    void configureShards(CreditWalletAggregate aggregate, int shardCount);
     
     /**
      * 按ID查询钱包，支持选择性加载unpaidBills。
@@ -100,6 +148,7 @@ public interface ICreditWalletRepository {
     /**
      * 直接查询逾期账单（用于逾期检测定时任务）
      * 逾期检测不通过聚合根：直接通过仓储查询 dueDate < currentDate 且 repaymentStatus != REPAID 的账单
+     * 经账单到期分桶索引定位，只触及未结清账单
      * 返回账单列表，包含walletId信息，用于后续冻结钱包操作
      *
      * @param currentDate 当前日期
@@ -107,6 +156,40 @@ public interface ICreditWalletRepository {
      */
     List<CreditBillEntity> findOverdueBills(LocalDate currentDate);
     
+    /**
+     * 按钱包汇总逾期账单（用于逾期检测对账模式）
+     * 基于账单到期分桶索引按钱包分组聚合，每个有逾期账单的钱包返回一条，附带经销商ID、冻结状态、逾期账单编号和逾期总额
+     *
+     * @param currentDate 当前日期
+     * @return 钱包逾期汇总列表
+     */
+    List<OverdueWalletSummary> findOverdueWalletSummaries(LocalDate currentDate);
+    
+    /**
+     * 按钱包汇总逾期账单，只返回上次检查后有账单新到期的钱包（用于逾期检测定时任务）
+     * 汇总内容与findOverdueWalletSummaries相同，包含该钱包的全部逾期账单
+     *
+     * @param currentDate 当前日期
+     * @return 钱包逾期汇总列表
+     */
+    List<OverdueWalletSummary> findNewlyOverdueWalletSummaries(LocalDate currentDate);
+    
+    /**
+     * 标记钱包截至当前日期已到期的账单为已检查，之后的定时任务不再因这些账单处理该钱包
+     *
+     * @param walletId    钱包ID
+     * @param currentDate 当前日期
+     */
+    void markOverdueChecked(String walletId, LocalDate currentDate);
+    
+    /**
+     * 从账单表重建账单到期分桶索引（含临时授信账单），重建后全部未结清账单标记为未检查
+     * 需在事务中调用
+     *
+     * @return 重建的分桶记录数
+     */
+    int rebuildBillDueBuckets();
+    
     /**
      * 查询所有启用且未冻结的钱包
      *
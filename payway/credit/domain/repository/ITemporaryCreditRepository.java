@@ -92,6 +92,7 @@ public interface ITemporaryCreditRepository {
     /**
      * 直接查询临时授信的逾期账单（用于逾期检测定时任务）
      * 逾期检测不通过聚合根：直接通过仓储查询 dueDate < currentDate 且 repaymentStatus != REPAID 的账单
+     * 经账单到期分桶索引定位，只触及未结清账单
      * 返回账单列表，包含temporaryCreditId信息
      *
      * @param currentDate 当前日期
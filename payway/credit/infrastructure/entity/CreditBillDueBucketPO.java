@@ -0,0 +1,82 @@
+package com.bytz.modules.cms.payway.credit.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import com.bytz.modules.cms.payway.credit.domain.enums.TransactionType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 信用账单到期分桶索引持久化实体
+ * Credit Bill Due Bucket Persistence Object
+ *
+ * <p>对应数据库表 cms_credit_bill_due_bucket，每条未结清账单一行，按到期日分桶</p>
+ * <p>账单创建时写入，还款完成（REPAID）时删除，表大小只取决于未结清账单数，与账单历史无关</p>
+ * <p>索引：主键 bill_id，idx_check_bucket(overdue_checked, bucket_date)，idx_wallet_bucket(credit_wallet_id, bucket_date)</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_credit_bill_due_bucket")
+public class CreditBillDueBucketPO {
+
+    /**
+     * 账单ID（即cms_credit_bill主键）
+     */
+    @TableId(value = "bill_id", type = IdType.INPUT)
+    private String billId;
+
+    /**
+     * 到期日分桶（账单到期日）
+     */
+    @TableField(value = "bucket_date", updateStrategy = FieldStrategy.NEVER)
+    private LocalDate bucketDate;
+
+    /**
+     * 关联信用钱包ID
+     */
+    @TableField(value = "credit_wallet_id", updateStrategy = FieldStrategy.NEVER)
+    private String creditWalletId;
+
+    /**
+     * 临时授信ID
+     */
+    @TableField(value = "temporary_credit_id", updateStrategy = FieldStrategy.NEVER)
+    private String temporaryCreditId;
+
+    /**
+     * 交易类型
+     */
+    @TableField(value = "transaction_type", updateStrategy = FieldStrategy.NEVER)
+    private TransactionType transactionType;
+
+    /**
+     * 账单编号
+     */
+    @TableField(value = "bill_code", updateStrategy = FieldStrategy.NEVER)
+    private String billCode;
+
+    /**
+     * 账单金额
+     */
+    @TableField(value = "amount", updateStrategy = FieldStrategy.NEVER)
+    private BigDecimal amount;
+
+    /**
+     * 是否已纳入逾期检测（到期后被逾期检查任务处理过）
+     */
+    @TableField("overdue_checked")
+    private Boolean overdueChecked;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
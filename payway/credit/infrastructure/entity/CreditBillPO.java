@@ -15,6 +15,8 @@ import java.time.LocalDateTime;
 /**
  * 信用账单持久化实体
  * Credit Bill Persistence Object
+ *
+ * <p>索引 idx_create_time_id(create_time, id)，用于账单列表游标分页</p>
  */
 @Data
 @Builder
@@ -0,0 +1,51 @@
+package com.bytz.modules.cms.payway.credit.infrastructure.entity;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * 钱包逾期汇总查询结果
+ * Credit Wallet Overdue Summary Row
+ *
+ * <p>由CreditBillDueBucketMapper按钱包聚合逾期账单的到期分桶得到，不对应数据库表</p>
+ */
+@Data
+public class CreditOverdueSummaryPO {
+
+    /**
+     * 信用钱包ID
+     */
+    private String walletId;
+
+    /**
+     * 经销商ID
+     */
+    private String resellerId;
+
+    /**
+     * 钱包是否已冻结
+     */
+    private Boolean frozen;
+
+    /**
+     * 逾期账单数
+     */
+    private Integer billCount;
+
+    /**
+     * 逾期总金额
+     */
+    private BigDecimal overdueAmount;
+
+    /**
+     * 最早到期日
+     */
+    private LocalDate earliestDueDate;
+
+    /**
+     * 逾期账单编号，按到期日排序，逗号分隔（受group_concat_max_len限制，可能被截断）
+     */
+    private String billCodes;
+}
@@ -80,6 +80,12 @@ public class CreditWalletPO {
     @TableField("currency")
     private String currency;
     
+    /**
+     * 额度分片数，0或空-不分片，额度记在本表；N-额度拆分到cms_credit_wallet_shard的N个分片，本表额度为快照
+     */
+    @TableField("shard_count")
+    private Integer shardCount;
+    
     /**
      * 版本号（乐观锁）
      */
@@ -0,0 +1,74 @@
+package com.bytz.modules.cms.payway.credit.infrastructure.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * 信用钱包子额度分片持久化实体
+ * Credit Wallet Limit Shard Persistence Object
+ *
+ * <p>对应数据库表 cms_credit_wallet_shard，仅在钱包shard_count大于0时存在</p>
+ * <p>唯一索引 uk_wallet_shard(wallet_id, shard_no)</p>
+ * <p>不变量：shard_limit = used_limit + available_limit；同一钱包各分片shard_limit之和等于钱包total_limit</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_credit_wallet_shard")
+public class CreditWalletShardPO {
+
+    /**
+     * 主键ID，使用雪花算法生成
+     */
+    @TableId(value = "id", type = IdType.ASSIGN_ID)
+    private String id;
+
+    /**
+     * 信用钱包ID
+     */
+    @TableField(value = "wallet_id", updateStrategy = FieldStrategy.NEVER)
+    private String walletId;
+
+    /**
+     * 分片序号，从0开始
+     */
+    @TableField(value = "shard_no", updateStrategy = FieldStrategy.NEVER)
+    private Integer shardNo;
+
+    /**
+     * 分片额度
+     */
+    @TableField("shard_limit")
+    private BigDecimal shardLimit;
+
+    /**
+     * 分片已用额度
+     */
+    @TableField("used_limit")
+    private BigDecimal usedLimit;
+
+    /**
+     * 分片可用额度（允许为负数，钱包总额度调低到已用额度以下时出现）
+     */
+    @TableField("available_limit")
+    private BigDecimal availableLimit;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(value = "update_time", fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
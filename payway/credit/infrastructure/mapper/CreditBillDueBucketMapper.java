@@ -0,0 +1,101 @@
+package com.bytz.modules.cms.payway.credit.infrastructure.mapper;
+
+import com.bytz.modules.cms.payway.credit.domain.enums.TransactionType;
+import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditBillDueBucketPO;
+import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditOverdueSummaryPO;
+import com.github.yulichang.base.MPJBaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 信用账单到期分桶索引Mapper接口
+ * Credit Bill Due Bucket Mapper Interface
+ */
+@Mapper
+public interface CreditBillDueBucketMapper extends MPJBaseMapper<CreditBillDueBucketPO> {
+
+    /**
+     * 逾期账单ID子查询，供账单查询以inSql关联分桶索引
+     * 参数均为枚举编码与ISO日期，拼入子查询不存在注入风险
+     *
+     * @param transactionType 交易类型
+     * @param currentDate     当前日期
+     * @return 子查询SQL
+     */
+    static String overdueBillIdsSql(TransactionType transactionType, LocalDate currentDate) {
+        return "SELECT bill_id FROM cms_credit_bill_due_bucket WHERE transaction_type = '"
+                + transactionType.getCode() + "' AND bucket_date < '" + currentDate + "'";
+    }
+
+    /**
+     * 按钱包汇总全部逾期的未结清账单（对账模式使用）
+     *
+     * @param currentDate 当前日期
+     * @return 钱包逾期汇总
+     */
+    @Select("SELECT d.credit_wallet_id AS wallet_id, w.reseller_id, w.frozen, "
+            + "COUNT(*) AS bill_count, SUM(d.amount) AS overdue_amount, MIN(d.bucket_date) AS earliest_due_date, "
+            + "GROUP_CONCAT(d.bill_code ORDER BY d.bucket_date, d.bill_code SEPARATOR ',') AS bill_codes "
+            + "FROM cms_credit_bill_due_bucket d "
+            + "JOIN cms_credit_wallet w ON w.id = d.credit_wallet_id AND w.del_flag = 0 "
+            + "WHERE d.transaction_type = 'CREDIT_PAY' AND d.bucket_date < #{currentDate} "
+            + "GROUP BY d.credit_wallet_id, w.reseller_id, w.frozen")
+    List<CreditOverdueSummaryPO> selectOverdueSummaries(@Param("currentDate") LocalDate currentDate);
+
+    /**
+     * 按钱包汇总逾期的未结清账单，只包含上次检查后有账单新到期的钱包
+     * 新到期账单由idx_check_bucket定位，只触及上次检查以来到期的分桶
+     *
+     * @param currentDate 当前日期
+     * @return 钱包逾期汇总（逾期金额、账单编号包含该钱包全部逾期账单）
+     */
+    @Select("SELECT d.credit_wallet_id AS wallet_id, w.reseller_id, w.frozen, "
+            + "COUNT(*) AS bill_count, SUM(d.amount) AS overdue_amount, MIN(d.bucket_date) AS earliest_due_date, "
+            + "GROUP_CONCAT(d.bill_code ORDER BY d.bucket_date, d.bill_code SEPARATOR ',') AS bill_codes "
+            + "FROM cms_credit_bill_due_bucket d "
+            + "JOIN cms_credit_wallet w ON w.id = d.credit_wallet_id AND w.del_flag = 0 "
+            + "WHERE d.transaction_type = 'CREDIT_PAY' AND d.bucket_date < #{currentDate} "
+            + "AND d.credit_wallet_id IN (SELECT n.credit_wallet_id FROM cms_credit_bill_due_bucket n "
+            + "WHERE n.overdue_checked = 0 AND n.bucket_date < #{currentDate} AND n.transaction_type = 'CREDIT_PAY') "
+            + "GROUP BY d.credit_wallet_id, w.reseller_id, w.frozen")
+    List<CreditOverdueSummaryPO> selectNewlyOverdueSummaries(@Param("currentDate") LocalDate currentDate);
+
+    /**
+     * 标记钱包已到期的分桶为已检查
+     *
+     * @param walletId    钱包ID
+     * @param currentDate 当前日期
+     * @return 标记条数
+     */
+    @Update("UPDATE cms_credit_bill_due_bucket SET overdue_checked = 1 "
+            + "WHERE credit_wallet_id = #{walletId} AND overdue_checked = 0 AND bucket_date < #{currentDate}")
+    int markChecked(@Param("walletId") String walletId, @Param("currentDate") LocalDate currentDate);
+
+    /**
+     * 清空分桶索引（重建时使用）
+     *
+     * @return 删除条数
+     */
+    @Delete("DELETE FROM cms_credit_bill_due_bucket")
+    int deleteAll();
+
+    /**
+     * 从账单表重建未结清账单的分桶，全部标记为未检查
+     * 使用INSERT IGNORE：重建期间新建账单已写入的分桶保持不变
+     *
+     * @return 写入条数
+     */
+    @Insert("INSERT IGNORE INTO cms_credit_bill_due_bucket (bill_id, bucket_date, credit_wallet_id, temporary_credit_id, "
+            + "transaction_type, bill_code, amount, overdue_checked, create_time) "
+            + "SELECT b.id, b.due_date, b.credit_wallet_id, b.temporary_credit_id, b.transaction_type, b.code, b.amount, 0, NOW() "
+            + "FROM cms_credit_bill b "
+            + "WHERE b.del_flag = 0 AND b.repayment_status <> 'REPAID' AND b.due_date IS NOT NULL")
+    int rebuildFromBills();
+}
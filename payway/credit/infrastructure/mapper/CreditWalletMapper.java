@@ -3,6 +3,11 @@ package com.bytz.modules.cms.payway.credit.infrastructure.mapper;
 import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditWalletPO;
 import com.github.yulichang.base.MPJBaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.math.BigDecimal;
 
 /**
  * 信用钱包Mapper接口
@@ -10,4 +15,74 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface CreditWalletMapper extends MPJBaseMapper<CreditWalletPO> {
-}
+
+    /**
+     * 条件占用额度（不分片钱包）：钱包启用、未冻结且可用额度充足时一条语句完成扣减
+     * 同时推进version，使持有旧版本的整行更新（调额、冻结等）按乐观锁失败，不会覆盖本次占用
+     *
+     * @param id     钱包ID
+     * @param amount 占用金额（> 0）
+     * @return 1-占用成功，0-钱包不可用或额度不足
+     */
+    @Update("UPDATE cms_credit_wallet SET used_limit = used_limit + #{amount}, "
+            + "available_limit = available_limit - #{amount}, version = NOW(6), update_time = NOW() "
+            + "WHERE id = #{id} AND del_flag = 0 AND enabled = 1 AND frozen = 0 AND available_limit >= #{amount} "
+            + "AND (shard_count IS NULL OR shard_count = 0)")
+    int consumeLimit(@Param("id") String id, @Param("amount") BigDecimal amount);
+
+    /**
+     * 条件返还额度（不分片钱包）：已用额度不少于返还金额时一条语句完成返还
+     *
+     * @param id     钱包ID
+     * @param amount 返还金额（> 0）
+     * @return 1-返还成功，0-钱包不存在或已用额度不足
+     */
+    @Update("UPDATE cms_credit_wallet SET used_limit = used_limit - #{amount}, "
+            + "available_limit = available_limit + #{amount}, version = NOW(6), update_time = NOW() "
+            + "WHERE id = #{id} AND del_flag = 0 AND used_limit >= #{amount} "
+            + "AND (shard_count IS NULL OR shard_count = 0)")
+    int releaseLimit(@Param("id") String id, @Param("amount") BigDecimal amount);
+
+    /**
+     * 条件冻结：钱包未冻结时一条语句置冻结标记，不校验版本号，与并发的额度占用/返还互不冲突
+     * 同时推进version，使持有旧版本的整行更新按乐观锁失败，不会覆盖冻结
+     *
+     * @param id 钱包ID
+     * @return 1-冻结成功，0-钱包不存在或已冻结
+     */
+    @Update("UPDATE cms_credit_wallet SET frozen = 1, version = NOW(6), update_time = NOW() "
+            + "WHERE id = #{id} AND del_flag = 0 AND frozen = 0")
+    int freeze(@Param("id") String id);
+
+    /**
+     * 以共享锁读取钱包（分片再平衡时校验启用、冻结状态，与写主记录的操作串行）
+     *
+     * @param id 钱包ID
+     * @return 钱包
+     */
+    @Select("SELECT * FROM cms_credit_wallet WHERE id = #{id} AND del_flag = 0 LOCK IN SHARE MODE")
+    CreditWalletPO selectForShare(@Param("id") String id);
+
+    /**
+     * 以排他锁读取钱包（切换分片模式时使用，期间阻塞全部占用与返还）
+     *
+     * @param id 钱包ID
+     * @return 钱包
+     */
+    @Select("SELECT * FROM cms_credit_wallet WHERE id = #{id} AND del_flag = 0 FOR UPDATE")
+    CreditWalletPO selectForUpdate(@Param("id") String id);
+
+    /**
+     * 切换分片模式并写入额度快照
+     *
+     * @param id             钱包ID
+     * @param shardCount     分片数，0-不分片
+     * @param usedLimit      已用额度
+     * @param availableLimit 可用额度
+     * @return 更新行数
+     */
+    @Update("UPDATE cms_credit_wallet SET shard_count = #{shardCount}, used_limit = #{usedLimit}, "
+            + "available_limit = #{availableLimit}, version = NOW(6), update_time = NOW() WHERE id = #{id} AND del_flag = 0")
+    int updateShardState(@Param("id") String id, @Param("shardCount") int shardCount,
+                         @Param("usedLimit") BigDecimal usedLimit, @Param("availableLimit") BigDecimal availableLimit);
+}
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.bytz.modules.cms.payway.credit.infrastructure.mapper;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditWalletShardPO;
+import com.github.yulichang.base.MPJBaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 信用钱包子额度分片Mapper接口
+ * Credit Wallet Limit Shard Mapper Interface
+ */
+@Mapper
+public interface CreditWalletShardMapper extends MPJBaseMapper<CreditWalletShardPO> {
+
+    /**
+     * 在单个分片上条件占用额度
+     * 关联钱包主记录校验启用、未冻结与分片模式，主记录只加共享锁：分片之间的支付互不阻塞，冻结、停用等写主记录的操作与支付串行
+     *
+     * @param walletId 钱包ID
+     * @param shardNo  分片序号
+     * @param amount   占用金额（> 0）
+     * @return 1-占用成功，0-钱包不可用或该分片可用额度不足
+     */
+    @Update("UPDATE cms_credit_wallet_shard s JOIN cms_credit_wallet w ON w.id = s.wallet_id "
+            + "SET s.used_limit = s.used_limit + #{amount}, s.available_limit = s.available_limit - #{amount}, s.update_time = NOW() "
+            + "WHERE s.wallet_id = #{walletId} AND s.shard_no = #{shardNo} AND s.available_limit >= #{amount} "
+            + "AND w.del_flag = 0 AND w.enabled = 1 AND w.frozen = 0 AND w.shard_count > 0")
+    int consume(@Param("walletId") String walletId, @Param("shardNo") int shardNo, @Param("amount") BigDecimal amount);
+
+    /**
+     * 在单个分片上条件返还额度
+     *
+     * @param walletId 钱包ID
+     * @param shardNo  分片序号
+     * @param amount   返还金额（> 0）
+     * @return 1-返还成功，0-该分片已用额度不足
+     */
+    @Update("UPDATE cms_credit_wallet_shard SET used_limit = used_limit - #{amount}, "
+            + "available_limit = available_limit + #{amount}, update_time = NOW() "
+            + "WHERE wallet_id = #{walletId} AND shard_no = #{shardNo} AND used_limit >= #{amount}")
+    int release(@Param("walletId") String walletId, @Param("shardNo") int shardNo, @Param("amount") BigDecimal amount);
+
+    /**
+     * 按分片序号顺序锁定钱包的全部分片（再平衡、调额、切换分片模式时使用）
+     *
+     * @param walletId 钱包ID
+     * @return 分片列表
+     */
+    @Select("SELECT * FROM cms_credit_wallet_shard WHERE wallet_id = #{walletId} ORDER BY shard_no FOR UPDATE")
+    List<CreditWalletShardPO> selectForUpdate(@Param("walletId") String walletId);
+
+    /**
+     * 按钱包汇总分片额度（一致性读，不加锁）
+     *
+     * @param walletIds 钱包ID集合
+     * @return 每个钱包一条，shardLimit/usedLimit/availableLimit为各分片之和
+     */
+    default List<CreditWalletShardPO> sumByWalletIds(Collection<String> walletIds) {
+        return selectList(new QueryWrapper<CreditWalletShardPO>()
+                .select("wallet_id", "SUM(shard_limit) AS shard_limit", "SUM(used_limit) AS used_limit",
+                        "SUM(available_limit) AS available_limit")
+                .in("wallet_id", walletIds)
+                .groupBy("wallet_id"));
+    }
+}
@@ -0,0 +1,119 @@
+package com.bytz.modules.cms.payway.credit.infrastructure.repository;
+
+import com.bytz.modules.cms.payway.credit.domain.entity.CreditBillEntity;
+import com.bytz.modules.cms.payway.credit.domain.entity.ManagerLog;
+import com.bytz.modules.cms.payway.credit.domain.enums.RepaymentStatus;
+import com.bytz.modules.cms.payway.credit.infrastructure.assembler.CreditInfrastructureAssembler;
+import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditBillDueBucketPO;
+import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditBillPO;
+import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditBillDueBucketMapper;
+import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditBillMapper;
+import com.bytz.modules.cms.payway.credit.infrastructure.mapper.ManagerLogMapper;
+import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletErrorCode;
+import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletException;
+import com.bytz.modules.cms.shared.mybatis.BatchSqlHelper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 信用账单与管理日志批量写入
+ * Credit Bill Batch Writer
+ *
+ * <p>信用钱包与临时授信仓储共用：新账单、管理日志走批量INSERT，状态变化的账单走JDBC批量updateById</p>
+ * <p>账单更新按@Version乐观锁逐行校验，任一行未命中即整体失败回滚</p>
+ * <p>同步维护账单到期分桶索引：新账单写入分桶，还款完成的账单删除分桶</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+class CreditBillBatchWriter {
+
+    private final CreditInfrastructureAssembler creditInfrastructureAssembler;
+    private final CreditBillDueBucketMapper creditBillDueBucketMapper;
+
+    /**
+     * 批量插入新账单及其到期分桶，并把回填的主键、审计字段同步回账单实体
+     *
+     * @param newBills 新账单
+     */
+    void insertBills(List<CreditBillEntity> newBills) {
+        if (newBills.isEmpty()) {
+            return;
+        }
+        List<CreditBillPO> billPOs = newBills.stream()
+                .map(creditInfrastructureAssembler::billEntityToPO)
+                .collect(Collectors.toList());
+        BatchSqlHelper.insertBatch(CreditBillMapper.class, billPOs);
+        for (int i = 0; i < newBills.size(); i++) {
+            creditInfrastructureAssembler.updateBillEntityFromPO(newBills.get(i), billPOs.get(i));
+        }
+
+        List<CreditBillDueBucketPO> buckets = billPOs.stream()
+                .filter(po -> po.getDueDate() != null && po.getRepaymentStatus() != RepaymentStatus.REPAID)
+                .map(CreditBillBatchWriter::toDueBucket)
+                .collect(Collectors.toList());
+        if (!buckets.isEmpty()) {
+            BatchSqlHelper.insertBatch(CreditBillDueBucketMapper.class, buckets);
+        }
+    }
+
+    /**
+     * 批量更新状态变化的账单，并把新版本号同步回账单实体；还款完成的账单移出到期分桶
+     *
+     * @param changedBills 状态变化的账单
+     * @throws CreditWalletException 账单已被并发修改时抛出
+     */
+    void updateBills(List<CreditBillEntity> changedBills) {
+        if (changedBills.isEmpty()) {
+            return;
+        }
+        List<CreditBillPO> billPOs = changedBills.stream()
+                .map(creditInfrastructureAssembler::billEntityToPO)
+                .collect(Collectors.toList());
+        int[] updateCounts = BatchSqlHelper.updateBatchById(CreditBillMapper.class, billPOs);
+        for (int i = 0; i < billPOs.size(); i++) {
+            if (!BatchSqlHelper.isUpdated(updateCounts[i])) {
+                log.warn("账单乐观锁更新未命中，账单ID: {}", billPOs.get(i).getId());
+                throw new CreditWalletException(CreditWalletErrorCode.CONCURRENT_MODIFICATION);
+            }
+            creditInfrastructureAssembler.updateBillEntityFromPO(changedBills.get(i), billPOs.get(i));
+        }
+
+        List<String> repaidBillIds = billPOs.stream()
+                .filter(po -> po.getRepaymentStatus() == RepaymentStatus.REPAID)
+                .map(CreditBillPO::getId)
+                .collect(Collectors.toList());
+        if (!repaidBillIds.isEmpty()) {
+            creditBillDueBucketMapper.deleteBatchIds(repaidBillIds);
+        }
+    }
+
+    /**
+     * 批量插入管理日志
+     *
+     * @param managerLogs 管理日志
+     */
+    void insertManagerLogs(List<ManagerLog> managerLogs) {
+        if (managerLogs.isEmpty()) {
+            return;
+        }
+        BatchSqlHelper.insertBatch(ManagerLogMapper.class, creditInfrastructureAssembler.managerLogsToPOs(managerLogs));
+    }
+
+    private static CreditBillDueBucketPO toDueBucket(CreditBillPO bill) {
+        return CreditBillDueBucketPO.builder()
+                .billId(bill.getId())
+                .bucketDate(bill.getDueDate())
+                .creditWalletId(bill.getCreditWalletId())
+                .temporaryCreditId(bill.getTemporaryCreditId())
+                .transactionType(bill.getTransactionType())
+                .billCode(bill.getCode())
+                .amount(bill.getAmount())
+                .overdueChecked(false)
+                .build();
+    }
+}
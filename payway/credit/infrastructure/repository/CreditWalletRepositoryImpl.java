@@ -1,44 +1,72 @@
 package com.bytz.modules.cms.payway.credit.infrastructure.repository;
 
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.bytz.modules.cms.payway.credit.domain.entity.CreditBillEntity;
 import com.bytz.modules.cms.payway.credit.domain.enums.RepaymentStatus;
 import com.bytz.modules.cms.payway.credit.domain.enums.TransactionType;
 import com.bytz.modules.cms.payway.credit.domain.model.CreditWalletAggregate;
+import com.bytz.modules.cms.payway.credit.domain.model.OverdueWalletSummary;
 import com.bytz.modules.cms.payway.credit.domain.repository.ICreditWalletRepository;
 import com.bytz.modules.cms.payway.credit.infrastructure.assembler.CreditInfrastructureAssembler;
 import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditBillPO;
+import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditOverdueSummaryPO;
 import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditWalletPO;
-import com.bytz.modules.cms.payway.credit.infrastructure.entity.ManagerLogPO;
+import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditWalletShardPO;
+import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditBillDueBucketMapper;
 import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditBillMapper;
 import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditWalletMapper;
-import com.bytz.modules.cms.payway.credit.infrastructure.mapper.ManagerLogMapper;
+import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditWalletShardMapper;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletErrorCode;
 import com.bytz.modules.cms.payway.credit.shared.exception.CreditWalletException;
+import com.bytz.modules.cms.shared.mybatis.BatchSqlHelper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
  * 信用钱包仓储实现
  * Credit Wallet Repository Implementation
+ *
+ * <p>分片模式（shard_count > 0）下额度拆分到cms_credit_wallet_shard的多个子额度，支付随机选择分片条件扣减，热点钱包的并发支付不再争用同一行</p>
+ * <p>单个分片不足时锁定全部分片，把剩余额度均分后再占用；占用成功与否只取决于各分片可用额度之和，与不分片时的判定一致</p>
+ * <p>聚合根的额度按分片求和，钱包主记录的额度字段在分片模式下只是快照</p>
  */
 @Slf4j
 @Repository
 @RequiredArgsConstructor
 public class CreditWalletRepositoryImpl implements ICreditWalletRepository {
 
+    /**
+     * 分片模式下再平衡前随机尝试的分片数
+     */
+    private static final int SHARD_PROBES = 2;
+
+    /**
+     * 额度精度（小数位）
+     */
+    private static final int AMOUNT_SCALE = 2;
+
     private final CreditWalletMapper creditWalletMapper;
     private final CreditBillMapper creditBillMapper;
-    private final ManagerLogMapper managerLogMapper;
+    private final CreditBillDueBucketMapper creditBillDueBucketMapper;
+    private final CreditWalletShardMapper creditWalletShardMapper;
     private final CreditInfrastructureAssembler creditInfrastructureAssembler;
+    private final CreditBillBatchWriter creditBillBatchWriter;
 
     @Override
     public void insert(CreditWalletAggregate aggregate) {
@@ -50,54 +78,124 @@ public class CreditWalletRepositoryImpl implements ICreditWalletRepository {
         creditInfrastructureAssembler.updateAggregateFromPO(aggregate, po);
 
         // 批量插入管理日志
-        if (!aggregate.getNewManagerLogs().isEmpty()) {
-            List<ManagerLogPO> logPOs = creditInfrastructureAssembler.managerLogsToPOs(aggregate.getNewManagerLogs());
-            for (ManagerLogPO logPO : logPOs) {
-                managerLogMapper.insert(logPO);
-            }
-        }
+        creditBillBatchWriter.insertManagerLogs(aggregate.getNewManagerLogs());
         aggregate.clearTempCollections();
     }
 
     @Override
     public void update(CreditWalletAggregate aggregate) {
-        // 更新钱包主记录
+        // 更新钱包主记录，版本号已被并发的额度占用/返还推进时整体失败，避免静默丢失变更
         CreditWalletPO po = creditInfrastructureAssembler.aggregateToPO(aggregate);
-        creditWalletMapper.updateById(po);
+        if (creditWalletMapper.updateById(po) == 0) {
+            log.warn("钱包乐观锁更新未命中，钱包ID: {}", aggregate.getId());
+            throw new CreditWalletException(CreditWalletErrorCode.CONCURRENT_MODIFICATION);
+        }
         // 同步持久化后的数据回聚合根（包括更新时间等）
         creditInfrastructureAssembler.updateAggregateFromPO(aggregate, po);
 
+        // 分片模式下总额度调整后，按新总额度重新分配各分片
+        if (aggregate.isLimitSharded()) {
+            List<CreditWalletShardPO> shards = creditWalletShardMapper.selectForUpdate(aggregate.getId());
+            if (!shards.isEmpty() && sum(shards, CreditWalletShardPO::getShardLimit).compareTo(aggregate.getTotalLimit()) != 0) {
+                BigDecimal used = sum(shards, CreditWalletShardPO::getUsedLimit);
+                redistribute(shards, used, aggregate.getTotalLimit().subtract(used));
+            }
+            applyShardTotals(Collections.singletonList(aggregate));
+        }
+
+        saveBillsAndLogs(aggregate);
+    }
+
+    @Override
+    public boolean freeze(CreditWalletAggregate aggregate) {
+        if (creditWalletMapper.freeze(aggregate.getId()) == 0) {
+            log.info("钱包已冻结，跳过冻结，钱包ID: {}", aggregate.getId());
+            aggregate.clearTempCollections();
+            return false;
+        }
+        saveBillsAndLogs(aggregate);
+        return true;
+    }
+
+    @Override
+    public void saveBillsAndLogs(CreditWalletAggregate aggregate) {
         // 批量插入新账单
         List<CreditBillEntity> newBills = aggregate.getNewBills();
-        if (!newBills.isEmpty()) {
-            for (CreditBillEntity newBill : newBills) {
-                CreditBillPO billPO = creditInfrastructureAssembler.billEntityToPO(newBill);
-                creditBillMapper.insert(billPO);
-                // 同步持久化后的数据回账单实体
-                creditInfrastructureAssembler.updateBillEntityFromPO(newBill, billPO);
+        creditBillBatchWriter.insertBills(newBills);
 
-            }
+        // 批量插入新管理日志
+        creditBillBatchWriter.insertManagerLogs(aggregate.getNewManagerLogs());
+
+        // 批量更新本次状态变化的账单（发起还款REPAYING、完成还款REPAID）
+        creditBillBatchWriter.updateBills(aggregate.getChangedBills());
+
+        aggregate.getUnpaidBills().addAll(newBills);
+        aggregate.clearTempCollections();
+    }
+
+    @Override
+    public boolean consumeLimit(CreditWalletAggregate aggregate, BigDecimal amount) {
+        boolean sharded = aggregate.isLimitSharded();
+        boolean consumed = sharded
+                ? consumeFromShards(aggregate.getId(), aggregate.getShardCount(), amount)
+                : creditWalletMapper.consumeLimit(aggregate.getId(), amount) > 0;
+        if (!consumed) {
+            log.info("占用额度未成功，钱包: {}, 金额: {}", aggregate.getId(), amount);
+            return false;
+        }
+        if (sharded) {
+            applyLimitDelta(aggregate, amount);
+        } else {
+            refresh(aggregate);
         }
+        return true;
+    }
 
-        // 批量插入新管理日志
-        if (!aggregate.getNewManagerLogs().isEmpty()) {
-            List<ManagerLogPO> logPOs = creditInfrastructureAssembler.managerLogsToPOs(aggregate.getNewManagerLogs());
-            for (ManagerLogPO logPO : logPOs) {
-                managerLogMapper.insert(logPO);
-            }
+    @Override
+    public void releaseLimit(CreditWalletAggregate aggregate, BigDecimal amount) {
+        boolean sharded = aggregate.isLimitSharded();
+        boolean released = sharded
+                ? releaseToShards(aggregate.getId(), aggregate.getShardCount(), amount)
+                : creditWalletMapper.releaseLimit(aggregate.getId(), amount) > 0;
+        if (!released) {
+            log.error("返还额度失败，已用额度不足或钱包不存在，钱包: {}, 金额: {}", aggregate.getId(), amount);
+            throw new CreditWalletException(CreditWalletErrorCode.INVALID_AMOUNT, "已用额度不足以返还，金额：" + amount);
         }
-        aggregate.clearTempCollections();        // 更新需要持久化状态变化的账单（REPAYING 或 REPAID 均需落库）
-        List<CreditBillEntity> unpaidBills = aggregate.getUnpaidBills();
-        for (CreditBillEntity bill : unpaidBills) {
-            if (RepaymentStatus.needUpdate.contains(bill.getRepaymentStatus())) {
-                CreditBillPO billPO = creditInfrastructureAssembler.billEntityToPO(bill);
-                creditBillMapper.updateById(billPO);
-                // 同步持久化后的数据回账单实体
-                creditInfrastructureAssembler.updateBillEntityFromPO(bill, billPO);
+        if (sharded) {
+            applyLimitDelta(aggregate, amount.negate());
+        } else {
+            refresh(aggregate);
+        }
+    }
+
+    @Override
+    public void configureShards(CreditWalletAggregate aggregate, int shardCount) {
+        // 排他锁定主记录与现有分片，切换期间的占用与返还全部等待
+        CreditWalletPO wallet = creditWalletMapper.selectForUpdate(aggregate.getId());
+        if (wallet == null) {
+            throw new CreditWalletException(CreditWalletErrorCode.WALLET_NOT_FOUND);
+        }
+        List<CreditWalletShardPO> shards = creditWalletShardMapper.selectForUpdate(wallet.getId());
+        BigDecimal used = shards.isEmpty() ? wallet.getUsedLimit() : sum(shards, CreditWalletShardPO::getUsedLimit);
+        BigDecimal available = wallet.getTotalLimit().subtract(used);
+
+        if (!shards.isEmpty()) {
+            creditWalletShardMapper.delete(new LambdaQueryWrapper<CreditWalletShardPO>()
+                    .eq(CreditWalletShardPO::getWalletId, wallet.getId()));
+        }
+        if (shardCount > 0) {
+            List<CreditWalletShardPO> newShards = new ArrayList<>(shardCount);
+            for (int i = 0; i < shardCount; i++) {
+                newShards.add(CreditWalletShardPO.builder().walletId(wallet.getId()).shardNo(i).build());
             }
+            assign(newShards, used, available);
+            BatchSqlHelper.insertBatch(CreditWalletShardMapper.class, newShards);
         }
-        unpaidBills.addAll(newBills);
-        aggregate.clearTempCollections();
+        creditWalletMapper.updateShardState(wallet.getId(), shardCount, used, available);
+        log.info("信用钱包额度分片调整，钱包: {}, 分片数: {} -> {}, 已用额度: {}, 可用额度: {}",
+                wallet.getId(), shards.size(), shardCount, used, available);
+
+        refresh(aggregate);
     }
 
     @Override
@@ -108,6 +206,7 @@ public class CreditWalletRepositoryImpl implements ICreditWalletRepository {
         }
 
         CreditWalletAggregate aggregate = creditInfrastructureAssembler.poToAggregate(po);
+        applyShardTotals(Collections.singletonList(aggregate));
 
         if (loadUnpaidBills) {
             List<CreditBillEntity> bills = loadUnpaidBillsByWalletId(id);
@@ -128,6 +227,7 @@ public class CreditWalletRepositoryImpl implements ICreditWalletRepository {
         }
 
         CreditWalletAggregate aggregate = creditInfrastructureAssembler.poToAggregate(po);
+        applyShardTotals(Collections.singletonList(aggregate));
 
         if (loadUnpaidBills) {
             List<CreditBillEntity> bills = loadUnpaidBillsByWalletId(po.getId());
@@ -150,6 +250,7 @@ public class CreditWalletRepositoryImpl implements ICreditWalletRepository {
             throw new CreditWalletException(CreditWalletErrorCode.WALLET_NOT_FOUND);
         }
         CreditWalletAggregate aggregate = creditInfrastructureAssembler.poToAggregate(po);
+        applyShardTotals(Collections.singletonList(aggregate));
 
         aggregate.setUnpaidBills(Collections.singletonList(creditInfrastructureAssembler.poToBillEntity(creditBillPO)));
         return Optional.of(aggregate);
@@ -172,6 +273,7 @@ public class CreditWalletRepositoryImpl implements ICreditWalletRepository {
             throw new CreditWalletException(CreditWalletErrorCode.WALLET_NOT_FOUND);
         }
         CreditWalletAggregate aggregate = creditInfrastructureAssembler.poToAggregate(po);
+        applyShardTotals(Collections.singletonList(aggregate));
         aggregate.setUnpaidBills(creditInfrastructureAssembler.posToBillEntities(creditBillPOS));
 
         return Optional.of(aggregate);
@@ -200,15 +302,43 @@ public class CreditWalletRepositoryImpl implements ICreditWalletRepository {
 
     @Override
     public List<CreditBillEntity> findOverdueBills(LocalDate currentDate) {
+        // 经到期分桶索引定位，只触及未结清账单
         LambdaQueryWrapper<CreditBillPO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.lt(CreditBillPO::getDueDate, currentDate)
-                .ne(CreditBillPO::getRepaymentStatus, RepaymentStatus.REPAID)
-                .eq(CreditBillPO::getTransactionType, TransactionType.CREDIT_PAY);
+        wrapper.inSql(CreditBillPO::getId,
+                        CreditBillDueBucketMapper.overdueBillIdsSql(TransactionType.CREDIT_PAY, currentDate))
+                .ne(CreditBillPO::getRepaymentStatus, RepaymentStatus.REPAID);
 
         List<CreditBillPO> pos = creditBillMapper.selectList(wrapper);
         return creditInfrastructureAssembler.posToBillEntities(pos);
     }
 
+    @Override
+    public List<OverdueWalletSummary> findOverdueWalletSummaries(LocalDate currentDate) {
+        return creditBillDueBucketMapper.selectOverdueSummaries(currentDate).stream()
+                .map(po -> toOverdueSummary(po, currentDate))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<OverdueWalletSummary> findNewlyOverdueWalletSummaries(LocalDate currentDate) {
+        return creditBillDueBucketMapper.selectNewlyOverdueSummaries(currentDate).stream()
+                .map(po -> toOverdueSummary(po, currentDate))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void markOverdueChecked(String walletId, LocalDate currentDate) {
+        creditBillDueBucketMapper.markChecked(walletId, currentDate);
+    }
+
+    @Override
+    public int rebuildBillDueBuckets() {
+        int deleted = creditBillDueBucketMapper.deleteAll();
+        int rebuilt = creditBillDueBucketMapper.rebuildFromBills();
+        log.info("账单到期分桶索引已重建，清除: {}，写入: {}", deleted, rebuilt);
+        return rebuilt;
+    }
+
     @Override
     public List<CreditWalletAggregate> findActiveWallets() {
         LambdaQueryWrapper<CreditWalletPO> wrapper = new LambdaQueryWrapper<>();
@@ -216,7 +346,9 @@ public class CreditWalletRepositoryImpl implements ICreditWalletRepository {
                 .eq(CreditWalletPO::getFrozen, false);
 
         List<CreditWalletPO> pos = creditWalletMapper.selectList(wrapper);
-        return creditInfrastructureAssembler.posToAggregates(pos);
+        List<CreditWalletAggregate> aggregates = creditInfrastructureAssembler.posToAggregates(pos);
+        applyShardTotals(aggregates);
+        return aggregates;
     }
 
     @Override
@@ -224,6 +356,155 @@ public class CreditWalletRepositoryImpl implements ICreditWalletRepository {
         creditWalletMapper.deleteById(id);
     }
 
+    /**
+     * 按条件更新后的数据库行刷新聚合根（同一事务内读到本次更新后的额度与版本）
+     */
+    private void refresh(CreditWalletAggregate aggregate) {
+        CreditWalletPO po = creditWalletMapper.selectById(aggregate.getId());
+        creditInfrastructureAssembler.updateAggregateFromPO(aggregate, po);
+        applyShardTotals(Collections.singletonList(aggregate));
+    }
+
+    /**
+     * 分片模式按本次变更金额推进聚合根额度
+     * 分片之间的支付并发执行，重新汇总各分片只能读到快照，混入其他事务的占用；按加载时的额度加上本次变更记录，
+     * 管理日志反映的是本次操作的效果
+     *
+     * @param delta 已用额度变更（占用为正，返还为负）
+     */
+    private static void applyLimitDelta(CreditWalletAggregate aggregate, BigDecimal delta) {
+        aggregate.setUsedLimit(aggregate.getUsedLimit().add(delta));
+        aggregate.setAvailableLimit(aggregate.getAvailableLimit().subtract(delta));
+    }
+
+    /**
+     * 分片模式的钱包以各分片之和作为已用额度与可用额度
+     */
+    private void applyShardTotals(List<CreditWalletAggregate> aggregates) {
+        List<String> shardedIds = aggregates.stream()
+                .filter(CreditWalletAggregate::isLimitSharded)
+                .map(CreditWalletAggregate::getId)
+                .collect(Collectors.toList());
+        if (shardedIds.isEmpty()) {
+            return;
+        }
+        Map<String, CreditWalletShardPO> totals = creditWalletShardMapper.sumByWalletIds(shardedIds).stream()
+                .collect(Collectors.toMap(CreditWalletShardPO::getWalletId, Function.identity()));
+        for (CreditWalletAggregate aggregate : aggregates) {
+            CreditWalletShardPO total = totals.get(aggregate.getId());
+            if (total != null) {
+                aggregate.setUsedLimit(total.getUsedLimit());
+                aggregate.setAvailableLimit(total.getAvailableLimit());
+            }
+        }
+    }
+
+    /**
+     * 分片占用：随机尝试少量分片，均不足时锁定全部分片，按可用额度之和判定并再平衡
+     */
+    private boolean consumeFromShards(String walletId, int shardCount, BigDecimal amount) {
+        int start = ThreadLocalRandom.current().nextInt(shardCount);
+        for (int i = 0; i < Math.min(SHARD_PROBES, shardCount); i++) {
+            if (creditWalletShardMapper.consume(walletId, (start + i) % shardCount, amount) > 0) {
+                return true;
+            }
+        }
+
+        CreditWalletPO wallet = creditWalletMapper.selectForShare(walletId);
+        if (wallet == null || !Boolean.TRUE.equals(wallet.getEnabled()) || !Boolean.FALSE.equals(wallet.getFrozen())) {
+            return false;
+        }
+        List<CreditWalletShardPO> shards = creditWalletShardMapper.selectForUpdate(walletId);
+        if (shards.isEmpty()) {
+            return false;
+        }
+        BigDecimal used = sum(shards, CreditWalletShardPO::getUsedLimit);
+        BigDecimal available = sum(shards, CreditWalletShardPO::getAvailableLimit);
+        // 与canPay一致：可用额度之和为正且不小于支付金额
+        if (available.compareTo(BigDecimal.ZERO) <= 0 || available.compareTo(amount) < 0) {
+            return false;
+        }
+        log.info("信用钱包分片再平衡，钱包: {}, 分片数: {}, 可用额度: {}, 占用金额: {}", walletId, shards.size(), available, amount);
+        redistribute(shards, used.add(amount), available.subtract(amount));
+        return true;
+    }
+
+    /**
+     * 分片返还：随机尝试少量分片，已用额度均不足时锁定全部分片返还并再平衡
+     */
+    private boolean releaseToShards(String walletId, int shardCount, BigDecimal amount) {
+        int start = ThreadLocalRandom.current().nextInt(shardCount);
+        for (int i = 0; i < Math.min(SHARD_PROBES, shardCount); i++) {
+            if (creditWalletShardMapper.release(walletId, (start + i) % shardCount, amount) > 0) {
+                return true;
+            }
+        }
+
+        List<CreditWalletShardPO> shards = creditWalletShardMapper.selectForUpdate(walletId);
+        BigDecimal used = sum(shards, CreditWalletShardPO::getUsedLimit);
+        if (shards.isEmpty() || used.compareTo(amount) < 0) {
+            return false;
+        }
+        BigDecimal available = sum(shards, CreditWalletShardPO::getAvailableLimit);
+        redistribute(shards, used.subtract(amount), available.add(amount));
+        return true;
+    }
+
+    /**
+     * 重新分配已锁定的分片并落库
+     */
+    private void redistribute(List<CreditWalletShardPO> shards, BigDecimal used, BigDecimal available) {
+        assign(shards, used, available);
+        BatchSqlHelper.updateBatchById(CreditWalletShardMapper.class, shards);
+    }
+
+    /**
+     * 已用额度与可用额度各自均分到分片，除不尽的余数计入第一个分片，分片额度 = 已用 + 可用，各项总和保持不变
+     */
+    private static void assign(List<CreditWalletShardPO> shards, BigDecimal used, BigDecimal available) {
+        BigDecimal count = BigDecimal.valueOf(shards.size());
+        BigDecimal usedShare = used.divide(count, AMOUNT_SCALE, RoundingMode.DOWN);
+        BigDecimal availableShare = available.divide(count, AMOUNT_SCALE, RoundingMode.DOWN);
+        BigDecimal usedRemainder = used.subtract(usedShare.multiply(count));
+        BigDecimal availableRemainder = available.subtract(availableShare.multiply(count));
+        for (int i = 0; i < shards.size(); i++) {
+            BigDecimal shardUsed = i == 0 ? usedShare.add(usedRemainder) : usedShare;
+            BigDecimal shardAvailable = i == 0 ? availableShare.add(availableRemainder) : availableShare;
+            CreditWalletShardPO shard = shards.get(i);
+            shard.setUsedLimit(shardUsed);
+            shard.setAvailableLimit(shardAvailable);
+            shard.setShardLimit(shardUsed.add(shardAvailable));
+        }
+    }
+
+    private static BigDecimal sum(List<CreditWalletShardPO> shards, Function<CreditWalletShardPO, BigDecimal> field) {
+        return shards.stream().map(field).reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    /**
+     * 转换逾期汇总
+     * GROUP_CONCAT超过group_concat_max_len时被截断，最后一个编号可能不完整，截断时丢弃
+     */
+    private OverdueWalletSummary toOverdueSummary(CreditOverdueSummaryPO po, LocalDate checkDate) {
+        int billCount = po.getBillCount() == null ? 0 : po.getBillCount();
+        List<String> billCodes = po.getBillCodes() == null || po.getBillCodes().isEmpty()
+                ? new ArrayList<>()
+                : new ArrayList<>(Arrays.asList(po.getBillCodes().split(",")));
+        if (billCodes.size() < billCount && !billCodes.isEmpty()) {
+            billCodes.remove(billCodes.size() - 1);
+        }
+        return OverdueWalletSummary.builder()
+                .walletId(po.getWalletId())
+                .resellerId(po.getResellerId())
+                .frozen(Boolean.TRUE.equals(po.getFrozen()))
+                .overdueBillCodes(billCodes)
+                .overdueBillCount(billCount)
+                .totalOverdueAmount(po.getOverdueAmount() == null ? BigDecimal.ZERO : po.getOverdueAmount())
+                .earliestDueDate(po.getEarliestDueDate())
+                .checkDate(checkDate)
+                .build();
+    }
+
     private List<CreditBillEntity> loadUnpaidBillsByWalletId(String walletId) {
         LambdaQueryWrapper<CreditBillPO> wrapper = new LambdaQueryWrapper<>();
         wrapper.eq(CreditBillPO::getCreditWalletId, walletId)
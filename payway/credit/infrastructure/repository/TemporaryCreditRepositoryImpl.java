@@ -11,6 +11,7 @@ import com.bytz.modules.cms.payway.credit.domain.repository.ITemporaryCreditRepo
 import com.bytz.modules.cms.payway.credit.infrastructure.assembler.CreditInfrastructureAssembler;
 import com.bytz.modules.cms.payway.credit.infrastructure.entity.CreditBillPO;
 import com.bytz.modules.cms.payway.credit.infrastructure.entity.TemporaryCreditPO;
+import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditBillDueBucketMapper;
 import com.bytz.modules.cms.payway.credit.infrastructure.mapper.CreditBillMapper;
 import com.bytz.modules.cms.payway.credit.infrastructure.mapper.TemporaryCreditMapper;
 import lombok.RequiredArgsConstructor;
@@ -33,6 +34,7 @@ public class TemporaryCreditRepositoryImpl implements ITemporaryCreditRepository
     private final TemporaryCreditMapper temporaryCreditMapper;
     private final CreditBillMapper creditBillMapper;
     private final CreditInfrastructureAssembler creditInfrastructureAssembler;
+    private final CreditBillBatchWriter creditBillBatchWriter;
 
     @Override
     public void insert(TemporaryCreditAggregate aggregate) {
@@ -52,25 +54,12 @@ public class TemporaryCreditRepositoryImpl implements ITemporaryCreditRepository
 
         // 批量插入新账单
         List<CreditBillEntity> newBills = aggregate.getNewBills();
-        if (!newBills.isEmpty()) {
-            for (CreditBillEntity newBill : newBills) {
-                CreditBillPO billPO = creditInfrastructureAssembler.billEntityToPO(newBill);
-                creditBillMapper.insert(billPO);
-                // 同步持久化后的数据回账单实体
-                creditInfrastructureAssembler.updateBillEntityFromPO(newBill, billPO);
-
-            }
-        }
-        List<CreditBillEntity> unpaidBills = aggregate.getUnpaidBills();
-        for (CreditBillEntity bill : unpaidBills) {
-            if (RepaymentStatus.needUpdate.contains(bill.getRepaymentStatus())) {
-                CreditBillPO billPO = creditInfrastructureAssembler.billEntityToPO(bill);
-                creditBillMapper.updateById(billPO);
-                // 同步持久化后的数据回账单实体
-                creditInfrastructureAssembler.updateBillEntityFromPO(bill, billPO);
-            }
-        }
-        unpaidBills.addAll(newBills);
+        creditBillBatchWriter.insertBills(newBills);
+
+        // 批量更新本次状态变化的账单（发起还款REPAYING、完成还款REPAID）
+        creditBillBatchWriter.updateBills(aggregate.getChangedBills());
+
+        aggregate.getUnpaidBills().addAll(newBills);
         aggregate.clearTempCollections();
     }
 
@@ -148,10 +137,11 @@ public class TemporaryCreditRepositoryImpl implements ITemporaryCreditRepository
 
     @Override
     public List<CreditBillEntity> findOverdueBills(LocalDate currentDate) {
+        // 经到期分桶索引定位，只触及未结清账单
         LambdaQueryWrapper<CreditBillPO> wrapper = new LambdaQueryWrapper<>();
-        wrapper.lt(CreditBillPO::getDueDate, currentDate)
-                .ne(CreditBillPO::getRepaymentStatus, RepaymentStatus.REPAID)
-                .eq(CreditBillPO::getTransactionType, TransactionType.TEMPORARY_CREDIT_PAY);
+        wrapper.inSql(CreditBillPO::getId,
+                        CreditBillDueBucketMapper.overdueBillIdsSql(TransactionType.TEMPORARY_CREDIT_PAY, currentDate))
+                .ne(CreditBillPO::getRepaymentStatus, RepaymentStatus.REPAID);
 
         List<CreditBillPO> pos = creditBillMapper.selectList(wrapper);
         return creditInfrastructureAssembler.posToBillEntities(pos);
@@ -1,6 +1,8 @@
 package com.bytz.modules.cms.payway.credit.job;
 
 import com.bytz.modules.cms.payway.credit.domain.RiskControlDomainService;
+import com.bytz.modules.cms.payway.credit.domain.model.OverdueFreezeStats;
+import com.bytz.modules.cms.payway.credit.domain.model.OverdueWalletSummary;
 import lombok.extern.slf4j.Slf4j;
 import org.quartz.Job;
 import org.quartz.JobExecutionContext;
@@ -13,11 +15,22 @@ import java.util.List;
 /**
  * 信用账单逾期检查定时任务
  * 用于定期检查信用账单是否逾期，并进行相关处理
+ * 默认只处理上次检查后有账单新到期的钱包；任务参数mode=RECONCILE时重建账单到期分桶索引并检查全部逾期钱包
  */
 @Component
 @Slf4j
 public class CreditBillOverdueCheckJob implements Job {
 
+    /**
+     * 任务参数：执行模式
+     */
+    public static final String PARAM_MODE = "mode";
+
+    /**
+     * 对账模式
+     */
+    public static final String MODE_RECONCILE = "RECONCILE";
+
     @Autowired
     private RiskControlDomainService riskControlDomainService;
     
@@ -30,15 +43,25 @@ public class CreditBillOverdueCheckJob implements Job {
     public void execute(JobExecutionContext context) throws JobExecutionException {
         log.info("开始执行信用账单逾期检查任务");
         try {
+            if (MODE_RECONCILE.equalsIgnoreCase(context.getMergedJobDataMap().getString(PARAM_MODE))) {
+                OverdueFreezeStats stats = riskControlDomainService.reconcileOverdueWallets();
+                log.info("信用账单逾期对账完成，逾期钱包: {}，冻结: {}，跳过: {}，失败: {}，耗时: {}ms",
+                        stats.getOverdueWalletCount(), stats.getFrozenCount(), stats.getSkippedCount(),
+                        stats.getFailedCount(), stats.getDurationMillis());
+                return;
+            }
+
             // 检测逾期账单
-            List<RiskControlDomainService.OverdueInfo> overdueInfos = riskControlDomainService.detectOverdueBills();
+            List<OverdueWalletSummary> overdueWallets = riskControlDomainService.detectOverdueBills();
             
-            // 如果有逾期账单，自动冻结钱包
-            if (!overdueInfos.isEmpty()) {
-                riskControlDomainService.autoFreezeOverdueWallets(overdueInfos);
+            // 如果有逾期账单，自动冻结钱包（单个钱包冻结失败不中断任务，计入失败数）
+            if (!overdueWallets.isEmpty()) {
+                OverdueFreezeStats stats = riskControlDomainService.autoFreezeOverdueWallets(overdueWallets);
+                log.info("逾期钱包自动冻结完成，冻结: {}，跳过: {}，失败: {}，耗时: {}ms",
+                        stats.getFrozenCount(), stats.getSkippedCount(), stats.getFailedCount(), stats.getDurationMillis());
             }
             
-            log.info("信用账单逾期检查任务执行完成，共检测到 {} 个逾期钱包", overdueInfos.size());
+            log.info("信用账单逾期检查任务执行完成，共检测到 {} 个逾期钱包", overdueWallets.size());
         } catch (Exception e) {
             log.error("信用账单逾期检查任务执行失败", e);
             throw new JobExecutionException("信用账单逾期检查任务执行失败", e);
@@ -29,7 +29,7 @@ public class CreditPaymentCompletedListener {
      *              业务逻辑：
      *              1. 检查关联业务ID是否存在
      *              2. 构建还款完成命令
-     *              3. 调用领域服务完成还款流程
+     *              3. 调用领域服务完成还款流程（账单已还款时为空操作，发件箱重复投递不会失败）
      */
     @EventListener(condition = "#event.paymentType.isCreditRepayment() == true")
     public void handleCreditRepaymentCompletedEvent(PaymentCompletedEvent event) {
@@ -20,7 +20,8 @@ public enum CreditWalletErrorCode {
     TEMPORARY_CREDIT_EXHAUSTED("CW012", "临时信用已用完"),
     REPAYMENT_AMOUNT_INVALID("CW013", "还款金额无效"),
     APPROVAL_ID_DUPLICATE("CW014", "审批ID重复"),
-    UNSUPPORTED_PAYMENT_TYPE("CW015", "存在不支持的支付单类型");
+    UNSUPPORTED_PAYMENT_TYPE("CW015", "存在不支持的支付单类型"),
+    CONCURRENT_MODIFICATION("CW016", "账单已被并发修改，请重试");
 
     private final String code;
     private final String message;
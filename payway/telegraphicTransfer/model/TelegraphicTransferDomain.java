@@ -4,7 +4,7 @@ import com.baomidou.mybatisplus.core.toolkit.IdWorker;
 import com.bytz.common.exception.BytzBootException;
 import com.bytz.modules.cms.payway.telegraphicTransfer.constant.TelegraphicTransferConstant;
 import com.bytz.modules.cms.payway.telegraphicTransfer.entity.TelegraphicTransfer;
-import com.bytz.modules.cms.shared.util.BusinessCodeGenerator;
+import com.bytz.modules.cms.shared.codegen.BusinessCodes;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -107,7 +107,7 @@ public class TelegraphicTransferDomain {
 
     // 生成支付记录编号
     public String generatePaymentRecordNumber() {
-        return BusinessCodeGenerator.generateBillCode("TT");
+        return BusinessCodes.next("TT");
     }
 
 
@@ -25,7 +25,7 @@ import com.bytz.modules.cms.payway.telegraphicTransfer.model.response.Telegraphi
 import com.bytz.modules.cms.payway.telegraphicTransfer.service.ITelegraphicTransferPayDetailService;
 import com.bytz.modules.cms.payway.telegraphicTransfer.service.ITelegraphicTransferService;
 import com.bytz.modules.cms.reseller.util.ResellerSecurityUtils;
-import com.bytz.modules.cms.shared.util.BusinessCodeGenerator;
+import com.bytz.modules.cms.shared.codegen.BusinessCodes;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
@@ -34,7 +34,6 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -55,7 +54,6 @@ public class TelegraphicTransferServiceImpl extends ServiceImpl<TelegraphicTrans
 
     private final ITelegraphicTransferPayDetailService telegraphicTransferPayDetailService;
     public static final DateTimeFormatter PATTERN = DateTimeFormatter.ofPattern("yyyyMMdd");
-    private static final Random RANDOM = new Random();
 
     /**
      * 导入电汇
@@ -202,15 +200,7 @@ public class TelegraphicTransferServiceImpl extends ServiceImpl<TelegraphicTrans
      * @return 电汇编号
      */
     public static String createTransferNumber() {
-        StringBuilder prefix = new StringBuilder(4);
-
-        for (int i = 0; i < 4; i++) {
-            // 生成65-90之间的随机数（对应ASCII码中的A-Z）
-            int asciiCode = RANDOM.nextInt(26) + 97;
-            // 将ASCII码转换为字符
-            prefix.append((char) asciiCode);
-        }
-        return prefix + LocalDate.now().format(PATTERN);
+        return BusinessCodes.next("TF");
     }
 
     /*  *//**
@@ -365,7 +355,7 @@ public class TelegraphicTransferServiceImpl extends ServiceImpl<TelegraphicTrans
         transfer.setUpdateTime(LocalDateTime.now());
         this.updateById(transfer);
         // 保存退款明细
-        String tranCode = BusinessCodeGenerator.generateBillCode("TTR");
+        String tranCode = BusinessCodes.next("TTR");
         // 保存退款明细并返回保存信息
         TelegraphicTransferPayDetailRO telegraphicTransferPayDetailRo
                 = telegraphicTransferPayDetailService.saveTransferPayDetail(paymentId, IdWorker.get32UUID(), id, rebackAmount, TelegraphicTransferConstant.OPERATE_TYPE.REFUND, tranCode);
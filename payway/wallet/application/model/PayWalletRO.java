@@ -36,4 +36,9 @@ public class PayWalletRO extends BasePaymentItemRo {
     @NotBlank(groups = BasePaymentItemRo.AdminGroup.class)
     private String resellerId;
 
+    /**
+     * 客户端请求键（可选），超时重试时携带同一请求键，返回首次请求的结果
+     */
+    @ApiModelProperty(value = "客户端请求键，超时重试时携带同一请求键")
+    private String requestKey;
 }
\ No newline at end of file
@@ -15,6 +15,8 @@ import com.bytz.modules.cms.payway.wallet.domain.repository.IWalletRepository;
 import com.bytz.modules.cms.payway.wallet.domain.valueobject.WalletTransactionValueObject;
 import com.bytz.modules.cms.payway.wallet.shared.exception.WalletBusinessException;
 import com.bytz.modules.cms.payway.wallet.shared.exception.WalletErrorCode;
+import com.bytz.modules.cms.shared.idempotency.IdempotencyTemplate;
+import com.bytz.modules.cms.shared.lock.AggregateLock;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -22,6 +24,8 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -39,6 +43,7 @@ public class WalletApplicationService {
     private final IWalletRepository walletRepository;
     private final WalletDomainService walletDomainService;
     private final PaymentDomainService paymentDomainService;
+    private final IdempotencyTemplate idempotencyTemplate;
 
 
     /**
@@ -46,6 +51,7 @@ public class WalletApplicationService {
      * <p>
      * 使用场景：管理员启用经销商钱包
      */
+    @AggregateLock(keys = "'wallet:' + #walletId")
     @Transactional
     public Boolean enableWallet(String walletId) {
         log.info("启用钱包：{}", walletId);
@@ -63,6 +69,7 @@ public class WalletApplicationService {
      * <p>
      * 使用场景：管理员停用经销商钱包
      */
+    @AggregateLock(keys = "'wallet:' + #walletId")
     @Transactional
     public Boolean disableWallet(String walletId) {
         log.info("停用钱包：{}", walletId);
@@ -97,8 +104,14 @@ public class WalletApplicationService {
      * <p>
      * 使用场景：使用钱包余额进行支付
      */
+    @AggregateLock(keys = {"'wallet:' + #ro.walletId", "'payment:' + #ro.paymentId"})
     @Transactional
     public Boolean creditPay(PayWalletRO ro) {
+        // 客户端超时重试时按请求键返回首次结果
+        return idempotencyTemplate.execute("wallet.creditPay", ro.getRequestKey(), ro, Boolean.class, () -> doCreditPay(ro));
+    }
+
+    private Boolean doCreditPay(PayWalletRO ro) {
         log.info("使用钱包支付：钱包ID={}, 支付单ID={}, 金额={}", ro.getWalletId(), ro.getPaymentId(), ro.getAmount());
 
         validParam(ro.getWalletId(), ro.getResellerId());
@@ -115,8 +128,12 @@ public class WalletApplicationService {
                 .build();
 
         WalletTransactionValueObject tran = walletDomainService.processPayment(command);
+        PaymentTransactionEntity paymentTransactionEntity = paymentDomainService.executePayment(toPayTransactionCommand(tran, amount, paymentId));
+        return tran;
+    }
 
-        CreateTransactionCommand build = CreateTransactionCommand.builder()
+    private CreateTransactionCommand toPayTransactionCommand(WalletTransactionValueObject tran, BigDecimal amount, String paymentId) {
+        return CreateTransactionCommand.builder()
                 .paymentId(paymentId)
                 .paymentChannel(PaymentChannel.WALLET_PAYMENT)
                 .transactionAmount(amount)
@@ -126,8 +143,6 @@ public class WalletApplicationService {
                 .transactionStatus(TransactionStatus.SUCCESS)
                 .completedTime(LocalDateTime.now())
                 .build();
-        PaymentTransactionEntity paymentTransactionEntity = paymentDomainService.executePayment(build);
-        return tran;
     }
 
     private void validParam(String walletId, String resellerId) {
@@ -148,15 +163,23 @@ public class WalletApplicationService {
      * <p>
      * 使用场景：批量使用钱包余额进行支付
      */
+    @AggregateLock(keys = {"'wallet:' + #ro.walletId", "#ro.payments.!['payment:' + paymentId]"})
     @Transactional
     public Boolean batchCreditPay(BatchPayWalletRO ro) {
         log.info("批量使用钱包支付：钱包ID={}, 支付项数量={}", ro.getWalletId(), ro.getPayments().size());
 
         validParam(ro.getWalletId(), ro.getResellerId());
 
+        // 逐项扣减钱包余额，支付单一次结算
+        List<CreateTransactionCommand> commands = new ArrayList<>(ro.getPayments().size());
         ro.getPayments().forEach(payment -> {
-            createPayTran(ro.getWalletId(), payment.getAmount(), payment.getPaymentId());
+            WalletTransactionValueObject tran = walletDomainService.processPayment(PayWithWalletCommand.builder()
+                    .walletId(ro.getWalletId())
+                    .amount(payment.getAmount())
+                    .build());
+            commands.add(toPayTransactionCommand(tran, payment.getAmount(), payment.getPaymentId()));
         });
+        paymentDomainService.executePayments(commands);
         return true;
     }
 }
\ No newline at end of file
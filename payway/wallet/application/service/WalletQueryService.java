@@ -21,6 +21,9 @@ import com.bytz.modules.cms.payway.wallet.infrastructure.entity.WalletTransactio
 import com.bytz.modules.cms.payway.wallet.infrastructure.mapper.WalletMapper;
 import com.bytz.modules.cms.payway.wallet.infrastructure.mapper.WalletTransactionMapper;
 import com.bytz.modules.cms.reseller.entity.Reseller;
+import com.bytz.modules.cms.shared.pagination.SeekPage;
+import com.bytz.modules.cms.shared.pagination.SeekPageRequest;
+import com.bytz.modules.cms.shared.pagination.SeekPaginator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -41,6 +44,13 @@ public class WalletQueryService extends ServiceImpl<WalletMapper, WalletEntity>
     private final WalletMapper walletMapper;
     private final WalletAssembler walletAssembler;
 
+    /**
+     * 钱包交易记录游标分页
+     */
+    private final SeekPaginator<WalletTransactionEntity, WalletTransactionListVO> transactionSeekPaginator =
+            new SeekPaginator<>("walletTransactionList", WalletTransactionEntity::getCreateTime, WalletTransactionEntity::getId,
+                    WalletTransactionListVO::getCreateTime, WalletTransactionListVO::getId);
+
     /**
      * 根据钱包ID查询钱包信息
      */
@@ -145,6 +155,31 @@ public class WalletQueryService extends ServiceImpl<WalletMapper, WalletEntity>
                                                                MPJLambdaWrapperEx<WalletTransactionEntity> wrapper) {
         log.info("分页查询钱包交易记录：页码={}, 每页条数={}", page.getCurrent(), page.getSize());
 
+        buildTransactionWrapper(wrapper);
+
+        wrapper.orderByDesc(WalletTransactionEntity::getCreateTime);
+        wrapper.orderByDesc(WalletTransactionEntity::getCompletedTime);
+        return walletTransactionMapper.selectJoinPage(page, WalletTransactionListVO.class, wrapper);
+    }
+
+    /**
+     * 游标分页查询钱包交易记录
+     * 按(create_time, id)定位下一页，翻页深度不影响查询耗时，总条数按需统计并缓存
+     */
+    public SeekPage<WalletTransactionListVO> querySeekTransactionPage(SeekPageRequest request,
+                                                                     MPJLambdaWrapperEx<WalletTransactionEntity> wrapper) {
+        log.info("游标分页查询钱包交易记录：每页条数={}", request.getSize());
+
+        buildTransactionWrapper(wrapper);
+
+        wrapper.orderByDesc(WalletTransactionEntity::getCreateTime);
+        wrapper.orderByDesc(WalletTransactionEntity::getId);
+        return transactionSeekPaginator.query(request, wrapper,
+                w -> walletTransactionMapper.selectJoinCount(w),
+                w -> walletTransactionMapper.selectJoinList(WalletTransactionListVO.class, w));
+    }
+
+    private void buildTransactionWrapper(MPJLambdaWrapperEx<WalletTransactionEntity> wrapper) {
         wrapper
                 .selectAll(WalletTransactionEntity.class)
                 .selectAs(Order::getId, WalletTransactionListVO::getOrderId)
@@ -163,11 +198,6 @@ public class WalletQueryService extends ServiceImpl<WalletMapper, WalletEntity>
                         .eq(PaymentPO::getOrderId, Order::getId)
                         .eq(PaymentPO::getDelFlag, BooleanConstant.INT_FALSE)
                 );
-
-
-        wrapper.orderByDesc(WalletTransactionEntity::getCreateTime);
-        wrapper.orderByDesc(WalletTransactionEntity::getCompletedTime);
-        return walletTransactionMapper.selectJoinPage(page, WalletTransactionListVO.class, wrapper);
     }
 
     @Override
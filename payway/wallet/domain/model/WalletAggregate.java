@@ -6,6 +6,7 @@ import com.bytz.modules.cms.payway.wallet.domain.enums.WalletTransactionType;
 import com.bytz.modules.cms.payway.wallet.domain.valueobject.WalletTransactionValueObject;
 import com.bytz.modules.cms.payway.wallet.shared.exception.WalletBusinessException;
 import com.bytz.modules.cms.payway.wallet.shared.exception.WalletErrorCode;
+import com.bytz.modules.cms.shared.codegen.BusinessCodes;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -234,8 +235,7 @@ public class WalletAggregate {
      * 生成交易流水号编码
      */
     private String generateTransactionCode() {
-        // 实现生成交易流水号编码的业务逻辑
-        return "WT" + System.currentTimeMillis();
+        return BusinessCodes.next("WT");
     }
 
     /**
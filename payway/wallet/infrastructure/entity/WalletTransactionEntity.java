@@ -17,6 +17,7 @@ import java.time.LocalDateTime;
  * 
  * 记录钱包的每次充值、支付、退款操作
  * 需求来源：票据钱包需求 - 票据钱包消费明细
+ * 索引 idx_create_time_id(create_time, id)，用于交易记录游标分页
  */
 @Data
 @Builder
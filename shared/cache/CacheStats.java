@@ -0,0 +1,43 @@
+package com.bytz.modules.cms.shared.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 缓存统计
+ * Cache Statistics
+ */
+@Data
+@AllArgsConstructor
+public class CacheStats {
+
+    /**
+     * 缓存名称
+     */
+    private String name;
+
+    /**
+     * 命中次数
+     */
+    private long hitCount;
+
+    /**
+     * 未命中次数
+     */
+    private long missCount;
+
+    /**
+     * 实际加载次数（并发未命中合并后）
+     */
+    private long loadCount;
+
+    /**
+     * 淘汰次数（容量淘汰+过期）
+     */
+    private long evictionCount;
+
+    /**
+     * 当前条目数
+     */
+    private int size;
+}
@@ -0,0 +1,161 @@
+package com.bytz.modules.cms.shared.cache;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 本地读穿透缓存
+ * Local Loading Cache
+ *
+ * <p>容量上限按LRU淘汰，条目写入后超过TTL失效</p>
+ * <p>同一个key并发未命中时只有一个线程执行加载（single-flight），其余线程等待同一结果</p>
+ * <p>加载期间发生失效时，加载结果只返回给调用方而不写入缓存，避免旧数据覆盖失效</p>
+ * <p>加载结果为null时不缓存</p>
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型
+ */
+public class LocalLoadingCache<K, V> {
+
+    private final String name;
+    private final long ttlMillis;
+    private final Map<K, Entry<V>> entries;
+    private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder evictionCount = new LongAdder();
+
+    public LocalLoadingCache(String name, int maximumSize, long ttlMillis) {
+        this.name = name;
+        this.ttlMillis = ttlMillis;
+        this.entries = new LinkedHashMap<K, Entry<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > maximumSize) {
+                    evictionCount.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * 读取缓存，未命中时通过loader加载
+     *
+     * @param key    键
+     * @param loader 加载函数
+     * @return 值（加载结果为null时返回null）
+     */
+    public V get(K key, Function<K, V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            hitCount.increment();
+            return cached;
+        }
+        missCount.increment();
+
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = loading.putIfAbsent(key, future);
+        if (existing != null) {
+            return join(existing);
+        }
+
+        try {
+            loadCount.increment();
+            V value = loader.apply(key);
+            // 加载期间未被失效才写入缓存
+            if (value != null && loading.remove(key, future)) {
+                synchronized (entries) {
+                    entries.put(key, new Entry<>(value, System.currentTimeMillis() + ttlMillis));
+                }
+            }
+            future.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, future);
+        }
+    }
+
+    /**
+     * 失效指定键（同时作废正在进行的加载结果）
+     *
+     * @param key 键
+     */
+    public void invalidate(K key) {
+        if (key == null) {
+            return;
+        }
+        loading.remove(key);
+        synchronized (entries) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        loading.clear();
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * 获取缓存统计
+     */
+    public CacheStats stats() {
+        int size;
+        synchronized (entries) {
+            size = entries.size();
+        }
+        return new CacheStats(name, hitCount.sum(), missCount.sum(), loadCount.sum(), evictionCount.sum(), size);
+    }
+
+    private V getIfPresent(K key) {
+        synchronized (entries) {
+            Entry<V> entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expireAt <= System.currentTimeMillis()) {
+                entries.remove(key);
+                evictionCount.increment();
+                return null;
+            }
+            return entry.value;
+        }
+    }
+
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expireAt;
+
+        private Entry(V value, long expireAt) {
+            this.value = value;
+            this.expireAt = expireAt;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.bytz.modules.cms.shared.codegen;
+
+/**
+ * 业务编码静态入口
+ * Business Codes Facade
+ *
+ * <p>供聚合根等非Spring管理的对象使用，容器启动时由CodeGenerator实现注册</p>
+ */
+public final class BusinessCodes {
+
+    private static volatile CodeGenerator generator;
+
+    private BusinessCodes() {
+    }
+
+    /**
+     * 注册编码生成器
+     *
+     * @param codeGenerator 编码生成器
+     */
+    public static void install(CodeGenerator codeGenerator) {
+        generator = codeGenerator;
+    }
+
+    /**
+     * 生成下一个业务编码
+     *
+     * @param bizTag 业务标识，同时作为编码前缀
+     * @return 业务编码
+     */
+    public static String next(String bizTag) {
+        CodeGenerator current = generator;
+        if (current == null) {
+            throw new IllegalStateException("业务编码生成器尚未初始化");
+        }
+        return current.nextCode(bizTag);
+    }
+}
@@ -0,0 +1,19 @@
+package com.bytz.modules.cms.shared.codegen;
+
+/**
+ * 业务编码生成器
+ * Business Code Generator
+ *
+ * <p>按业务标识（如PAY、TXN、CB、WT）生成全局唯一的业务编码</p>
+ * <p>实现需保证多节点之间不重复，同一业务标识下编码单调递增</p>
+ */
+public interface CodeGenerator {
+
+    /**
+     * 生成下一个业务编码
+     *
+     * @param bizTag 业务标识，同时作为编码前缀
+     * @return 业务编码
+     */
+    String nextCode(String bizTag);
+}
@@ -0,0 +1,54 @@
+package com.bytz.modules.cms.shared.codegen;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 号段
+ * Code Segment
+ *
+ * <p>左闭右开区间[start, end)，区间内序号由本节点独占，通过原子游标无锁发放</p>
+ */
+public final class CodeSegment {
+
+    private final long start;
+    private final long end;
+    private final AtomicLong cursor;
+
+    public CodeSegment(long start, long end) {
+        if (end <= start) {
+            throw new IllegalArgumentException("号段区间无效: [" + start + ", " + end + ")");
+        }
+        this.start = start;
+        this.end = end;
+        this.cursor = new AtomicLong(start);
+    }
+
+    /**
+     * 取下一个序号
+     *
+     * @return 序号，号段耗尽时返回-1
+     */
+    long next() {
+        long value = cursor.getAndIncrement();
+        return value < end ? value : -1L;
+    }
+
+    /**
+     * 已发放比例是否达到阈值
+     */
+    boolean consumedAtLeast(double ratio) {
+        return cursor.get() - start >= (end - start) * ratio;
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    public int size() {
+        return (int) (end - start);
+    }
+}
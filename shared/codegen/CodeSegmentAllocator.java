@@ -0,0 +1,19 @@
+package com.bytz.modules.cms.shared.codegen;
+
+/**
+ * 号段分配器
+ * Code Segment Allocator
+ *
+ * <p>为节点分配独占号段，分配动作必须在多节点之间原子执行</p>
+ */
+public interface CodeSegmentAllocator {
+
+    /**
+     * 分配号段
+     *
+     * @param bizTag 业务标识
+     * @param step   号段长度
+     * @return 本节点独占的号段
+     */
+    CodeSegment allocate(String bizTag, int step);
+}
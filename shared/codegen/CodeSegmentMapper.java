@@ -0,0 +1,14 @@
+package com.bytz.modules.cms.shared.codegen;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 号段Mapper接口
+ * Code Segment Mapper Interface
+ *
+ * <p>继承MyBatis-Plus的BaseMapper，提供基本的CRUD操作</p>
+ */
+@Mapper
+public interface CodeSegmentMapper extends BaseMapper<CodeSegmentPO> {
+}
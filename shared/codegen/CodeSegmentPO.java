@@ -0,0 +1,51 @@
+package com.bytz.modules.cms.shared.codegen;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 号段持久化实体
+ * Code Segment Persistence Object
+ *
+ * <p>对应数据库表 cms_code_segment，每个业务标识一行</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_code_segment")
+public class CodeSegmentPO {
+
+    /**
+     * 业务标识（主键）
+     */
+    @TableId(value = "biz_tag", type = IdType.INPUT)
+    private String bizTag;
+
+    /**
+     * 已分配的最大序号（不含）
+     */
+    @TableField("max_id")
+    private Long maxId;
+
+    /**
+     * 最近一次分配号段的节点
+     */
+    @TableField("last_node")
+    private String lastNode;
+
+    /**
+     * 更新时间
+     */
+    @TableField(value = "update_time", fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,71 @@
+package com.bytz.modules.cms.shared.codegen;
+
+import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.LocalDateTime;
+
+/**
+ * 基于数据库的号段分配器
+ * Database Code Segment Allocator
+ *
+ * <p>max_id = max_id + step 与回读在同一独立事务内完成，行锁保证多节点分配的号段互不重叠</p>
+ * <p>使用REQUIRES_NEW，避免号段行锁随业务事务长时间持有</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DbCodeSegmentAllocator implements CodeSegmentAllocator {
+
+    private static final String NODE = resolveNode();
+
+    private final CodeSegmentMapper codeSegmentMapper;
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW, rollbackFor = Exception.class)
+    public CodeSegment allocate(String bizTag, int step) {
+        if (increase(bizTag, step) == 0) {
+            // 首次使用该业务标识，初始化号段行（并发初始化由主键冲突兜底）
+            try {
+                codeSegmentMapper.insert(CodeSegmentPO.builder()
+                        .bizTag(bizTag)
+                        .maxId(0L)
+                        .lastNode(NODE)
+                        .build());
+            } catch (DuplicateKeyException e) {
+                log.debug("号段行已由其他节点初始化，bizTag: {}", bizTag);
+            }
+            if (increase(bizTag, step) == 0) {
+                throw new IllegalStateException("号段分配失败，bizTag: " + bizTag);
+            }
+        }
+
+        long maxId = codeSegmentMapper.selectById(bizTag).getMaxId();
+        log.info("分配号段，bizTag: {}, 区间: [{}, {}), 节点: {}", bizTag, maxId - step, maxId, NODE);
+        return new CodeSegment(maxId - step, maxId);
+    }
+
+    private int increase(String bizTag, int step) {
+        LambdaUpdateWrapper<CodeSegmentPO> wrapper = new LambdaUpdateWrapper<>();
+        wrapper.setSql("max_id = max_id + " + step)
+                .set(CodeSegmentPO::getLastNode, NODE)
+                .set(CodeSegmentPO::getUpdateTime, LocalDateTime.now())
+                .eq(CodeSegmentPO::getBizTag, bizTag);
+        return codeSegmentMapper.update(null, wrapper);
+    }
+
+    private static String resolveNode() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
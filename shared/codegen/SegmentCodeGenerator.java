@@ -0,0 +1,211 @@
+package com.bytz.modules.cms.shared.codegen;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 号段式业务编码生成器
+ * Segment Code Generator
+ *
+ * <p>每个业务标识维护当前号段+预取号段（双缓冲），序号通过原子游标无锁发放，不需要每个编码访问数据库</p>
+ * <p>当前号段发放过半时异步预取下一号段；号段消耗过快时自动放大步长</p>
+ * <p>编码格式：业务标识 + yyMMdd + 12位序号，序号在业务标识内全局唯一且单调递增（不随日期重置）</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SegmentCodeGenerator implements CodeGenerator {
+
+    private static final int MIN_STEP = 1_000;
+    private static final int MAX_STEP = 1_000_000;
+
+    /**
+     * 号段在该时间内耗尽则放大步长，超过两倍该时间则缩小步长
+     */
+    private static final long TARGET_SEGMENT_MILLIS = 15 * 60 * 1000L;
+
+    /**
+     * 当前号段发放比例达到该值时预取下一号段
+     */
+    private static final double PREFETCH_RATIO = 0.5;
+
+    private static final int SEQUENCE_WIDTH = 12;
+    private static final DateTimeFormatter DAY_PATTERN = DateTimeFormatter.ofPattern("yyMMdd");
+
+    private final CodeSegmentAllocator codeSegmentAllocator;
+
+    private final ConcurrentHashMap<String, SegmentBuffer> buffers = new ConcurrentHashMap<>();
+
+    private volatile DayStamp dayStamp = new DayStamp(LocalDate.now());
+
+    private ExecutorService prefetchExecutor;
+
+    @PostConstruct
+    public void init() {
+        prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "code-segment-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        BusinessCodes.install(this);
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (prefetchExecutor != null) {
+            prefetchExecutor.shutdownNow();
+        }
+    }
+
+    @Override
+    public String nextCode(String bizTag) {
+        long sequence = buffers.computeIfAbsent(bizTag, SegmentBuffer::new).nextValue();
+        return format(bizTag, currentDay(), sequence);
+    }
+
+    private String currentDay() {
+        DayStamp stamp = dayStamp;
+        if (System.currentTimeMillis() >= stamp.nextDayStartMillis) {
+            stamp = new DayStamp(LocalDate.now());
+            dayStamp = stamp;
+        }
+        return stamp.text;
+    }
+
+    private static String format(String bizTag, String day, long sequence) {
+        String digits = Long.toString(sequence);
+        StringBuilder builder = new StringBuilder(bizTag.length() + day.length() + Math.max(SEQUENCE_WIDTH, digits.length()));
+        builder.append(bizTag).append(day);
+        for (int i = digits.length(); i < SEQUENCE_WIDTH; i++) {
+            builder.append('0');
+        }
+        return builder.append(digits).toString();
+    }
+
+    /**
+     * 日期前缀缓存，到次日零点才重新格式化，避免每次生成编码都格式化日期
+     */
+    private static final class DayStamp {
+        private final long nextDayStartMillis;
+        private final String text;
+
+        private DayStamp(LocalDate date) {
+            this.nextDayStartMillis = date.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            this.text = date.format(DAY_PATTERN);
+        }
+    }
+
+    /**
+     * 单个业务标识的双缓冲号段
+     */
+    private final class SegmentBuffer {
+
+        private final String bizTag;
+        private final AtomicReference<CodeSegment> current = new AtomicReference<>();
+        private final AtomicReference<CodeSegment> next = new AtomicReference<>();
+        private final AtomicBoolean loading = new AtomicBoolean();
+
+        private volatile int step = MIN_STEP;
+        private volatile long lastAllocateMillis;
+
+        private SegmentBuffer(String bizTag) {
+            this.bizTag = bizTag;
+            this.current.set(allocate());
+        }
+
+        private long nextValue() {
+            while (true) {
+                CodeSegment segment = current.get();
+                long value = segment.next();
+                if (value >= 0) {
+                    if (next.get() == null && segment.consumedAtLeast(PREFETCH_RATIO)) {
+                        prefetch();
+                    }
+                    return value;
+                }
+                switchSegment(segment);
+            }
+        }
+
+        /**
+         * 当前号段耗尽：取走预取号段；没有预取号段时由一个线程同步加载，其余线程自旋等待
+         */
+        private void switchSegment(CodeSegment exhausted) {
+            CodeSegment prepared = next.get();
+            if (prepared != null) {
+                if (next.compareAndSet(prepared, null)) {
+                    current.compareAndSet(exhausted, prepared);
+                }
+                return;
+            }
+            if (loading.compareAndSet(false, true)) {
+                try {
+                    if (current.get() == exhausted && next.get() == null) {
+                        next.set(allocate());
+                    }
+                } finally {
+                    loading.set(false);
+                }
+            } else {
+                Thread.yield();
+            }
+        }
+
+        private void prefetch() {
+            if (!loading.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                prefetchExecutor.execute(() -> {
+                    try {
+                        if (next.get() == null) {
+                            next.set(allocate());
+                        }
+                    } catch (Exception e) {
+                        // 预取失败不影响当前号段，耗尽时同步加载会再次尝试
+                        log.error("预取号段失败，bizTag: {}", bizTag, e);
+                    } finally {
+                        loading.set(false);
+                    }
+                });
+            } catch (RuntimeException e) {
+                loading.set(false);
+                throw e;
+            }
+        }
+
+        private CodeSegment allocate() {
+            adjustStep();
+            CodeSegment segment = codeSegmentAllocator.allocate(bizTag, step);
+            lastAllocateMillis = System.currentTimeMillis();
+            return segment;
+        }
+
+        /**
+         * 按上一号段的消耗时长调整步长
+         */
+        private void adjustStep() {
+            if (lastAllocateMillis == 0) {
+                return;
+            }
+            long elapsed = System.currentTimeMillis() - lastAllocateMillis;
+            if (elapsed < TARGET_SEGMENT_MILLIS && step < MAX_STEP) {
+                step = Math.min(step * 2, MAX_STEP);
+            } else if (elapsed > TARGET_SEGMENT_MILLIS * 2 && step > MIN_STEP) {
+                step = Math.max(step / 2, MIN_STEP);
+            }
+        }
+    }
+}
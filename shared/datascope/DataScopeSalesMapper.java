@@ -0,0 +1,12 @@
+package com.bytz.modules.cms.shared.datascope;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Mapper;
+
+/**
+ * 数据权限销售范围Mapper接口
+ * Data Scope Sales Mapper Interface
+ */
+@Mapper
+public interface DataScopeSalesMapper extends BaseMapper<DataScopeSalesPO> {
+}
@@ -0,0 +1,49 @@
+package com.bytz.modules.cms.shared.datascope;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 数据权限销售范围持久化实体
+ * Data Scope Sales Persistence Object
+ *
+ * <p>对应数据库表 cms_data_scope_sales</p>
+ * <p>保存大范围管理者的下属销售集合，列表查询以子查询关联该表代替超长的IN列表</p>
+ * <p>索引 idx_scope_sales(scope_key, sales_id)</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_data_scope_sales")
+public class DataScopeSalesPO {
+
+    /**
+     * 主键ID，使用雪花算法生成
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private String id;
+
+    /**
+     * 范围键（管理者用户ID）
+     */
+    @TableField("scope_key")
+    private String scopeKey;
+
+    /**
+     * 销售用户ID
+     */
+    @TableField("sales_id")
+    private String salesId;
+
+    /**
+     * 创建时间
+     */
+    @TableField(value = "create_time", fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
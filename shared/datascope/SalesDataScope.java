@@ -0,0 +1,65 @@
+package com.bytz.modules.cms.shared.datascope;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 销售数据范围
+ * Sales Data Scope
+ *
+ * <p>管理者可见的下属销售集合（不含本人）；集合较大时已物化到cms_data_scope_sales，查询以子查询关联</p>
+ * <p>实例在缓存中共享，不可变</p>
+ */
+public final class SalesDataScope {
+
+    private static final SalesDataScope EMPTY = new SalesDataScope(Collections.emptySet(), null);
+
+    private final Set<String> salesIds;
+    private final String scopeKey;
+
+    private SalesDataScope(Set<String> salesIds, String scopeKey) {
+        this.salesIds = salesIds;
+        this.scopeKey = scopeKey;
+    }
+
+    static SalesDataScope empty() {
+        return EMPTY;
+    }
+
+    static SalesDataScope literal(Set<String> salesIds) {
+        return new SalesDataScope(Collections.unmodifiableSet(salesIds), null);
+    }
+
+    static SalesDataScope materialized(Set<String> salesIds, String scopeKey) {
+        return new SalesDataScope(Collections.unmodifiableSet(salesIds), scopeKey);
+    }
+
+    /**
+     * 下属销售ID集合
+     */
+    public Set<String> getSalesIds() {
+        return salesIds;
+    }
+
+    /**
+     * 是否没有下属销售
+     */
+    public boolean isEmpty() {
+        return salesIds.isEmpty();
+    }
+
+    /**
+     * 是否已物化到范围表
+     */
+    public boolean isMaterialized() {
+        return scopeKey != null;
+    }
+
+    /**
+     * 范围表子查询（仅物化时可用）
+     * 范围键为系统内用户ID，不含外部输入
+     */
+    public String getSubQuery() {
+        return "SELECT sales_id FROM cms_data_scope_sales WHERE scope_key = '" + scopeKey + "'";
+    }
+}
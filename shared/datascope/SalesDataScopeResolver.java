@@ -0,0 +1,165 @@
+package com.bytz.modules.cms.shared.datascope;
+
+import cn.hutool.core.collection.CollectionUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.bytz.common.system.query.MPJLambdaWrapperEx;
+import com.bytz.common.util.SecurityUtils;
+import com.bytz.modules.cms.order.constant.AdminAuthConstants;
+import com.bytz.modules.cms.shared.cache.CacheStats;
+import com.bytz.modules.cms.shared.cache.LocalLoadingCache;
+import com.bytz.modules.cms.shared.mybatis.BatchSqlHelper;
+import com.bytz.modules.cms.user.constants.CmsSysUserConstants;
+import com.bytz.modules.cms.user.service.ICmsSysUserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 销售数据范围解析器
+ * Sales Data Scope Resolver
+ *
+ * <p>管理端列表按登录人的销售层级过滤：销售看本人，大区经理/订单经理额外看下属销售</p>
+ * <p>下属销售集合按管理者缓存，只靠5分钟TTL刷新：组织关系或角色变更最迟一个TTL后在各节点生效，期间按变更前的范围过滤</p>
+ * <p>集合不超过{@link #LITERAL_LIMIT}时内联IN列表；超过时物化到cms_data_scope_sales，查询改为子查询关联范围表</p>
+ * <p>所有管理端列表查询共用，调用方只需指定销售ID列</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SalesDataScopeResolver {
+
+    /**
+     * 内联IN列表的最大数量，超过时改用范围表
+     */
+    static final int LITERAL_LIMIT = 200;
+
+    private static final int CACHE_MAXIMUM_SIZE = 2_000;
+    private static final long CACHE_TTL_MILLIS = 5 * 60_000L;
+
+    /**
+     * 范围键只允许安全字符，拼入子查询不存在注入风险
+     */
+    private static final Pattern SAFE_SCOPE_KEY = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+
+    private final ICmsSysUserService sysUserService;
+    private final DataScopeSalesMapper dataScopeSalesMapper;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * 数据范围缓存：管理者ID → 下属销售范围
+     */
+    private final LocalLoadingCache<String, SalesDataScope> scopeCache =
+            new LocalLoadingCache<>("salesDataScope", CACHE_MAXIMUM_SIZE, CACHE_TTL_MILLIS);
+
+    private TransactionTemplate materializeTransaction;
+
+    @PostConstruct
+    public void init() {
+        materializeTransaction = new TransactionTemplate(transactionManager);
+        materializeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * 按当前登录人追加销售数据范围条件
+     * 拥有查看全部权限时不追加
+     *
+     * @param queryWrapper  查询条件
+     * @param salesIdColumn 销售ID列（通常为Order::getSalesId）
+     * @param <T>           主表类型
+     * @param <X>           销售ID列所在表类型
+     */
+    public <T, X> void apply(MPJLambdaWrapperEx<T> queryWrapper, SFunction<X, ?> salesIdColumn) {
+        if (SecurityUtils.hasAuthority(AdminAuthConstants.Order.VIEW_ALL)) {
+            return;
+        }
+        String userId = SecurityUtils.getLoginUser().getId();
+        boolean isRegionManager = SecurityUtils.hasRole(CmsSysUserConstants.RoleCode.REGION_SALES_MANAGER);
+        boolean isOrderManager = SecurityUtils.hasRole(CmsSysUserConstants.RoleCode.ORDER_MANAGER);
+
+        SalesDataScope scope = (isRegionManager || isOrderManager)
+                ? resolve(userId, isRegionManager, isOrderManager)
+                : SalesDataScope.empty();
+
+        queryWrapper.and(wrapper -> {
+            wrapper.eq(salesIdColumn, userId);
+            if (scope.isMaterialized()) {
+                wrapper.or().inSql(salesIdColumn, scope.getSubQuery());
+            } else if (!scope.isEmpty()) {
+                wrapper.or().in(salesIdColumn, scope.getSalesIds());
+            }
+        });
+    }
+
+    /**
+     * 解析管理者的下属销售范围（走缓存）
+     *
+     * @param managerId       管理者用户ID
+     * @param isRegionManager 是否大区经理
+     * @param isOrderManager  是否订单经理
+     * @return 下属销售范围
+     */
+    public SalesDataScope resolve(String managerId, boolean isRegionManager, boolean isOrderManager) {
+        // 按管理者ID缓存，角色变更同样等TTL到期后生效
+        return scopeCache.get(managerId, id -> load(id, isRegionManager, isOrderManager));
+    }
+
+    /**
+     * 获取缓存统计
+     */
+    public CacheStats getCacheStats() {
+        return scopeCache.stats();
+    }
+
+    private SalesDataScope load(String managerId, boolean isRegionManager, boolean isOrderManager) {
+        Set<String> salesIds = new HashSet<>();
+        if (isRegionManager) {
+            List<String> regionSalesIds = sysUserService.getSalesIdsByRegionManager(managerId);
+            if (CollectionUtil.isNotEmpty(regionSalesIds)) {
+                salesIds.addAll(regionSalesIds);
+            }
+        }
+        if (isOrderManager) {
+            Set<String> omSalesIds = sysUserService.getSalesIdsByOM(managerId);
+            if (CollectionUtil.isNotEmpty(omSalesIds)) {
+                salesIds.addAll(omSalesIds);
+            }
+        }
+        salesIds.remove(managerId);
+
+        if (salesIds.isEmpty()) {
+            return SalesDataScope.empty();
+        }
+        if (salesIds.size() <= LITERAL_LIMIT || !SAFE_SCOPE_KEY.matcher(managerId).matches()) {
+            return SalesDataScope.literal(salesIds);
+        }
+
+        materialize(managerId, salesIds);
+        log.debug("数据范围已物化到范围表，管理者: {}, 下属销售数: {}", managerId, salesIds.size());
+        return SalesDataScope.materialized(salesIds, managerId);
+    }
+
+    /**
+     * 以独立事务重写管理者的范围表记录，读取方在MVCC下看到的始终是完整的旧集合或新集合
+     */
+    private void materialize(String scopeKey, Set<String> salesIds) {
+        List<DataScopeSalesPO> rows = salesIds.stream()
+                .map(salesId -> DataScopeSalesPO.builder().scopeKey(scopeKey).salesId(salesId).build())
+                .collect(Collectors.toList());
+        materializeTransaction.executeWithoutResult(status -> {
+            dataScopeSalesMapper.delete(new LambdaQueryWrapper<DataScopeSalesPO>()
+                    .eq(DataScopeSalesPO::getScopeKey, scopeKey));
+            BatchSqlHelper.insertBatch(DataScopeSalesMapper.class, rows);
+        });
+    }
+}
@@ -0,0 +1,109 @@
+package com.bytz.modules.cms.shared.excel;
+
+import com.alibaba.excel.EasyExcel;
+import com.alibaba.excel.ExcelWriter;
+import com.alibaba.excel.write.metadata.WriteSheet;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式Excel写出器
+ * Streaming Excel Writer
+ *
+ * <p>逐行接收数据，攒满一个块后写入EasyExcel（底层SXSSF只在内存保留滑动窗口内的行），随后清空缓冲</p>
+ * <p>配合MyBatis流式查询使用时，内存占用与导出行数无关</p>
+ * <p>非线程安全，一个写出器只在一个线程内使用</p>
+ *
+ * @param <T> Excel行对象类型
+ */
+public class StreamingExcelWriter<T> implements AutoCloseable {
+
+    /**
+     * 默认每块行数
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1_000;
+
+    private static final String XLSX_CONTENT_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+    private static final String XLSX_SUFFIX = ".xlsx";
+
+    private final ExcelWriter excelWriter;
+    private final WriteSheet writeSheet;
+    private final int chunkSize;
+    private final List<T> buffer;
+    private long rowCount;
+
+    public StreamingExcelWriter(OutputStream outputStream, String sheetName, Class<T> head) {
+        this(outputStream, sheetName, head, DEFAULT_CHUNK_SIZE);
+    }
+
+    public StreamingExcelWriter(OutputStream outputStream, String sheetName, Class<T> head, int chunkSize) {
+        this.excelWriter = EasyExcel.write(outputStream, head).build();
+        this.writeSheet = EasyExcel.writerSheet(sheetName).build();
+        this.chunkSize = chunkSize;
+        this.buffer = new ArrayList<>(chunkSize);
+    }
+
+    /**
+     * 创建写出到HTTP响应的写出器（设置下载响应头）
+     *
+     * @param response 响应
+     * @param fileName 文件名
+     * @param head     Excel行对象类型
+     * @param <T>      Excel行对象类型
+     * @return 写出器
+     * @throws IOException 获取输出流失败
+     */
+    public static <T> StreamingExcelWriter<T> forResponse(HttpServletResponse response, String fileName, Class<T> head) throws IOException {
+        String name = fileName.endsWith(XLSX_SUFFIX) ? fileName : fileName + XLSX_SUFFIX;
+        response.setContentType(XLSX_CONTENT_TYPE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("Content-Disposition", "attachment;filename*=utf-8''"
+                + URLEncoder.encode(name, StandardCharsets.UTF_8.name()).replace("+", "%20"));
+        return new StreamingExcelWriter<>(response.getOutputStream(), fileName, head);
+    }
+
+    /**
+     * 写入一行，缓冲满一个块时写入工作表
+     *
+     * @param row 行数据
+     */
+    public void write(T row) {
+        buffer.add(row);
+        rowCount++;
+        if (buffer.size() >= chunkSize) {
+            flush();
+        }
+    }
+
+    /**
+     * 已写入行数
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 写出剩余缓冲并结束文件（不写任何行时输出只有表头的文件）
+     */
+    @Override
+    public void close() {
+        try {
+            if (!buffer.isEmpty() || rowCount == 0) {
+                flush();
+            }
+        } finally {
+            excelWriter.finish();
+        }
+    }
+
+    private void flush() {
+        excelWriter.write(buffer, writeSheet);
+        buffer.clear();
+    }
+}
@@ -0,0 +1,50 @@
+package com.bytz.modules.cms.shared.idempotency;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDateTime;
+
+/**
+ * 幂等记录Mapper接口
+ * Idempotency Record Mapper Interface
+ */
+@Mapper
+public interface IdempotencyRecordMapper extends BaseMapper<IdempotencyRecordPO> {
+
+    /**
+     * 以处理中状态登记请求键，已登记时忽略
+     * 已登记的记录所在事务未提交时，本语句等待其提交或回滚：提交后忽略，回滚后登记成功
+     *
+     * @param record 幂等记录
+     * @return 1-登记成功，0-已登记
+     */
+    @Insert("INSERT IGNORE INTO cms_idempotency_record "
+            + "(id, scope, request_key, request_hash, record_status, create_time, expire_time) "
+            + "VALUES (#{r.id}, #{r.scope}, #{r.requestKey}, #{r.requestHash}, 'PROCESSING', #{r.createTime}, #{r.expireTime})")
+    int insertIgnore(@Param("r") IdempotencyRecordPO record);
+
+    /**
+     * 按请求键读取最新已提交的记录（加锁读，不受事务快照影响）
+     *
+     * @param scope      业务范围
+     * @param requestKey 请求键
+     * @return 幂等记录
+     */
+    @Select("SELECT * FROM cms_idempotency_record WHERE scope = #{scope} AND request_key = #{requestKey} FOR UPDATE")
+    IdempotencyRecordPO selectForUpdate(@Param("scope") String scope, @Param("requestKey") String requestKey);
+
+    /**
+     * 清理过期记录
+     *
+     * @param now   当前时间
+     * @param limit 单次清理数量
+     * @return 清理条数
+     */
+    @Delete("DELETE FROM cms_idempotency_record WHERE expire_time < #{now} LIMIT #{limit}")
+    int deleteExpired(@Param("now") LocalDateTime now, @Param("limit") int limit);
+}
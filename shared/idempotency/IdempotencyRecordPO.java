@@ -0,0 +1,79 @@
+package com.bytz.modules.cms.shared.idempotency;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 幂等记录持久化实体
+ * Idempotency Record Persistence Object
+ *
+ * <p>对应数据库表 cms_idempotency_record</p>
+ * <p>唯一索引 uk_scope_request_key(scope, request_key)，同一业务范围内的请求键只能登记一次</p>
+ * <p>索引 idx_expire_time(expire_time)，用于清理过期记录</p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("cms_idempotency_record")
+public class IdempotencyRecordPO {
+
+    /**
+     * 主键ID，使用雪花算法生成
+     */
+    @TableId(type = IdType.ASSIGN_ID)
+    private String id;
+
+    /**
+     * 业务范围（接口标识）
+     */
+    @TableField(value = "scope", updateStrategy = FieldStrategy.NEVER)
+    private String scope;
+
+    /**
+     * 客户端请求键
+     */
+    @TableField(value = "request_key", updateStrategy = FieldStrategy.NEVER)
+    private String requestKey;
+
+    /**
+     * 请求内容摘要，同一请求键携带不同请求内容时拒绝
+     */
+    @TableField(value = "request_hash", updateStrategy = FieldStrategy.NEVER)
+    private String requestHash;
+
+    /**
+     * 记录状态
+     */
+    @TableField("record_status")
+    private IdempotencyStatus recordStatus;
+
+    /**
+     * 首次请求的响应（JSON）
+     */
+    @TableField("response_payload")
+    private String responsePayload;
+
+    /**
+     * 创建时间
+     */
+    @TableField("create_time")
+    private LocalDateTime createTime;
+
+    /**
+     * 完成时间
+     */
+    @TableField("completed_time")
+    private LocalDateTime completedTime;
+
+    /**
+     * 过期时间，过期后记录被清理，请求键可重新使用
+     */
+    @TableField("expire_time")
+    private LocalDateTime expireTime;
+}
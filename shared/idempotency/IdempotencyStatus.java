@@ -0,0 +1,37 @@
+package com.bytz.modules.cms.shared.idempotency;
+
+import com.baomidou.mybatisplus.annotation.EnumValue;
+
+/**
+ * 幂等记录状态枚举
+ * Idempotency Status Enumeration
+ */
+public enum IdempotencyStatus {
+
+    /**
+     * 处理中 - 首次请求已登记，尚未完成
+     */
+    PROCESSING("PROCESSING", "处理中"),
+
+    /**
+     * 已完成 - 首次请求的响应已保存
+     */
+    COMPLETED("COMPLETED", "已完成");
+
+    @EnumValue
+    private final String code;
+    private final String description;
+
+    IdempotencyStatus(String code, String description) {
+        this.code = code;
+        this.description = description;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
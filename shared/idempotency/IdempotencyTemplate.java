@@ -0,0 +1,257 @@
+package com.bytz.modules.cms.shared.idempotency;
+
+import cn.hutool.crypto.SecureUtil;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.bytz.common.exception.BytzBootException;
+import com.bytz.modules.cms.shared.cache.CacheStats;
+import com.bytz.modules.cms.shared.cache.LocalLoadingCache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * 幂等执行模板
+ * Idempotency Template
+ *
+ * <p>写接口按客户端请求键去重：首次请求正常执行并保存响应，重放请求直接返回首次响应，不再执行业务</p>
+ * <p>层次：
+ * - 内存前端：已完成记录按 业务范围+请求键 缓存；本节点并发的相同请求合并到同一次执行，等待其事务提交后取同一响应
+ * - 数据库：cms_idempotency_record唯一索引登记请求键，登记与响应在调用方业务事务内写入，随业务一起提交或回滚；
+ *   其他节点的相同请求在登记时等待该事务结束，提交后读取已保存的响应
+ * </p>
+ * <p>同一请求键携带不同请求内容时拒绝；未携带请求键的请求不做幂等处理；记录保留{@link #RETENTION}后清理</p>
+ * <p>应在业务方法的事务内调用（@Transactional方法体内），无事务时登记立即提交，业务失败后删除登记</p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdempotencyTemplate {
+
+    /**
+     * 记录保留时长
+     */
+    static final Duration RETENTION = Duration.ofHours(24);
+
+    private static final Duration IN_FLIGHT_WAIT = Duration.ofSeconds(30);
+    private static final int CACHE_MAXIMUM_SIZE = 10_000;
+    private static final long CACHE_TTL_MILLIS = 10 * 60_000L;
+    private static final int PURGE_BATCH_SIZE = 1_000;
+    private static final Duration PURGE_INTERVAL = Duration.ofHours(1);
+
+    private final IdempotencyRecordMapper recordMapper;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 已完成记录缓存：业务范围+请求键 → 幂等记录
+     */
+    private final LocalLoadingCache<String, IdempotencyRecordPO> completedCache =
+            new LocalLoadingCache<>("idempotencyRecord", CACHE_MAXIMUM_SIZE, CACHE_TTL_MILLIS);
+
+    /**
+     * 本节点执行中的请求：业务范围+请求键 → 首次执行结果（事务提交后完成）
+     */
+    private final Map<String, CompletableFuture<IdempotencyRecordPO>> inFlight = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService purger;
+
+    @PostConstruct
+    public void start() {
+        purger = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "idempotency-purger");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeExpired, PURGE_INTERVAL.toMillis(), PURGE_INTERVAL.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * 按请求键幂等执行
+     *
+     * @param scope        业务范围（接口标识）
+     * @param requestKey   客户端请求键，为空时直接执行
+     * @param request      请求对象（用于校验重放内容一致）
+     * @param responseType 响应类型
+     * @param action       业务逻辑
+     * @param <T>          响应类型
+     * @return 首次执行或重放的响应
+     */
+    public <T> T execute(String scope, String requestKey, Object request, Class<T> responseType, Supplier<T> action) {
+        if (StringUtils.isBlank(requestKey)) {
+            return action.get();
+        }
+        String cacheKey = scope + ":" + requestKey;
+        String requestHash = SecureUtil.sha256(toJson(request));
+
+        IdempotencyRecordPO completed = completedCache.get(cacheKey, key -> loadCompleted(scope, requestKey));
+        if (completed != null) {
+            return replay(completed, requestHash, responseType);
+        }
+
+        CompletableFuture<IdempotencyRecordPO> execution = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecordPO> existing = inFlight.putIfAbsent(cacheKey, execution);
+        if (existing != null) {
+            log.debug("相同请求执行中，等待首次执行结果，范围: {}, 请求键: {}", scope, requestKey);
+            return replay(await(existing), requestHash, responseType);
+        }
+
+        boolean transactional = TransactionSynchronizationManager.isSynchronizationActive();
+        IdempotencyRecordPO record = null;
+        try {
+            IdempotencyRecordPO claim = IdempotencyRecordPO.builder()
+                    .id(IdWorker.getIdStr())
+                    .scope(scope)
+                    .requestKey(requestKey)
+                    .requestHash(requestHash)
+                    .createTime(LocalDateTime.now())
+                    .expireTime(LocalDateTime.now().plus(RETENTION))
+                    .build();
+            if (recordMapper.insertIgnore(claim) == 0) {
+                // 其他节点已登记：登记语句已等待其事务结束，读取提交后的记录
+                IdempotencyRecordPO other = recordMapper.selectForUpdate(scope, requestKey);
+                if (other == null || other.getRecordStatus() != IdempotencyStatus.COMPLETED) {
+                    throw new BytzBootException("相同请求正在处理中，请稍后重试");
+                }
+                finish(cacheKey, execution, other);
+                return replay(other, requestHash, responseType);
+            }
+            record = claim;
+
+            T response = action.get();
+
+            record.setRecordStatus(IdempotencyStatus.COMPLETED);
+            record.setResponsePayload(toJson(response));
+            record.setCompletedTime(LocalDateTime.now());
+            recordMapper.updateById(record);
+
+            if (transactional) {
+                finishAfterCompletion(cacheKey, execution, record);
+            } else {
+                finish(cacheKey, execution, record);
+            }
+            return response;
+        } catch (RuntimeException e) {
+            if (!transactional && record != null) {
+                // 无事务时登记已提交，业务失败后删除登记，允许客户端重试
+                recordMapper.deleteById(record.getId());
+            }
+            inFlight.remove(cacheKey, execution);
+            execution.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * 获取已完成记录缓存统计
+     */
+    public CacheStats getCacheStats() {
+        return completedCache.stats();
+    }
+
+    private IdempotencyRecordPO loadCompleted(String scope, String requestKey) {
+        return recordMapper.selectOne(new LambdaQueryWrapper<IdempotencyRecordPO>()
+                .eq(IdempotencyRecordPO::getScope, scope)
+                .eq(IdempotencyRecordPO::getRequestKey, requestKey)
+                .eq(IdempotencyRecordPO::getRecordStatus, IdempotencyStatus.COMPLETED));
+    }
+
+    /**
+     * 事务提交后公布结果；回滚时登记随之撤销，等待方收到失败，客户端可用同一请求键重试
+     */
+    private void finishAfterCompletion(String cacheKey, CompletableFuture<IdempotencyRecordPO> execution, IdempotencyRecordPO record) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    finish(cacheKey, execution, record);
+                } else {
+                    inFlight.remove(cacheKey, execution);
+                    execution.completeExceptionally(new BytzBootException("首次请求未成功，请重试"));
+                }
+            }
+        });
+    }
+
+    private void finish(String cacheKey, CompletableFuture<IdempotencyRecordPO> execution, IdempotencyRecordPO record) {
+        inFlight.remove(cacheKey, execution);
+        execution.complete(record);
+    }
+
+    private IdempotencyRecordPO await(CompletableFuture<IdempotencyRecordPO> execution) {
+        try {
+            return execution.get(IN_FLIGHT_WAIT.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new BytzBootException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new BytzBootException("相同请求正在处理中，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BytzBootException("相同请求正在处理中，请稍后重试");
+        }
+    }
+
+    private <T> T replay(IdempotencyRecordPO record, String requestHash, Class<T> responseType) {
+        if (!StringUtils.equals(record.getRequestHash(), requestHash)) {
+            throw new BytzBootException("请求键已用于其他请求内容");
+        }
+        log.info("重放请求，返回首次响应，范围: {}, 请求键: {}", record.getScope(), record.getRequestKey());
+        try {
+            return objectMapper.readValue(record.getResponsePayload(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new BytzBootException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new BytzBootException(e);
+        }
+    }
+
+    private void purgeExpired() {
+        try {
+            int deleted;
+            int total = 0;
+            do {
+                deleted = recordMapper.deleteExpired(LocalDateTime.now(), PURGE_BATCH_SIZE);
+                total += deleted;
+            } while (deleted == PURGE_BATCH_SIZE);
+            if (total > 0) {
+                log.info("清理过期幂等记录，数量: {}", total);
+            }
+        } catch (Exception e) {
+            log.error("清理过期幂等记录异常", e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.bytz.modules.cms.shared.lock;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 聚合锁
+ * Aggregate Lock
+ *
+ * <p>按聚合ID串行执行方法，同一聚合的并发命令排队而非在@Version乐观锁上失败</p>
+ * <p>锁在事务之外获取、提交之后释放；被外层事务调用时延迟到外层事务结束释放</p>
+ * <p>键为SpEL表达式，结果可为字符串或字符串集合，建议带聚合类型前缀，如 'payment:' + #ro.paymentId</p>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AggregateLock {
+
+    /**
+     * 锁键SpEL表达式，多个聚合按键排序后依次加锁
+     */
+    String[] keys();
+
+    /**
+     * 最长等待时间（毫秒），超时后拒绝请求
+     */
+    long waitMillis() default 10_000L;
+}
@@ -0,0 +1,94 @@
+package com.bytz.modules.cms.shared.lock;
+
+import com.bytz.common.exception.BytzBootException;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 聚合锁切面
+ * Aggregate Lock Aspect
+ *
+ * <p>优先级高于事务切面：先排队取锁再开启事务，排队期间不占用数据库连接，释放在事务提交之后，后到者读到的总是已提交版本</p>
+ * <p>方法在外层事务内被调用时，锁延迟到外层事务结束（afterCompletion，与加锁同一线程）释放</p>
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class AggregateLockAspect {
+
+    private static final ExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+
+    private final AggregateLockManager lockManager;
+
+    private final Map<String, Expression> expressionCache = new ConcurrentHashMap<>();
+
+    @Around("@annotation(aggregateLock)")
+    public Object around(ProceedingJoinPoint joinPoint, AggregateLock aggregateLock) throws Throwable {
+        List<String> keys = resolveKeys(joinPoint, aggregateLock);
+        AggregateLockManager.Handle handle = lockManager.acquire(keys, aggregateLock.waitMillis());
+        try {
+            return joinPoint.proceed();
+        } finally {
+            releaseAfterTransaction(handle);
+        }
+    }
+
+    private void releaseAfterTransaction(AggregateLockManager.Handle handle) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            handle.release();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                handle.release();
+            }
+        });
+    }
+
+    private List<String> resolveKeys(ProceedingJoinPoint joinPoint, AggregateLock aggregateLock) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        MethodBasedEvaluationContext context = new MethodBasedEvaluationContext(
+                joinPoint.getTarget(), signature.getMethod(), joinPoint.getArgs(), NAME_DISCOVERER);
+
+        List<String> keys = new ArrayList<>();
+        for (String keyExpression : aggregateLock.keys()) {
+            Object value = expressionCache.computeIfAbsent(keyExpression, PARSER::parseExpression).getValue(context);
+            if (value instanceof Collection) {
+                ((Collection<?>) value).forEach(item -> keys.add(toKey(item, keyExpression)));
+            } else {
+                keys.add(toKey(value, keyExpression));
+            }
+        }
+        return keys;
+    }
+
+    private static String toKey(Object value, String keyExpression) {
+        if (value == null) {
+            throw new BytzBootException("聚合锁键为空: " + keyExpression);
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,210 @@
+package com.bytz.modules.cms.shared.lock;
+
+import com.bytz.common.exception.BytzBootException;
+import com.bytz.modules.cms.shared.metrics.LatencyHistogram;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 聚合锁管理器
+ * Aggregate Lock Manager
+ *
+ * <p>本地按键哈希到固定数量的公平锁分段，同一聚合的命令在节点内按到达顺序排队，内存占用与聚合数量无关</p>
+ * <p>注册了{@link IDistributedLock}时，取得本地分段后再取分布式锁：节点内排队不占用分布式锁的轮询，跨节点仍然串行</p>
+ * <p>多个键按分段序号、键字典序加锁，避免交叉加锁死锁；当前线程已持有的键不重复加锁</p>
+ */
+@Slf4j
+@Component
+public class AggregateLockManager {
+
+    /**
+     * 本地锁分段数
+     */
+    private static final int STRIPES = 1024;
+
+    /**
+     * 分布式锁租约时长，需大于最长事务时间
+     */
+    private static final long LEASE_MILLIS = 60_000L;
+
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    private final IDistributedLock distributedLock;
+
+    /**
+     * 当前线程已持有的锁键，嵌套调用同一聚合时不重复加锁
+     */
+    private final ThreadLocal<Set<String>> heldKeys = ThreadLocal.withInitial(HashSet::new);
+
+    private final LongAdder acquiredCount = new LongAdder();
+    private final LongAdder contendedCount = new LongAdder();
+    private final LongAdder timeoutCount = new LongAdder();
+    private final AtomicInteger waitingCount = new AtomicInteger();
+    private final LongAccumulator maxWaitMillis = new LongAccumulator(Math::max, 0L);
+    private final LatencyHistogram waitHistogram = new LatencyHistogram();
+
+    public AggregateLockManager(ObjectProvider<IDistributedLock> distributedLock) {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock(true);
+        }
+        this.distributedLock = distributedLock.getIfAvailable();
+        log.info("聚合锁初始化，本地分段数: {}, 分布式锁: {}", STRIPES,
+                this.distributedLock == null ? "未启用" : this.distributedLock.getClass().getSimpleName());
+    }
+
+    /**
+     * 获取一组聚合的锁
+     *
+     * @param keys       锁键
+     * @param waitMillis 最长等待时间（毫秒）
+     * @return 锁句柄，由调用方在同一线程释放
+     * @throws BytzBootException 等待超时或被中断
+     */
+    public Handle acquire(Collection<String> keys, long waitMillis) {
+        TreeSet<String> toLock = new TreeSet<>(keys);
+        toLock.removeAll(heldKeys.get());
+        if (toLock.isEmpty()) {
+            return new Handle(new ArrayList<>(), new ArrayList<>(), null);
+        }
+
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+        TreeSet<Integer> stripeIndexes = new TreeSet<>();
+        toLock.forEach(key -> stripeIndexes.add(stripeOf(key)));
+
+        List<ReentrantLock> lockedStripes = new ArrayList<>(stripeIndexes.size());
+        List<String> lockedKeys = new ArrayList<>(toLock.size());
+        String owner = distributedLock == null ? null : UUID.randomUUID().toString();
+        boolean contended = false;
+        boolean acquired = false;
+        waitingCount.incrementAndGet();
+        try {
+            for (Integer index : stripeIndexes) {
+                ReentrantLock stripe = stripes[index];
+                if (!stripe.tryLock()) {
+                    contended = true;
+                    if (!stripe.tryLock(remainingNanos(deadlineNanos), TimeUnit.NANOSECONDS)) {
+                        return timeout(toLock);
+                    }
+                }
+                lockedStripes.add(stripe);
+            }
+            if (distributedLock != null) {
+                for (String key : toLock) {
+                    long remainingMillis = TimeUnit.NANOSECONDS.toMillis(remainingNanos(deadlineNanos));
+                    if (!distributedLock.tryLock(key, owner, LEASE_MILLIS, remainingMillis)) {
+                        return timeout(toLock);
+                    }
+                    lockedKeys.add(key);
+                }
+            }
+            acquired = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BytzBootException("等待业务锁被中断，请稍后重试");
+        } finally {
+            waitingCount.decrementAndGet();
+            if (!acquired) {
+                release(lockedStripes, lockedKeys, owner);
+            }
+        }
+
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        acquiredCount.increment();
+        if (contended) {
+            contendedCount.increment();
+        }
+        waitHistogram.record(waitedMillis);
+        maxWaitMillis.accumulate(waitedMillis);
+        heldKeys.get().addAll(toLock);
+        return new Handle(lockedStripes, new ArrayList<>(toLock), owner);
+    }
+
+    /**
+     * 获取统计
+     */
+    public AggregateLockStats getStats() {
+        return new AggregateLockStats(
+                distributedLock != null,
+                acquiredCount.sum(),
+                contendedCount.sum(),
+                timeoutCount.sum(),
+                waitingCount.get(),
+                waitHistogram.getMeanMillis(),
+                waitHistogram.getPercentileMillis(99),
+                maxWaitMillis.get());
+    }
+
+    private Handle timeout(Collection<String> keys) {
+        timeoutCount.increment();
+        log.warn("等待聚合锁超时，键: {}", keys);
+        throw new BytzBootException("业务处理繁忙，请稍后重试");
+    }
+
+    private void release(List<ReentrantLock> lockedStripes, List<String> lockedKeys, String owner) {
+        if (distributedLock != null) {
+            for (String key : lockedKeys) {
+                try {
+                    distributedLock.unlock(key, owner);
+                } catch (Exception e) {
+                    // 释放失败时依靠租约到期
+                    log.error("释放分布式锁失败，键: {}", key, e);
+                }
+            }
+        }
+        for (int i = lockedStripes.size() - 1; i >= 0; i--) {
+            lockedStripes.get(i).unlock();
+        }
+    }
+
+    private static long remainingNanos(long deadlineNanos) {
+        return Math.max(0L, deadlineNanos - System.nanoTime());
+    }
+
+    private static int stripeOf(String key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * 锁句柄
+     */
+    public final class Handle {
+
+        private final List<ReentrantLock> lockedStripes;
+        private final List<String> keys;
+        private final String owner;
+        private boolean released;
+
+        private Handle(List<ReentrantLock> lockedStripes, List<String> keys, String owner) {
+            this.lockedStripes = lockedStripes;
+            this.keys = keys;
+            this.owner = owner;
+        }
+
+        /**
+         * 释放锁，必须在加锁线程调用，重复调用忽略
+         */
+        public void release() {
+            if (released) {
+                return;
+            }
+            released = true;
+            heldKeys.get().removeAll(keys);
+            AggregateLockManager.this.release(lockedStripes, keys, owner);
+        }
+    }
+}
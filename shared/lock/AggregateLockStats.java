@@ -0,0 +1,53 @@
+package com.bytz.modules.cms.shared.lock;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 聚合锁统计
+ * Aggregate Lock Statistics
+ */
+@Data
+@AllArgsConstructor
+public class AggregateLockStats {
+
+    /**
+     * 是否启用分布式锁
+     */
+    private boolean distributed;
+
+    /**
+     * 加锁成功次数
+     */
+    private long acquiredCount;
+
+    /**
+     * 需要排队等待的次数（锁被其他请求持有）
+     */
+    private long contendedCount;
+
+    /**
+     * 等待超时被拒绝的次数
+     */
+    private long timeoutCount;
+
+    /**
+     * 当前排队等待的请求数
+     */
+    private int waitingCount;
+
+    /**
+     * 平均等待时间（毫秒）
+     */
+    private long meanWaitMillis;
+
+    /**
+     * P99等待时间（毫秒，分桶上界，-1表示超过最大分桶）
+     */
+    private long p99WaitMillis;
+
+    /**
+     * 最长等待时间（毫秒）
+     */
+    private long maxWaitMillis;
+}
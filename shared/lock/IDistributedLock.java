@@ -0,0 +1,31 @@
+package com.bytz.modules.cms.shared.lock;
+
+/**
+ * 分布式锁接口
+ * Distributed Lock Interface
+ *
+ * <p>集群部署时注册实现（如基于Redis），聚合锁在本地分段锁之后再获取分布式锁，保证跨节点串行</p>
+ * <p>未注册实现时只使用本地分段锁，适用于单节点部署</p>
+ */
+public interface IDistributedLock {
+
+    /**
+     * 尝试加锁
+     *
+     * @param key         锁键
+     * @param owner       持有者标识，释放时校验
+     * @param leaseMillis 租约时长（毫秒），持有者异常退出时到期自动释放
+     * @param waitMillis  最长等待时间（毫秒）
+     * @return true-加锁成功，false-等待超时
+     * @throws InterruptedException 等待被中断
+     */
+    boolean tryLock(String key, String owner, long leaseMillis, long waitMillis) throws InterruptedException;
+
+    /**
+     * 释放锁，持有者不匹配（如租约已过期被他人获取）时忽略
+     *
+     * @param key   锁键
+     * @param owner 持有者标识
+     */
+    void unlock(String key, String owner);
+}
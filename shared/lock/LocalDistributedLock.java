@@ -0,0 +1,63 @@
+package com.bytz.modules.cms.shared.lock;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 本地分布式锁替身
+ * Local Distributed Lock Stand-in
+ *
+ * <p>联调与测试使用，以进程内租约表模拟分布式锁的持有者校验与租约过期；仅在配置 cms.lock.local-stand-in.enabled=true 时注册</p>
+ * <p>不能跨节点互斥，集群部署需注册真实的{@link IDistributedLock}实现</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "cms.lock.local-stand-in", name = "enabled", havingValue = "true")
+public class LocalDistributedLock implements IDistributedLock {
+
+    private final Map<String, Lease> leases = new HashMap<>();
+
+    @Override
+    public synchronized boolean tryLock(String key, String owner, long leaseMillis, long waitMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + waitMillis;
+        while (true) {
+            long now = System.currentTimeMillis();
+            Lease lease = leases.get(key);
+            if (lease == null || lease.expireAtMillis <= now) {
+                if (lease != null) {
+                    log.warn("锁租约已过期，强制转移，键: {}, 原持有者: {}", key, lease.owner);
+                }
+                leases.put(key, new Lease(owner, now + leaseMillis));
+                return true;
+            }
+            if (now >= deadline) {
+                return false;
+            }
+            // 等到释放通知、租约到期或等待超时
+            wait(Math.max(1L, Math.min(deadline, lease.expireAtMillis) - now));
+        }
+    }
+
+    @Override
+    public synchronized void unlock(String key, String owner) {
+        Lease lease = leases.get(key);
+        if (lease != null && lease.owner.equals(owner)) {
+            leases.remove(key);
+            notifyAll();
+        }
+    }
+
+    private static class Lease {
+        private final String owner;
+        private final long expireAtMillis;
+
+        Lease(String owner, long expireAtMillis) {
+            this.owner = owner;
+            this.expireAtMillis = expireAtMillis;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.bytz.modules.cms.shared.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 延迟直方图
+ * Latency Histogram
+ *
+ * <p>固定分桶计数，记录为无锁累加；分位数取所在桶的上界，精度由分桶决定，适合看板与告警</p>
+ */
+public class LatencyHistogram {
+
+    /**
+     * 分桶上界（毫秒），最后一个桶收纳超过最大上界的记录
+     */
+    private static final long[] BUCKET_BOUNDS_MILLIS = {10, 25, 50, 100, 250, 500, 1_000, 2_500, 5_000, 10_000, 15_000, 30_000};
+
+    private final LongAdder[] buckets = new LongAdder[BUCKET_BOUNDS_MILLIS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalMillis = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * 记录一次延迟
+     *
+     * @param millis 延迟（毫秒）
+     */
+    public void record(long millis) {
+        int index = 0;
+        while (index < BUCKET_BOUNDS_MILLIS.length && millis > BUCKET_BOUNDS_MILLIS[index]) {
+            index++;
+        }
+        buckets[index].increment();
+        count.increment();
+        totalMillis.add(Math.max(0L, millis));
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * 平均延迟（毫秒）
+     */
+    public long getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0L : totalMillis.sum() / n;
+    }
+
+    /**
+     * 分位数延迟（毫秒），取所在桶上界；超过最大上界时返回-1
+     *
+     * @param percentile 分位（0-100）
+     * @return 延迟上界
+     */
+    public long getPercentileMillis(double percentile) {
+        long[] snapshot = new long[buckets.length];
+        long total = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            snapshot[i] = buckets[i].sum();
+            total += snapshot[i];
+        }
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_BOUNDS_MILLIS.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) {
+                return BUCKET_BOUNDS_MILLIS[i];
+            }
+        }
+        return -1L;
+    }
+}
@@ -0,0 +1,100 @@
+package com.bytz.modules.cms.shared.mybatis;
+
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
+import org.apache.ibatis.binding.MapperMethod;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * 批量SQL执行工具
+ * Batch SQL Helper
+ *
+ * <p>基于MyBatis BATCH执行器的批量新增/批量更新，加入当前Spring事务（与ServiceImpl.saveBatch机制一致）</p>
+ * <p>新增：配合连接参数rewriteBatchedStatements=true，驱动会将同一语句的批次改写为多行INSERT</p>
+ * <p>更新：按行返回影响行数，调用方据此校验@Version乐观锁是否命中</p>
+ */
+public final class BatchSqlHelper {
+
+    private static final Log LOG = LogFactory.getLog(BatchSqlHelper.class);
+
+    /**
+     * 默认每批次语句数量
+     */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private BatchSqlHelper() {
+    }
+
+    /**
+     * 批量新增（主键由MyBatis-Plus按@TableId策略回填到实体）
+     *
+     * @param mapperClass Mapper接口
+     * @param entities    持久化对象列表
+     * @param <T>         持久化对象类型
+     */
+    public static <T> void insertBatch(Class<?> mapperClass, List<T> entities) {
+        if (entities == null || entities.isEmpty()) {
+            return;
+        }
+        String statement = SqlHelper.getSqlStatement(mapperClass, SqlMethod.INSERT_ONE);
+        SqlHelper.executeBatch(entities.get(0).getClass(), LOG, sqlSession -> {
+            int size = entities.size();
+            for (int i = 0; i < size; i++) {
+                sqlSession.insert(statement, entities.get(i));
+                if ((i + 1) % DEFAULT_BATCH_SIZE == 0 || i == size - 1) {
+                    sqlSession.flushStatements();
+                }
+            }
+        });
+    }
+
+    /**
+     * 批量按ID更新（走updateById语句，@Version乐观锁插件生效）
+     *
+     * @param mapperClass Mapper接口
+     * @param entities    持久化对象列表
+     * @param <T>         持久化对象类型
+     * @return 与entities一一对应的影响行数
+     */
+    public static <T> int[] updateBatchById(Class<?> mapperClass, List<T> entities) {
+        int[] updateCounts = new int[entities == null ? 0 : entities.size()];
+        if (updateCounts.length == 0) {
+            return updateCounts;
+        }
+        String statement = SqlHelper.getSqlStatement(mapperClass, SqlMethod.UPDATE_BY_ID);
+        SqlHelper.executeBatch(entities.get(0).getClass(), LOG, sqlSession -> {
+            int size = entities.size();
+            int offset = 0;
+            for (int i = 0; i < size; i++) {
+                MapperMethod.ParamMap<T> param = new MapperMethod.ParamMap<>();
+                param.put(Constants.ENTITY, entities.get(i));
+                sqlSession.update(statement, param);
+                if ((i + 1) % DEFAULT_BATCH_SIZE == 0 || i == size - 1) {
+                    for (BatchResult batchResult : sqlSession.flushStatements()) {
+                        for (int count : batchResult.getUpdateCounts()) {
+                            updateCounts[offset++] = count;
+                        }
+                    }
+                }
+            }
+        });
+        return updateCounts;
+    }
+
+    /**
+     * 判断单行更新是否命中
+     * 驱动无法返回精确行数时（SUCCESS_NO_INFO）视为命中
+     *
+     * @param updateCount 影响行数
+     * @return true表示命中
+     */
+    public static boolean isUpdated(int updateCount) {
+        return updateCount > 0 || updateCount == Statement.SUCCESS_NO_INFO;
+    }
+}
@@ -0,0 +1,67 @@
+package com.bytz.modules.cms.shared.pagination;
+
+import com.bytz.common.exception.BytzBootException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * 游标分页位置
+ * Seek Cursor
+ *
+ * <p>记录上一页最后一行的(create_time, id)，下一页从该位置之后继续读取</p>
+ * <p>对外以URL安全的Base64字符串传递，调用方不应解析其内容</p>
+ */
+@Data
+@AllArgsConstructor
+public class SeekCursor {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 最后一行创建时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 最后一行ID
+     */
+    private String id;
+
+    /**
+     * 编码为不透明游标字符串
+     *
+     * @return 游标字符串
+     */
+    public String encode() {
+        String raw = createTime + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标字符串
+     *
+     * @param cursor 游标字符串（为空表示第一页）
+     * @return 游标位置，第一页返回null
+     */
+    public static SeekCursor decode(String cursor) {
+        if (StringUtils.isBlank(cursor)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int index = raw.indexOf(SEPARATOR);
+            if (index <= 0 || index == raw.length() - 1) {
+                throw new BytzBootException("无效的分页游标");
+            }
+            return new SeekCursor(LocalDateTime.parse(raw.substring(0, index)), raw.substring(index + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BytzBootException("无效的分页游标");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.bytz.modules.cms.shared.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 游标分页结果
+ * Seek Page
+ *
+ * @param <T> 记录类型
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeekPage<T> {
+
+    /**
+     * 当前页记录
+     */
+    private List<T> records;
+
+    /**
+     * 每页条数
+     */
+    private long size;
+
+    /**
+     * 下一页游标（没有下一页时为null）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+
+    /**
+     * 总条数（未请求统计时为null；来自短时缓存，翻页期间可能与实时数量略有偏差）
+     */
+    private Long total;
+}
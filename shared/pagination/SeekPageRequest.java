@@ -0,0 +1,32 @@
+package com.bytz.modules.cms.shared.pagination;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 游标分页参数
+ * Seek Page Request
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SeekPageRequest {
+
+    /**
+     * 上一页返回的游标，第一页为空
+     */
+    private String cursor;
+
+    /**
+     * 每页条数
+     */
+    private Integer size;
+
+    /**
+     * 是否返回总条数（走缓存，相同查询条件在有效期内只统计一次）
+     */
+    private Boolean searchCount;
+}
@@ -0,0 +1,137 @@
+package com.bytz.modules.cms.shared.pagination;
+
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.bytz.common.system.query.MPJLambdaWrapperEx;
+import com.bytz.modules.cms.shared.cache.CacheStats;
+import com.bytz.modules.cms.shared.cache.LocalLoadingCache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * 游标分页执行器
+ * Seek Paginator
+ *
+ * <p>按(create_time, id)降序做键集分页：下一页条件为 create_time &lt; ? OR (create_time = ? AND id &lt; ?)，
+ * 配合(create_time, id)索引，任意深度的翻页都只扫描一页数据，不再依赖OFFSET</p>
+ * <p>每页多取一行判断是否还有下一页，不执行COUNT</p>
+ * <p>需要总条数时按查询条件（SQL片段+参数值）缓存统计结果，同一筛选条件翻页期间只统计一次</p>
+ * <p>调用方构建的查询条件必须按 create_time DESC, id DESC 排序</p>
+ *
+ * @param <T> 主表持久化对象类型
+ * @param <V> 返回记录类型
+ */
+public class SeekPaginator<T, V> {
+
+    /**
+     * 默认每页条数
+     */
+    public static final int DEFAULT_SIZE = 20;
+
+    /**
+     * 每页条数上限
+     */
+    public static final int MAX_SIZE = 500;
+
+    private static final int COUNT_CACHE_MAXIMUM_SIZE = 1_000;
+    private static final long COUNT_CACHE_TTL_MILLIS = 60_000L;
+
+    private final SFunction<T, LocalDateTime> createTimeColumn;
+    private final SFunction<T, String> idColumn;
+    private final Function<V, LocalDateTime> createTimeOf;
+    private final Function<V, String> idOf;
+    private final LocalLoadingCache<String, Long> countCache;
+
+    /**
+     * @param name             名称（用于缓存统计）
+     * @param createTimeColumn 主表创建时间列
+     * @param idColumn         主表ID列
+     * @param createTimeOf     从返回记录读取创建时间
+     * @param idOf             从返回记录读取ID
+     */
+    public SeekPaginator(String name,
+                         SFunction<T, LocalDateTime> createTimeColumn,
+                         SFunction<T, String> idColumn,
+                         Function<V, LocalDateTime> createTimeOf,
+                         Function<V, String> idOf) {
+        this.createTimeColumn = createTimeColumn;
+        this.idColumn = idColumn;
+        this.createTimeOf = createTimeOf;
+        this.idOf = idOf;
+        this.countCache = new LocalLoadingCache<>(name + "SeekCount", COUNT_CACHE_MAXIMUM_SIZE, COUNT_CACHE_TTL_MILLIS);
+    }
+
+    /**
+     * 执行游标分页查询
+     *
+     * @param request      分页参数
+     * @param queryWrapper 已构建好筛选、关联和排序的查询条件
+     * @param counter      统计总条数
+     * @param lister       查询记录
+     * @return 游标分页结果
+     */
+    public SeekPage<V> query(SeekPageRequest request,
+                             MPJLambdaWrapperEx<T> queryWrapper,
+                             ToLongFunction<MPJLambdaWrapperEx<T>> counter,
+                             Function<MPJLambdaWrapperEx<T>, List<V>> lister) {
+        int size = resolveSize(request.getSize());
+
+        // 统计在追加游标条件之前执行，统计的是整个筛选结果
+        Long total = null;
+        if (Boolean.TRUE.equals(request.getSearchCount())) {
+            total = countCache.get(countKey(queryWrapper), key -> counter.applyAsLong(queryWrapper));
+        }
+
+        SeekCursor cursor = SeekCursor.decode(request.getCursor());
+        if (cursor != null) {
+            queryWrapper.and(w -> w
+                    .lt(createTimeColumn, cursor.getCreateTime())
+                    .or(o -> o.eq(createTimeColumn, cursor.getCreateTime()).lt(idColumn, cursor.getId())));
+        }
+        queryWrapper.last("limit " + (size + 1));
+
+        List<V> records = lister.apply(queryWrapper);
+        boolean hasMore = records.size() > size;
+        if (hasMore) {
+            records = records.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            V last = records.get(records.size() - 1);
+            nextCursor = new SeekCursor(createTimeOf.apply(last), idOf.apply(last)).encode();
+        }
+
+        return SeekPage.<V>builder()
+                .records(records)
+                .size(size)
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .total(total)
+                .build();
+    }
+
+    /**
+     * 获取总条数缓存统计
+     */
+    public CacheStats countCacheStats() {
+        return countCache.stats();
+    }
+
+    private static int resolveSize(Integer size) {
+        if (size == null || size <= 0) {
+            return DEFAULT_SIZE;
+        }
+        return Math.min(size, MAX_SIZE);
+    }
+
+    private String countKey(MPJLambdaWrapperEx<T> queryWrapper) {
+        // 参数名按生成顺序稳定，排序后拼接参数值，相同筛选条件（含数据权限）得到相同的键
+        Map<String, Object> params = new TreeMap<>(queryWrapper.getParamNameValuePairs());
+        return queryWrapper.getSqlSegment() + params;
+    }
+}
@@ -0,0 +1,189 @@
+package com.bytz.modules.cms.shared.resilience;
+
+import java.util.Arrays;
+
+/**
+ * 熔断器
+ * Circuit Breaker
+ *
+ * <p>按最近{@code windowSize}次调用的失败率判断：调用数达到{@code minimumCalls}且失败率不低于阈值时打开</p>
+ * <p>打开后拒绝调用，经过{@code openMillis}后进入半开，只放行一次探测调用：成功则关闭并清空窗口，失败则重新打开</p>
+ * <p>调用方先{@link #tryAcquirePermission()}，完成后调用{@link #onSuccess()}/{@link #onFailure()}，
+ * 取得许可但未实际调用时调用{@link #releasePermission()}</p>
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断状态
+     */
+    public enum State {
+        /**
+         * 关闭 - 正常放行
+         */
+        CLOSED,
+        /**
+         * 打开 - 拒绝调用
+         */
+        OPEN,
+        /**
+         * 半开 - 放行探测调用
+         */
+        HALF_OPEN
+    }
+
+    private final int minimumCalls;
+    private final int failureRateThreshold;
+    private final long openMillis;
+
+    /**
+     * 最近调用结果环形窗口，true-失败
+     */
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCalls;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openUntilMillis;
+    private boolean probeInFlight;
+    private long openedCount;
+
+    /**
+     * @param windowSize           统计窗口调用数
+     * @param minimumCalls         开始判断前的最少调用数
+     * @param failureRateThreshold 打开阈值（失败率百分比）
+     * @param openMillis           打开持续时间（毫秒）
+     */
+    public CircuitBreaker(int windowSize, int minimumCalls, int failureRateThreshold, long openMillis) {
+        if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) {
+            throw new IllegalArgumentException("minimumCalls must be in (0, windowSize]");
+        }
+        this.window = new boolean[windowSize];
+        this.minimumCalls = minimumCalls;
+        this.failureRateThreshold = failureRateThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 申请调用许可
+     *
+     * @return true-可以调用，false-熔断中
+     */
+    public synchronized boolean tryAcquirePermission() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (System.currentTimeMillis() < openUntilMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    /**
+     * 归还未使用的许可（取得许可后未实际调用）
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN) {
+            probeInFlight = false;
+        }
+    }
+
+    /**
+     * 记录调用成功
+     */
+    public synchronized void onSuccess() {
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            probeInFlight = false;
+            resetWindow();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    /**
+     * 记录调用失败
+     */
+    public synchronized void onFailure() {
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+        if (state == State.CLOSED) {
+            record(true);
+            if (windowCalls >= minimumCalls && windowFailures * 100 >= failureRateThreshold * windowCalls) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * 当前是否放行调用（只读判断，不占用半开探测许可）
+     */
+    public synchronized boolean isCallPermitted() {
+        if (state == State.OPEN) {
+            return System.currentTimeMillis() >= openUntilMillis;
+        }
+        return state == State.CLOSED || !probeInFlight;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 窗口内失败率（百分比）
+     */
+    public synchronized int getFailureRate() {
+        return windowCalls == 0 ? 0 : windowFailures * 100 / windowCalls;
+    }
+
+    /**
+     * 累计打开次数
+     */
+    public synchronized long getOpenedCount() {
+        return openedCount;
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openUntilMillis = System.currentTimeMillis() + openMillis;
+        probeInFlight = false;
+        openedCount++;
+        resetWindow();
+    }
+
+    private void record(boolean failure) {
+        if (windowCalls == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCalls++;
+        }
+        window[windowIndex] = failure;
+        if (failure) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void resetWindow() {
+        Arrays.fill(window, false);
+        windowIndex = 0;
+        windowCalls = 0;
+        windowFailures = 0;
+    }
+}
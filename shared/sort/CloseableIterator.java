@@ -0,0 +1,45 @@
+package com.bytz.modules.cms.shared.sort;
+
+import java.util.Iterator;
+
+/**
+ * 可关闭迭代器
+ * Closeable Iterator
+ *
+ * <p>背后持有文件句柄等资源的迭代器，使用方须在try-with-resources中遍历</p>
+ *
+ * @param <T> 元素类型
+ */
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
+
+    /**
+     * 释放资源，不抛出受检异常
+     */
+    @Override
+    void close();
+
+    /**
+     * 包装不持有资源的迭代器
+     *
+     * @param iterator 迭代器
+     * @param <T>      元素类型
+     * @return 可关闭迭代器
+     */
+    static <T> CloseableIterator<T> of(Iterator<T> iterator) {
+        return new CloseableIterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return iterator.next();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+}
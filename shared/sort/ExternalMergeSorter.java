@@ -0,0 +1,251 @@
+package com.bytz.modules.cms.shared.sort;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * 外部归并排序器
+ * External Merge Sorter
+ *
+ * <p>逐条接收记录，内存缓冲满{@code runSize}条后排序并写出为一个有序段文件；取结果时对各段做K路归并，逐条输出</p>
+ * <p>段数超过{@code mergeFanIn}时先分组归并为更大的段，同时打开的文件数不超过归并路数</p>
+ * <p>记录总数不超过一个段时不落盘，直接在内存排序</p>
+ * <p>内存占用与记录总数无关，只与段大小和归并路数相关；关闭时删除全部段文件</p>
+ * <p>非线程安全，一个排序器只在一个线程内使用</p>
+ *
+ * @param <T> 记录类型
+ */
+public class ExternalMergeSorter<T> implements AutoCloseable {
+
+    /**
+     * 默认每段记录数
+     */
+    public static final int DEFAULT_RUN_SIZE = 100_000;
+
+    /**
+     * 默认归并路数
+     */
+    public static final int DEFAULT_MERGE_FAN_IN = 64;
+
+    private static final int IO_BUFFER_SIZE = 64 * 1024;
+
+    private final Comparator<T> comparator;
+    private final LineCodec<T> codec;
+    private final Path workDir;
+    private final String prefix;
+    private final int runSize;
+    private final int mergeFanIn;
+
+    private final List<T> buffer;
+    private final List<Path> runs = new ArrayList<>();
+    private CloseableIterator<T> output;
+    private long count;
+
+    public ExternalMergeSorter(Comparator<T> comparator, LineCodec<T> codec, Path workDir, String prefix) {
+        this(comparator, codec, workDir, prefix, DEFAULT_RUN_SIZE, DEFAULT_MERGE_FAN_IN);
+    }
+
+    public ExternalMergeSorter(Comparator<T> comparator, LineCodec<T> codec, Path workDir, String prefix,
+                               int runSize, int mergeFanIn) {
+        if (runSize <= 0 || mergeFanIn < 2) {
+            throw new IllegalArgumentException("runSize must be positive and mergeFanIn at least 2");
+        }
+        this.comparator = comparator;
+        this.codec = codec;
+        this.workDir = workDir;
+        this.prefix = prefix;
+        this.runSize = runSize;
+        this.mergeFanIn = mergeFanIn;
+        this.buffer = new ArrayList<>(Math.min(runSize, DEFAULT_RUN_SIZE));
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @param record 记录
+     */
+    public void add(T record) {
+        if (output != null) {
+            throw new IllegalStateException("sorter already produced its output");
+        }
+        buffer.add(record);
+        count++;
+        if (buffer.size() >= runSize) {
+            spill();
+        }
+    }
+
+    /**
+     * 已追加记录数
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * 结束追加并返回有序结果，只能调用一次
+     *
+     * @return 按比较器升序的记录迭代器，随排序器关闭
+     */
+    public CloseableIterator<T> sorted() {
+        if (output != null) {
+            throw new IllegalStateException("sorted() may only be called once");
+        }
+        if (runs.isEmpty()) {
+            buffer.sort(comparator);
+            output = CloseableIterator.of(buffer.iterator());
+            return output;
+        }
+        if (!buffer.isEmpty()) {
+            spill();
+        }
+        while (runs.size() > mergeFanIn) {
+            List<Path> group = new ArrayList<>(runs.subList(0, mergeFanIn));
+            runs.subList(0, mergeFanIn).clear();
+            Path merged = newRunFile();
+            try (CloseableIterator<T> iterator = new MergeIterator(group)) {
+                writeRun(merged, iterator);
+            }
+            group.forEach(ExternalMergeSorter::deleteQuietly);
+            runs.add(merged);
+        }
+        output = new MergeIterator(runs);
+        return output;
+    }
+
+    @Override
+    public void close() {
+        if (output != null) {
+            output.close();
+        }
+        buffer.clear();
+        runs.forEach(ExternalMergeSorter::deleteQuietly);
+        runs.clear();
+    }
+
+    private void spill() {
+        buffer.sort(comparator);
+        Path run = newRunFile();
+        writeRun(run, buffer.iterator());
+        runs.add(run);
+        buffer.clear();
+    }
+
+    private Path newRunFile() {
+        try {
+            return Files.createTempFile(workDir, prefix, ".run");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeRun(Path run, Iterator<T> records) {
+        try (BufferedWriter writer = new BufferedWriter(Files.newBufferedWriter(run, StandardCharsets.UTF_8), IO_BUFFER_SIZE)) {
+            while (records.hasNext()) {
+                writer.write(codec.encode(records.next()));
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+            // 临时文件删除失败不影响结果
+        }
+    }
+
+    /**
+     * 段游标：一个段文件的读取器及其当前记录
+     */
+    private final class RunCursor {
+
+        private final BufferedReader reader;
+        private T current;
+
+        private RunCursor(Path run) throws IOException {
+            this.reader = new BufferedReader(Files.newBufferedReader(run, StandardCharsets.UTF_8), IO_BUFFER_SIZE);
+        }
+
+        private boolean advance() throws IOException {
+            String line = reader.readLine();
+            current = line == null ? null : codec.decode(line);
+            return current != null;
+        }
+
+        private void close() {
+            try {
+                reader.close();
+            } catch (IOException ignored) {
+                // 只读句柄关闭失败无需处理
+            }
+        }
+    }
+
+    /**
+     * K路归并迭代器：小顶堆按各段当前记录排序，每次弹出最小者并推进其所在段
+     */
+    private final class MergeIterator implements CloseableIterator<T> {
+
+        private final List<RunCursor> cursors = new ArrayList<>();
+        private final PriorityQueue<RunCursor> heap;
+
+        private MergeIterator(List<Path> runFiles) {
+            this.heap = new PriorityQueue<>(Math.max(1, runFiles.size()), (a, b) -> comparator.compare(a.current, b.current));
+            try {
+                for (Path run : runFiles) {
+                    RunCursor cursor = new RunCursor(run);
+                    cursors.add(cursor);
+                    if (cursor.advance()) {
+                        heap.add(cursor);
+                    }
+                }
+            } catch (IOException e) {
+                close();
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heap.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            RunCursor cursor = heap.poll();
+            if (cursor == null) {
+                throw new NoSuchElementException();
+            }
+            T record = cursor.current;
+            try {
+                if (cursor.advance()) {
+                    heap.add(cursor);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return record;
+        }
+
+        @Override
+        public void close() {
+            heap.clear();
+            cursors.forEach(RunCursor::close);
+        }
+    }
+}
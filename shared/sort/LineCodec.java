@@ -0,0 +1,28 @@
+package com.bytz.modules.cms.shared.sort;
+
+/**
+ * 单行编解码器
+ * Line Codec
+ *
+ * <p>外部排序落盘时每条记录占一行，编码结果不得包含换行符</p>
+ *
+ * @param <T> 记录类型
+ */
+public interface LineCodec<T> {
+
+    /**
+     * 编码为一行文本（不含换行符）
+     *
+     * @param record 记录
+     * @return 行文本
+     */
+    String encode(T record);
+
+    /**
+     * 由一行文本解码
+     *
+     * @param line 行文本
+     * @return 记录
+     */
+    T decode(String line);
+}
@@ -0,0 +1,193 @@
+package com.bytz.modules.cms.shared.timer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 分层时间轮
+ * Hierarchical Timing Wheel
+ *
+ * <p>按到期时间登记键，推进时返回已到期的键；第0层每格一个tick，第i层每格为第i-1层一整圈</p>
+ * <p>登记与到期均为O(1)（高层格子在时间推进到该格时整体下沉到低层），不随登记数量增长而扫描</p>
+ * <p>到期只会延后不会提前，最大延后一个tick</p>
+ * <p>同一个键重复登记时以最后一次为准，旧登记惰性失效；超出全部层级跨度的到期时间拒绝登记</p>
+ * <p>方法均已同步，可跨线程调用</p>
+ *
+ * @param <K> 键类型
+ */
+public class HierarchicalTimingWheel<K> {
+
+    private final long tickMillis;
+    private final int wheelSize;
+    private final long[] levelTicks;
+    private final ArrayDeque<Entry<K>>[][] buckets;
+
+    /**
+     * 键 → 当前有效的到期时间，用于去重与惰性取消
+     */
+    private final Map<K, Long> deadlines = new HashMap<>();
+
+    /**
+     * 当前时间（tick对齐），早于该时间的到期均已触发
+     */
+    private long currentTime;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int levels, long startMillis) {
+        if (tickMillis <= 0 || wheelSize < 2 || levels < 1) {
+            throw new IllegalArgumentException("时间轮参数不合法");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.levelTicks = new long[levels];
+        this.buckets = new ArrayDeque[levels][wheelSize];
+        long tick = tickMillis;
+        for (int level = 0; level < levels; level++) {
+            levelTicks[level] = tick;
+            for (int slot = 0; slot < wheelSize; slot++) {
+                buckets[level][slot] = new ArrayDeque<>();
+            }
+            tick = Math.multiplyExact(tick, wheelSize);
+        }
+        this.currentTime = startMillis - startMillis % tickMillis;
+    }
+
+    /**
+     * 登记到期时间
+     *
+     * @param key            键
+     * @param deadlineMillis 到期时间（毫秒时间戳）
+     * @return false表示超出时间轮跨度未登记
+     */
+    public synchronized boolean schedule(K key, long deadlineMillis) {
+        Long existing = deadlines.get(key);
+        if (existing != null && existing == deadlineMillis) {
+            return true;
+        }
+        if (deadlineMillis >= currentTime + levelTicks[levelTicks.length - 1] * wheelSize) {
+            return false;
+        }
+        deadlines.put(key, deadlineMillis);
+        place(new Entry<>(key, deadlineMillis), null);
+        return true;
+    }
+
+    /**
+     * 取消登记
+     *
+     * @param key 键
+     * @return true表示取消了有效登记
+     */
+    public synchronized boolean cancel(K key) {
+        return deadlines.remove(key) != null;
+    }
+
+    /**
+     * 是否已登记
+     */
+    public synchronized boolean contains(K key) {
+        return deadlines.containsKey(key);
+    }
+
+    /**
+     * 当前有效登记数
+     */
+    public synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * 时间轮可登记的最大到期时间（不含）
+     */
+    public synchronized long horizonMillis() {
+        return currentTime + levelTicks[levelTicks.length - 1] * wheelSize;
+    }
+
+    /**
+     * 推进时间轮到指定时间
+     *
+     * @param nowMillis 当前时间（毫秒时间戳）
+     * @return 本次到期的键
+     */
+    public synchronized List<K> advance(long nowMillis) {
+        List<K> expired = new ArrayList<>();
+        while (currentTime + tickMillis <= nowMillis) {
+            // 当前tick的第0层格子到期
+            drain(buckets[0][slot(0, currentTime)], expired);
+            currentTime += tickMillis;
+            // 跨过高层格子边界时，自上而下将该格下沉到低层
+            for (int level = levelTicks.length - 1; level >= 1; level--) {
+                if (currentTime % levelTicks[level] == 0) {
+                    ArrayDeque<Entry<K>> bucket = buckets[level][slot(level, currentTime)];
+                    int count = bucket.size();
+                    for (int i = 0; i < count; i++) {
+                        place(bucket.poll(), expired);
+                    }
+                }
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 放入能容纳该到期时间的最低层；已到期的直接收集
+     */
+    private void place(Entry<K> entry, List<K> expired) {
+        if (!isLive(entry)) {
+            return;
+        }
+        if (entry.deadline < currentTime) {
+            if (expired != null) {
+                deadlines.remove(entry.key);
+                expired.add(entry.key);
+            } else {
+                // 登记时已过期，放入当前tick，下一次推进触发
+                buckets[0][slot(0, currentTime)].add(entry);
+            }
+            return;
+        }
+        for (int level = 0; level < levelTicks.length; level++) {
+            long tick = levelTicks[level];
+            long levelTime = currentTime - currentTime % tick;
+            if (entry.deadline < levelTime + tick * wheelSize) {
+                buckets[level][slot(level, entry.deadline)].add(entry);
+                return;
+            }
+        }
+        // 超出跨度（schedule已拦截，此处防御）
+        deadlines.remove(entry.key);
+    }
+
+    private void drain(ArrayDeque<Entry<K>> bucket, List<K> expired) {
+        Entry<K> entry;
+        while ((entry = bucket.poll()) != null) {
+            if (isLive(entry)) {
+                deadlines.remove(entry.key);
+                expired.add(entry.key);
+            }
+        }
+    }
+
+    private boolean isLive(Entry<K> entry) {
+        Long deadline = deadlines.get(entry.key);
+        return deadline != null && deadline == entry.deadline;
+    }
+
+    private int slot(int level, long timeMillis) {
+        return (int) ((timeMillis / levelTicks[level]) % wheelSize);
+    }
+
+    private static final class Entry<K> {
+
+        private final K key;
+        private final long deadline;
+
+        private Entry(K key, long deadline) {
+            this.key = key;
+            this.deadline = deadline;
+        }
+    }
+}